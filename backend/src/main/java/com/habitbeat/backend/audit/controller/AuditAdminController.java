@@ -0,0 +1,34 @@
+package com.habitbeat.backend.audit.controller;
+
+import com.habitbeat.backend.audit.dto.AuditEventPageResponse;
+import com.habitbeat.backend.audit.service.AuditQueryService;
+import com.habitbeat.backend.auth.util.AdminGuard;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/admin/audit-events")
+@RequiredArgsConstructor
+public class AuditAdminController {
+    private final AuditQueryService auditQueryService;
+    private final AdminGuard adminGuard;
+
+    @GetMapping
+    public ResponseEntity<AuditEventPageResponse> search(
+            @RequestParam(required = false) UUID userId,
+            @RequestParam(required = false) String ip,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest request) {
+        adminGuard.requireAdmin(request);
+        return ResponseEntity.ok(auditQueryService.search(userId, ip, from, to, cursor, limit));
+    }
+}
@@ -0,0 +1,11 @@
+package com.habitbeat.backend.audit.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class AuditEventPageResponse {
+    private List<AuditEventResponse> events;
+    private String nextCursor;
+}
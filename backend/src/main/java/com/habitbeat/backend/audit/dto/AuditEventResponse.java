@@ -0,0 +1,18 @@
+package com.habitbeat.backend.audit.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+public class AuditEventResponse {
+    private UUID id;
+    private LocalDateTime occurredAt;
+    private String type;
+    private UUID userId;
+    private String email;
+    private String ip;
+    private String userAgent;
+    private String detail;
+}
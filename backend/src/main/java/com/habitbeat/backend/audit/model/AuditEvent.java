@@ -0,0 +1,15 @@
+package com.habitbeat.backend.audit.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record AuditEvent(
+        UUID id,
+        LocalDateTime occurredAt,
+        AuditEventType type,
+        UUID userId,
+        String email,
+        String ip,
+        String userAgent,
+        String detail) {
+}
@@ -0,0 +1,16 @@
+package com.habitbeat.backend.audit.model;
+
+public enum AuditEventType {
+    SIGNUP,
+    EMAIL_VERIFIED,
+    LOGIN_SUCCEEDED,
+    LOGIN_FAILED,
+    LOGIN_LOCKED,
+    OAUTH_LOGIN_SUCCEEDED,
+    REFRESH_ROTATED,
+    LOGOUT,
+    LOGOUT_ALL,
+    PASSWORD_RESET_REQUESTED,
+    PASSWORD_RESET_COMPLETED,
+    DATA_EXPORTED
+}
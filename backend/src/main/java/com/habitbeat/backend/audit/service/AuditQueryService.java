@@ -0,0 +1,108 @@
+package com.habitbeat.backend.audit.service;
+
+import com.habitbeat.backend.audit.dto.AuditEventPageResponse;
+import com.habitbeat.backend.audit.dto.AuditEventResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class AuditQueryService {
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final Duration DEFAULT_WINDOW = Duration.ofDays(7);
+
+    private static final RowMapper<AuditEventResponse> ROW_MAPPER = (rs, rowNum) -> {
+        AuditEventResponse event = new AuditEventResponse();
+        event.setId(rs.getObject("id", UUID.class));
+        event.setOccurredAt(rs.getTimestamp("occurred_at").toLocalDateTime());
+        event.setType(rs.getString("event_type"));
+        event.setUserId(rs.getObject("user_id", UUID.class));
+        event.setEmail(rs.getString("email"));
+        event.setIp(rs.getString("ip"));
+        event.setUserAgent(rs.getString("user_agent"));
+        event.setDetail(rs.getString("detail"));
+        return event;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Newest-first keyset page. The time range is always bounded so Postgres prunes to the
+     * relevant monthly partitions, and each filter maps to a (key, occurred_at, id) index.
+     */
+    public AuditEventPageResponse search(UUID userId, String ip, LocalDateTime from, LocalDateTime to,
+                                         String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        LocalDateTime rangeEnd = to != null ? to : LocalDateTime.now();
+        LocalDateTime rangeStart = from != null ? from : rangeEnd.minus(DEFAULT_WINDOW);
+        if (!rangeStart.isBefore(rangeEnd)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, occurred_at, event_type, user_id, email, ip, user_agent, detail FROM audit_events " +
+                "WHERE occurred_at >= ? AND occurred_at < ?");
+        List<Object> args = new ArrayList<>(List.of(Timestamp.valueOf(rangeStart), Timestamp.valueOf(rangeEnd)));
+        if (userId != null) {
+            sql.append(" AND user_id = ?");
+            args.add(userId);
+        }
+        if (ip != null && !ip.isBlank()) {
+            sql.append(" AND ip = ?");
+            args.add(ip);
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            sql.append(" AND (occurred_at, id) < (?, ?)");
+            try {
+                args.add(Timestamp.valueOf(LocalDateTime.parse(position[0])));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            args.add(UUID.fromString(position[1]));
+        }
+        sql.append(" ORDER BY occurred_at DESC, id DESC LIMIT ?");
+        args.add(pageSize + 1);
+
+        List<AuditEventResponse> rows = jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+
+        AuditEventPageResponse page = new AuditEventPageResponse();
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            AuditEventResponse last = rows.get(pageSize - 1);
+            page.setNextCursor(encodeCursor(last.getOccurredAt(), last.getId()));
+        }
+        page.setEvents(rows);
+        return page;
+    }
+
+    private String encodeCursor(LocalDateTime occurredAt, UUID id) {
+        String raw = occurredAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.habitbeat.backend.audit.service;
+
+import com.habitbeat.backend.audit.model.AuditEvent;
+import com.habitbeat.backend.audit.model.AuditEventType;
+import com.habitbeat.backend.common.concurrent.MpscRingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Entry point for security audit events. Recording is a lock-free enqueue onto a bounded ring
+ * buffer and never touches the database on the request thread; AuditWriter persists in batches.
+ * When the buffer is full the event is dropped and counted rather than slowing down auth.
+ * Events recorded inside a transaction are only enqueued once it commits, so actions that roll
+ * back never show up in the log.
+ */
+@Service
+public class AuditService {
+    private static final int MAX_USER_AGENT_LENGTH = 512;
+
+    private final MpscRingBuffer<AuditEvent> buffer;
+    private final Counter recorded;
+    private final Counter dropped;
+
+    public AuditService(MeterRegistry meterRegistry, @Value("${audit.buffer-capacity:65536}") int capacity) {
+        this.buffer = new MpscRingBuffer<>(capacity);
+        this.recorded = Counter.builder("audit.events.recorded").register(meterRegistry);
+        this.dropped = Counter.builder("audit.events.dropped")
+                .description("Audit events lost because the buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("audit.buffer.size", buffer, MpscRingBuffer::size).register(meterRegistry);
+        Gauge.builder("audit.buffer.capacity", buffer, MpscRingBuffer::capacity).register(meterRegistry);
+    }
+
+    public void record(AuditEventType type, UUID userId, String email, String ip, String userAgent) {
+        record(type, userId, email, ip, userAgent, null);
+    }
+
+    public void record(AuditEventType type, UUID userId, String email, String ip, String userAgent, String detail) {
+        record(LocalDateTime.now(), type, userId, email, ip, userAgent, detail);
+    }
+
+    /**
+     * For events recorded after the fact, such as from a domain event handler.
+     */
+    public void record(LocalDateTime occurredAt, AuditEventType type, UUID userId, String email, String ip,
+                       String userAgent, String detail) {
+        AuditEvent event = new AuditEvent(UUID.randomUUID(), occurredAt, type, userId, email, ip,
+                userAgent != null && userAgent.length() > MAX_USER_AGENT_LENGTH
+                        ? userAgent.substring(0, MAX_USER_AGENT_LENGTH) : userAgent,
+                detail);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(event);
+            }
+        });
+    }
+
+    private void enqueue(AuditEvent event) {
+        if (buffer.offer(event)) {
+            recorded.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    int drain(Consumer<AuditEvent> sink, int maxEvents) {
+        return buffer.drain(sink, maxEvents);
+    }
+}
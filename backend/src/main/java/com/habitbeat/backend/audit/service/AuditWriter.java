@@ -0,0 +1,87 @@
+package com.habitbeat.backend.audit.service;
+
+import com.habitbeat.backend.audit.model.AuditEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Background writer that drains the audit buffer and persists events with JDBC batch inserts
+ * into the partitioned audit_events table.
+ */
+@Component
+@Slf4j
+public class AuditWriter {
+    private static final String INSERT_SQL = "INSERT INTO audit_events " +
+            "(id, occurred_at, event_type, user_id, email, ip, user_agent, detail) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final AuditService auditService;
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final Counter written;
+    private final Counter failed;
+    private final Timer flushTimer;
+    // The buffer allows a single consumer; the shutdown flush must not overlap a scheduled one
+    private final ReentrantLock drainLock = new ReentrantLock();
+
+    public AuditWriter(AuditService auditService, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                       @Value("${audit.batch-size:500}") int batchSize) {
+        this.auditService = auditService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.written = Counter.builder("audit.events.written").register(meterRegistry);
+        this.failed = Counter.builder("audit.events.failed")
+                .description("Audit events lost because the batch insert failed")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("audit.flush").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${audit.flush-interval-ms:250}")
+    public void flush() {
+        drainLock.lock();
+        try {
+            List<AuditEvent> batch = new ArrayList<>(batchSize);
+            while (auditService.drain(batch::add, batchSize) > 0) {
+                flushTimer.record(() -> writeBatch(batch));
+                batch.clear();
+            }
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void writeBatch(List<AuditEvent> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, event) -> {
+                ps.setObject(1, event.id());
+                ps.setTimestamp(2, Timestamp.valueOf(event.occurredAt()));
+                ps.setString(3, event.type().name());
+                ps.setObject(4, event.userId());
+                ps.setString(5, event.email());
+                ps.setString(6, event.ip());
+                ps.setString(7, event.userAgent());
+                ps.setString(8, event.detail());
+            });
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            failed.increment(batch.size());
+            log.error("Failed to persist {} audit events", batch.size(), e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.habitbeat.backend.auth.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "admin")
+@Data
+public class AdminProperties {
+    private List<String> emails = new ArrayList<>();
+}
@@ -13,6 +13,7 @@ public class JwtProperties {
     private String signingKey;
     private Duration accessTokenExpiry = Duration.ofMinutes(15);
     private Duration refreshTokenExpiry = Duration.ofDays(30);
+    private Duration refreshReuseWindow = Duration.ofSeconds(10);
     private int refreshTokenBytes = 32;
     private String cookieDomain;
 }
\ No newline at end of file
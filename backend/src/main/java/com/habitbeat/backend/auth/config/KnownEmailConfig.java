@@ -0,0 +1,25 @@
+package com.habitbeat.backend.auth.config;
+
+import com.habitbeat.backend.auth.service.KnownEmailFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+@Configuration
+public class KnownEmailConfig {
+
+    @Bean
+    public RedisMessageListenerContainer knownEmailListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                    KnownEmailFilter knownEmailFilter) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> knownEmailFilter.onRemoteAdd(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(KnownEmailFilter.CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,24 @@
+package com.habitbeat.backend.auth.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "login-protection")
+@Data
+public class LoginProtectionProperties {
+    private Duration failureWindow = Duration.ofMinutes(15);
+    private int accountMaxFailures = 10;
+    private int ipMaxFailures = 20;
+    // Tighter per-IP limit applied while the global failure rate indicates credential stuffing
+    private int attackModeIpMaxFailures = 5;
+    private Duration baseLockout = Duration.ofMinutes(1);
+    private Duration maxLockout = Duration.ofHours(1);
+    // Repeat lockouts within this period double the lockout duration
+    private Duration strikeMemory = Duration.ofHours(24);
+    private int attackModeFailuresPerMinute = 300;
+    private double emailFilterFalsePositiveRate = 0.01;
+}
@@ -0,0 +1,26 @@
+package com.habitbeat.backend.auth.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "oauth")
+@Data
+public class OAuthProperties {
+    private Duration stateTtl = Duration.ofMinutes(10);
+    private Provider google = new Provider();
+
+    @Data
+    public static class Provider {
+        private String clientId;
+        private String clientSecret;
+        private String authorizationUri = "https://accounts.google.com/o/oauth2/v2/auth";
+        private String tokenUri = "https://oauth2.googleapis.com/token";
+        private String userInfoUri = "https://openidconnect.googleapis.com/v1/userinfo";
+        private String redirectUri;
+        private String scope = "openid email profile";
+    }
+}
@@ -55,28 +55,15 @@ public class AuthController {
             HttpServletRequest httpRequest,
             HttpServletResponse httpResponse) {
         
-        String clientIp = httpRequest.getRemoteAddr();
-        String rateLimitKey = "login:" + clientIp;
-        
-        if (!rateLimitService.isAllowed(rateLimitKey, 5, java.time.Duration.ofMinutes(15))) {
-            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
-                    .body(null);
-        }
-        
-        try {
-            AuthResponse response = authService.login(request, httpRequest, httpResponse);
-            rateLimitService.reset(rateLimitKey); // Reset on successful login
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            // Don't reset rate limit on failed login
-            throw e;
-        }
+        // Lockouts are enforced per account and per IP inside AuthService.login
+        AuthResponse response = authService.login(request, httpRequest, httpResponse);
+        return ResponseEntity.ok(response);
     }
     
     @PostMapping("/refresh")
-    public ResponseEntity<AuthResponse> refresh(HttpServletRequest request) {
+    public ResponseEntity<AuthResponse> refresh(HttpServletRequest request, HttpServletResponse httpResponse) {
         String refreshToken = getRefreshTokenFromCookies(request);
-        AuthResponse response = authService.refresh(refreshToken);
+        AuthResponse response = authService.refresh(refreshToken, request, httpResponse);
         return ResponseEntity.ok(response);
     }
     
@@ -0,0 +1,47 @@
+package com.habitbeat.backend.auth.controller;
+
+import com.habitbeat.backend.auth.dto.DevicePageResponse;
+import com.habitbeat.backend.auth.dto.RenameDeviceRequest;
+import com.habitbeat.backend.auth.service.DeviceService;
+import com.habitbeat.backend.auth.util.CurrentUserResolver;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/auth/devices")
+@RequiredArgsConstructor
+public class DeviceController {
+    private final DeviceService deviceService;
+    private final CurrentUserResolver currentUserResolver;
+
+    @GetMapping
+    public ResponseEntity<DevicePageResponse> listDevices(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        return ResponseEntity.ok(deviceService.listActiveDevices(userId, cursor, limit));
+    }
+
+    @PatchMapping("/{sessionId}")
+    public ResponseEntity<Void> renameDevice(
+            @PathVariable UUID sessionId,
+            @Valid @RequestBody RenameDeviceRequest body,
+            HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        deviceService.renameDevice(userId, sessionId, body.getName());
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<Void> revokeDevice(@PathVariable UUID sessionId, HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        deviceService.revokeDevice(userId, sessionId);
+        return ResponseEntity.noContent().build();
+    }
+}
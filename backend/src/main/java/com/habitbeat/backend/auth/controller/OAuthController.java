@@ -0,0 +1,41 @@
+package com.habitbeat.backend.auth.controller;
+
+import com.habitbeat.backend.auth.dto.AuthResponse;
+import com.habitbeat.backend.auth.service.OAuthService;
+import com.habitbeat.backend.auth.util.CookieUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/auth/oauth")
+@RequiredArgsConstructor
+public class OAuthController {
+    private final OAuthService oAuthService;
+
+    @GetMapping("/google")
+    public ResponseEntity<Void> startGoogleLogin(HttpServletRequest request, HttpServletResponse response) {
+        return ResponseEntity.status(HttpStatus.FOUND)
+                .location(URI.create(oAuthService.startGoogleLogin(request, response)))
+                .build();
+    }
+
+    @GetMapping("/google/callback")
+    public ResponseEntity<AuthResponse> googleCallback(
+            @RequestParam(required = false) String code,
+            @RequestParam(required = false) String state,
+            @RequestParam(required = false) String error,
+            @CookieValue(name = CookieUtil.OAUTH_STATE_COOKIE, required = false) String stateCookie,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        if (error != null || code == null || state == null) {
+            throw new RuntimeException("Invalid OAuth state");
+        }
+        return ResponseEntity.ok(oAuthService.completeGoogleLogin(code, state, stateCookie, request, response));
+    }
+}
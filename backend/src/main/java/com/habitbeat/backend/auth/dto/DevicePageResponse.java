@@ -0,0 +1,11 @@
+package com.habitbeat.backend.auth.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class DevicePageResponse {
+    private List<DeviceResponse> devices;
+    private String nextCursor;
+}
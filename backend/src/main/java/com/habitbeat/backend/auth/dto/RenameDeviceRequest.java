@@ -0,0 +1,12 @@
+package com.habitbeat.backend.auth.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class RenameDeviceRequest {
+    @NotBlank
+    @Size(max = 100)
+    private String name;
+}
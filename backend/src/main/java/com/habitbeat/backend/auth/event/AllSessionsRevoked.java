@@ -0,0 +1,12 @@
+package com.habitbeat.backend.auth.event;
+
+import com.habitbeat.backend.common.event.DomainEvent;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record AllSessionsRevoked(LocalDateTime occurredAt, UUID userId, String email, Reason reason)
+        implements DomainEvent {
+
+    public enum Reason { LOGOUT_ALL, PASSWORD_RESET }
+}
@@ -0,0 +1,10 @@
+package com.habitbeat.backend.auth.event;
+
+import com.habitbeat.backend.common.event.DomainEvent;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record EmailVerified(LocalDateTime occurredAt, UUID userId, String email, String ip, String userAgent)
+        implements DomainEvent {
+}
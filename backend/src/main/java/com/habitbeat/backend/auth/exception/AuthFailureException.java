@@ -0,0 +1,30 @@
+package com.habitbeat.backend.auth.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+import java.io.Serial;
+
+/**
+ * Login failures are thrown on every bad attempt, so they are preallocated singletons with no
+ * stack trace and no suppression list; throwing one costs no allocation and no stack walk.
+ */
+@Getter
+public final class AuthFailureException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public static final AuthFailureException INVALID_CREDENTIALS =
+            new AuthFailureException("Invalid credentials", HttpStatus.UNAUTHORIZED);
+    public static final AuthFailureException EMAIL_NOT_VERIFIED =
+            new AuthFailureException("Please verify your email before logging in", HttpStatus.FORBIDDEN);
+    public static final AuthFailureException LOCKED_OUT =
+            new AuthFailureException("Too many failed login attempts; try again later", HttpStatus.TOO_MANY_REQUESTS);
+
+    private final HttpStatus status;
+
+    private AuthFailureException(String message, HttpStatus status) {
+        super(message, null, false, false);
+        this.status = status;
+    }
+}
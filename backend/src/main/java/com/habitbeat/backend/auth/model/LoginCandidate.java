@@ -0,0 +1,8 @@
+package com.habitbeat.backend.auth.model;
+
+/**
+ * A user together with their password hash, loaded in one query for login. {@code passwordHash}
+ * is null for accounts that only sign in through OAuth.
+ */
+public record LoginCandidate(User user, String passwordHash) {
+}
@@ -1,41 +1,20 @@
 package com.habitbeat.backend.auth.model;
 
-import jakarta.persistence.*;
 import lombok.Data;
-import org.hibernate.annotations.CreationTimestamp;
 
-import java.time.LocalDateTime;
+import java.time.Instant;
 
-@Entity
-@Table(name = "oauth_states", indexes = {
-    @Index(name = "idx_oauth_states_created_at", columnList = "created_at")
-})
+/**
+ * Short-lived, single-use state for an in-progress OAuth authorization-code flow. Lives in Redis
+ * under a TTL (see OAuthStateStore) rather than in Postgres.
+ */
 @Data
 public class OAuthState {
-    @Id
     private String state;
-
-    @Column(name = "code_verifier", nullable = false)
     private String codeVerifier;
-
     private String nonce;
-
-    @Column(name = "redirect_uri", nullable = false, columnDefinition = "TEXT")
     private String redirectUri;
-
-    @CreationTimestamp
-    @Column(name = "created_at", nullable = false, updatable = false)
-    private LocalDateTime createdAt;
-
-    @Column(name = "used_at")
-    private LocalDateTime usedAt;
-
+    private Instant createdAt;
     private String ip;
-
-    @Column(name = "user_agent", columnDefinition = "TEXT")
     private String userAgent;
-
-    @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "user_id")
-    private User user;
-}
\ No newline at end of file
+}
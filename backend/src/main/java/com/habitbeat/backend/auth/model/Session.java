@@ -27,6 +27,10 @@ public class Session {
     @Column(name = "session_token_hash", nullable = false)
     private String sessionTokenHash;
 
+    // SHA-256 of the current refresh token; null only for sessions issued before it was added
+    @Column(name = "token_selector", length = 64)
+    private String tokenSelector;
+
     @Column(name = "expires_at", nullable = false)
     private LocalDateTime expiresAt;
 
@@ -44,4 +48,7 @@ public class Session {
 
     @Column(name = "user_agent", columnDefinition = "TEXT")
     private String userAgent;
+
+    @Column(name = "device_name", length = 100)
+    private String deviceName;
 }
\ No newline at end of file
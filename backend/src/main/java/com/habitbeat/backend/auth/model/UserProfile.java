@@ -32,6 +32,10 @@ public class UserProfile {
     @Column(name = "avatar_url")
     private String avatarUrl;
 
+    // Upload time of the current avatar; older uploads finishing later leave it alone
+    @Column(name = "avatar_requested_at")
+    private LocalDateTime avatarRequestedAt;
+
     @Column(length = 50)
     private String timezone;
 
@@ -41,7 +45,18 @@ public class UserProfile {
     @Column(columnDefinition = "TEXT")
     private String about;
 
+    // Opted-out profiles are left out of user search
+    @Column(nullable = false)
+    private Boolean discoverable = true;
+
+    // Opted-out users get no weekly digest email
+    @Column(name = "weekly_digest", nullable = false)
+    private Boolean weeklyDigest = true;
+
     @UpdateTimestamp
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
 }
\ No newline at end of file
@@ -29,6 +29,10 @@ public class VerificationToken {
     @Column(name = "token_hash", nullable = false)
     private String tokenHash;
 
+    // SHA-256 of the raw token; null only for tokens issued before it was added
+    @Column(name = "token_selector", length = 64)
+    private String tokenSelector;
+
     @Column(name = "expires_at", nullable = false)
     private LocalDateTime expiresAt;
 
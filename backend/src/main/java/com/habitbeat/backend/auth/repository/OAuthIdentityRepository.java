@@ -0,0 +1,13 @@
+package com.habitbeat.backend.auth.repository;
+
+import com.habitbeat.backend.auth.model.OAuthIdentity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface OAuthIdentityRepository extends JpaRepository<OAuthIdentity, UUID> {
+    Optional<OAuthIdentity> findByProviderAndProviderUserId(String provider, String providerUserId);
+}
@@ -1,11 +1,14 @@
 package com.habitbeat.backend.auth.repository;
 
+import com.habitbeat.backend.auth.dto.DeviceResponse;
 import com.habitbeat.backend.auth.model.Session;
 import com.habitbeat.backend.auth.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -17,12 +20,51 @@ public interface SessionRepository extends JpaRepository<Session, UUID> {
     Optional<Session> findBySessionTokenHashAndExpiresAtAfterAndRevokedAtIsNull(
             String tokenHash, LocalDateTime now);
     
+    // Read-only so it can be served by the replica when one is configured
+    @Transactional(readOnly = true)
     List<Session> findByUserAndRevokedAtIsNull(User user);
     
     @Modifying
     @Query("UPDATE Session s SET s.revokedAt = :now WHERE s.user = :user AND s.revokedAt IS NULL")
     void revokeAllUserSessions(User user, LocalDateTime now);
     
-    @Query("SELECT s FROM Session s WHERE s.revokedAt IS NULL AND s.expiresAt > :now")
-    List<Session> findValidSessions(LocalDateTime now);
+    // The user is always read afterwards (token claims, audit), so fetch it in the same query
+    @Query("SELECT s FROM Session s JOIN FETCH s.user " +
+           "WHERE s.tokenSelector = :selector AND s.revokedAt IS NULL AND s.expiresAt > :now")
+    Optional<Session> findValidBySelector(String selector, LocalDateTime now);
+
+    @Query("SELECT s FROM Session s JOIN FETCH s.user WHERE s.id = :id AND s.revokedAt IS NULL AND s.expiresAt > :now")
+    Optional<Session> findValidById(UUID id, LocalDateTime now);
+
+    // Sessions from before token_selector existed have to be matched by bcrypt; this set only shrinks
+    @Query("SELECT s FROM Session s JOIN FETCH s.user " +
+           "WHERE s.tokenSelector IS NULL AND s.revokedAt IS NULL AND s.expiresAt > :now")
+    List<Session> findValidLegacySessions(LocalDateTime now);
+
+    // Active-device listings are served by the partial covering index idx_sessions_active_devices
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.habitbeat.backend.auth.dto.DeviceResponse(s.id, s.deviceName, s.ip, s.userAgent, " +
+           "s.createdAt, s.lastUsedAt, s.expiresAt) FROM Session s " +
+           "WHERE s.user.id = :userId AND s.revokedAt IS NULL AND s.expiresAt > :now " +
+           "ORDER BY s.lastUsedAt DESC, s.id DESC")
+    List<DeviceResponse> findActiveDevices(UUID userId, LocalDateTime now, Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.habitbeat.backend.auth.dto.DeviceResponse(s.id, s.deviceName, s.ip, s.userAgent, " +
+           "s.createdAt, s.lastUsedAt, s.expiresAt) FROM Session s " +
+           "WHERE s.user.id = :userId AND s.revokedAt IS NULL AND s.expiresAt > :now " +
+           "AND (s.lastUsedAt < :lastUsedAt OR (s.lastUsedAt = :lastUsedAt AND s.id < :lastId)) " +
+           "ORDER BY s.lastUsedAt DESC, s.id DESC")
+    List<DeviceResponse> findActiveDevicesAfter(UUID userId, LocalDateTime now,
+                                                LocalDateTime lastUsedAt, UUID lastId, Limit limit);
+
+    @Modifying
+    @Query("UPDATE Session s SET s.deviceName = :deviceName " +
+           "WHERE s.id = :sessionId AND s.user.id = :userId AND s.revokedAt IS NULL")
+    int renameActiveSession(UUID sessionId, UUID userId, String deviceName);
+
+    @Modifying
+    @Query("UPDATE Session s SET s.revokedAt = :now " +
+           "WHERE s.id = :sessionId AND s.user.id = :userId AND s.revokedAt IS NULL")
+    int revokeActiveSession(UUID sessionId, UUID userId, LocalDateTime now);
 }
\ No newline at end of file
@@ -1,14 +1,27 @@
 package com.habitbeat.backend.auth.repository;
 
+import com.habitbeat.backend.auth.model.LoginCandidate;
 import com.habitbeat.backend.auth.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
+    // Read-only so lookups outside a write transaction can be served by the replica
+    @Transactional(readOnly = true)
     Optional<User> findByEmail(String email);
+
+    @Transactional(readOnly = true)
     boolean existsByEmail(String email);
+
+    // User and credential in one round trip instead of findByEmail followed by findByUser
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.habitbeat.backend.auth.model.LoginCandidate(u, c.passwordHash) FROM User u " +
+           "LEFT JOIN PasswordCredential c ON c.user = u WHERE u.email = :email")
+    Optional<LoginCandidate> findLoginCandidate(String email);
 }
\ No newline at end of file
@@ -21,6 +21,12 @@ public interface VerificationTokenRepository extends JpaRepository<VerificationT
     @Query("UPDATE VerificationToken v SET v.consumedAt = :now WHERE v.user = :user AND v.purpose = :purpose AND v.consumedAt IS NULL")
     void invalidateUserTokens(User user, String purpose, LocalDateTime now);
     
-    @Query("SELECT v FROM VerificationToken v WHERE v.purpose = :purpose AND v.consumedAt IS NULL AND v.expiresAt > :now")
-    List<VerificationToken> findValidTokensByPurpose(String purpose, LocalDateTime now);
+    @Query("SELECT v FROM VerificationToken v JOIN FETCH v.user " +
+           "WHERE v.tokenSelector = :selector AND v.purpose = :purpose AND v.consumedAt IS NULL AND v.expiresAt > :now")
+    Optional<VerificationToken> findValidBySelector(String selector, String purpose, LocalDateTime now);
+
+    // Tokens from before token_selector existed have to be matched by bcrypt; gone 30 minutes after the upgrade
+    @Query("SELECT v FROM VerificationToken v JOIN FETCH v.user " +
+           "WHERE v.tokenSelector IS NULL AND v.purpose = :purpose AND v.consumedAt IS NULL AND v.expiresAt > :now")
+    List<VerificationToken> findValidLegacyTokens(String purpose, LocalDateTime now);
 }
\ No newline at end of file
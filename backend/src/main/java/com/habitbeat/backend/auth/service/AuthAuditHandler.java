@@ -0,0 +1,52 @@
+package com.habitbeat.backend.auth.service;
+
+import com.habitbeat.backend.audit.model.AuditEventType;
+import com.habitbeat.backend.audit.service.AuditService;
+import com.habitbeat.backend.auth.event.AllSessionsRevoked;
+import com.habitbeat.backend.auth.event.EmailVerified;
+import com.habitbeat.backend.auth.event.PasswordResetRequested;
+import com.habitbeat.backend.auth.event.SessionRotated;
+import com.habitbeat.backend.auth.event.UserSignedUp;
+import com.habitbeat.backend.common.event.DomainEvent;
+import com.habitbeat.backend.common.event.DomainEventHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Audit trail entries for committed account changes, stamped with the time they happened.
+ * Login attempts are still audited inline, since they have no transaction to wait for.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthAuditHandler implements DomainEventHandler {
+    private final AuditService auditService;
+
+    @Override
+    public String name() {
+        return "auth-audit";
+    }
+
+    @Override
+    public void handle(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            switch (event) {
+                case UserSignedUp e -> auditService.record(e.occurredAt(), AuditEventType.SIGNUP,
+                        e.userId(), e.email(), null, null, null);
+                case EmailVerified e -> auditService.record(e.occurredAt(), AuditEventType.EMAIL_VERIFIED,
+                        e.userId(), e.email(), e.ip(), e.userAgent(), null);
+                case SessionRotated e -> auditService.record(e.occurredAt(), AuditEventType.REFRESH_ROTATED,
+                        e.userId(), e.email(), e.ip(), e.userAgent(), e.sessionId().toString());
+                case PasswordResetRequested e -> auditService.record(e.occurredAt(),
+                        AuditEventType.PASSWORD_RESET_REQUESTED, e.userId(), e.email(), null, null, null);
+                case AllSessionsRevoked e -> auditService.record(e.occurredAt(),
+                        e.reason() == AllSessionsRevoked.Reason.PASSWORD_RESET
+                                ? AuditEventType.PASSWORD_RESET_COMPLETED : AuditEventType.LOGOUT_ALL,
+                        e.userId(), e.email(), null, null, null);
+                default -> {
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.habitbeat.backend.auth.service;
+
+import com.habitbeat.backend.auth.event.PasswordResetRequested;
+import com.habitbeat.backend.auth.event.UserSignedUp;
+import com.habitbeat.backend.auth.event.VerificationEmailRequested;
+import com.habitbeat.backend.common.event.DomainEvent;
+import com.habitbeat.backend.common.event.DomainEventHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Sends account emails once the transaction that issued the token has committed. A failed send
+ * is logged by EmailService and skipped; the user can ask for another link.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthEmailHandler implements DomainEventHandler {
+    private final EmailService emailService;
+
+    @Override
+    public String name() {
+        return "auth-email";
+    }
+
+    @Override
+    public void handle(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            try {
+                switch (event) {
+                    case UserSignedUp e -> emailService.sendVerificationEmail(e.email(), e.verificationToken());
+                    case VerificationEmailRequested e -> emailService.sendVerificationEmail(e.email(), e.verificationToken());
+                    case PasswordResetRequested e -> emailService.sendPasswordResetEmail(e.email(), e.resetToken());
+                    default -> {
+                    }
+                }
+            } catch (RuntimeException alreadyLogged) {
+                // One unreachable mailbox must not cost the rest of the batch their emails
+            }
+        }
+    }
+}
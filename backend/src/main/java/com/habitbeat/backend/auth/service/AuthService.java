@@ -1,11 +1,23 @@
 package com.habitbeat.backend.auth.service;
 
+import com.habitbeat.backend.audit.model.AuditEventType;
+import com.habitbeat.backend.audit.service.AuditService;
 import com.habitbeat.backend.auth.dto.AuthResponse;
 import com.habitbeat.backend.auth.dto.SignupRequest;
 import com.habitbeat.backend.auth.dto.LoginRequest;
+import com.habitbeat.backend.auth.event.AllSessionsRevoked;
+import com.habitbeat.backend.auth.event.EmailVerified;
+import com.habitbeat.backend.auth.event.PasswordResetRequested;
+import com.habitbeat.backend.auth.event.SessionRotated;
+import com.habitbeat.backend.auth.event.UserSignedUp;
+import com.habitbeat.backend.auth.event.VerificationEmailRequested;
+import com.habitbeat.backend.auth.exception.AuthFailureException;
 import com.habitbeat.backend.auth.model.*;
 import com.habitbeat.backend.auth.repository.*;
 import com.habitbeat.backend.auth.util.CookieUtil;
+import com.habitbeat.backend.auth.util.TokenFingerprint;
+import com.habitbeat.backend.common.event.DomainEventBus;
+import com.habitbeat.backend.user.service.UserSearchIndex;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -17,7 +29,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.util.Base64;
-import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -29,11 +40,16 @@ public class AuthService {
     private final UserProfileRepository userProfileRepository;
     private final SessionRepository sessionRepository;
     private final PasswordEncoder passwordEncoder;
-    private final EmailService emailService;
+    private final DomainEventBus domainEventBus;
     private final JwtService jwtService;
     private final RefreshTokenService refreshTokenService;
     private final CookieUtil cookieUtil;
+    private final AuditService auditService;
+    private final KnownEmailFilter knownEmailFilter;
+    private final LoginThrottleService loginThrottleService;
+    private final UserSearchIndex userSearchIndex;
     private final SecureRandom secureRandom = new SecureRandom();
+    private volatile String dummyPasswordHash;
 
     @Transactional
     public void signup(SignupRequest request) {
@@ -51,25 +67,23 @@ public class AuthService {
         credential.setUser(user);
         credential.setPasswordHash(passwordEncoder.encode(request.getPassword()));
         passwordCredentialRepository.save(credential);
+        knownEmailFilter.add(user.getEmail());
 
         String rawToken = generateVerificationToken();
         VerificationToken token = new VerificationToken();
         token.setUser(user);
         token.setPurpose("email_verify");
         token.setTokenHash(passwordEncoder.encode(rawToken));
+        token.setTokenSelector(TokenFingerprint.of(rawToken));
         token.setExpiresAt(LocalDateTime.now().plusMinutes(30));
         tokenRepository.save(token);
 
-        emailService.sendVerificationEmail(user.getEmail(), rawToken);
+        domainEventBus.publishAfterCommit(new UserSignedUp(LocalDateTime.now(), user.getId(), user.getEmail(), rawToken));
     }
 
     @Transactional
     public AuthResponse verifyEmail(String token, HttpServletRequest request, HttpServletResponse response) {
-        List<VerificationToken> validTokens = tokenRepository.findValidTokensByPurpose("email_verify", LocalDateTime.now());
-        VerificationToken verificationToken = validTokens.stream()
-                .filter(t -> passwordEncoder.matches(token, t.getTokenHash()))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Invalid or expired token"));
+        VerificationToken verificationToken = findValidToken(token, "email_verify");
 
         User user = verificationToken.getUser();
         user.setEmailVerifiedAt(LocalDateTime.now());
@@ -78,12 +92,19 @@ public class AuthService {
         verificationToken.setConsumedAt(LocalDateTime.now());
         tokenRepository.save(verificationToken);
 
+        // Unverified users are not searchable; a profile set up before verifying becomes visible now
+        userProfileRepository.findById(user.getId()).ifPresent(profile ->
+                userSearchIndex.updateAfterCommit(user.getId(), profile.getDisplayName(), profile.getFirstName(),
+                        profile.getLastName(), !Boolean.FALSE.equals(profile.getDiscoverable())));
+
         String refreshToken = refreshTokenService.generateRefreshToken();
         refreshTokenService.createSession(user, refreshToken, 
                 request.getRemoteAddr(), request.getHeader("User-Agent"));
 
         // Set refresh token cookie
         response.addCookie(cookieUtil.createRefreshTokenCookie(refreshToken));
+        domainEventBus.publishAfterCommit(new EmailVerified(LocalDateTime.now(), user.getId(), user.getEmail(),
+                request.getRemoteAddr(), request.getHeader("User-Agent")));
 
         String accessToken = jwtService.generateAccessToken(user.getId(), user.getEmail());
         
@@ -104,35 +125,55 @@ public class AuthService {
             token.setUser(user);
             token.setPurpose("email_verify");
             token.setTokenHash(passwordEncoder.encode(rawToken));
+            token.setTokenSelector(TokenFingerprint.of(rawToken));
             token.setExpiresAt(LocalDateTime.now().plusMinutes(30));
             tokenRepository.save(token);
 
-            emailService.sendVerificationEmail(user.getEmail(), rawToken);
+            domainEventBus.publishAfterCommit(new VerificationEmailRequested(LocalDateTime.now(), user.getId(),
+                    user.getEmail(), rawToken));
         });
     }
 
-    @Transactional
+    // Not transactional: a rejected attempt must not hold a pooled connection while bcrypt runs
     public AuthResponse login(LoginRequest request, HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
-        User user = userRepository.findByEmail(request.getEmail().toLowerCase())
-                .orElseThrow(() -> new RuntimeException("Invalid credentials"));
+        String email = request.getEmail().toLowerCase();
+        String ip = httpRequest.getRemoteAddr();
+        String userAgent = httpRequest.getHeader("User-Agent");
         
-        if (user.getEmailVerifiedAt() == null) {
-            throw new RuntimeException("Email not verified");
-        }
+        loginThrottleService.checkNotLocked(email, ip);
         
-        PasswordCredential credential = passwordCredentialRepository.findByUser(user)
-                .orElseThrow(() -> new RuntimeException("Invalid credentials"));
+        // Emails the filter has never seen skip the database, but every path pays for exactly one
+        // bcrypt compare so response time does not reveal whether an account exists
+        LoginCandidate candidate = knownEmailFilter.mightExist(email)
+                ? userRepository.findLoginCandidate(email).orElse(null) : null;
+        User user = candidate != null ? candidate.user() : null;
+        String storedHash = candidate != null ? candidate.passwordHash() : null;
+        boolean passwordMatches = passwordEncoder.matches(request.getPassword(),
+                storedHash != null ? storedHash : dummyPasswordHash());
         
-        if (!passwordEncoder.matches(request.getPassword(), credential.getPasswordHash())) {
-            throw new RuntimeException("Invalid credentials");
+        if (user == null) {
+            throw loginFailure(null, email, ip, userAgent, "unknown_email");
         }
+        if (storedHash == null) {
+            throw loginFailure(user.getId(), email, ip, userAgent, "no_password");
+        }
+        if (!passwordMatches) {
+            throw loginFailure(user.getId(), email, ip, userAgent, "bad_password");
+        }
+        
+        // Checked after the password so unverified accounts cannot be enumerated
+        if (user.getEmailVerifiedAt() == null) {
+            auditService.record(AuditEventType.LOGIN_FAILED, user.getId(), email, ip, userAgent, "email_not_verified");
+            throw AuthFailureException.EMAIL_NOT_VERIFIED;
+        }
+        loginThrottleService.recordSuccess(email, ip);
         
         String refreshToken = refreshTokenService.generateRefreshToken();
-        refreshTokenService.createSession(user, refreshToken,
-                httpRequest.getRemoteAddr(), httpRequest.getHeader("User-Agent"));
+        refreshTokenService.createSession(user, refreshToken, ip, userAgent);
         
         // Set refresh token cookie
         httpResponse.addCookie(cookieUtil.createRefreshTokenCookie(refreshToken));
+        auditService.record(AuditEventType.LOGIN_SUCCEEDED, user.getId(), email, ip, userAgent);
         
         String accessToken = jwtService.generateAccessToken(user.getId(), user.getEmail());
         
@@ -141,11 +182,18 @@ public class AuthService {
         return response;
     }
     
-    public AuthResponse refresh(String refreshToken) {
-        Session session = refreshTokenService.validateAndRotateToken(refreshToken)
+    public AuthResponse refresh(String refreshToken, HttpServletRequest httpRequest, HttpServletResponse httpResponse) {
+        RefreshTokenService.RotatedToken rotated = refreshTokenService.rotate(refreshToken)
                 .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
         
-        String accessToken = jwtService.generateAccessToken(session.getUser().getId(), session.getUser().getEmail());
+        // Set rotated refresh token cookie; a replay inside the reuse window already has it
+        if (rotated.refreshToken() != null) {
+            httpResponse.addCookie(cookieUtil.createRefreshTokenCookie(rotated.refreshToken()));
+        }
+        domainEventBus.publish(new SessionRotated(LocalDateTime.now(), rotated.sessionId(), rotated.userId(),
+                rotated.email(), httpRequest.getRemoteAddr(), httpRequest.getHeader("User-Agent")));
+        
+        String accessToken = jwtService.generateAccessToken(rotated.userId(), rotated.email());
         
         AuthResponse response = new AuthResponse();
         response.setAccessToken(accessToken);
@@ -158,6 +206,8 @@ public class AuthService {
                 .orElseThrow(() -> new RuntimeException("Invalid session"));
         
         refreshTokenService.revokeSession(session);
+        auditService.record(AuditEventType.LOGOUT, session.getUser().getId(), null, null, null,
+                session.getId().toString());
     }
     
     @Transactional
@@ -166,6 +216,8 @@ public class AuthService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
         sessionRepository.revokeAllUserSessions(user, LocalDateTime.now());
+        domainEventBus.publishAfterCommit(new AllSessionsRevoked(LocalDateTime.now(), user.getId(), user.getEmail(),
+                AllSessionsRevoked.Reason.LOGOUT_ALL));
     }
     
     @Transactional
@@ -178,20 +230,18 @@ public class AuthService {
             token.setUser(user);
             token.setPurpose("password_reset");
             token.setTokenHash(passwordEncoder.encode(rawToken));
+            token.setTokenSelector(TokenFingerprint.of(rawToken));
             token.setExpiresAt(LocalDateTime.now().plusMinutes(30));
             tokenRepository.save(token);
             
-            emailService.sendPasswordResetEmail(user.getEmail(), rawToken);
+            domainEventBus.publishAfterCommit(new PasswordResetRequested(LocalDateTime.now(), user.getId(),
+                    user.getEmail(), rawToken));
         });
     }
     
     @Transactional
     public void resetPassword(String token, String newPassword) {
-        List<VerificationToken> validTokens = tokenRepository.findValidTokensByPurpose("password_reset", LocalDateTime.now());
-        VerificationToken verificationToken = validTokens.stream()
-                .filter(t -> passwordEncoder.matches(token, t.getTokenHash()))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("Invalid or expired token"));
+        VerificationToken verificationToken = findValidToken(token, "password_reset");
         
         User user = verificationToken.getUser();
         
@@ -205,12 +255,49 @@ public class AuthService {
         tokenRepository.save(verificationToken);
         
         sessionRepository.revokeAllUserSessions(user, LocalDateTime.now());
+        domainEventBus.publishAfterCommit(new AllSessionsRevoked(LocalDateTime.now(), user.getId(), user.getEmail(),
+                AllSessionsRevoked.Reason.PASSWORD_RESET));
     }
     
     public UUID getUserIdFromToken(String token) {
         return jwtService.getUserIdFromToken(token);
     }
     
+    private AuthFailureException loginFailure(UUID userId, String email, String ip, String userAgent, String reason) {
+        auditService.record(AuditEventType.LOGIN_FAILED, userId, email, ip, userAgent, reason);
+        if (loginThrottleService.recordFailure(email, ip)) {
+            auditService.record(AuditEventType.LOGIN_LOCKED, userId, email, ip, userAgent,
+                    loginThrottleService.isAttackMode() ? "attack_mode" : null);
+        }
+        return AuthFailureException.INVALID_CREDENTIALS;
+    }
+    
+    private String dummyPasswordHash() {
+        // Encoded once with the live encoder so its cost factor always matches real hashes
+        String hash = dummyPasswordHash;
+        if (hash == null) {
+            byte[] randomPassword = new byte[32];
+            secureRandom.nextBytes(randomPassword);
+            hash = passwordEncoder.encode(Base64.getEncoder().encodeToString(randomPassword));
+            dummyPasswordHash = hash;
+        }
+        return hash;
+    }
+    
+    /**
+     * One index probe on the token's SHA-256 selector, then the bcrypt check on that single row.
+     * Tokens issued before selectors existed are still matched against the small legacy set.
+     */
+    private VerificationToken findValidToken(String token, String purpose) {
+        LocalDateTime now = LocalDateTime.now();
+        return tokenRepository.findValidBySelector(TokenFingerprint.of(token), purpose, now)
+                .filter(candidate -> passwordEncoder.matches(token, candidate.getTokenHash()))
+                .or(() -> tokenRepository.findValidLegacyTokens(purpose, now).stream()
+                        .filter(candidate -> passwordEncoder.matches(token, candidate.getTokenHash()))
+                        .findFirst())
+                .orElseThrow(() -> new RuntimeException("Invalid or expired token"));
+    }
+
     private String generateVerificationToken() {
         byte[] tokenBytes = new byte[32];
         secureRandom.nextBytes(tokenBytes);
@@ -0,0 +1,87 @@
+package com.habitbeat.backend.auth.service;
+
+import com.habitbeat.backend.auth.dto.DevicePageResponse;
+import com.habitbeat.backend.auth.dto.DeviceResponse;
+import com.habitbeat.backend.auth.repository.SessionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class DeviceService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final SessionRepository sessionRepository;
+
+    @Transactional(readOnly = true)
+    public DevicePageResponse listActiveDevices(UUID userId, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        LocalDateTime now = LocalDateTime.now();
+
+        // Fetch one extra row to know whether another page exists
+        List<DeviceResponse> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = sessionRepository.findActiveDevices(userId, now, Limit.of(pageSize + 1));
+        } else {
+            String[] position = decodeCursor(cursor);
+            LocalDateTime lastUsedAt;
+            try {
+                lastUsedAt = LocalDateTime.parse(position[0]);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            rows = sessionRepository.findActiveDevicesAfter(userId, now,
+                    lastUsedAt, UUID.fromString(position[1]), Limit.of(pageSize + 1));
+        }
+
+        DevicePageResponse page = new DevicePageResponse();
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            DeviceResponse last = rows.get(pageSize - 1);
+            page.setNextCursor(encodeCursor(last.getLastUsedAt(), last.getId()));
+        }
+        page.setDevices(rows);
+        return page;
+    }
+
+    @Transactional
+    public void renameDevice(UUID userId, UUID sessionId, String name) {
+        if (sessionRepository.renameActiveSession(sessionId, userId, name.trim()) == 0) {
+            throw new RuntimeException("Session not found");
+        }
+    }
+
+    @Transactional
+    public void revokeDevice(UUID userId, UUID sessionId) {
+        if (sessionRepository.revokeActiveSession(sessionId, userId, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Session not found");
+        }
+    }
+
+    private String encodeCursor(LocalDateTime lastUsedAt, UUID id) {
+        String raw = lastUsedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
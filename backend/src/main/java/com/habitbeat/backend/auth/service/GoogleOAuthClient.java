@@ -0,0 +1,90 @@
+package com.habitbeat.backend.auth.service;
+
+import com.habitbeat.backend.auth.config.OAuthProperties;
+import com.habitbeat.backend.auth.dto.OAuthTokenResponse;
+import com.habitbeat.backend.auth.dto.OAuthUserInfo;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Talks to the identity provider's authorization, token and userinfo endpoints. Every endpoint is
+ * configurable so the flow can run against a local stub IdP.
+ */
+@Component
+public class GoogleOAuthClient {
+    private final OAuthProperties.Provider provider;
+    private final RestClient restClient;
+
+    public GoogleOAuthClient(OAuthProperties oAuthProperties, RestClient.Builder restClientBuilder) {
+        this.provider = oAuthProperties.getGoogle();
+        this.restClient = restClientBuilder.build();
+    }
+
+    public String authorizationUrl(String state, String codeChallenge, String nonce) {
+        return UriComponentsBuilder.fromUriString(provider.getAuthorizationUri())
+                .queryParam("response_type", "code")
+                .queryParam("client_id", provider.getClientId())
+                .queryParam("redirect_uri", provider.getRedirectUri())
+                .queryParam("scope", provider.getScope())
+                .queryParam("state", state)
+                .queryParam("nonce", nonce)
+                .queryParam("code_challenge", codeChallenge)
+                .queryParam("code_challenge_method", "S256")
+                .encode()
+                .toUriString();
+    }
+
+    public OAuthTokenResponse exchangeCode(String code, String codeVerifier, String redirectUri) {
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("grant_type", "authorization_code");
+        form.add("code", code);
+        form.add("code_verifier", codeVerifier);
+        form.add("redirect_uri", redirectUri);
+        form.add("client_id", provider.getClientId());
+        form.add("client_secret", provider.getClientSecret());
+
+        try {
+            OAuthTokenResponse response = restClient.post()
+                    .uri(provider.getTokenUri())
+                    .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                    .body(form)
+                    .retrieve()
+                    .body(OAuthTokenResponse.class);
+            if (response == null || response.getAccessToken() == null) {
+                throw new RuntimeException("OAuth login failed");
+            }
+            return response;
+        } catch (RestClientException e) {
+            throw new RuntimeException("OAuth login failed", e);
+        }
+    }
+
+    public OAuthUserInfo fetchUserInfo(String accessToken) {
+        try {
+            OAuthUserInfo userInfo = restClient.get()
+                    .uri(provider.getUserInfoUri())
+                    .headers(headers -> headers.setBearerAuth(accessToken))
+                    .retrieve()
+                    .body(OAuthUserInfo.class);
+            if (userInfo == null || userInfo.getSub() == null) {
+                throw new RuntimeException("OAuth login failed");
+            }
+            return userInfo;
+        } catch (RestClientException e) {
+            throw new RuntimeException("OAuth login failed", e);
+        }
+    }
+
+    public String clientId() {
+        return provider.getClientId();
+    }
+
+    public String redirectUri() {
+        return provider.getRedirectUri();
+    }
+}
@@ -0,0 +1,150 @@
+package com.habitbeat.backend.auth.service;
+
+import com.habitbeat.backend.auth.config.LoginProtectionProperties;
+import com.habitbeat.backend.common.redis.RedisGuard;
+import com.habitbeat.backend.common.util.BloomFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * In-memory Bloom filter of registered emails, so login attempts for addresses that were never
+ * registered skip the database entirely. Until the first load completes every email is treated
+ * as possibly known. The filter is rebuilt periodically to shed deleted accounts.
+ * <p>
+ * Each node holds its own filter. A signup is added locally once its transaction commits and
+ * broadcast over Redis pub/sub to the other nodes; a short periodic catch-up query over recent
+ * signups covers broadcasts lost while Redis was unavailable.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class KnownEmailFilter {
+    public static final String CHANNEL = "auth:known-emails";
+    private static final int STREAM_FETCH_SIZE = 5000;
+    private static final long MIN_CAPACITY = 10_000;
+    // Rows become visible at commit, some time after created_at is stamped, possibly on a node with a skewed clock
+    private static final Duration CATCH_UP_OVERLAP = Duration.ofMinutes(2);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LoginProtectionProperties properties;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisGuard redisGuard;
+
+    private volatile BloomFilter active;
+    private volatile BloomFilter building;
+    // Signups created before this instant are in the active filter
+    private volatile LocalDateTime caughtUpTo;
+
+    public boolean mightExist(String email) {
+        BloomFilter filter = active;
+        return filter == null || filter.mightContain(email);
+    }
+
+    /**
+     * Records a new account. Inside a transaction the email is added again and announced to the
+     * other nodes only after commit: a rebuild whose snapshot missed the uncommitted row has
+     * already published its filter as {@code building} by then, so the signup cannot fall between the two.
+     */
+    public void add(String email) {
+        addLocal(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addLocal(email);
+                    publish(email);
+                }
+            });
+        } else {
+            publish(email);
+        }
+    }
+
+    /**
+     * Handles a signup announced by another node.
+     */
+    public void onRemoteAdd(String email) {
+        addLocal(email);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${login-protection.email-filter-rebuild-interval-ms:21600000}")
+    public void rebuild() {
+        long started = System.nanoTime();
+        LocalDateTime startedAt = LocalDateTime.now();
+        Long users = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        // Headroom for signups until the next rebuild
+        long capacity = Math.max(MIN_CAPACITY, (users == null ? 0 : users) * 2);
+        BloomFilter next = BloomFilter.create(capacity, properties.getEmailFilterFalsePositiveRate());
+        // Set before the snapshot below is taken, so every signup committed after it reaches this filter
+        building = next;
+        try {
+            // Postgres only streams with a cursor inside a transaction; otherwise fetch size is ignored
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                var statement = con.prepareStatement("SELECT email FROM users");
+                statement.setFetchSize(STREAM_FETCH_SIZE);
+                return statement;
+            }, rs -> {
+                next.put(rs.getString(1));
+            }));
+            active = next;
+            caughtUpTo = startedAt;
+            log.info("Loaded known-email filter for {} users in {} ms", users,
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Failed to rebuild known-email filter; keeping previous one", e);
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * Adds signups from every node since the last catch-up, in case their broadcast was lost.
+     * Served by idx_users_created_at and normally returns a handful of rows.
+     */
+    @Scheduled(fixedDelayString = "${login-protection.email-filter-catch-up-interval-ms:60000}")
+    public void catchUp() {
+        LocalDateTime since = caughtUpTo;
+        if (active == null || since == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            jdbcTemplate.query("SELECT email FROM users WHERE created_at >= ?",
+                    rs -> {
+                        addLocal(rs.getString(1));
+                    },
+                    Timestamp.valueOf(since.minus(CATCH_UP_OVERLAP)));
+            caughtUpTo = now;
+        } catch (RuntimeException e) {
+            log.warn("Failed to catch up known-email filter: {}", e.getMessage());
+        }
+    }
+
+    private void addLocal(String email) {
+        BloomFilter filter = active;
+        if (filter != null) {
+            filter.put(email);
+        }
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(email);
+        }
+    }
+
+    private void publish(String email) {
+        redisGuard.run("known-emails", () -> redisTemplate.convertAndSend(CHANNEL, email),
+                () -> log.debug("Known email not broadcast; other nodes pick it up on catch-up"));
+    }
+}
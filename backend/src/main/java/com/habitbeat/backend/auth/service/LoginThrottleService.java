@@ -0,0 +1,156 @@
+package com.habitbeat.backend.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.habitbeat.backend.auth.config.LoginProtectionProperties;
+import com.habitbeat.backend.auth.exception.AuthFailureException;
+import com.habitbeat.backend.common.redis.LocalRateLimiter;
+import com.habitbeat.backend.common.redis.RedisGuard;
+import com.habitbeat.backend.common.redis.RedisResilienceProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-account and per-IP login failure counters in Redis. Crossing a threshold sets a lockout key
+ * whose duration doubles with each repeat offence, so a locked-out caller costs one MGET per
+ * attempt. A global failure rate above the configured threshold switches on attack mode, which
+ * tightens the per-IP limit until the rate drops back.
+ * <p>
+ * While Redis is unavailable failures are counted per node and lockouts last the base duration,
+ * without the repeat-offence escalation.
+ */
+@Service
+@Slf4j
+public class LoginThrottleService {
+    private static final String FAIL_PREFIX = "login:fail:";
+    private static final String LOCK_PREFIX = "login:lock:";
+    private static final String STRIKE_PREFIX = "login:strikes:";
+    private static final long EVALUATION_INTERVAL_MS = 10_000;
+
+    // KEYS: failure counter, lock, strike counter
+    // ARGV: window secs, threshold, base lock secs, max lock secs, strike memory secs
+    private static final RedisScript<Long> RECORD_FAILURE = new DefaultRedisScript<>(
+            "local n = redis.call('INCR', KEYS[1]) " +
+            "if n == 1 then redis.call('EXPIRE', KEYS[1], ARGV[1]) end " +
+            "if n < tonumber(ARGV[2]) then return 0 end " +
+            "local strikes = redis.call('INCR', KEYS[3]) " +
+            "redis.call('EXPIRE', KEYS[3], ARGV[5]) " +
+            "local lock = math.min(tonumber(ARGV[3]) * 2 ^ (strikes - 1), tonumber(ARGV[4])) " +
+            "redis.call('SET', KEYS[2], '1', 'EX', math.floor(lock)) " +
+            "redis.call('DEL', KEYS[1]) " +
+            "return math.floor(lock)",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final LoginProtectionProperties properties;
+    private final RedisGuard redisGuard;
+    private final LocalRateLimiter localRateLimiter;
+    private final Cache<String, Boolean> localLocks;
+    private final AtomicLong failuresSinceEvaluation = new AtomicLong();
+    private final AtomicBoolean attackMode = new AtomicBoolean();
+
+    public LoginThrottleService(RedisTemplate<String, String> redisTemplate,
+                                LoginProtectionProperties properties,
+                                RedisGuard redisGuard,
+                                LocalRateLimiter localRateLimiter,
+                                RedisResilienceProperties resilienceProperties,
+                                MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.redisGuard = redisGuard;
+        this.localRateLimiter = localRateLimiter;
+        this.localLocks = Caffeine.newBuilder()
+                .maximumSize(resilienceProperties.getLocalCacheMaxEntries())
+                .expireAfterWrite(properties.getBaseLockout())
+                .build();
+        Gauge.builder("auth.login.attack_mode", attackMode, mode -> mode.get() ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    public void checkNotLocked(String email, String ip) {
+        String accountLock = LOCK_PREFIX + "acct:" + email;
+        String ipLock = LOCK_PREFIX + "ip:" + ip;
+        // Lockouts imposed locally during an outage still hold after Redis comes back
+        if (localLocks.getIfPresent(accountLock) != null || localLocks.getIfPresent(ipLock) != null) {
+            throw AuthFailureException.LOCKED_OUT;
+        }
+        List<String> locks = redisGuard.call("login-throttle",
+                () -> redisTemplate.opsForValue().multiGet(List.of(accountLock, ipLock)),
+                () -> null);
+        if (locks != null && (locks.get(0) != null || locks.get(1) != null)) {
+            throw AuthFailureException.LOCKED_OUT;
+        }
+    }
+
+    /**
+     * @return true if this failure locked out the account or the IP
+     */
+    public boolean recordFailure(String email, String ip) {
+        failuresSinceEvaluation.incrementAndGet();
+        int ipThreshold = attackMode.get() ? properties.getAttackModeIpMaxFailures() : properties.getIpMaxFailures();
+        boolean accountLocked = recordFailure("acct:" + email, properties.getAccountMaxFailures());
+        boolean ipLocked = recordFailure("ip:" + ip, ipThreshold);
+        return accountLocked || ipLocked;
+    }
+
+    public void recordSuccess(String email, String ip) {
+        List<String> keys = List.of(FAIL_PREFIX + "acct:" + email, FAIL_PREFIX + "ip:" + ip);
+        keys.forEach(localRateLimiter::reset);
+        redisGuard.run("login-throttle", () -> redisTemplate.delete(keys), () -> {
+        });
+    }
+
+    public boolean isAttackMode() {
+        return attackMode.get();
+    }
+
+    @Scheduled(fixedRate = EVALUATION_INTERVAL_MS)
+    public void evaluateAttackMode() {
+        long perMinute = failuresSinceEvaluation.getAndSet(0) * (60_000 / EVALUATION_INTERVAL_MS);
+        int threshold = properties.getAttackModeFailuresPerMinute();
+        // Hysteresis so the mode does not flap around the threshold
+        if (!attackMode.get() && perMinute >= threshold) {
+            attackMode.set(true);
+            log.warn("Login attack mode enabled: {} failures/min", perMinute);
+        } else if (attackMode.get() && perMinute < threshold / 2) {
+            attackMode.set(false);
+            log.info("Login attack mode disabled: {} failures/min", perMinute);
+        }
+    }
+
+    private boolean recordFailure(String scope, int threshold) {
+        return redisGuard.call("login-throttle",
+                () -> incrementFailures(scope, threshold),
+                () -> incrementLocalFailures(scope, threshold));
+    }
+
+    private boolean incrementLocalFailures(String scope, int threshold) {
+        if (localRateLimiter.tryAcquire(FAIL_PREFIX + scope, threshold - 1, properties.getFailureWindow())) {
+            return false;
+        }
+        localRateLimiter.reset(FAIL_PREFIX + scope);
+        localLocks.put(LOCK_PREFIX + scope, Boolean.TRUE);
+        return true;
+    }
+
+    private boolean incrementFailures(String scope, int threshold) {
+        Long lockSeconds = redisTemplate.execute(RECORD_FAILURE,
+                List.of(FAIL_PREFIX + scope, LOCK_PREFIX + scope, STRIKE_PREFIX + scope),
+                String.valueOf(properties.getFailureWindow().toSeconds()),
+                String.valueOf(threshold),
+                String.valueOf(properties.getBaseLockout().toSeconds()),
+                String.valueOf(properties.getMaxLockout().toSeconds()),
+                String.valueOf(properties.getStrikeMemory().toSeconds()));
+        return lockSeconds != null && lockSeconds > 0;
+    }
+}
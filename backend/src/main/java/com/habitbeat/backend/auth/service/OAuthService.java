@@ -0,0 +1,235 @@
+package com.habitbeat.backend.auth.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habitbeat.backend.audit.model.AuditEventType;
+import com.habitbeat.backend.audit.service.AuditService;
+import com.habitbeat.backend.auth.config.OAuthProperties;
+import com.habitbeat.backend.auth.dto.AuthResponse;
+import com.habitbeat.backend.auth.dto.OAuthTokenResponse;
+import com.habitbeat.backend.auth.dto.OAuthUserInfo;
+import com.habitbeat.backend.auth.model.OAuthIdentity;
+import com.habitbeat.backend.auth.model.OAuthState;
+import com.habitbeat.backend.auth.model.User;
+import com.habitbeat.backend.auth.model.UserProfile;
+import com.habitbeat.backend.auth.repository.OAuthIdentityRepository;
+import com.habitbeat.backend.auth.repository.PasswordCredentialRepository;
+import com.habitbeat.backend.auth.repository.SessionRepository;
+import com.habitbeat.backend.auth.repository.UserProfileRepository;
+import com.habitbeat.backend.auth.repository.UserRepository;
+import com.habitbeat.backend.auth.repository.VerificationTokenRepository;
+import com.habitbeat.backend.auth.util.CookieUtil;
+import com.habitbeat.backend.user.service.UserSearchIndex;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class OAuthService {
+    private static final String GOOGLE = "google";
+    private static final Set<String> GOOGLE_ISSUERS = Set.of("accounts.google.com", "https://accounts.google.com");
+
+    private final OAuthStateStore oAuthStateStore;
+    private final GoogleOAuthClient googleOAuthClient;
+    private final OAuthIdentityRepository oAuthIdentityRepository;
+    private final UserRepository userRepository;
+    private final UserProfileRepository userProfileRepository;
+    private final PasswordCredentialRepository passwordCredentialRepository;
+    private final SessionRepository sessionRepository;
+    private final VerificationTokenRepository tokenRepository;
+    private final RefreshTokenService refreshTokenService;
+    private final JwtService jwtService;
+    private final CookieUtil cookieUtil;
+    private final ObjectMapper objectMapper;
+    private final AuditService auditService;
+    private final KnownEmailFilter knownEmailFilter;
+    private final UserSearchIndex userSearchIndex;
+    private final OAuthProperties oAuthProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    /**
+     * A completed login signed in through the callback; the refresh token still has to be set as a cookie.
+     */
+    private record SignIn(AuthResponse authResponse, String refreshToken) {
+    }
+
+    /**
+     * Starts the flow and pins it to this browser with a cookie holding the state's hash, so a
+     * callback link started by someone else cannot sign this browser in (login CSRF).
+     */
+    public String startGoogleLogin(HttpServletRequest request, HttpServletResponse response) {
+        OAuthState state = new OAuthState();
+        state.setState(randomToken(32));
+        state.setCodeVerifier(randomToken(64));
+        state.setNonce(randomToken(32));
+        state.setRedirectUri(googleOAuthClient.redirectUri());
+        state.setCreatedAt(Instant.now());
+        state.setIp(request.getRemoteAddr());
+        state.setUserAgent(request.getHeader("User-Agent"));
+        oAuthStateStore.save(state);
+        response.addCookie(cookieUtil.createOAuthStateCookie(sha256(state.getState()), oAuthProperties.getStateTtl(),
+                request.isSecure()));
+
+        return googleOAuthClient.authorizationUrl(state.getState(), codeChallenge(state.getCodeVerifier()), state.getNonce());
+    }
+
+    /**
+     * Calls to the provider happen before the transaction starts, so no database connection is held
+     * while waiting on the network.
+     */
+    public AuthResponse completeGoogleLogin(String code, String stateParam, String stateCookie,
+                                            HttpServletRequest request, HttpServletResponse response) {
+        response.addCookie(cookieUtil.createExpiredOAuthStateCookie(request.isSecure()));
+        if (stateCookie == null || !MessageDigest.isEqual(sha256(stateParam).getBytes(StandardCharsets.US_ASCII),
+                stateCookie.getBytes(StandardCharsets.US_ASCII))) {
+            throw new RuntimeException("Invalid OAuth state");
+        }
+        OAuthState state = oAuthStateStore.consume(stateParam)
+                .orElseThrow(() -> new RuntimeException("Invalid OAuth state"));
+
+        OAuthTokenResponse tokens = googleOAuthClient.exchangeCode(code, state.getCodeVerifier(), state.getRedirectUri());
+        OAuthUserInfo userInfo = googleOAuthClient.fetchUserInfo(tokens.getAccessToken());
+        // Without an ID token nothing binds this login to the nonce we issued
+        if (tokens.getIdToken() == null) {
+            throw new RuntimeException("OAuth login failed");
+        }
+        verifyIdToken(tokens.getIdToken(), state.getNonce(), userInfo.getSub());
+
+        SignIn signIn = transactionTemplate.execute(status -> signIn(userInfo, request));
+        response.addCookie(cookieUtil.createRefreshTokenCookie(signIn.refreshToken()));
+        return signIn.authResponse();
+    }
+
+    private SignIn signIn(OAuthUserInfo userInfo, HttpServletRequest request) {
+        User user = oAuthIdentityRepository.findByProviderAndProviderUserId(GOOGLE, userInfo.getSub())
+                .map(OAuthIdentity::getUser)
+                .orElseGet(() -> linkIdentity(userInfo));
+
+        String refreshToken = refreshTokenService.generateRefreshToken();
+        refreshTokenService.createSession(user, refreshToken,
+                request.getRemoteAddr(), request.getHeader("User-Agent"));
+        auditService.record(AuditEventType.OAUTH_LOGIN_SUCCEEDED, user.getId(), user.getEmail(),
+                request.getRemoteAddr(), request.getHeader("User-Agent"), GOOGLE);
+
+        AuthResponse authResponse = new AuthResponse();
+        authResponse.setAccessToken(jwtService.generateAccessToken(user.getId(), user.getEmail()));
+        return new SignIn(authResponse, refreshToken);
+    }
+
+    private User linkIdentity(OAuthUserInfo userInfo) {
+        if (userInfo.getEmail() == null || !userInfo.isEmailVerified()) {
+            throw new RuntimeException("OAuth login failed");
+        }
+
+        User user = userRepository.findByEmail(userInfo.getEmail().toLowerCase())
+                .orElseGet(() -> createUser(userInfo));
+        if (user.getEmailVerifiedAt() == null) {
+            user = claimUnverifiedAccount(user);
+        }
+
+        OAuthIdentity identity = new OAuthIdentity();
+        identity.setUser(user);
+        identity.setProvider(GOOGLE);
+        identity.setProviderUserId(userInfo.getSub());
+        oAuthIdentityRepository.save(identity);
+        return user;
+    }
+
+    /**
+     * Nobody has proven ownership of an unverified local account, so it may have been registered
+     * in advance by someone else. Google has verified the address, so the account goes to the
+     * Google user, but nothing the registrant set up survives: the password, any sessions and any
+     * outstanding verification or reset links are removed. The owner can set a password later
+     * through the reset flow.
+     */
+    private User claimUnverifiedAccount(User user) {
+        LocalDateTime now = LocalDateTime.now();
+        passwordCredentialRepository.findByUser(user).ifPresent(passwordCredentialRepository::delete);
+        sessionRepository.revokeAllUserSessions(user, now);
+        tokenRepository.invalidateUserTokens(user, "email_verify", now);
+        tokenRepository.invalidateUserTokens(user, "password_reset", now);
+        user.setEmailVerifiedAt(now);
+        return userRepository.save(user);
+    }
+
+    private User createUser(OAuthUserInfo userInfo) {
+        User user = new User();
+        user.setEmail(userInfo.getEmail().toLowerCase());
+        user.setEmailVerifiedAt(LocalDateTime.now());
+        user.setProfileSetupDone(false);
+        user = userRepository.save(user);
+        knownEmailFilter.add(user.getEmail());
+
+        UserProfile profile = new UserProfile();
+        profile.setUser(user);
+        profile.setFirstName(userInfo.getGivenName());
+        profile.setLastName(userInfo.getFamilyName());
+        profile.setDisplayName(userInfo.getName());
+        profile.setAvatarUrl(userInfo.getPicture());
+        userProfileRepository.save(profile);
+        userSearchIndex.updateAfterCommit(user.getId(), profile.getDisplayName(), profile.getFirstName(),
+                profile.getLastName(), true);
+        return user;
+    }
+
+    /**
+     * The ID token comes straight from the token endpoint over TLS, so per OIDC Core 3.1.3.7 the
+     * signature check may be skipped; we still bind it to this flow via nonce, audience and subject,
+     * and reject it once expired or when another issuer minted it.
+     */
+    private void verifyIdToken(String idToken, String expectedNonce, String expectedSubject) {
+        String[] parts = idToken.split("\\.");
+        if (parts.length < 2) {
+            throw new RuntimeException("OAuth login failed");
+        }
+        try {
+            JsonNode claims = objectMapper.readTree(Base64.getUrlDecoder().decode(parts[1]));
+            boolean audienceMatches = claims.path("aud").isArray()
+                    ? claims.path("aud").toString().contains("\"" + googleOAuthClient.clientId() + "\"")
+                    : googleOAuthClient.clientId().equals(claims.path("aud").asText());
+            if (!expectedNonce.equals(claims.path("nonce").asText())
+                    || !expectedSubject.equals(claims.path("sub").asText())
+                    || !audienceMatches
+                    || !GOOGLE_ISSUERS.contains(claims.path("iss").asText())
+                    || claims.path("exp").asLong() <= Instant.now().getEpochSecond()) {
+                throw new RuntimeException("OAuth login failed");
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            throw new RuntimeException("OAuth login failed", e);
+        }
+    }
+
+    private String codeChallenge(String codeVerifier) {
+        return sha256(codeVerifier);
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(value.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String randomToken(int bytes) {
+        byte[] tokenBytes = new byte[bytes];
+        secureRandom.nextBytes(tokenBytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
+    }
+}
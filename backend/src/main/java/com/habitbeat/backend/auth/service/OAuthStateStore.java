@@ -0,0 +1,75 @@
+package com.habitbeat.backend.auth.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.habitbeat.backend.auth.config.OAuthProperties;
+import com.habitbeat.backend.auth.model.OAuthState;
+import com.habitbeat.backend.common.redis.RedisGuard;
+import com.habitbeat.backend.common.redis.RedisResilienceProperties;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Pending OAuth flows live in Redis so the callback can land on any node. States created while
+ * Redis is unavailable are kept on the node that issued them, which only completes if the callback
+ * comes back to the same node.
+ */
+@Component
+public class OAuthStateStore {
+    private static final String KEY_PREFIX = "oauth:state:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final OAuthProperties oAuthProperties;
+    private final RedisGuard redisGuard;
+    private final Cache<String, String> localStates;
+
+    public OAuthStateStore(RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper,
+                           OAuthProperties oAuthProperties, RedisGuard redisGuard,
+                           RedisResilienceProperties resilienceProperties) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.oAuthProperties = oAuthProperties;
+        this.redisGuard = redisGuard;
+        this.localStates = Caffeine.newBuilder()
+                .maximumSize(resilienceProperties.getLocalCacheMaxEntries())
+                .expireAfterWrite(oAuthProperties.getStateTtl())
+                .build();
+    }
+
+    public void save(OAuthState state) {
+        String key = KEY_PREFIX + state.getState();
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(state);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize OAuth state", e);
+        }
+        redisGuard.run("oauth-state",
+                () -> redisTemplate.opsForValue().set(key, json, oAuthProperties.getStateTtl()),
+                () -> localStates.put(key, json));
+    }
+
+    /**
+     * Atomically reads and removes the state (GETDEL), so a replayed callback can never reuse it.
+     */
+    public Optional<OAuthState> consume(String state) {
+        String key = KEY_PREFIX + state;
+        String json = localStates.asMap().remove(key);
+        if (json == null) {
+            json = redisGuard.call("oauth-state", () -> redisTemplate.opsForValue().getAndDelete(key), () -> null);
+        }
+        if (json == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(json, OAuthState.class));
+        } catch (JsonProcessingException e) {
+            return Optional.empty();
+        }
+    }
+}
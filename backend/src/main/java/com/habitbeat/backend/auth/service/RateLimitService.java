@@ -1,34 +1,44 @@
 package com.habitbeat.backend.auth.service;
 
+import com.habitbeat.backend.common.redis.LocalRateLimiter;
+import com.habitbeat.backend.common.redis.RedisGuard;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.List;
 
+/**
+ * Fixed-window limits shared across nodes through Redis, one round trip per check. While Redis is
+ * unavailable each node enforces the same limits on its own.
+ */
 @Service
 @RequiredArgsConstructor
 public class RateLimitService {
+    // The window starts with the first attempt and is never extended by later ones
+    private static final RedisScript<Long> INCREMENT = new DefaultRedisScript<>(
+            "local n = redis.call('INCR', KEYS[1]) " +
+            "if n == 1 then redis.call('PEXPIRE', KEYS[1], ARGV[1]) end " +
+            "return n",
+            Long.class);
+
     private final RedisTemplate<String, String> redisTemplate;
-    
+    private final RedisGuard redisGuard;
+    private final LocalRateLimiter localRateLimiter;
+
     public boolean isAllowed(String key, int maxAttempts, Duration window) {
-        String currentCount = redisTemplate.opsForValue().get(key);
-        
-        if (currentCount == null) {
-            redisTemplate.opsForValue().set(key, "1", window);
-            return true;
-        }
-        
-        int count = Integer.parseInt(currentCount);
-        if (count >= maxAttempts) {
-            return false;
-        }
-        
-        redisTemplate.opsForValue().increment(key);
-        return true;
+        return redisGuard.call("rate-limit", () -> {
+            Long count = redisTemplate.execute(INCREMENT, List.of(key), String.valueOf(window.toMillis()));
+            return count == null || count <= maxAttempts;
+        }, () -> localRateLimiter.tryAcquire(key, maxAttempts, window));
     }
-    
+
     public void reset(String key) {
-        redisTemplate.delete(key);
+        localRateLimiter.reset(key);
+        redisGuard.run("rate-limit", () -> redisTemplate.delete(key), () -> {
+        });
     }
-}
\ No newline at end of file
+}
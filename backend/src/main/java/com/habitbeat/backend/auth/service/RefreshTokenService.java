@@ -1,26 +1,74 @@
 package com.habitbeat.backend.auth.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.habitbeat.backend.auth.config.JwtProperties;
 import com.habitbeat.backend.auth.model.Session;
 import com.habitbeat.backend.auth.model.User;
 import com.habitbeat.backend.auth.repository.SessionRepository;
-import lombok.RequiredArgsConstructor;
+import com.habitbeat.backend.auth.util.TokenFingerprint;
+import com.habitbeat.backend.common.redis.RedisGuard;
+import com.habitbeat.backend.common.redis.RedisResilienceProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class RefreshTokenService {
+    // Covers one selector lookup and one bcrypt compare with a wide margin
+    private static final Duration ROTATION_LOCK_TTL = Duration.ofSeconds(5);
+    private static final long LOCK_POLL_MILLIS = 25;
+    private static final int MAX_USER_AGENT_LENGTH = 512;
+    private static final RedisScript<Long> RELEASE_LOCK = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+            Long.class);
+
     private final SessionRepository sessionRepository;
     private final JwtProperties jwtProperties;
     private final PasswordEncoder passwordEncoder;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisGuard redisGuard;
+    // Reuse window for rotations that could not be recorded in Redis
+    private final Cache<String, String> localRotations;
     private final SecureRandom secureRandom = new SecureRandom();
+    private final ConcurrentHashMap<String, CompletableFuture<Optional<RotatedToken>>> inFlightRotations =
+            new ConcurrentHashMap<>();
+
+    public RefreshTokenService(SessionRepository sessionRepository, JwtProperties jwtProperties,
+                               PasswordEncoder passwordEncoder, RedisTemplate<String, String> redisTemplate,
+                               RedisGuard redisGuard, RedisResilienceProperties resilienceProperties) {
+        this.sessionRepository = sessionRepository;
+        this.jwtProperties = jwtProperties;
+        this.passwordEncoder = passwordEncoder;
+        this.redisTemplate = redisTemplate;
+        this.redisGuard = redisGuard;
+        this.localRotations = Caffeine.newBuilder()
+                .maximumSize(resilienceProperties.getLocalCacheMaxEntries())
+                .expireAfterWrite(jwtProperties.getRefreshReuseWindow())
+                .build();
+    }
+
+    /**
+     * {@code refreshToken} is null when the rotation was done earlier by another request: the
+     * client's cookie already holds the new token from that response, so it is not sent again.
+     */
+    public record RotatedToken(UUID sessionId, UUID userId, String email, String refreshToken) {
+    }
 
     public String generateRefreshToken() {
         byte[] tokenBytes = new byte[jwtProperties.getRefreshTokenBytes()];
@@ -32,35 +80,174 @@ public class RefreshTokenService {
         Session session = new Session();
         session.setUser(user);
         session.setSessionTokenHash(passwordEncoder.encode(refreshToken));
+        session.setTokenSelector(fingerprint(refreshToken));
         session.setExpiresAt(LocalDateTime.now().plus(jwtProperties.getRefreshTokenExpiry()));
         session.setIp(ip);
-        session.setUserAgent(userAgent);
+        // Bounded so the row fits the covering active-devices index
+        session.setUserAgent(userAgent != null && userAgent.length() > MAX_USER_AGENT_LENGTH
+                ? userAgent.substring(0, MAX_USER_AGENT_LENGTH) : userAgent);
         session.setLastUsedAt(LocalDateTime.now());
         return sessionRepository.save(session);
     }
 
-    public Optional<Session> validateAndRotateToken(String refreshToken) {
-        List<Session> validSessions = sessionRepository.findValidSessions(LocalDateTime.now());
-        return validSessions.stream()
+    /**
+     * Rotates a refresh token at most once no matter how many tabs present it at the same time.
+     * Concurrent callers on this node share one in-flight rotation; callers on other nodes wait on a
+     * short Redis lock, and anyone arriving within the reuse window is let through on the
+     * already-rotated session, if it is still live, instead of getting a spurious "Invalid refresh token".
+     */
+    public Optional<RotatedToken> rotate(String refreshToken) {
+        String fingerprint = fingerprint(refreshToken);
+        CompletableFuture<Optional<RotatedToken>> rotation = new CompletableFuture<>();
+        CompletableFuture<Optional<RotatedToken>> existing = inFlightRotations.putIfAbsent(fingerprint, rotation);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        try {
+            Optional<RotatedToken> result = rotateOnce(fingerprint, refreshToken);
+            rotation.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            rotation.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightRotations.remove(fingerprint, rotation);
+        }
+    }
+
+    public Optional<Session> findValidSession(String refreshToken) {
+        return findValidSession(fingerprint(refreshToken), refreshToken);
+    }
+
+    public void revokeSession(Session session) {
+        session.setRevokedAt(LocalDateTime.now());
+        sessionRepository.save(session);
+    }
+
+    private Optional<RotatedToken> rotateOnce(String fingerprint, String refreshToken) {
+        Optional<RotatedToken> recent = recentRotation(fingerprint);
+        if (recent.isPresent()) {
+            return recent;
+        }
+
+        String lockKey = "refresh:lock:" + fingerprint;
+        String owner = UUID.randomUUID().toString();
+        if (!tryLock(lockKey, owner)) {
+            return awaitRotationByOtherNode(fingerprint, lockKey);
+        }
+
+        try {
+            // Another node may have finished between our first look and taking the lock
+            recent = recentRotation(fingerprint);
+            if (recent.isPresent()) {
+                return recent;
+            }
+            Optional<RotatedToken> rotated = rotateInDatabase(fingerprint, refreshToken);
+            rotated.ifPresent(token -> rememberRotation(fingerprint, token));
+            return rotated;
+        } finally {
+            unlock(lockKey, owner);
+        }
+    }
+
+    /**
+     * One index probe on the selector and one bcrypt compare. Only sessions issued before the
+     * selector existed still need the scan, and those drain as they rotate or expire.
+     */
+    private Optional<Session> findValidSession(String selector, String refreshToken) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<Session> session = sessionRepository.findValidBySelector(selector, now)
+                .filter(s -> passwordEncoder.matches(refreshToken, s.getSessionTokenHash()));
+        if (session.isPresent()) {
+            return session;
+        }
+        return sessionRepository.findValidLegacySessions(now).stream()
                 .filter(s -> passwordEncoder.matches(refreshToken, s.getSessionTokenHash()))
-                .findFirst()
+                .findFirst();
+    }
+
+    private Optional<RotatedToken> rotateInDatabase(String fingerprint, String refreshToken) {
+        return findValidSession(fingerprint, refreshToken)
                 .map(session -> {
                     String newToken = generateRefreshToken();
                     session.setSessionTokenHash(passwordEncoder.encode(newToken));
+                    session.setTokenSelector(fingerprint(newToken));
                     session.setLastUsedAt(LocalDateTime.now());
-                    return sessionRepository.save(session);
+                    Session saved = sessionRepository.save(session);
+                    return new RotatedToken(saved.getId(), saved.getUser().getId(),
+                            saved.getUser().getEmail(), newToken);
                 });
     }
-    
-    public Optional<Session> findValidSession(String refreshToken) {
-        List<Session> validSessions = sessionRepository.findValidSessions(LocalDateTime.now());
-        return validSessions.stream()
-                .filter(s -> passwordEncoder.matches(refreshToken, s.getSessionTokenHash()))
-                .findFirst();
+
+    private Optional<RotatedToken> awaitRotationByOtherNode(String fingerprint, String lockKey) {
+        long deadline = System.nanoTime() + ROTATION_LOCK_TTL.toNanos();
+        while (System.nanoTime() < deadline) {
+            Optional<RotatedToken> recent = recentRotation(fingerprint);
+            if (recent.isPresent()) {
+                return recent;
+            }
+            if (!lockHeld(lockKey)) {
+                // Holder finished without rotating: the token was not valid
+                return recentRotation(fingerprint);
+            }
+            try {
+                Thread.sleep(LOCK_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return Optional.empty();
     }
 
-    public void revokeSession(Session session) {
-        session.setRevokedAt(LocalDateTime.now());
-        sessionRepository.save(session);
+    private boolean tryLock(String lockKey, String owner) {
+        // Without Redis we still coalesce in-process; cross-node races fall back to the old behaviour
+        return redisGuard.call("refresh-rotation",
+                () -> Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, owner, ROTATION_LOCK_TTL)),
+                () -> true);
+    }
+
+    private boolean lockHeld(String lockKey) {
+        return redisGuard.call("refresh-rotation", () -> Boolean.TRUE.equals(redisTemplate.hasKey(lockKey)), () -> false);
+    }
+
+    private void unlock(String lockKey, String owner) {
+        redisGuard.run("refresh-rotation", () -> redisTemplate.execute(RELEASE_LOCK, List.of(lockKey), owner),
+                () -> log.debug("Refresh rotation lock {} left to expire", lockKey));
+    }
+
+    /**
+     * Only the session id is remembered, never the new token. The session is re-read so a logout,
+     * device revoke or password reset inside the reuse window is honoured.
+     */
+    private Optional<RotatedToken> recentRotation(String fingerprint) {
+        String key = "refresh:rotated:" + fingerprint;
+        String value = localRotations.getIfPresent(key);
+        if (value == null) {
+            value = redisGuard.call("refresh-rotation", () -> redisTemplate.opsForValue().get(key), () -> null);
+        }
+        if (value == null) {
+            return Optional.empty();
+        }
+        return sessionRepository.findValidById(UUID.fromString(value), LocalDateTime.now())
+                .map(session -> new RotatedToken(session.getId(), session.getUser().getId(),
+                        session.getUser().getEmail(), null));
+    }
+
+    private void rememberRotation(String fingerprint, RotatedToken token) {
+        String value = token.sessionId().toString();
+        String key = "refresh:rotated:" + fingerprint;
+        redisGuard.run("refresh-rotation",
+                () -> redisTemplate.opsForValue().set(key, value, jwtProperties.getRefreshReuseWindow()),
+                () -> localRotations.put(key, value));
+    }
+
+    private String fingerprint(String refreshToken) {
+        return TokenFingerprint.of(refreshToken);
     }
-}
\ No newline at end of file
+}
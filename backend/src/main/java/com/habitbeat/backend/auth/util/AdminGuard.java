@@ -0,0 +1,27 @@
+package com.habitbeat.backend.auth.util;
+
+import com.habitbeat.backend.auth.config.AdminProperties;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+public class AdminGuard {
+    private final CurrentUserResolver currentUserResolver;
+    private final AdminProperties adminProperties;
+
+    public UUID requireAdmin(HttpServletRequest request) {
+        Claims claims = currentUserResolver.requireClaims(request);
+        String email = claims.get("email", String.class);
+        boolean isAdmin = email != null && adminProperties.getEmails().stream()
+                .anyMatch(admin -> admin.equalsIgnoreCase(email));
+        if (!isAdmin) {
+            throw new RuntimeException("Admin access required");
+        }
+        return UUID.fromString(claims.getSubject());
+    }
+}
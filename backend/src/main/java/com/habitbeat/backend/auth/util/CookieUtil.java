@@ -5,9 +5,14 @@ import jakarta.servlet.http.Cookie;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Component
 @RequiredArgsConstructor
 public class CookieUtil {
+    public static final String OAUTH_STATE_COOKIE = "oauthState";
+    private static final String OAUTH_PATH = "/auth/oauth";
+
     private final JwtProperties jwtProperties;
 
     public Cookie createRefreshTokenCookie(String refreshToken) {
@@ -33,4 +38,28 @@ public class CookieUtil {
         }
         return cookie;
     }
-}
\ No newline at end of file
+
+    /**
+     * Binds a pending OAuth flow to the browser that started it. Lax still sends it on the top-level
+     * redirect back from the provider, and it never leaves the /auth/oauth paths.
+     */
+    public Cookie createOAuthStateCookie(String stateHash, Duration ttl, boolean secure) {
+        Cookie cookie = new Cookie(OAUTH_STATE_COOKIE, stateHash);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(secure);
+        cookie.setPath(OAUTH_PATH);
+        cookie.setMaxAge((int) ttl.toSeconds());
+        cookie.setAttribute("SameSite", "Lax");
+        return cookie;
+    }
+
+    public Cookie createExpiredOAuthStateCookie(boolean secure) {
+        Cookie cookie = new Cookie(OAUTH_STATE_COOKIE, "");
+        cookie.setHttpOnly(true);
+        cookie.setSecure(secure);
+        cookie.setPath(OAUTH_PATH);
+        cookie.setMaxAge(0);
+        cookie.setAttribute("SameSite", "Lax");
+        return cookie;
+    }
+}
@@ -0,0 +1,66 @@
+package com.habitbeat.backend.auth.util;
+
+import com.habitbeat.backend.auth.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Component
+@RequiredArgsConstructor
+public class CurrentUserResolver {
+    private static final String BEARER_PREFIX = "Bearer ";
+    // Claims of the current request, so filters and the controller verify the token only once
+    private static final String CLAIMS_ATTRIBUTE = CurrentUserResolver.class.getName() + ".claims";
+
+    private final JwtService jwtService;
+
+    public UUID requireUserId(HttpServletRequest request) {
+        return UUID.fromString(requireClaims(request).getSubject());
+    }
+
+    /**
+     * Like {@link #requireUserId} but for callers that also serve anonymous requests.
+     */
+    public Optional<UUID> findUserId(HttpServletRequest request) {
+        if (request.getAttribute(CLAIMS_ATTRIBUTE) instanceof Claims claims) {
+            return Optional.of(UUID.fromString(claims.getSubject()));
+        }
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(UUID.fromString(validate(request, authHeader).getSubject()));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    public Claims requireClaims(HttpServletRequest request) {
+        if (request.getAttribute(CLAIMS_ATTRIBUTE) instanceof Claims claims) {
+            return claims;
+        }
+        String authHeader = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith(BEARER_PREFIX)) {
+            throw new RuntimeException("Missing access token");
+        }
+
+        try {
+            return validate(request, authHeader);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new RuntimeException("Invalid access token");
+        }
+    }
+
+    private Claims validate(HttpServletRequest request, String authHeader) {
+        Claims claims = jwtService.validateToken(authHeader.substring(BEARER_PREFIX.length()));
+        request.setAttribute(CLAIMS_ATTRIBUTE, claims);
+        return claims;
+    }
+}
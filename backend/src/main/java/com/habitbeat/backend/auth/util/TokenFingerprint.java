@@ -0,0 +1,25 @@
+package com.habitbeat.backend.auth.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 of a high-entropy opaque token, used as its indexed lookup key. The bcrypt hash stored
+ * next to it is still what the token is verified against.
+ */
+public final class TokenFingerprint {
+
+    private TokenFingerprint() {
+    }
+
+    public static String of(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
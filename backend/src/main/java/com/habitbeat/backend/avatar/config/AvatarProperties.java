@@ -0,0 +1,24 @@
+package com.habitbeat.backend.avatar.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "avatar")
+@Data
+public class AvatarProperties {
+    private Path storageDir = Path.of("data", "avatars");
+    // Square edge lengths in pixels; the largest is served when no size is requested
+    private List<Integer> sizes = List.of(64, 128, 256);
+    private DataSize maxUploadSize = DataSize.ofMegabytes(5);
+    // Decoding and scaling is CPU-heavy; bound it so uploads cannot starve request threads
+    private int workerThreads = 2;
+    private int workerQueueCapacity = 64;
+    private DataSize hotCacheSize = DataSize.ofMegabytes(16);
+    private DataSize hotCacheMaxEntrySize = DataSize.ofKilobytes(64);
+}
@@ -0,0 +1,103 @@
+package com.habitbeat.backend.avatar.controller;
+
+import com.habitbeat.backend.auth.util.CurrentUserResolver;
+import com.habitbeat.backend.avatar.dto.AvatarUploadResponse;
+import com.habitbeat.backend.avatar.service.AvatarByteCache;
+import com.habitbeat.backend.avatar.service.AvatarService;
+import com.habitbeat.backend.avatar.service.AvatarStorage;
+import com.habitbeat.backend.common.util.ETagUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+public class AvatarController {
+    // Names are content hashes, so a given URL can never change underneath a cache
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final AvatarService avatarService;
+    private final AvatarStorage avatarStorage;
+    private final AvatarByteCache avatarByteCache;
+    private final CurrentUserResolver currentUserResolver;
+    private final ETagUtil eTagUtil;
+
+    @PostMapping(value = "/users/me/avatar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<AvatarUploadResponse> upload(@RequestParam("file") MultipartFile file,
+                                                       HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(avatarService.upload(userId, file));
+    }
+
+    @GetMapping("/avatars/{hash}")
+    public void serve(@PathVariable String hash,
+                      @RequestParam(required = false) Integer size,
+                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                      HttpServletRequest request,
+                      HttpServletResponse response) throws IOException {
+        if (!AvatarStorage.isValidHash(hash)) {
+            throw new RuntimeException("Avatar not found");
+        }
+        int edge = avatarService.resolveSize(size);
+        String key = hash + "-" + edge;
+        String eTag = "\"" + key + "\"";
+        if (eTagUtil.matches(ifNoneMatch, eTag)) {
+            // Existence is implied: the client could only have this tag from an earlier 200
+            writeCacheHeaders(response, eTag);
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        byte[] cached = avatarByteCache.get(key);
+        if (cached != null) {
+            writeCacheHeaders(response, eTag);
+            response.setContentLength(cached.length);
+            response.getOutputStream().write(cached);
+            return;
+        }
+
+        Path path = avatarStorage.pathFor(hash, edge);
+        if (!Files.isRegularFile(path)) {
+            throw new RuntimeException("Avatar not found");
+        }
+        long length = Files.size(path);
+        writeCacheHeaders(response, eTag);
+        response.setContentLengthLong(length);
+
+        if (avatarByteCache.shouldAdmit(key, length)) {
+            byte[] bytes = Files.readAllBytes(path);
+            avatarByteCache.put(key, bytes);
+            response.getOutputStream().write(bytes);
+        } else if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat hands the file to the kernel after the servlet returns; no bytes cross the heap
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+        } else {
+            // Without sendfile the servlet stream is the only way out, so this copies through a heap buffer
+            Files.copy(path, response.getOutputStream());
+        }
+    }
+
+    private void writeCacheHeaders(HttpServletResponse response, String eTag) {
+        response.setContentType(MediaType.IMAGE_JPEG_VALUE);
+        response.setHeader(HttpHeaders.ETAG, eTag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+    }
+}
@@ -0,0 +1,14 @@
+package com.habitbeat.backend.avatar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvatarUploadResponse {
+    private String hash;
+    // Set on the profile once every size has been written
+    private String avatarUrl;
+}
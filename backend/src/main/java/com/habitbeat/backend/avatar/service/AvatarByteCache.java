@@ -0,0 +1,75 @@
+package com.habitbeat.backend.avatar.service;
+
+import com.habitbeat.backend.avatar.config.AvatarProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small LRU of rendered avatar bytes, bounded by total size. A file is only admitted on its
+ * second request within the recent-miss window, so one-off views go straight from disk and do
+ * not push hot avatars out.
+ */
+@Component
+public class AvatarByteCache {
+    private static final int RECENT_MISS_ENTRIES = 4096;
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final LinkedHashMap<String, Boolean> recentMisses = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > RECENT_MISS_ENTRIES;
+        }
+    };
+    private long totalBytes;
+    // Mirrors totalBytes for the gauge, which must not hold a reference to this during construction
+    private final AtomicLong reportedBytes = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+
+    public AvatarByteCache(AvatarProperties properties, MeterRegistry meterRegistry) {
+        this.maxBytes = properties.getHotCacheSize().toBytes();
+        this.maxEntryBytes = properties.getHotCacheMaxEntrySize().toBytes();
+        this.hits = Counter.builder("avatar.cache.hits").register(meterRegistry);
+        this.misses = Counter.builder("avatar.cache.misses").register(meterRegistry);
+        Gauge.builder("avatar.cache.bytes", reportedBytes, AtomicLong::get).register(meterRegistry);
+    }
+
+    public synchronized byte[] get(String key) {
+        byte[] bytes = entries.get(key);
+        if (bytes != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return bytes;
+    }
+
+    /**
+     * @return true if a file of this length requested under this key should now be cached
+     */
+    public synchronized boolean shouldAdmit(String key, long length) {
+        if (length > maxEntryBytes) {
+            return false;
+        }
+        return recentMisses.remove(key) != null || recentMisses.put(key, Boolean.TRUE) != null;
+    }
+
+    public synchronized void put(String key, byte[] bytes) {
+        byte[] previous = entries.put(key, bytes);
+        totalBytes += bytes.length - (previous != null ? previous.length : 0);
+        var eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().length;
+            eldest.remove();
+        }
+        reportedBytes.set(totalBytes);
+    }
+}
@@ -0,0 +1,228 @@
+package com.habitbeat.backend.avatar.service;
+
+import com.habitbeat.backend.avatar.config.AvatarProperties;
+import com.habitbeat.backend.avatar.dto.AvatarUploadResponse;
+import com.habitbeat.backend.user.service.UserProfileService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accepts avatar uploads and renders each configured size on a small bounded pool. Uploads are
+ * keyed by the SHA-256 of the original bytes, so re-uploading an image already on disk only
+ * repoints the profile. The profile's avatar URL is switched once every size has been written,
+ * unless an upload received later has already been applied.
+ */
+@Service
+@Slf4j
+public class AvatarService {
+    public static final String URL_PREFIX = "/api/avatars/";
+
+    // Refuse anything that would decode into a huge raster before touching the pixel data
+    private static final int MAX_SOURCE_EDGE = 4096;
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private final AvatarProperties properties;
+    private final AvatarStorage storage;
+    private final UserProfileService userProfileService;
+    private final ThreadPoolExecutor workers;
+    private final Counter processed;
+    private final Counter failed;
+
+    public AvatarService(AvatarProperties properties, AvatarStorage storage,
+                         UserProfileService userProfileService, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.storage = storage;
+        this.userProfileService = userProfileService;
+        AtomicInteger threadIds = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(
+                properties.getWorkerThreads(), properties.getWorkerThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getWorkerQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "avatar-worker-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.processed = Counter.builder("avatar.processing").tag("outcome", "processed").register(meterRegistry);
+        this.failed = Counter.builder("avatar.processing").tag("outcome", "failed").register(meterRegistry);
+        Gauge.builder("avatar.processing.queued", workers, executor -> executor.getQueue().size())
+                .register(meterRegistry);
+    }
+
+    public AvatarUploadResponse upload(UUID userId, MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("Avatar image is required");
+        }
+        if (file.getSize() > properties.getMaxUploadSize().toBytes()) {
+            throw new IllegalArgumentException("Avatar image is too large");
+        }
+
+        byte[] original;
+        try {
+            original = file.getBytes();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Avatar image could not be read");
+        }
+        // Check the header synchronously so the caller gets a 400 rather than a silent failure
+        readDimensions(original);
+
+        String hash = sha256(original);
+        String avatarUrl = URL_PREFIX + hash;
+        LocalDateTime requestedAt = LocalDateTime.now();
+        if (storage.hasAllSizes(hash)) {
+            userProfileService.updateAvatarUrl(userId, avatarUrl, requestedAt);
+            return new AvatarUploadResponse(hash, avatarUrl);
+        }
+
+        try {
+            workers.execute(() -> process(userId, hash, original, requestedAt));
+        } catch (RejectedExecutionException e) {
+            throw new RuntimeException("Avatar processing busy");
+        }
+        return new AvatarUploadResponse(hash, avatarUrl);
+    }
+
+    /**
+     * Picks the smallest configured size that is at least the requested edge, or the largest one.
+     */
+    public int resolveSize(Integer requested) {
+        int largest = 0;
+        int best = Integer.MAX_VALUE;
+        for (int size : properties.getSizes()) {
+            largest = Math.max(largest, size);
+            if (requested != null && size >= requested && size < best) {
+                best = size;
+            }
+        }
+        return best == Integer.MAX_VALUE ? largest : best;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    private void process(UUID userId, String hash, byte[] original, LocalDateTime requestedAt) {
+        try {
+            BufferedImage source = ImageIO.read(new ByteArrayInputStream(original));
+            if (source == null) {
+                throw new IOException("No image reader for upload");
+            }
+            BufferedImage square = centerSquare(source);
+            for (int size : properties.getSizes()) {
+                storage.write(hash, size, encodeJpeg(scale(square, size)));
+            }
+            pointProfileAt(userId, hash, requestedAt);
+            processed.increment();
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("Avatar processing failed for user {} ({}): {}", userId, hash, e.getMessage());
+        }
+    }
+
+    private void pointProfileAt(UUID userId, String hash, LocalDateTime requestedAt) {
+        try {
+            userProfileService.updateAvatarUrl(userId, URL_PREFIX + hash, requestedAt);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            // The profile changed under us; re-read it, which also re-checks that this upload is still the newest
+            userProfileService.updateAvatarUrl(userId, URL_PREFIX + hash, requestedAt);
+        }
+    }
+
+    private void readDimensions(byte[] original) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(original))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IllegalArgumentException("Unsupported avatar image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                if (reader.getWidth(0) > MAX_SOURCE_EDGE || reader.getHeight(0) > MAX_SOURCE_EDGE) {
+                    throw new IllegalArgumentException("Avatar image dimensions are too large");
+                }
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unsupported avatar image format");
+        }
+    }
+
+    private BufferedImage centerSquare(BufferedImage source) {
+        int edge = Math.min(source.getWidth(), source.getHeight());
+        return source.getSubimage((source.getWidth() - edge) / 2, (source.getHeight() - edge) / 2, edge, edge);
+    }
+
+    private BufferedImage scale(BufferedImage square, int size) {
+        // JPEG has no alpha channel, so transparent areas are flattened onto white
+        BufferedImage target = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, size, size);
+            graphics.drawImage(square, 0, 0, size, size, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
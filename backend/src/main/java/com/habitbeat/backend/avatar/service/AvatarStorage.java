@@ -0,0 +1,51 @@
+package com.habitbeat.backend.avatar.service;
+
+import com.habitbeat.backend.avatar.config.AvatarProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed avatar files: {@code {dir}/{hash[0..2]}/{hash}-{size}.jpg}, where hash is the
+ * SHA-256 of the uploaded original. A name never changes content, so files are written once
+ * (atomically) and can be cached forever by clients.
+ */
+@Component
+@RequiredArgsConstructor
+public class AvatarStorage {
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private final AvatarProperties properties;
+
+    public static boolean isValidHash(String hash) {
+        return hash != null && HASH.matcher(hash).matches();
+    }
+
+    public Path pathFor(String hash, int size) {
+        return properties.getStorageDir()
+                .resolve(hash.substring(0, 2))
+                .resolve(hash + "-" + size + ".jpg");
+    }
+
+    public boolean hasAllSizes(String hash) {
+        return properties.getSizes().stream().allMatch(size -> Files.exists(pathFor(hash, size)));
+    }
+
+    public void write(String hash, int size, byte[] bytes) throws IOException {
+        Path target = pathFor(hash, size);
+        Files.createDirectories(target.getParent());
+        // Readers must never see a partially written file under its final name
+        Path temp = Files.createTempFile(target.getParent(), hash, ".tmp");
+        try {
+            Files.write(temp, bytes);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
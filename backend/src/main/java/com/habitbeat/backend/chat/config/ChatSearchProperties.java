@@ -0,0 +1,20 @@
+package com.habitbeat.backend.chat.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "chat.search")
+@Data
+public class ChatSearchProperties {
+    // Text search configuration for both indexing and queries; a change needs a rebuild
+    private String textSearchConfig = "english";
+    private int indexBatchSize = 500;
+    private int rebuildBatchSize = 2000;
+    // Only the newest matches are ranked, which bounds the cost of very common terms
+    private int maxRankedMatches = 2000;
+    private int defaultLimit = 20;
+    private int maxLimit = 50;
+    private int maxQueryLength = 200;
+}
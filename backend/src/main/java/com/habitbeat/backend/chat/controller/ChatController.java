@@ -0,0 +1,70 @@
+package com.habitbeat.backend.chat.controller;
+
+import com.habitbeat.backend.auth.util.AdminGuard;
+import com.habitbeat.backend.auth.util.CurrentUserResolver;
+import com.habitbeat.backend.chat.dto.ChatMessagePageResponse;
+import com.habitbeat.backend.chat.dto.ChatMessageResponse;
+import com.habitbeat.backend.chat.dto.ChatSearchResponse;
+import com.habitbeat.backend.chat.dto.SendMessageRequest;
+import com.habitbeat.backend.chat.service.ChatSearchIndexer;
+import com.habitbeat.backend.chat.service.ChatService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequiredArgsConstructor
+public class ChatController {
+    private final ChatService chatService;
+    private final ChatSearchIndexer chatSearchIndexer;
+    private final CurrentUserResolver currentUserResolver;
+    private final AdminGuard adminGuard;
+
+    @PostMapping("/api/hives/{hiveId}/messages")
+    public ResponseEntity<ChatMessageResponse> send(
+            @PathVariable UUID hiveId,
+            @Valid @RequestBody SendMessageRequest body,
+            HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(chatService.send(userId, hiveId, body.getBody()));
+    }
+
+    @GetMapping("/api/hives/{hiveId}/messages")
+    public ResponseEntity<ChatMessagePageResponse> history(
+            @PathVariable UUID hiveId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        return ResponseEntity.ok(chatService.history(userId, hiveId, cursor, limit));
+    }
+
+    @GetMapping("/api/hives/{hiveId}/messages/search")
+    public ResponseEntity<ChatSearchResponse> search(
+            @PathVariable UUID hiveId,
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        return ResponseEntity.ok(chatService.search(userId, hiveId, query, limit, cursor));
+    }
+
+    @PostMapping("/api/admin/chat-search/rebuild")
+    public ResponseEntity<Map<String, Long>> rebuild(
+            @RequestParam(required = false) UUID hiveId,
+            HttpServletRequest request) {
+        adminGuard.requireAdmin(request);
+        long messages = chatSearchIndexer.rebuild(hiveId);
+        if (messages < 0) {
+            throw new RuntimeException("Chat search rebuild already running");
+        }
+        return ResponseEntity.ok(Map.of("messages", messages));
+    }
+}
@@ -0,0 +1,11 @@
+package com.habitbeat.backend.chat.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ChatMessagePageResponse {
+    private List<ChatMessageResponse> messages;
+    private String nextCursor;
+}
@@ -0,0 +1,15 @@
+package com.habitbeat.backend.chat.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+public class ChatMessageResponse {
+    private UUID id;
+    private UUID hiveId;
+    private UUID senderId;
+    private String body;
+    private LocalDateTime createdAt;
+}
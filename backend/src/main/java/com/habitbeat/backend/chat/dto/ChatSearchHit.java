@@ -0,0 +1,16 @@
+package com.habitbeat.backend.chat.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+public class ChatSearchHit {
+    private UUID messageId;
+    private UUID senderId;
+    private LocalDateTime createdAt;
+    // HTML-escaped excerpt with matched terms wrapped in <mark>
+    private String snippet;
+    private double rank;
+}
@@ -0,0 +1,11 @@
+package com.habitbeat.backend.chat.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ChatSearchResponse {
+    private List<ChatSearchHit> results;
+    private String nextCursor;
+}
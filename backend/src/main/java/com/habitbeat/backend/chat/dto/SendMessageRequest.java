@@ -0,0 +1,12 @@
+package com.habitbeat.backend.chat.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class SendMessageRequest {
+    @NotBlank
+    @Size(max = 4000)
+    private String body;
+}
@@ -0,0 +1,127 @@
+package com.habitbeat.backend.chat.repository;
+
+import com.habitbeat.backend.chat.dto.ChatMessageResponse;
+import com.habitbeat.backend.chat.dto.ChatSearchHit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+@RequiredArgsConstructor
+public class ChatMessageRepository {
+    private static final String INSERT_SQL = "INSERT INTO hive_messages (id, hive_id, sender_id, body, created_at) " +
+            "VALUES (?, ?, ?, ?, ?)";
+
+    private static final String PAGE_SQL = "SELECT id, hive_id, sender_id, body, created_at FROM hive_messages " +
+            "WHERE hive_id = ? AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC LIMIT ?";
+
+    // The GIN index on (hive_id, search_vector) finds the hive's matches; only the newest of them are
+    // ranked, and headlines (which re-parse the body) are built for the returned page alone. Bodies
+    // are HTML-escaped before highlighting so <mark> is the only markup in a snippet.
+    private static final String SEARCH_SQL = "WITH q AS (SELECT websearch_to_tsquery(?::regconfig, ?) AS query), " +
+            "candidates AS (" +
+            "SELECT m.id, m.sender_id, m.created_at, m.body, m.search_vector FROM hive_messages m, q " +
+            "WHERE m.hive_id = ? AND m.search_vector @@ q.query ORDER BY m.created_at DESC LIMIT ?" +
+            "), ranked AS (" +
+            "SELECT c.id, c.sender_id, c.created_at, c.body, ts_rank_cd(c.search_vector, q.query) AS rank " +
+            "FROM candidates c, q ORDER BY rank DESC, c.created_at DESC, c.id DESC LIMIT ? OFFSET ?" +
+            ") SELECT r.id, r.sender_id, r.created_at, r.rank, ts_headline(?::regconfig, " +
+            "replace(replace(replace(r.body, '&', '&amp;'), '<', '&lt;'), '>', '&gt;'), q.query, " +
+            "'StartSel=<mark>, StopSel=</mark>, MinWords=8, MaxWords=24, MaxFragments=2, FragmentDelimiter=\" ... \"') AS snippet " +
+            "FROM ranked r, q ORDER BY r.rank DESC, r.created_at DESC, r.id DESC";
+
+    // SKIP LOCKED lets every node run the indexer without two of them taking the same rows
+    private static final String INDEX_PENDING_SQL = "UPDATE hive_messages m SET search_vector = to_tsvector(?::regconfig, m.body) " +
+            "WHERE m.id IN (SELECT id FROM hive_messages WHERE search_vector IS NULL " +
+            "ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED)";
+
+    private static final String REINDEX_BATCH_SQL = "WITH batch AS (" +
+            "SELECT id FROM hive_messages WHERE hive_id = ? AND (created_at, id) > (?, ?) ORDER BY created_at, id LIMIT ?" +
+            "), updated AS (" +
+            "UPDATE hive_messages m SET search_vector = to_tsvector(?::regconfig, m.body) FROM batch b " +
+            "WHERE m.id = b.id RETURNING m.created_at, m.id" +
+            ") SELECT (SELECT COUNT(*) FROM updated) AS reindexed, created_at, id FROM updated " +
+            "ORDER BY created_at DESC, id DESC LIMIT 1";
+
+    private static final String HIVE_IDS_SQL = "SELECT id FROM hives WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final RowMapper<ChatMessageResponse> MESSAGE_MAPPER = (rs, rowNum) -> {
+        ChatMessageResponse message = new ChatMessageResponse();
+        message.setId(rs.getObject("id", UUID.class));
+        message.setHiveId(rs.getObject("hive_id", UUID.class));
+        message.setSenderId(rs.getObject("sender_id", UUID.class));
+        message.setBody(rs.getString("body"));
+        message.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        return message;
+    };
+
+    private static final RowMapper<ChatSearchHit> HIT_MAPPER = (rs, rowNum) -> {
+        ChatSearchHit hit = new ChatSearchHit();
+        hit.setMessageId(rs.getObject("id", UUID.class));
+        hit.setSenderId(rs.getObject("sender_id", UUID.class));
+        hit.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        hit.setRank(rs.getDouble("rank"));
+        hit.setSnippet(rs.getString("snippet"));
+        return hit;
+    };
+
+    /**
+     * Size of a reindex batch and the (createdAt, id) position of its last message.
+     */
+    public record ReindexBatch(int reindexed, LocalDateTime lastCreatedAt, UUID lastId) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insert(ChatMessageResponse message) {
+        jdbcTemplate.update(INSERT_SQL, message.getId(), message.getHiveId(), message.getSenderId(), message.getBody(),
+                Timestamp.valueOf(message.getCreatedAt()));
+    }
+
+    /**
+     * Newest-first messages strictly before the (createdAt, id) position.
+     */
+    public List<ChatMessageResponse> findPage(UUID hiveId, LocalDateTime beforeCreatedAt, UUID beforeId, int limit) {
+        return jdbcTemplate.query(PAGE_SQL, MESSAGE_MAPPER, hiveId, Timestamp.valueOf(beforeCreatedAt), beforeId, limit);
+    }
+
+    public List<ChatSearchHit> search(String textSearchConfig, UUID hiveId, String query, int maxRanked,
+                                      int limit, int offset) {
+        return jdbcTemplate.query(SEARCH_SQL, HIT_MAPPER, textSearchConfig, query, hiveId, maxRanked, limit, offset,
+                textSearchConfig);
+    }
+
+    /**
+     * Indexes up to {@code limit} of the oldest unindexed messages.
+     *
+     * @return number of messages indexed
+     */
+    public int indexPending(String textSearchConfig, int limit) {
+        return jdbcTemplate.update(INDEX_PENDING_SQL, textSearchConfig, limit);
+    }
+
+    /**
+     * Recomputes the vectors of the next {@code limit} messages of a hive after the given position,
+     * oldest first.
+     *
+     * @return the batch, or empty once the hive is done
+     */
+    public Optional<ReindexBatch> reindexBatch(String textSearchConfig, UUID hiveId, LocalDateTime afterCreatedAt,
+                                               UUID afterId, int limit) {
+        return jdbcTemplate.query(REINDEX_BATCH_SQL,
+                (rs, rowNum) -> new ReindexBatch(rs.getInt("reindexed"), rs.getTimestamp("created_at").toLocalDateTime(),
+                        rs.getObject("id", UUID.class)),
+                hiveId, Timestamp.valueOf(afterCreatedAt), afterId, limit, textSearchConfig).stream().findFirst();
+    }
+
+    public List<UUID> findHiveIdsAfter(UUID after, int limit) {
+        return jdbcTemplate.queryForList(HIVE_IDS_SQL, UUID.class, after, limit);
+    }
+}
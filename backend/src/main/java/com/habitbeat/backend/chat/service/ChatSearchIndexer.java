@@ -0,0 +1,114 @@
+package com.habitbeat.backend.chat.service;
+
+import com.habitbeat.backend.chat.config.ChatSearchProperties;
+import com.habitbeat.backend.chat.repository.ChatMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind maintenance of the chat search index. Sending a message is a plain insert; this
+ * indexer computes the tsvectors of new messages in batches shortly after, so tokenizing and GIN
+ * updates stay off the send path and reach the index a few hundred rows at a time. A rebuild
+ * streams each hive oldest-first in keyset batches, one short statement per batch, so it never
+ * holds locks for long and can run beside live traffic.
+ */
+@Service
+@Slf4j
+public class ChatSearchIndexer {
+    private static final UUID MIN_UUID = new UUID(0, 0);
+    private static final LocalDateTime BEFORE_ANY_MESSAGE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final int HIVE_PAGE_SIZE = 500;
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final ChatSearchProperties properties;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Counter indexed;
+    private final Timer indexTimer;
+
+    public ChatSearchIndexer(ChatMessageRepository chatMessageRepository, ChatSearchProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.chatMessageRepository = chatMessageRepository;
+        this.properties = properties;
+        this.indexed = Counter.builder("chat.search.indexed").register(meterRegistry);
+        this.indexTimer = Timer.builder("chat.search.index.batch").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${chat.search.index-interval-ms:500}")
+    public void indexPending() {
+        try {
+            int batch;
+            do {
+                batch = indexTimer.record(() -> chatMessageRepository.indexPending(
+                        properties.getTextSearchConfig(), properties.getIndexBatchSize()));
+                indexed.increment(batch);
+            } while (batch == properties.getIndexBatchSize());
+        } catch (RuntimeException e) {
+            log.error("Chat search indexing failed", e);
+        }
+    }
+
+    /**
+     * Reindexes one hive, or every hive when {@code hiveId} is null.
+     *
+     * @return number of messages reindexed, or -1 if a rebuild is already running on this node
+     */
+    public long rebuild(UUID hiveId) {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return -1;
+        }
+        long started = System.nanoTime();
+        try {
+            long messages = 0;
+            if (hiveId != null) {
+                messages = rebuildHive(hiveId);
+            } else {
+                UUID after = MIN_UUID;
+                List<UUID> hives;
+                do {
+                    hives = chatMessageRepository.findHiveIdsAfter(after, HIVE_PAGE_SIZE);
+                    for (UUID hive : hives) {
+                        messages += rebuildHive(hive);
+                    }
+                    if (!hives.isEmpty()) {
+                        after = hives.get(hives.size() - 1);
+                    }
+                } while (hives.size() == HIVE_PAGE_SIZE);
+            }
+            log.info("Rebuilt chat search index for {} messages in {} ms", messages,
+                    (System.nanoTime() - started) / 1_000_000);
+            return messages;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private long rebuildHive(UUID hiveId) {
+        int batchSize = properties.getRebuildBatchSize();
+        LocalDateTime afterCreatedAt = BEFORE_ANY_MESSAGE;
+        UUID afterId = MIN_UUID;
+        long messages = 0;
+        while (true) {
+            Optional<ChatMessageRepository.ReindexBatch> batch = chatMessageRepository.reindexBatch(
+                    properties.getTextSearchConfig(), hiveId, afterCreatedAt, afterId, batchSize);
+            if (batch.isEmpty()) {
+                return messages;
+            }
+            messages += batch.get().reindexed();
+            if (batch.get().reindexed() < batchSize) {
+                return messages;
+            }
+            afterCreatedAt = batch.get().lastCreatedAt();
+            afterId = batch.get().lastId();
+        }
+    }
+}
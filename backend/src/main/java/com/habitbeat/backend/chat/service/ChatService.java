@@ -0,0 +1,144 @@
+package com.habitbeat.backend.chat.service;
+
+import com.habitbeat.backend.chat.config.ChatSearchProperties;
+import com.habitbeat.backend.chat.dto.ChatMessagePageResponse;
+import com.habitbeat.backend.chat.dto.ChatMessageResponse;
+import com.habitbeat.backend.chat.dto.ChatSearchHit;
+import com.habitbeat.backend.chat.dto.ChatSearchResponse;
+import com.habitbeat.backend.chat.repository.ChatMessageRepository;
+import com.habitbeat.backend.hive.repository.HiveMemberRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Hive chat history and search. History is a newest-first keyset page over (created_at, id).
+ * Search runs against the per-hive GIN index that {@link ChatSearchIndexer} fills behind the
+ * writes, so a message becomes searchable within one indexer interval of being sent.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChatService {
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final UUID MIN_UUID = new UUID(0, 0);
+
+    private final ChatMessageRepository chatMessageRepository;
+    private final HiveMemberRepository hiveMemberRepository;
+    private final ChatSearchProperties properties;
+
+    public ChatMessageResponse send(UUID userId, UUID hiveId, String body) {
+        requireMember(hiveId, userId);
+        ChatMessageResponse message = new ChatMessageResponse();
+        message.setId(UUID.randomUUID());
+        message.setHiveId(hiveId);
+        message.setSenderId(userId);
+        message.setBody(body.strip());
+        message.setCreatedAt(LocalDateTime.now());
+        chatMessageRepository.insert(message);
+        return message;
+    }
+
+    public ChatMessagePageResponse history(UUID userId, UUID hiveId, String cursor, Integer limit) {
+        requireMember(hiveId, userId);
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        LocalDateTime beforeCreatedAt;
+        UUID beforeId;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            try {
+                beforeCreatedAt = LocalDateTime.parse(position[0]);
+                beforeId = UUID.fromString(position[1]);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        } else {
+            beforeCreatedAt = LocalDateTime.now().plusSeconds(1);
+            beforeId = MIN_UUID;
+        }
+
+        List<ChatMessageResponse> rows = chatMessageRepository.findPage(hiveId, beforeCreatedAt, beforeId, pageSize + 1);
+        ChatMessagePageResponse page = new ChatMessagePageResponse();
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            ChatMessageResponse last = rows.get(pageSize - 1);
+            page.setNextCursor(encodeCursor(last.getCreatedAt(), last.getId()));
+        }
+        page.setMessages(rows);
+        return page;
+    }
+
+    /**
+     * Ranked matches with highlighted snippets. Accepts web-search syntax: quoted phrases, "or" and
+     * a leading "-" to exclude a word. Pages past the ranked window come back empty.
+     */
+    public ChatSearchResponse search(UUID userId, UUID hiveId, String query, Integer limit, String cursor) {
+        String q = query == null ? "" : query.strip();
+        if (q.isEmpty()) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        if (q.length() > properties.getMaxQueryLength()) {
+            throw new IllegalArgumentException("Search query is too long");
+        }
+        requireMember(hiveId, userId);
+        int size = limit == null ? properties.getDefaultLimit() : Math.max(1, Math.min(limit, properties.getMaxLimit()));
+        int offset = parseOffset(cursor);
+
+        ChatSearchResponse response = new ChatSearchResponse();
+        if (offset >= properties.getMaxRankedMatches()) {
+            response.setResults(List.of());
+            return response;
+        }
+        List<ChatSearchHit> rows = chatMessageRepository.search(properties.getTextSearchConfig(), hiveId, q,
+                properties.getMaxRankedMatches(), size + 1, offset);
+        boolean hasMore = rows.size() > size;
+        response.setResults(hasMore ? rows.subList(0, size) : rows);
+        response.setNextCursor(hasMore ? String.valueOf(offset + size) : null);
+        return response;
+    }
+
+    private void requireMember(UUID hiveId, UUID userId) {
+        if (!hiveMemberRepository.isActiveMember(hiveId, userId)) {
+            throw new RuntimeException("Hive not found");
+        }
+    }
+
+    private int parseOffset(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            int offset = Integer.parseInt(cursor);
+            if (offset < 0) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+    }
+
+    private String encodeCursor(LocalDateTime createdAt, UUID id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
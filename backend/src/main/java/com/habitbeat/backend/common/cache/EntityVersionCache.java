@@ -0,0 +1,98 @@
+package com.habitbeat.backend.common.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.habitbeat.backend.common.redis.RedisGuard;
+import com.habitbeat.backend.common.redis.RedisResilienceProperties;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Holds the latest known version of frequently read entities so conditional GETs can be answered
+ * with 304 without touching Postgres. Versions only move forward: a slow reader can never overwrite
+ * a newer version published by a concurrent writer.
+ * <p>
+ * There is deliberately no local fallback: a per-node copy could miss another node's write and
+ * answer 304 for a stale version, so while Redis is unavailable every request is a miss. Writes
+ * skipped during an outage are remembered and their keys deleted once Redis is back, otherwise
+ * the version left behind in Redis would be served as current.
+ */
+@Component
+public class EntityVersionCache {
+    private static final Duration TTL = Duration.ofHours(1);
+    private static final RedisScript<Long> PUT_IF_NEWER = new DefaultRedisScript<>(
+            "local current = redis.call('GET', KEYS[1]) " +
+            "if (not current) or tonumber(current) < tonumber(ARGV[1]) then " +
+            "  redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) return 1 " +
+            "end " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[2]) return 0",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisGuard redisGuard;
+    private final Cache<String, Boolean> skippedWrites;
+
+    public EntityVersionCache(RedisTemplate<String, String> redisTemplate, RedisGuard redisGuard,
+                              RedisResilienceProperties resilienceProperties) {
+        this.redisTemplate = redisTemplate;
+        this.redisGuard = redisGuard;
+        // Anything older than the TTL has expired from Redis by itself
+        this.skippedWrites = Caffeine.newBuilder()
+                .maximumSize(resilienceProperties.getLocalCacheMaxEntries())
+                .expireAfterWrite(TTL)
+                .build();
+    }
+
+    public Optional<Long> get(String type, UUID id) {
+        String value = redisGuard.call("version-cache", () -> redisTemplate.opsForValue().get(key(type, id)), () -> null);
+        return value == null ? Optional.empty() : Optional.of(Long.parseLong(value));
+    }
+
+    public void put(String type, UUID id, long version) {
+        redisGuard.run("version-cache",
+                () -> redisTemplate.execute(PUT_IF_NEWER, List.of(key(type, id)),
+                        String.valueOf(version), String.valueOf(TTL.toMillis())),
+                () -> skippedWrites.put(key(type, id), Boolean.TRUE));
+    }
+
+    public void putAfterCommit(String type, UUID id, long version) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(type, id, version);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(type, id, version);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${redis.resilience.probe-interval-ms:1000}")
+    public void invalidateSkippedWrites() {
+        if (redisGuard.state() != RedisGuard.State.CLOSED || skippedWrites.estimatedSize() == 0) {
+            return;
+        }
+        Set<String> keys = Set.copyOf(skippedWrites.asMap().keySet());
+        redisGuard.run("version-cache", () -> {
+            redisTemplate.delete(keys);
+            skippedWrites.invalidateAll(keys);
+        }, () -> {
+        });
+    }
+
+    private String key(String type, UUID id) {
+        return "version:" + type + ":" + id;
+    }
+}
@@ -0,0 +1,106 @@
+package com.habitbeat.backend.common.concurrent;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free multi-producer ring buffer read by a fixed set of independent consumers
+ * (Disruptor-style). Every consumer sees every element in publish order through its own cursor;
+ * a slot is only reused once the slowest consumer has moved past it, so {@link #offer} fails fast
+ * when any consumer is a full ring behind. Each consumer index must be drained by one thread only.
+ * <p>
+ * The last consumer to read a slot clears it, so an element is not kept reachable from the ring
+ * once every consumer has handed it on, however long it takes producers to lap around.
+ */
+public final class MulticastRingBuffer<E> {
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    // Sequence last published into each slot; -1 until the first lap
+    private final AtomicLongArray published;
+    // Consumers that have yet to read each slot's current element
+    private final AtomicIntegerArray unread;
+    private final AtomicLong producerCursor = new AtomicLong();
+    private final AtomicLong[] consumerCursors;
+
+    public MulticastRingBuffer(int capacity, int consumers) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.published = new AtomicLongArray(capacity);
+        this.unread = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+        this.consumerCursors = new AtomicLong[consumers];
+        for (int i = 0; i < consumers; i++) {
+            consumerCursors[i] = new AtomicLong();
+        }
+    }
+
+    public boolean offer(E element) {
+        while (true) {
+            long position = producerCursor.get();
+            if (position - slowestConsumer() > mask) {
+                return false;
+            }
+            if (producerCursor.compareAndSet(position, position + 1)) {
+                int index = (int) (position & mask);
+                if (consumerCursors.length > 0) {
+                    unread.lazySet(index, consumerCursors.length);
+                    elements.lazySet(index, element);
+                }
+                published.set(index, position);
+                return true;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Hands up to {@code maxElements} contiguous published elements to the sink, then releases
+     * their slots to producers. If the sink throws, the elements it accepted stay consumed.
+     */
+    public int drain(int consumer, Consumer<E> sink, int maxElements) {
+        AtomicLong cursor = consumerCursors[consumer];
+        long start = cursor.get();
+        long position = start;
+        try {
+            while (position - start < maxElements && published.get((int) (position & mask)) == position) {
+                int index = (int) (position & mask);
+                sink.accept(elements.get(index));
+                // This consumer's cursor still holds the slot, so no producer can have refilled it yet
+                if (unread.decrementAndGet(index) == 0) {
+                    elements.set(index, null);
+                }
+                position++;
+            }
+        } finally {
+            cursor.set(position);
+        }
+        return (int) (position - start);
+    }
+
+    /**
+     * Elements published (or being published) that the consumer has not drained yet.
+     */
+    public long lag(int consumer) {
+        return Math.max(0, producerCursor.get() - consumerCursors[consumer].get());
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    private long slowestConsumer() {
+        long slowest = Long.MAX_VALUE;
+        for (AtomicLong cursor : consumerCursors) {
+            slowest = Math.min(slowest, cursor.get());
+        }
+        return slowest == Long.MAX_VALUE ? producerCursor.get() : slowest;
+    }
+}
@@ -0,0 +1,6 @@
+package com.habitbeat.backend.common.db;
+
+public enum DataSourceRole {
+    PRIMARY,
+    REPLICA
+}
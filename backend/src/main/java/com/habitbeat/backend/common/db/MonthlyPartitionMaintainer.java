@@ -0,0 +1,52 @@
+package com.habitbeat.backend.common.db;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Keeps monthly range partitions created ahead of time for the append-only, time-partitioned
+ * tables, so rows never land in the DEFAULT partition.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MonthlyPartitionMaintainer {
+    static final List<String> PARTITIONED_TABLES = List.of("audit_events", "focus_sessions");
+    private static final int MONTHS_AHEAD = 2;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        ensurePartitions();
+    }
+
+    @Scheduled(cron = "0 15 3 * * *")
+    public void ensurePartitions() {
+        YearMonth current = YearMonth.now();
+        for (String table : PARTITIONED_TABLES) {
+            for (int offset = 0; offset <= MONTHS_AHEAD; offset++) {
+                createPartition(table, current.plusMonths(offset));
+            }
+        }
+    }
+
+    private void createPartition(String table, YearMonth month) {
+        String partition = "%s_%d_%02d".formatted(table, month.getYear(), month.getMonthValue());
+        String sql = "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')"
+                .formatted(partition, table, month.atDay(1), month.plusMonths(1).atDay(1));
+        try {
+            jdbcTemplate.execute(sql);
+        } catch (RuntimeException e) {
+            log.warn("Could not create partition {}", partition, e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.habitbeat.backend.common.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Requests that issued more SQL statements than the configured budget. Tests drain this after
+ * each case and fail if it is not empty.
+ */
+public class QueryBudgetViolations {
+    private static final int MAX_RETAINED = 1000;
+
+    private final ConcurrentLinkedQueue<String> violations = new ConcurrentLinkedQueue<>();
+
+    public void record(String violation) {
+        if (violations.size() < MAX_RETAINED) {
+            violations.add(violation);
+        }
+    }
+
+    public List<String> drain() {
+        List<String> drained = new ArrayList<>();
+        String violation;
+        while ((violation = violations.poll()) != null) {
+            drained.add(violation);
+        }
+        return drained;
+    }
+}
@@ -0,0 +1,53 @@
+package com.habitbeat.backend.common.db;
+
+import com.habitbeat.backend.common.redis.RedisGuard;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which users wrote recently so their next reads bypass the replica until it has had
+ * time to replay the change. The watermark is a Redis key that expires with the window, so it
+ * holds whichever node serves the user's next request; a local copy answers this node's own
+ * writers without a round trip and covers a Redis outage for requests that land here.
+ */
+public class ReadYourWritesTracker {
+    private static final String KEY_PREFIX = "ryw:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisGuard redisGuard;
+    private final Map<UUID, Long> lastWriteMillis = new ConcurrentHashMap<>();
+    private final Duration window;
+
+    public ReadYourWritesTracker(RedisTemplate<String, String> redisTemplate, RedisGuard redisGuard, Duration window) {
+        this.redisTemplate = redisTemplate;
+        this.redisGuard = redisGuard;
+        this.window = window;
+    }
+
+    public void markWrite(UUID userId) {
+        lastWriteMillis.put(userId, System.currentTimeMillis());
+        redisGuard.run("read-your-writes", () -> redisTemplate.opsForValue().set(KEY_PREFIX + userId, "1", window), () -> {
+        });
+    }
+
+    public boolean wroteRecently(UUID userId) {
+        Long last = lastWriteMillis.get(userId);
+        if (last != null && System.currentTimeMillis() - last < window.toMillis()) {
+            return true;
+        }
+        return redisGuard.call("read-your-writes",
+                () -> Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + userId)),
+                () -> false);
+    }
+
+    @Scheduled(fixedDelay = 30_000)
+    public void purgeExpired() {
+        long cutoff = System.currentTimeMillis() - window.toMillis();
+        lastWriteMillis.values().removeIf(last -> last < cutoff);
+    }
+}
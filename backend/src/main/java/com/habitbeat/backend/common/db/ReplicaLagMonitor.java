@@ -0,0 +1,67 @@
+package com.habitbeat.backend.common.db;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Polls the replica for how far its replay is behind the primary. The replica is only used while
+ * the last probe succeeded and reported lag under the threshold; it starts out unusable so the
+ * first reads after startup go to the primary.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+    // A replica that has replayed everything it received is current even if the primary has been
+    // idle for a while, which pg_last_xact_replay_timestamp() alone would report as lag. That only
+    // holds while the WAL receiver is streaming: a disconnected replica has also replayed all it
+    // received, so it falls back to the age of the last replayed transaction, or counts as
+    // infinitely behind when it has replayed none.
+    private static final String LAG_SQL = "SELECT CASE " +
+            "WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() " +
+            "AND EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 'Infinity') END";
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final Duration maxLag;
+    private volatile boolean usable;
+    private volatile double lagSeconds = -1;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, Duration maxLag) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.replicaJdbcTemplate.setQueryTimeout(1);
+        this.maxLag = maxLag;
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-interval-ms:1000}")
+    public void probe() {
+        boolean wasUsable = usable;
+        try {
+            Double lag = replicaJdbcTemplate.queryForObject(LAG_SQL, Double.class);
+            lagSeconds = lag != null ? lag : 0;
+            usable = lagSeconds * 1000 <= maxLag.toMillis();
+        } catch (Exception e) {
+            lagSeconds = -1;
+            usable = false;
+            if (wasUsable) {
+                log.warn("Replica probe failed, routing reads to primary: {}", e.getMessage());
+            }
+            return;
+        }
+        if (wasUsable != usable) {
+            log.info("Replica {} (lag {} s, threshold {} s)", usable ? "in use" : "bypassed",
+                    lagSeconds, maxLag.toMillis() / 1000.0);
+        }
+    }
+}
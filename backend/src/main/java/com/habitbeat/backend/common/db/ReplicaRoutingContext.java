@@ -0,0 +1,63 @@
+package com.habitbeat.backend.common.db;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Per-request routing hints for {@link ReplicaRoutingDataSource}, opened and cleared by the
+ * request filter. Threads outside a request (schedulers, async exports) have no context and
+ * route on the transaction's read-only flag alone.
+ */
+public final class ReplicaRoutingContext {
+    private static final ThreadLocal<State> STATE = new ThreadLocal<>();
+
+    private static final class State {
+        private BooleanSupplier recentWriter;
+        private Boolean primaryForced;
+        private boolean wrote;
+    }
+
+    private ReplicaRoutingContext() {
+    }
+
+    /**
+     * @param recentWriter asked at most once, when the request first routes a read-only
+     *                     transaction; requests that never read pay nothing for the lookup
+     */
+    public static void begin(BooleanSupplier recentWriter) {
+        State state = new State();
+        state.recentWriter = recentWriter;
+        STATE.set(state);
+    }
+
+    public static boolean isPrimaryForced() {
+        State state = STATE.get();
+        if (state == null) {
+            return false;
+        }
+        if (state.primaryForced == null) {
+            state.primaryForced = state.recentWriter.getAsBoolean();
+        }
+        return state.primaryForced;
+    }
+
+    /**
+     * Called when a read-write transaction takes a connection. Later read-only work in the same
+     * request goes to the primary too, so a request always sees its own writes.
+     */
+    static void recordWrite() {
+        State state = STATE.get();
+        if (state != null) {
+            state.wrote = true;
+            state.primaryForced = true;
+        }
+    }
+
+    public static boolean wroteDuringRequest() {
+        State state = STATE.get();
+        return state != null && state.wrote;
+    }
+
+    public static void clear() {
+        STATE.remove();
+    }
+}
@@ -0,0 +1,62 @@
+package com.habitbeat.backend.common.db;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary. Must sit behind
+ * a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction
+ * manager asks for a connection before it publishes the read-only flag, and the proxy defers the
+ * real lookup until the first statement, when the flag is visible here.
+ */
+public final class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private final ReplicaLagMonitor lagMonitor;
+    private final Counter toPrimaryWrite;
+    private final Counter toPrimaryReadYourWrites;
+    private final Counter toPrimaryLag;
+    private final Counter toReplica;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                    MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(DataSourceRole.PRIMARY, primary, DataSourceRole.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.toPrimaryWrite = routeCounter(meterRegistry, "primary", "write");
+        this.toPrimaryReadYourWrites = routeCounter(meterRegistry, "primary", "read_your_writes");
+        this.toPrimaryLag = routeCounter(meterRegistry, "primary", "replica_unavailable");
+        this.toReplica = routeCounter(meterRegistry, "replica", "read_only");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                ReplicaRoutingContext.recordWrite();
+            }
+            toPrimaryWrite.increment();
+            return DataSourceRole.PRIMARY;
+        }
+        if (ReplicaRoutingContext.isPrimaryForced()) {
+            toPrimaryReadYourWrites.increment();
+            return DataSourceRole.PRIMARY;
+        }
+        if (!lagMonitor.isReplicaUsable()) {
+            toPrimaryLag.increment();
+            return DataSourceRole.PRIMARY;
+        }
+        toReplica.increment();
+        return DataSourceRole.REPLICA;
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("datasource.routing")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
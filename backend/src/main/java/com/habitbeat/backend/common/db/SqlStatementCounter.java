@@ -0,0 +1,29 @@
+package com.habitbeat.backend.common.db;
+
+/**
+ * Thread-local count of JDBC statements prepared between {@link #start} and {@link #stop}.
+ * Incremented by {@link StatementCountingDataSource}; a no-op on threads that never started.
+ */
+public final class SqlStatementCounter {
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    public static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    static void increment() {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+    }
+
+    public static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count != null ? count[0] : 0;
+    }
+}
@@ -0,0 +1,12 @@
+package com.habitbeat.backend.common.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Something that happened in a committed transaction and that other modules may react to.
+ * Events are immutable and carry everything their handlers need, so handlers never have to read
+ * back state that may have changed since.
+ */
+public interface DomainEvent {
+    LocalDateTime occurredAt();
+}
@@ -0,0 +1,213 @@
+package com.habitbeat.backend.common.event;
+
+import com.habitbeat.backend.common.concurrent.MulticastRingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process domain event bus. Publishing is a lock-free claim on a preallocated ring shared by all
+ * handlers, so its cost on the request thread does not grow with the number of subscribers. Each
+ * handler drains the ring in batches on its own worker thread, at its own pace.
+ * <p>
+ * Backpressure: a slot is reused only after every handler has read it. When the slowest handler
+ * is a full ring behind, publishers wait up to the publish timeout and then drop the event. Drops
+ * are counted and logged. Per-handler lag is exported as {@code domain.events.lag} (events behind)
+ * and {@code domain.events.delay} (publish to handling).
+ */
+@Component
+@Slf4j
+public class DomainEventBus implements SmartLifecycle {
+    private static final long PUBLISH_RETRY_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final List<DomainEventHandler> handlers;
+    private final DomainEventProperties properties;
+    private final MulticastRingBuffer<Published> ring;
+    private final List<Worker> workers = new ArrayList<>();
+    private final Counter published;
+    private final Counter delayed;
+    private final Counter dropped;
+    private volatile boolean running;
+
+    private record Published(DomainEvent event, long publishedAtNanos) {
+    }
+
+    public DomainEventBus(List<DomainEventHandler> handlers, DomainEventProperties properties,
+                          MeterRegistry meterRegistry) {
+        this.handlers = List.copyOf(handlers);
+        this.properties = properties;
+        this.ring = new MulticastRingBuffer<>(properties.getRingCapacity(), this.handlers.size());
+        this.published = Counter.builder("domain.events.published").register(meterRegistry);
+        this.delayed = Counter.builder("domain.events.delayed")
+                .description("Publishes that had to wait for the slowest handler")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("domain.events.dropped")
+                .description("Events lost because a handler stayed a full ring behind")
+                .register(meterRegistry);
+        Gauge.builder("domain.events.ring.capacity", ring, MulticastRingBuffer::capacity).register(meterRegistry);
+        for (int i = 0; i < this.handlers.size(); i++) {
+            workers.add(new Worker(i, this.handlers.get(i), meterRegistry));
+        }
+    }
+
+    public void publish(DomainEvent event) {
+        Published entry = new Published(event, System.nanoTime());
+        if (ring.offer(entry)) {
+            published.increment();
+            return;
+        }
+        delayed.increment();
+        long deadline = System.nanoTime() + properties.getPublishTimeout().toNanos();
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(PUBLISH_RETRY_NANOS);
+            if (ring.offer(entry)) {
+                published.increment();
+                return;
+            }
+        }
+        dropped.increment();
+        log.warn("Dropped {}: event handlers are {} events behind", event.getClass().getSimpleName(), ring.capacity());
+    }
+
+    /**
+     * Publishes once the surrounding transaction commits, so handlers never act on work that was
+     * rolled back. Outside a transaction the event is published immediately.
+     */
+    public void publishAfterCommit(DomainEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(event);
+            }
+        });
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        workers.forEach(Worker::start);
+    }
+
+    /**
+     * Stops the workers, then hands whatever is still in the ring to the handlers on this thread.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        for (Worker worker : workers) {
+            // A worker still stuck in its handler keeps its cursor; draining here would race it
+            if (worker.join()) {
+                while (worker.drainOnce() > 0) {
+                    // Keep going until this handler has seen everything
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Start before and stop after the web server, so every request's events have a consumer
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 4096;
+    }
+
+    private final class Worker implements Runnable {
+        private final int index;
+        private final DomainEventHandler handler;
+        private final List<DomainEvent> batch = new ArrayList<>();
+        private final Timer delay;
+        private final Counter handled;
+        private final Counter failed;
+        private volatile Thread thread;
+
+        private Worker(int index, DomainEventHandler handler, MeterRegistry meterRegistry) {
+            this.index = index;
+            this.handler = handler;
+            this.delay = Timer.builder("domain.events.delay")
+                    .tag("handler", handler.name())
+                    .description("Time from publish until the handler picked the event up")
+                    .register(meterRegistry);
+            this.handled = Counter.builder("domain.events.handled").tag("handler", handler.name()).register(meterRegistry);
+            this.failed = Counter.builder("domain.events.failed")
+                    .tag("handler", handler.name())
+                    .description("Events in batches the handler threw on")
+                    .register(meterRegistry);
+            Gauge.builder("domain.events.lag", ring, r -> r.lag(index))
+                    .tag("handler", handler.name())
+                    .register(meterRegistry);
+        }
+
+        private void start() {
+            thread = new Thread(this, "domain-events-" + handler.name());
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private boolean join() {
+            if (thread == null) {
+                return true;
+            }
+            try {
+                // Idle workers wake up every idle-wait; a busy one finishes its current batch
+                thread.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) {
+                log.warn("Domain event handler {} did not stop; {} events left unhandled", handler.name(), ring.lag(index));
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public void run() {
+            long idleNanos = properties.getIdleWait().toNanos();
+            while (running) {
+                if (drainOnce() == 0) {
+                    LockSupport.parkNanos(idleNanos);
+                }
+            }
+        }
+
+        private int drainOnce() {
+            long now = System.nanoTime();
+            int drained = ring.drain(index, entry -> {
+                delay.record(now - entry.publishedAtNanos(), TimeUnit.NANOSECONDS);
+                batch.add(entry.event());
+            }, properties.getBatchSize());
+            if (drained == 0) {
+                return 0;
+            }
+            try {
+                handler.handle(batch);
+                handled.increment(drained);
+            } catch (RuntimeException e) {
+                failed.increment(drained);
+                log.error("Domain event handler {} failed on a batch of {}", handler.name(), drained, e);
+            } finally {
+                batch.clear();
+            }
+            return drained;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.habitbeat.backend.common.event;
+
+import java.util.List;
+
+/**
+ * Subscriber of the {@link DomainEventBus}. Every handler sees every event, in publish order, on a
+ * thread of its own; it ignores the types it does not care about. A handler that falls behind
+ * only delays itself, until it is a full ring behind and publishers start to wait.
+ */
+public interface DomainEventHandler {
+
+    /**
+     * Stable identifier used in metric tags and the worker thread name.
+     */
+    String name();
+
+    /**
+     * The list is reused for the next batch and must not be kept.
+     */
+    void handle(List<DomainEvent> events);
+}
@@ -0,0 +1,20 @@
+package com.habitbeat.backend.common.event;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "domain-events")
+@Data
+public class DomainEventProperties {
+    // Power of two; shared by all handlers
+    private int ringCapacity = 16384;
+    private int batchSize = 256;
+    // How long an idle handler parks before polling again
+    private Duration idleWait = Duration.ofMillis(5);
+    // How long a publisher waits for the slowest handler before the event is dropped
+    private Duration publishTimeout = Duration.ofMillis(100);
+}
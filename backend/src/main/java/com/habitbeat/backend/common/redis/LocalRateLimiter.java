@@ -0,0 +1,40 @@
+package com.habitbeat.backend.common.redis;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-window counters kept in process, used while Redis is unavailable. Limits are approximate:
+ * each node counts on its own, and under a flood of distinct keys the bounded cache evicts the
+ * coldest windows early.
+ */
+@Component
+public class LocalRateLimiter {
+    private final Cache<String, Window> windows;
+
+    private record Window(Duration length, AtomicInteger count) {
+    }
+
+    public LocalRateLimiter(RedisResilienceProperties properties) {
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(properties.getLocalRateLimitMaxKeys())
+                .expireAfter(Expiry.creating((String key, Window window) -> window.length()))
+                .build();
+    }
+
+    /**
+     * Counts the attempt and reports whether it is still within the limit.
+     */
+    public boolean tryAcquire(String key, int maxAttempts, Duration window) {
+        return windows.get(key, k -> new Window(window, new AtomicInteger())).count().incrementAndGet() <= maxAttempts;
+    }
+
+    public void reset(String key) {
+        windows.invalidate(key);
+    }
+}
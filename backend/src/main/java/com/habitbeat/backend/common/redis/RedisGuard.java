@@ -0,0 +1,223 @@
+package com.habitbeat.backend.common.redis;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker in front of every Redis call. The outcomes of the last calls are kept in a ring;
+ * once too many of them failed or ran slower than the slow-call threshold the circuit opens and
+ * callers get their in-process fallback straight away instead of queueing behind command timeouts.
+ * After the open duration a few trial calls decide whether to close it again. A background PING
+ * supplies those trials too, so recovery does not wait for traffic.
+ * <p>
+ * While closed, recording an outcome is a handful of atomic operations and never takes a lock; the
+ * counts may lag a concurrent write by a call or two, which only shifts the trip point by as much.
+ * The rare open and half-open transitions are serialized.
+ * <p>
+ * Keep the guarded supplier to Redis work: any exception it throws counts as a Redis failure.
+ */
+@Component
+@Slf4j
+public class RedisGuard {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final int EMPTY = 0;
+    private static final int SUCCEEDED = 1;
+    private static final int FAILED = 2;
+
+    private final RedisConnectionFactory connectionFactory;
+    private final RedisResilienceProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+
+    // Sliding window of recent outcomes while closed: EMPTY, SUCCEEDED or FAILED (failed or slow)
+    private final AtomicIntegerArray outcomes;
+    private final AtomicLong nextOutcome = new AtomicLong();
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private volatile long openedAtNanos;
+    private volatile String lastFailure;
+    // Guarded by this
+    private int trialPermits;
+    private int trialSuccesses;
+
+    @Autowired
+    public RedisGuard(RedisConnectionFactory connectionFactory, RedisResilienceProperties properties,
+                      MeterRegistry meterRegistry) {
+        this(connectionFactory, properties, meterRegistry, System::nanoTime);
+    }
+
+    RedisGuard(RedisConnectionFactory connectionFactory, RedisResilienceProperties properties,
+               MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.connectionFactory = connectionFactory;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        this.outcomes = new AtomicIntegerArray(Math.max(1, properties.getSlidingWindowSize()));
+        Gauge.builder("redis.guard.state", state, current -> current.get().ordinal())
+                .description("0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+    }
+
+    public <T> T call(String operation, Supplier<T> redisCall, Supplier<T> fallback) {
+        if (!tryAcquire()) {
+            count(operation, "rejected");
+            return fallback.get();
+        }
+        long started = nanoClock.getAsLong();
+        T result;
+        try {
+            result = redisCall.get();
+        } catch (RuntimeException e) {
+            record(true, e.getClass().getSimpleName() + ": " + e.getMessage());
+            count(operation, "failure");
+            log.debug("Redis {} failed, using local fallback: {}", operation, e.getMessage());
+            return fallback.get();
+        }
+        boolean slow = nanoClock.getAsLong() - started > properties.getSlowCallThreshold().toNanos();
+        record(slow, slow ? operation + " exceeded " + properties.getSlowCallThreshold().toMillis() + "ms" : null);
+        count(operation, slow ? "slow" : "success");
+        return result;
+    }
+
+    public void run(String operation, Runnable redisCall, Runnable fallback) {
+        call(operation, () -> {
+            redisCall.run();
+            return null;
+        }, () -> {
+            fallback.run();
+            return null;
+        });
+    }
+
+    public State state() {
+        return state.get();
+    }
+
+    public String lastFailure() {
+        return lastFailure;
+    }
+
+    public double failureRate() {
+        int calls = recorded.get();
+        return calls == 0 ? 0 : (double) failed.get() / calls;
+    }
+
+    /**
+     * While the circuit is not closed, PINGs Redis through the same breaker so that a quiet node
+     * still notices recovery.
+     */
+    @Scheduled(fixedDelayString = "${redis.resilience.probe-interval-ms:1000}")
+    public void probe() {
+        if (state.get() == State.CLOSED) {
+            return;
+        }
+        run("ping", () -> {
+            try (RedisConnection connection = connectionFactory.getConnection()) {
+                connection.ping();
+            }
+        }, () -> {
+        });
+    }
+
+    private boolean tryAcquire() {
+        if (state.get() == State.CLOSED) {
+            return true;
+        }
+        synchronized (this) {
+            if (state.get() == State.OPEN) {
+                if (nanoClock.getAsLong() - openedAtNanos < properties.getOpenDuration().toNanos()) {
+                    return false;
+                }
+                trialPermits = properties.getHalfOpenTrialCalls();
+                trialSuccesses = 0;
+                state.set(State.HALF_OPEN);
+                log.info("Redis circuit half-open, sending {} trial calls", trialPermits);
+            }
+            if (state.get() == State.HALF_OPEN) {
+                if (trialPermits == 0) {
+                    return false;
+                }
+                trialPermits--;
+            }
+            return true;
+        }
+    }
+
+    private void record(boolean failure, String description) {
+        if (failure) {
+            lastFailure = description;
+        }
+        if (state.get() == State.CLOSED) {
+            recordClosed(failure);
+            return;
+        }
+        synchronized (this) {
+            // Stragglers that were already in flight when the circuit opened are ignored
+            if (state.get() == State.HALF_OPEN) {
+                if (failure) {
+                    open();
+                } else if (++trialSuccesses >= properties.getHalfOpenTrialCalls()) {
+                    close();
+                }
+            }
+        }
+    }
+
+    private void recordClosed(boolean failure) {
+        int slot = (int) (nextOutcome.getAndIncrement() % outcomes.length());
+        int previous = outcomes.getAndSet(slot, failure ? FAILED : SUCCEEDED);
+        if (previous == EMPTY) {
+            recorded.incrementAndGet();
+        }
+        int delta = (failure ? 1 : 0) - (previous == FAILED ? 1 : 0);
+        int failures = delta == 0 ? failed.get() : failed.addAndGet(delta);
+        if (failure && recorded.get() >= properties.getMinimumCalls()
+                && failures * 100 >= properties.getFailureRatePercent() * recorded.get()) {
+            synchronized (this) {
+                if (state.get() == State.CLOSED) {
+                    open();
+                }
+            }
+        }
+    }
+
+    // Callers hold the lock
+    private void open() {
+        log.warn("Redis circuit opened, serving local fallbacks for {}: {}",
+                properties.getOpenDuration(), lastFailure);
+        openedAtNanos = nanoClock.getAsLong();
+        state.set(State.OPEN);
+    }
+
+    // Callers hold the lock; the window is cleared before closed-path callers can record into it
+    private void close() {
+        log.info("Redis circuit closed");
+        for (int i = 0; i < outcomes.length(); i++) {
+            outcomes.set(i, EMPTY);
+        }
+        nextOutcome.set(0);
+        recorded.set(0);
+        failed.set(0);
+        state.set(State.CLOSED);
+    }
+
+    private void count(String operation, String outcome) {
+        meterRegistry.counter("redis.guard.calls", "operation", operation, "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,32 @@
+package com.habitbeat.backend.common.redis;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports Redis from the circuit breaker's point of view. Registered under the name of Boot's own
+ * Redis indicator so that replaces it: an outage degrades the node rather than marking it DOWN,
+ * since every Redis feature has a local fallback.
+ */
+@Component("redisHealthIndicator")
+@RequiredArgsConstructor
+public class RedisGuardHealthIndicator implements HealthIndicator {
+    public static final Status DEGRADED = new Status("DEGRADED", "Redis unavailable, serving local fallbacks");
+
+    private final RedisGuard redisGuard;
+
+    @Override
+    public Health health() {
+        RedisGuard.State state = redisGuard.state();
+        Health.Builder builder = state == RedisGuard.State.CLOSED ? Health.up() : Health.status(DEGRADED);
+        builder.withDetail("circuit", state.name())
+                .withDetail("failureRate", redisGuard.failureRate());
+        if (redisGuard.lastFailure() != null) {
+            builder.withDetail("lastFailure", redisGuard.lastFailure());
+        }
+        return builder.build();
+    }
+}
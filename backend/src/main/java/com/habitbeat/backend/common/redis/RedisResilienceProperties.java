@@ -0,0 +1,22 @@
+package com.habitbeat.backend.common.redis;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "redis.resilience")
+@Data
+public class RedisResilienceProperties {
+    // Calls that succeed but take longer than this still count against the circuit
+    private Duration slowCallThreshold = Duration.ofMillis(100);
+    private int slidingWindowSize = 50;
+    private int minimumCalls = 10;
+    private int failureRatePercent = 50;
+    private Duration openDuration = Duration.ofSeconds(5);
+    private int halfOpenTrialCalls = 3;
+    private int localRateLimitMaxKeys = 100_000;
+    private int localCacheMaxEntries = 10_000;
+}
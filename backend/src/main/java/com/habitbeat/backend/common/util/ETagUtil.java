@@ -0,0 +1,54 @@
+package com.habitbeat.backend.common.util;
+
+import org.springframework.stereotype.Component;
+
+@Component
+public class ETagUtil {
+
+    public String strong(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Evaluates an If-None-Match / If-Match header value against a strong ETag.
+     * Handles the wildcard, comma-separated lists and weak validators sent by proxies.
+     */
+    public boolean matches(String headerValue, String eTag) {
+        if (headerValue == null || eTag == null) {
+            return false;
+        }
+        for (String candidate : headerValue.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*")) {
+                return true;
+            }
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Extracts the entity version from an If-Match header. Returns null for a missing header or the
+     * wildcard, meaning "any version".
+     */
+    public Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        value = value.replace("\"", "");
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed If-Match header");
+        }
+    }
+}
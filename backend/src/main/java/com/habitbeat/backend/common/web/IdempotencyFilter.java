@@ -0,0 +1,431 @@
+package com.habitbeat.backend.common.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Honors the {@code Idempotency-Key} header on mutating requests. The first request with a key
+ * runs and its response is stored; retries with the same key replay it instead of running again,
+ * and retries that arrive while it is still running wait for it. Keys are scoped to the method,
+ * path and the caller's credentials, and a key reused for a different body is rejected.
+ * <p>
+ * Server errors and 429s are not stored, so the client can retry them. Requests or responses over
+ * the configured size, and everything while Redis is unavailable, run as if no key was sent.
+ * <p>
+ * Credentials never reach the store. On the login, refresh and verification endpoints duplicates
+ * that arrive while the first request runs still wait for it and share its response in memory, so
+ * a retried login creates one session and pays for one password check, but nothing is written to
+ * Redis and later retries run again. The OAuth endpoints are excluded outright, and any other
+ * response that sets a cookie or carries a token field runs normally but is not stored.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Set<String> METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+    // JSON field names of AuthResponse and the OAuth token payloads
+    private static final List<String> TOKEN_FIELDS = List.of("\"accessToken\"", "\"refreshToken\"",
+            "\"access_token\"", "\"refresh_token\"", "\"id_token\"");
+
+    private final IdempotencyStore store;
+    private final IdempotencyProperties properties;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    // Duplicates on this node wait here instead of polling Redis
+    private final ConcurrentHashMap<String, CompletableFuture<Optional<StoredResponse>>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter> outcomes = new HashMap<>();
+
+    public IdempotencyFilter(IdempotencyStore store, IdempotencyProperties properties, ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry) {
+        this.store = store;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        for (String outcome : List.of("executed", "replayed", "bypassed", "conflict", "mismatch")) {
+            outcomes.put(outcome, Counter.builder("idempotency.requests").tag("outcome", outcome).register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (request.getHeader(HEADER) == null || !METHODS.contains(request.getMethod())) {
+            return true;
+        }
+        String path = path(request);
+        return !matchesAny(properties.getPaths(), path) || matchesAny(properties.getExcludedPaths(), path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(request, response, HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        int maxRequestBytes = (int) properties.getMaxRequestSize().toBytes();
+        if (request.getContentLengthLong() > maxRequestBytes) {
+            count("bypassed");
+            filterChain.doFilter(request, response);
+            return;
+        }
+        byte[] body = request.getInputStream().readNBytes(maxRequestBytes + 1);
+        // Anything up to the limit was read to the end; a longer body still has bytes on the wire
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body, body.length <= maxRequestBytes);
+        if (body.length > maxRequestBytes) {
+            // Chunked body without a Content-Length that turned out to be too large
+            count("bypassed");
+            filterChain.doFilter(cachedRequest, response);
+            return;
+        }
+
+        String key = "idem:" + sha256(request.getMethod(), request.getRequestURI(),
+                request.getHeader(HttpHeaders.AUTHORIZATION), request.getHeader(HttpHeaders.COOKIE), idempotencyKey);
+        String fingerprint = sha256(request.getQueryString(), new String(body, StandardCharsets.ISO_8859_1));
+        boolean localOnly = matchesAny(properties.getLocalOnlyPaths(), path(request));
+
+        CompletableFuture<Optional<StoredResponse>> execution = new CompletableFuture<>();
+        CompletableFuture<Optional<StoredResponse>> existing = inFlight.putIfAbsent(key, execution);
+        if (existing != null) {
+            awaitLocal(existing, cachedRequest, response, filterChain, fingerprint);
+            return;
+        }
+        Optional<StoredResponse> result = Optional.empty();
+        try {
+            result = process(key, fingerprint, localOnly, cachedRequest, response, filterChain);
+        } finally {
+            inFlight.remove(key, execution);
+            execution.complete(result);
+        }
+    }
+
+    /**
+     * @return the response later duplicates may replay, if there is one
+     */
+    private Optional<StoredResponse> process(String key, String fingerprint, boolean localOnly, CachedBodyRequest request,
+                                             HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String marker = IdempotencyStore.ownerMarker(fingerprint);
+        IdempotencyStore.Claim claim = store.claim(key, marker);
+        if (claim.outcome() == IdempotencyStore.Outcome.IN_FLIGHT) {
+            if (!fingerprint.equals(claim.fingerprint())) {
+                mismatch(request, response);
+                return Optional.empty();
+            }
+            claim = store.await(key);
+        }
+        switch (claim.outcome()) {
+            case CLAIMED -> {
+                return execute(key, marker, fingerprint, localOnly, request, response, filterChain);
+            }
+            case COMPLETED -> {
+                replay(claim.response(), fingerprint, request, response);
+                return Optional.of(claim.response());
+            }
+            case IN_FLIGHT -> {
+                conflict(request, response);
+                return Optional.empty();
+            }
+            default -> {
+                count("bypassed");
+                filterChain.doFilter(request, response);
+                return Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * @param localOnly the response is only handed to duplicates waiting on this node and the claim
+     *                  is released, never completed, so credentials stay out of Redis
+     */
+    private Optional<StoredResponse> execute(String key, String marker, String fingerprint, boolean localOnly,
+                                             CachedBodyRequest request, HttpServletResponse response,
+                                             FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        StoredResponse captured = null;
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, wrapper);
+            count("executed");
+            captured = capture(wrapper, fingerprint, localOnly);
+            if (captured != null && !localOnly) {
+                store.complete(key, marker, captured);
+                completed = true;
+            }
+            return Optional.ofNullable(captured);
+        } finally {
+            if (!completed) {
+                store.release(key, marker);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private void awaitLocal(CompletableFuture<Optional<StoredResponse>> existing, CachedBodyRequest request,
+                            HttpServletResponse response, FilterChain filterChain, String fingerprint)
+            throws ServletException, IOException {
+        Optional<StoredResponse> result;
+        try {
+            result = existing.get(properties.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            conflict(request, response);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            conflict(request, response);
+            return;
+        } catch (ExecutionException e) {
+            result = Optional.empty();
+        }
+        if (result.isPresent()) {
+            replay(result.get(), fingerprint, request, response);
+        } else {
+            // The first attempt failed or was not stored, so this retry runs on its own
+            count("bypassed");
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    /**
+     * @param withCredentials keep responses that set cookies or carry tokens; only for the in-memory handoff
+     */
+    private StoredResponse capture(ContentCachingResponseWrapper wrapper, String fingerprint, boolean withCredentials) {
+        int status = wrapper.getStatus();
+        if (status >= 500 || status == HttpStatus.TOO_MANY_REQUESTS.value()
+                || wrapper.getContentSize() > properties.getMaxResponseSize().toBytes()) {
+            return null;
+        }
+        if (!withCredentials && (wrapper.getHeader(HttpHeaders.SET_COOKIE) != null
+                || carriesToken(wrapper.getContentAsByteArray()))) {
+            return null;
+        }
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : wrapper.getHeaderNames()) {
+            if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                continue;
+            }
+            headers.put(name, List.copyOf(wrapper.getHeaders(name)));
+        }
+        return new StoredResponse(fingerprint, status, wrapper.getContentType(), headers, wrapper.getContentAsByteArray());
+    }
+
+    private static boolean carriesToken(byte[] body) {
+        // Field names are ASCII, so a byte-for-char decode finds them in any UTF-8 body
+        String text = new String(body, StandardCharsets.ISO_8859_1);
+        return TOKEN_FIELDS.stream().anyMatch(text::contains);
+    }
+
+    private void replay(StoredResponse stored, String fingerprint, HttpServletRequest request,
+                        HttpServletResponse response) throws IOException {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            mismatch(request, response);
+            return;
+        }
+        count("replayed");
+        response.setStatus(stored.status());
+        stored.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void mismatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        count("mismatch");
+        writeError(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                "Idempotency-Key was already used with a different request body");
+    }
+
+    private void conflict(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        count("conflict");
+        writeError(request, response, HttpStatus.CONFLICT,
+                "A request with this Idempotency-Key is still in progress");
+    }
+
+    // Same shape as GlobalExceptionHandler, which does not see errors raised in filters
+    private void writeError(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                            String message) throws IOException {
+        Map<String, Object> body = new HashMap<>();
+        body.put("timestamp", Instant.now().toString());
+        body.put("status", status.value());
+        body.put("error", status.getReasonPhrase());
+        body.put("message", message);
+        body.put("path", request.getRequestURI());
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private boolean matchesAny(List<String> patterns, String path) {
+        return patterns.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    private void count(String outcome) {
+        outcomes.get(outcome).increment();
+    }
+
+    private static String sha256(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                if (part != null) {
+                    digest.update(part.getBytes(StandardCharsets.UTF_8));
+                }
+                // Separator, so ("ab", "c") and ("a", "bc") differ
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Serves the body read for fingerprinting, followed by whatever was left on the wire.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+        private final boolean complete;
+        private ServletInputStream stream;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body, boolean complete) {
+            super(request);
+            this.body = body;
+            this.complete = complete;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (stream == null) {
+                stream = new CachedBodyInputStream(new ByteArrayInputStream(body), complete ? null : super.getInputStream());
+            }
+            return stream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? encoding : StandardCharsets.UTF_8.name()));
+        }
+    }
+
+    /**
+     * The cached bytes, then the rest of the original stream when {@code wire} is not null.
+     */
+    private static final class CachedBodyInputStream extends ServletInputStream {
+        private final ByteArrayInputStream cached;
+        private final ServletInputStream wire;
+
+        private CachedBodyInputStream(ByteArrayInputStream cached, ServletInputStream wire) {
+            this.cached = cached;
+            this.wire = wire;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int next = cached.read();
+            return next != -1 || wire == null ? next : wire.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            int read = cached.read(buffer, offset, length);
+            return read != -1 || wire == null ? read : wire.read(buffer, offset, length);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return cached.available() == 0 && (wire == null || wire.isFinished());
+        }
+
+        @Override
+        public boolean isReady() {
+            return cached.available() > 0 || wire == null || wire.isReady();
+        }
+
+        /**
+         * A fully cached body is already in memory, so the listener is driven right away; otherwise
+         * the original stream drives it once the cached bytes have been offered.
+         */
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            if (wire == null) {
+                try {
+                    if (cached.available() > 0) {
+                        readListener.onDataAvailable();
+                    }
+                    readListener.onAllDataRead();
+                } catch (IOException | RuntimeException e) {
+                    readListener.onError(e);
+                }
+                return;
+            }
+            wire.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    readListener.onDataAvailable();
+                }
+
+                @Override
+                public void onAllDataRead() throws IOException {
+                    if (cached.available() > 0) {
+                        readListener.onDataAvailable();
+                    }
+                    readListener.onAllDataRead();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    readListener.onError(t);
+                }
+            });
+        }
+    }
+}
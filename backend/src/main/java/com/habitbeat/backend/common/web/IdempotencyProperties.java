@@ -0,0 +1,28 @@
+package com.habitbeat.backend.common.web;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "idempotency")
+@Data
+public class IdempotencyProperties {
+    // Ant-style patterns; only POST, PUT, PATCH and DELETE requests under them are covered
+    private List<String> paths = List.of("/auth/**", "/api/hives/**", "/api/hive-requests/**");
+    // Never covered even under paths above
+    private List<String> excludedPaths = List.of("/auth/oauth/**");
+    // These answer with tokens or session cookies, which must not sit in Redis: concurrent duplicates
+    // still wait for the first request and share its response in memory, but nothing is stored
+    private List<String> localOnlyPaths = List.of("/auth/login", "/auth/refresh", "/auth/verify*");
+    private Duration ttl = Duration.ofHours(24);
+    // Upper bound on how long a crashed node's claim blocks retries
+    private Duration inFlightTtl = Duration.ofMinutes(1);
+    private Duration waitTimeout = Duration.ofSeconds(10);
+    private DataSize maxRequestSize = DataSize.ofKilobytes(64);
+    private DataSize maxResponseSize = DataSize.ofKilobytes(256);
+}
@@ -0,0 +1,123 @@
+package com.habitbeat.backend.common.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.habitbeat.backend.common.redis.RedisGuard;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Redis side of idempotency keys. A key starts as an in-flight marker naming the request
+ * fingerprint and its owner, and is replaced by the stored response when the owner completes.
+ * Only the owner may complete or release it, so a claim that outlived its TTL cannot clobber the
+ * next one. When Redis is unavailable every request passes through as if it had no key.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyStore {
+    private static final String IN_FLIGHT = "in-flight:";
+    private static final long POLL_MILLIS = 25;
+    // KEYS: idempotency key; ARGV: owner marker, stored response, TTL millis
+    private static final RedisScript<Long> COMPLETE = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "  redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) return 1 " +
+            "end return 0",
+            Long.class);
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisGuard redisGuard;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyProperties properties;
+
+    public enum Outcome { CLAIMED, IN_FLIGHT, COMPLETED, PASS_THROUGH }
+
+    /**
+     * @param fingerprint of the in-flight request or of the stored response, when there is one
+     */
+    public record Claim(Outcome outcome, String fingerprint, StoredResponse response) {
+        static Claim of(Outcome outcome) {
+            return new Claim(outcome, null, null);
+        }
+    }
+
+    public static String ownerMarker(String fingerprint) {
+        return IN_FLIGHT + fingerprint + ":" + UUID.randomUUID();
+    }
+
+    public Claim claim(String key, String marker) {
+        return redisGuard.call("idempotency", () -> {
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, marker, properties.getInFlightTtl()))) {
+                return Claim.of(Outcome.CLAIMED);
+            }
+            return read(redisTemplate.opsForValue().get(key));
+        }, () -> Claim.of(Outcome.PASS_THROUGH));
+    }
+
+    /**
+     * Polls until the owner completes or releases the key, or the wait timeout passes.
+     */
+    public Claim await(String key) {
+        long deadline = System.nanoTime() + properties.getWaitTimeout().toNanos();
+        while (System.nanoTime() < deadline) {
+            Claim claim = redisGuard.call("idempotency", () -> read(redisTemplate.opsForValue().get(key)),
+                    () -> Claim.of(Outcome.PASS_THROUGH));
+            if (claim.outcome() != Outcome.IN_FLIGHT) {
+                return claim;
+            }
+            try {
+                Thread.sleep(POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return Claim.of(Outcome.IN_FLIGHT);
+    }
+
+    public void complete(String key, String marker, StoredResponse response) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize idempotent response", e);
+        }
+        redisGuard.run("idempotency",
+                () -> redisTemplate.execute(COMPLETE, List.of(key), marker, json,
+                        String.valueOf(properties.getTtl().toMillis())),
+                () -> log.debug("Idempotent response for {} not stored", key));
+    }
+
+    public void release(String key, String marker) {
+        redisGuard.run("idempotency", () -> redisTemplate.execute(RELEASE, List.of(key), marker),
+                () -> log.debug("Idempotency claim {} left to expire", key));
+    }
+
+    private Claim read(String value) {
+        if (value == null) {
+            // Released after a response that is not replayed; the caller runs the request itself
+            return Claim.of(Outcome.PASS_THROUGH);
+        }
+        if (value.startsWith(IN_FLIGHT)) {
+            String fingerprint = value.substring(IN_FLIGHT.length(), value.lastIndexOf(':'));
+            return new Claim(Outcome.IN_FLIGHT, fingerprint, null);
+        }
+        try {
+            StoredResponse response = objectMapper.readValue(value, StoredResponse.class);
+            return new Claim(Outcome.COMPLETED, response.fingerprint(), response);
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable idempotent response: {}", e.getMessage());
+            return Claim.of(Outcome.PASS_THROUGH);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.habitbeat.backend.common.web;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A completed response kept for replay, with the fingerprint of the request that produced it.
+ */
+public record StoredResponse(String fingerprint, int status, String contentType,
+                             Map<String, List<String>> headers, byte[] body) {
+}
@@ -9,6 +9,10 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import com.habitbeat.backend.auth.exception.AuthFailureException;
 
 import java.time.Instant;
 import java.util.HashMap;
@@ -69,6 +73,31 @@ public class GlobalExceptionHandler {
 		return ResponseEntity.status(status).body(buildBody(status, ex.getMessage(), request));
 	}
 
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	public ResponseEntity<Map<String, Object>> handleOptimisticLock(OptimisticLockingFailureException ex, HttpServletRequest request) {
+		HttpStatus status = HttpStatus.PRECONDITION_FAILED;
+		String message = "Resource was modified concurrently; reload and retry";
+		return ResponseEntity.status(status).body(buildBody(status, message, request));
+	}
+
+	@ExceptionHandler(DataIntegrityViolationException.class)
+	public ResponseEntity<Map<String, Object>> handleDataIntegrity(DataIntegrityViolationException ex, HttpServletRequest request) {
+		HttpStatus status = HttpStatus.CONFLICT;
+		String message = "Request conflicts with the current state; reload and retry";
+		return ResponseEntity.status(status).body(buildBody(status, message, request));
+	}
+
+	@ExceptionHandler(MaxUploadSizeExceededException.class)
+	public ResponseEntity<Map<String, Object>> handleMaxUploadSize(MaxUploadSizeExceededException ex, HttpServletRequest request) {
+		HttpStatus status = HttpStatus.PAYLOAD_TOO_LARGE;
+		return ResponseEntity.status(status).body(buildBody(status, "Upload is too large", request));
+	}
+
+	@ExceptionHandler(AuthFailureException.class)
+	public ResponseEntity<Map<String, Object>> handleAuthFailure(AuthFailureException ex, HttpServletRequest request) {
+		return ResponseEntity.status(ex.getStatus()).body(buildBody(ex.getStatus(), ex.getMessage(), request));
+	}
+
 	@ExceptionHandler(RuntimeException.class)
 	public ResponseEntity<Map<String, Object>> handleRuntime(RuntimeException ex, HttpServletRequest request) {
 		HttpStatus status;
@@ -79,16 +108,49 @@ public class GlobalExceptionHandler {
 			if (message.contains("Invalid credentials") || 
 				message.contains("Invalid refresh token") ||
 				message.contains("Invalid session") ||
-				message.contains("No refresh token found")) {
+				message.contains("No refresh token found") ||
+				message.contains("Missing access token") ||
+				message.contains("Invalid access token") ||
+				message.contains("OAuth login failed")) {
 				status = HttpStatus.UNAUTHORIZED;
+			} else if (message.contains("Admin access required")) {
+				status = HttpStatus.FORBIDDEN;
 			} else if (message.contains("Email not verified")) {
 				status = HttpStatus.FORBIDDEN;
 				message = "Please verify your email before logging in";
 			} else if (message.contains("Invalid or expired token")) {
 				status = HttpStatus.BAD_REQUEST;
 				message = "Token is invalid or has expired";
-			} else if (message.contains("User not found")) {
+			} else if (message.contains("Invalid OAuth state")) {
+				status = HttpStatus.BAD_REQUEST;
+				message = "OAuth login expired or was already used; please start again";
+			} else if (message.contains("User not found") ||
+				message.contains("Profile not found") ||
+				message.contains("Session not found") ||
+				message.contains("Hive not found") ||
+				message.contains("Hive request not found") ||
+				message.contains("Avatar not found")) {
 				status = HttpStatus.NOT_FOUND;
+			} else if (message.contains("Hive is full") ||
+				message.contains("Already a hive member") ||
+				message.contains("Hive request is no longer pending") ||
+				message.contains("Hive membership changed concurrently") ||
+				message.contains("Leaderboard rebuild already running") ||
+				message.contains("Chat search rebuild already running") ||
+				message.contains("Digest run already running")) {
+				status = HttpStatus.CONFLICT;
+			} else if (message.contains("Metrics ingestion overloaded")) {
+				status = HttpStatus.SERVICE_UNAVAILABLE;
+				message = "Server is busy; retry the batch shortly";
+			} else if (message.contains("Leaderboards unavailable")) {
+				status = HttpStatus.SERVICE_UNAVAILABLE;
+				message = "Leaderboards are temporarily unavailable";
+			} else if (message.contains("Avatar processing busy")) {
+				status = HttpStatus.SERVICE_UNAVAILABLE;
+				message = "Avatar processing is busy; retry the upload shortly";
+			} else if (message.contains("Version mismatch")) {
+				status = HttpStatus.PRECONDITION_FAILED;
+				message = "Resource has changed; reload and retry";
 			} else {
 				status = HttpStatus.INTERNAL_SERVER_ERROR;
 				message = "An unexpected error occurred";
@@ -0,0 +1,85 @@
+package com.habitbeat.backend.config;
+
+import com.habitbeat.backend.common.db.QueryBudgetViolations;
+import com.habitbeat.backend.common.db.SqlStatementCounter;
+import com.habitbeat.backend.common.db.StatementCountingDataSource;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+
+/**
+ * Per-request SQL statement budget, enabled with db.query-budget.enabled (tests turn it on).
+ * Every request records its statement count as a metric; requests over the budget are logged
+ * and kept in {@link QueryBudgetViolations} so tests can fail on N+1 regressions.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "db.query-budget", name = "enabled", havingValue = "true")
+@Slf4j
+public class QueryBudgetConfig {
+
+    @Bean
+    static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Only the DataSource the application uses, not the pools behind a routing proxy
+                if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                    return new StatementCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public QueryBudgetViolations queryBudgetViolations() {
+        return new QueryBudgetViolations();
+    }
+
+    @Bean
+    public OncePerRequestFilter queryBudgetFilter(QueryBudgetViolations violations,
+                                                  MeterRegistry meterRegistry,
+                                                  @Value("${db.query-budget.max-statements:15}") int maxStatements) {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                    throws ServletException, IOException {
+                SqlStatementCounter.start();
+                int statements;
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    statements = SqlStatementCounter.stop();
+                }
+
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+                DistributionSummary.builder("http.server.requests.sql.statements")
+                        .tag("method", request.getMethod())
+                        .tag("uri", uri)
+                        .register(meterRegistry)
+                        .record(statements);
+                if (statements > maxStatements) {
+                    String violation = request.getMethod() + " " + uri + " issued " + statements
+                            + " SQL statements (budget " + maxStatements + ")";
+                    log.warn(violation);
+                    violations.record(violation);
+                }
+            }
+        };
+    }
+}
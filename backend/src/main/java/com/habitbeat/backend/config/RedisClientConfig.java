@@ -0,0 +1,32 @@
+package com.habitbeat.backend.config;
+
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.TimeoutOptions;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RedisClientConfig {
+
+    /**
+     * By default Lettuce buffers commands while it reconnects, so during an outage every call sits
+     * out the full command timeout. Rejecting them lets RedisGuard fall back immediately.
+     */
+    @Bean
+    LettuceClientConfigurationBuilderCustomizer failFastWhileDisconnected(RedisProperties redisProperties) {
+        return builder -> {
+            SocketOptions.Builder socketOptions = SocketOptions.builder();
+            if (redisProperties.getConnectTimeout() != null) {
+                socketOptions.connectTimeout(redisProperties.getConnectTimeout());
+            }
+            builder.clientOptions(ClientOptions.builder()
+                    .socketOptions(socketOptions.build())
+                    .timeoutOptions(TimeoutOptions.enabled())
+                    .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                    .build());
+        };
+    }
+}
@@ -0,0 +1,125 @@
+package com.habitbeat.backend.config;
+
+import com.habitbeat.backend.auth.util.CurrentUserResolver;
+import com.habitbeat.backend.common.db.ReadYourWritesTracker;
+import com.habitbeat.backend.common.db.ReplicaLagMonitor;
+import com.habitbeat.backend.common.db.ReplicaRoutingContext;
+import com.habitbeat.backend.common.db.ReplicaRoutingDataSource;
+import com.habitbeat.backend.common.redis.RedisGuard;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+
+/**
+ * Active only when datasource.replica.url is set. Replaces the auto-configured pool with a primary
+ * pool, a read-only replica pool and a routing data source in front of both; every other bean
+ * (JPA, JdbcTemplate, Flyway) keeps injecting the single @Primary DataSource.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.replica", name = "url")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class ReplicaDataSourceConfig {
+    // After the encoding and request-context filters, before Spring Security and our own filters
+    private static final int READ_YOUR_WRITES_FILTER_ORDER = SecurityProperties.DEFAULT_FILTER_ORDER - 10;
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(ReplicaDataSourceProperties properties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(properties.getUrl());
+        dataSource.setUsername(properties.getUsername());
+        dataSource.setPassword(properties.getPassword());
+        dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        // Start even if the replica is down; the lag monitor keeps reads on the primary meanwhile
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               ReplicaDataSourceProperties properties,
+                                               MeterRegistry meterRegistry) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicaDataSource, properties.getMaxLag());
+        Gauge.builder("datasource.replica.lag", monitor, ReplicaLagMonitor::getLagSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor,
+                                 MeterRegistry meterRegistry) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                primaryDataSource, replicaDataSource, replicaLagMonitor, meterRegistry);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(RedisTemplate<String, String> redisTemplate, RedisGuard redisGuard,
+                                                       ReplicaDataSourceProperties properties) {
+        return new ReadYourWritesTracker(redisTemplate, redisGuard, properties.getReadYourWritesWindow());
+    }
+
+    /**
+     * Runs ahead of every other application filter so any query they make is routed with the
+     * request's hints. The caller is resolved only when needed, by which point the controller has
+     * usually resolved it already and {@link CurrentUserResolver} reuses those claims.
+     */
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> readYourWritesFilter(ReadYourWritesTracker tracker,
+                                                                            CurrentUserResolver currentUserResolver) {
+        OncePerRequestFilter filter = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+                    throws ServletException, IOException {
+                ReplicaRoutingContext.begin(() -> currentUserResolver.findUserId(request)
+                        .map(tracker::wroteRecently)
+                        .orElse(false));
+                try {
+                    filterChain.doFilter(request, response);
+                } finally {
+                    if (ReplicaRoutingContext.wroteDuringRequest()) {
+                        currentUserResolver.findUserId(request).ifPresent(tracker::markWrite);
+                    }
+                    ReplicaRoutingContext.clear();
+                }
+            }
+        };
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(READ_YOUR_WRITES_FILTER_ORDER);
+        return registration;
+    }
+}
@@ -0,0 +1,20 @@
+package com.habitbeat.backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "datasource.replica")
+@Data
+public class ReplicaDataSourceProperties {
+    // Replica routing is off unless a URL is configured
+    private String url;
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+    // Reads go to the primary while the replica is further behind than this
+    private Duration maxLag = Duration.ofSeconds(2);
+    // How long after a write a user's reads stay on the primary
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+}
@@ -0,0 +1,16 @@
+package com.habitbeat.backend.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Turned off with {@code scheduling.enabled=false} for the AOT cache training run, which has no
+ * database or Redis: several jobs (the known-email filter, the user search index) load from
+ * Postgres as soon as scheduling starts.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
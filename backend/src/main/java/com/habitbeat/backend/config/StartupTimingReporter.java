@@ -0,0 +1,48 @@
+package com.habitbeat.backend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Logs startup time and time-to-first-request measured from JVM start, so configurations (default
+ * vs prod profile, with or without the AOT cache) can be compared on the same machine.
+ */
+@Component
+@Slf4j
+public class StartupTimingReporter extends OncePerRequestFilter {
+    private final AtomicBoolean firstRequestSeen = new AtomicBoolean();
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        log.info("Startup: ready {} ms after JVM start (context: {} ms)",
+                millisSinceJvmStart(), event.getTimeTaken().toMillis());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (!firstRequestSeen.get() && firstRequestSeen.compareAndSet(false, true)) {
+                log.info("Startup: first request {} {} completed {} ms after JVM start",
+                        request.getMethod(), request.getRequestURI(), millisSinceJvmStart());
+            }
+        }
+    }
+
+    private long millisSinceJvmStart() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+}
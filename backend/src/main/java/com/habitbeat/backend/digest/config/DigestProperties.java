@@ -0,0 +1,27 @@
+package com.habitbeat.backend.digest.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "digest")
+@Data
+public class DigestProperties {
+    private boolean enabled = true;
+    private int pageSize = 1000;
+    private int renderThreads = 4;
+    // Each connection delivers a chunk of messages over one SMTP session
+    private int smtpConnections = 4;
+    private int messagesPerConnection = 50;
+    // Across all connections on this node. A cap, not a throughput: at 100/s one node needs at least
+    // 2.8 hours for 1M users, and SMTP round trips can only add to that
+    private int maxSendsPerSecond = 100;
+    private int streakLookbackDays = 60;
+    // A run whose lease lapses is picked up by the next resume check on any node
+    private Duration lease = Duration.ofMinutes(5);
+    private Duration maxResumeAge = Duration.ofDays(6);
+    private String appUrl = "http://localhost:3000";
+}
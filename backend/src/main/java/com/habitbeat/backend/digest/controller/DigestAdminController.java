@@ -0,0 +1,36 @@
+package com.habitbeat.backend.digest.controller;
+
+import com.habitbeat.backend.auth.util.AdminGuard;
+import com.habitbeat.backend.digest.service.WeeklyDigestJob;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/digests")
+@RequiredArgsConstructor
+public class DigestAdminController {
+    private final WeeklyDigestJob weeklyDigestJob;
+    private final AdminGuard adminGuard;
+
+    /**
+     * Starts, or resumes from its checkpoint, the digest for a week (default: last full week).
+     */
+    @PostMapping("/run")
+    public ResponseEntity<Map<String, LocalDate>> run(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate weekStart,
+            HttpServletRequest request) {
+        adminGuard.requireAdmin(request);
+        LocalDate week = weekStart != null ? weekStart : WeeklyDigestJob.lastCompletedWeek();
+        if (!weeklyDigestJob.start(week)) {
+            throw new RuntimeException("Digest run already running");
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("weekStart", week));
+    }
+}
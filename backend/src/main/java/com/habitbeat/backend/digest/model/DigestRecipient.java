@@ -0,0 +1,6 @@
+package com.habitbeat.backend.digest.model;
+
+import java.util.UUID;
+
+public record DigestRecipient(UUID userId, String email, String name) {
+}
@@ -0,0 +1,10 @@
+package com.habitbeat.backend.digest.model;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Progress of one week's digest; {@code lastUserId} is null until the first page is checkpointed.
+ */
+public record DigestRun(LocalDate weekStart, UUID lastUserId, long sent, long failed) {
+}
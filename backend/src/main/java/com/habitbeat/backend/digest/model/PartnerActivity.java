@@ -0,0 +1,4 @@
+package com.habitbeat.backend.digest.model;
+
+public record PartnerActivity(String name, long focusMinutes) {
+}
@@ -0,0 +1,12 @@
+package com.habitbeat.backend.digest.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Everything one user's digest shows for the week starting on {@code weekStart} (a Monday).
+ */
+public record WeeklyDigest(DigestRecipient recipient, LocalDate weekStart, long focusMinutes,
+                           long previousFocusMinutes, int sessions, int streakDays,
+                           List<PartnerActivity> partners) {
+}
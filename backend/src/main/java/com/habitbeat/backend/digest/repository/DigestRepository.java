@@ -0,0 +1,177 @@
+package com.habitbeat.backend.digest.repository;
+
+import com.habitbeat.backend.digest.model.DigestRecipient;
+import com.habitbeat.backend.digest.model.DigestRun;
+import com.habitbeat.backend.digest.model.PartnerActivity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+@RequiredArgsConstructor
+public class DigestRepository {
+    // Placeholder for the uuid[] of a page's user ids in queryByIds parameters
+    private static final Object USER_IDS = new Object();
+
+    // Served by idx_users_verified_id; users without a profile row have not opted out
+    private static final String RECIPIENTS_SQL = "SELECT u.id, u.email, COALESCE(NULLIF(p.display_name, ''), p.first_name) AS name " +
+            "FROM users u LEFT JOIN user_profiles p ON p.user_id = u.id " +
+            "WHERE u.email_verified_at IS NOT NULL AND COALESCE(p.weekly_digest, TRUE) AND u.id > ? " +
+            "ORDER BY u.id LIMIT ?";
+
+    // This week and the one before in one pass over the daily rollups
+    private static final String TOTALS_SQL = "SELECT user_id, " +
+            "COALESCE(SUM(focus_seconds) FILTER (WHERE day >= ?), 0) AS week_seconds, " +
+            "COALESCE(SUM(sessions) FILTER (WHERE day >= ?), 0) AS week_sessions, " +
+            "COALESCE(SUM(focus_seconds) FILTER (WHERE day < ?), 0) AS previous_seconds " +
+            "FROM focus_daily_user_summaries WHERE user_id = ANY(?) AND day >= ? AND day < ? GROUP BY user_id";
+
+    private static final String ACTIVE_DAYS_SQL = "SELECT user_id, day FROM focus_daily_user_summaries " +
+            "WHERE user_id = ANY(?) AND day >= ? AND day < ? AND focus_seconds > 0 ORDER BY user_id, day DESC";
+
+    // Partners are made distinct before their rollups are joined: two users who share more than one
+    // hive would otherwise have each partner day summed once per shared hive
+    private static final String PARTNERS_SQL = "SELECT pair.user_id, " +
+            "COALESCE(NULLIF(p.display_name, ''), p.first_name) AS partner_name, " +
+            "COALESCE(SUM(s.focus_seconds), 0) AS week_seconds " +
+            "FROM (SELECT DISTINCT me.user_id, partner.user_id AS partner_id " +
+            "FROM hive_members me " +
+            "JOIN hive_members partner ON partner.hive_id = me.hive_id AND partner.user_id <> me.user_id " +
+            "AND partner.left_at IS NULL " +
+            "WHERE me.user_id = ANY(?) AND me.left_at IS NULL) pair " +
+            "LEFT JOIN user_profiles p ON p.user_id = pair.partner_id " +
+            "LEFT JOIN focus_daily_user_summaries s ON s.user_id = pair.partner_id AND s.day >= ? AND s.day < ? " +
+            "GROUP BY pair.user_id, pair.partner_id, p.display_name, p.first_name";
+
+    private static final String INSERT_RUN_SQL = "INSERT INTO digest_runs (week_start, status, started_at, updated_at) " +
+            "VALUES (?, 'RUNNING', ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String CLAIM_RUN_SQL = "UPDATE digest_runs SET lease_owner = ?, lease_expires_at = ?, updated_at = ? " +
+            "WHERE week_start = ? AND status = 'RUNNING' AND (lease_owner IS NULL OR lease_expires_at < ?) " +
+            "RETURNING week_start, last_user_id, sent, failed";
+
+    private static final String CHECKPOINT_SQL = "UPDATE digest_runs SET last_user_id = ?, sent = sent + ?, failed = failed + ?, " +
+            "lease_expires_at = ?, updated_at = ? WHERE week_start = ? AND lease_owner = ?";
+
+    private static final String COMPLETE_SQL = "UPDATE digest_runs SET status = 'COMPLETED', completed_at = ?, updated_at = ?, " +
+            "lease_owner = NULL, lease_expires_at = NULL WHERE week_start = ? AND lease_owner = ?";
+
+    private static final String RELEASE_SQL = "UPDATE digest_runs SET lease_owner = NULL, lease_expires_at = NULL, updated_at = ? " +
+            "WHERE week_start = ? AND lease_owner = ?";
+
+    private static final String RESUMABLE_SQL = "SELECT week_start FROM digest_runs " +
+            "WHERE status = 'RUNNING' AND week_start >= ? AND (lease_owner IS NULL OR lease_expires_at < ?) ORDER BY week_start";
+
+    /**
+     * Focus totals of one user for the digest week and the week before it.
+     */
+    public record FocusTotals(long weekSeconds, int weekSessions, long previousSeconds) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<DigestRecipient> findRecipients(UUID afterUserId, int limit) {
+        return jdbcTemplate.query(RECIPIENTS_SQL, (rs, rowNum) -> new DigestRecipient(
+                rs.getObject("id", UUID.class), rs.getString("email"), rs.getString("name")), afterUserId, limit);
+    }
+
+    public Map<UUID, FocusTotals> findTotals(Collection<UUID> userIds, LocalDate weekStart) {
+        Map<UUID, FocusTotals> totals = new HashMap<>();
+        Date start = Date.valueOf(weekStart);
+        queryByIds(TOTALS_SQL, userIds, rs -> totals.put(rs.getObject("user_id", UUID.class), new FocusTotals(
+                        rs.getLong("week_seconds"), rs.getInt("week_sessions"), rs.getLong("previous_seconds"))),
+                start, start, start, USER_IDS, Date.valueOf(weekStart.minusWeeks(1)), Date.valueOf(weekStart.plusWeeks(1)));
+        return totals;
+    }
+
+    /**
+     * Days with any focus time in [from, to), newest first per user.
+     */
+    public Map<UUID, List<LocalDate>> findActiveDays(Collection<UUID> userIds, LocalDate from, LocalDate to) {
+        Map<UUID, List<LocalDate>> days = new HashMap<>();
+        queryByIds(ACTIVE_DAYS_SQL, userIds, rs -> days
+                        .computeIfAbsent(rs.getObject("user_id", UUID.class), id -> new ArrayList<>())
+                        .add(rs.getDate("day").toLocalDate()),
+                USER_IDS, Date.valueOf(from), Date.valueOf(to));
+        return days;
+    }
+
+    public Map<UUID, List<PartnerActivity>> findPartnerActivity(Collection<UUID> userIds, LocalDate weekStart) {
+        Map<UUID, List<PartnerActivity>> partners = new HashMap<>();
+        queryByIds(PARTNERS_SQL, userIds, rs -> partners
+                        .computeIfAbsent(rs.getObject("user_id", UUID.class), id -> new ArrayList<>())
+                        .add(new PartnerActivity(rs.getString("partner_name"), rs.getLong("week_seconds") / 60)),
+                USER_IDS, Date.valueOf(weekStart), Date.valueOf(weekStart.plusWeeks(1)));
+        return partners;
+    }
+
+    public void createRun(LocalDate weekStart, LocalDateTime now) {
+        jdbcTemplate.update(INSERT_RUN_SQL, Date.valueOf(weekStart), Timestamp.valueOf(now), Timestamp.valueOf(now));
+    }
+
+    /**
+     * Takes the lease on a run that is still going and that no live node holds.
+     */
+    public Optional<DigestRun> claimRun(LocalDate weekStart, String owner, LocalDateTime now, LocalDateTime leaseExpiresAt) {
+        return jdbcTemplate.query(CLAIM_RUN_SQL, (rs, rowNum) -> new DigestRun(
+                        rs.getDate("week_start").toLocalDate(), rs.getObject("last_user_id", UUID.class),
+                        rs.getLong("sent"), rs.getLong("failed")),
+                owner, Timestamp.valueOf(leaseExpiresAt), Timestamp.valueOf(now), Date.valueOf(weekStart),
+                Timestamp.valueOf(now)).stream().findFirst();
+    }
+
+    /**
+     * @return false if the lease was lost to another node, which then owns the run
+     */
+    public boolean checkpoint(LocalDate weekStart, String owner, UUID lastUserId, long sent, long failed,
+                              LocalDateTime now, LocalDateTime leaseExpiresAt) {
+        return jdbcTemplate.update(CHECKPOINT_SQL, lastUserId, sent, failed, Timestamp.valueOf(leaseExpiresAt),
+                Timestamp.valueOf(now), Date.valueOf(weekStart), owner) == 1;
+    }
+
+    public void complete(LocalDate weekStart, String owner, LocalDateTime now) {
+        jdbcTemplate.update(COMPLETE_SQL, Timestamp.valueOf(now), Timestamp.valueOf(now), Date.valueOf(weekStart), owner);
+    }
+
+    public void release(LocalDate weekStart, String owner, LocalDateTime now) {
+        jdbcTemplate.update(RELEASE_SQL, Timestamp.valueOf(now), Date.valueOf(weekStart), owner);
+    }
+
+    public List<LocalDate> findResumable(LocalDate notBefore, LocalDateTime now) {
+        return jdbcTemplate.query(RESUMABLE_SQL, (rs, rowNum) -> rs.getDate("week_start").toLocalDate(),
+                Date.valueOf(notBefore), Timestamp.valueOf(now));
+    }
+
+    /**
+     * Runs a query with {@code userIds} bound as a uuid[] where {@link #USER_IDS} stands in the parameters.
+     */
+    private void queryByIds(String sql, Collection<UUID> userIds, RowCallbackHandler handler, Object... params) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(sql);
+            for (int i = 0; i < params.length; i++) {
+                if (params[i] == USER_IDS) {
+                    statement.setArray(i + 1, con.createArrayOf("uuid", userIds.toArray()));
+                } else {
+                    statement.setObject(i + 1, params[i]);
+                }
+            }
+            return statement;
+        }, handler);
+    }
+}
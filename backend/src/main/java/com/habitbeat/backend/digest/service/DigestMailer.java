@@ -0,0 +1,144 @@
+package com.habitbeat.backend.digest.service;
+
+import com.habitbeat.backend.auth.config.EmailProperties;
+import com.habitbeat.backend.digest.config.DigestProperties;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bulk delivery for digests. Messages go out in chunks, and each chunk is a single
+ * {@link JavaMailSender#send(MimeMessage...)} call, which delivers the whole chunk over one SMTP
+ * connection instead of reconnecting per message. Up to {@code smtp-connections} chunks are in
+ * flight at once, and every chunk first reserves its share of the node-wide send rate.
+ */
+@Component
+@Slf4j
+public class DigestMailer {
+    private final JavaMailSender mailSender;
+    private final EmailProperties emailProperties;
+    private final DigestProperties properties;
+    private final ThreadPoolExecutor connections;
+    private final long sendIntervalNanos;
+    // Earliest time the next reserved send may start
+    private final AtomicLong nextSendNanos = new AtomicLong(System.nanoTime());
+
+    public DigestMailer(JavaMailSender mailSender, EmailProperties emailProperties, DigestProperties properties) {
+        this.mailSender = mailSender;
+        this.emailProperties = emailProperties;
+        this.properties = properties;
+        this.sendIntervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, properties.getMaxSendsPerSecond());
+        int chunksPerPage = (properties.getPageSize() + properties.getMessagesPerConnection() - 1)
+                / properties.getMessagesPerConnection();
+        AtomicInteger threadIds = new AtomicInteger();
+        this.connections = new ThreadPoolExecutor(
+                properties.getSmtpConnections(), properties.getSmtpConnections(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(chunksPerPage),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "digest-smtp-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Builds a multipart/alternative message; safe to call from any thread.
+     */
+    public MimeMessage compose(String to, DigestRenderer.RenderedDigest digest) {
+        MimeMessage message = mailSender.createMimeMessage();
+        try {
+            MimeMessageHelper helper = new MimeMessageHelper(message, true, StandardCharsets.UTF_8.name());
+            if (emailProperties.getFromName() != null) {
+                helper.setFrom(emailProperties.getFromAddress(), emailProperties.getFromName());
+            } else {
+                helper.setFrom(emailProperties.getFromAddress());
+            }
+            helper.setTo(to);
+            helper.setSubject(digest.subject());
+            helper.setText(digest.text(), digest.html());
+        } catch (MessagingException | UnsupportedEncodingException e) {
+            throw new IllegalStateException("Failed to build digest for " + to, e);
+        }
+        return message;
+    }
+
+    /**
+     * Sends every message and waits until all chunks are done.
+     *
+     * @return number of messages that could not be delivered
+     */
+    public int sendAll(List<MimeMessage> messages) {
+        int chunkSize = properties.getMessagesPerConnection();
+        List<Future<Integer>> chunks = new ArrayList<>();
+        List<Integer> chunkSizes = new ArrayList<>();
+        for (int from = 0; from < messages.size(); from += chunkSize) {
+            List<MimeMessage> chunk = messages.subList(from, Math.min(from + chunkSize, messages.size()));
+            chunks.add(connections.submit(() -> sendChunk(chunk)));
+            chunkSizes.add(chunk.size());
+        }
+        int failures = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            try {
+                failures += chunks.get(i).get();
+            } catch (ExecutionException e) {
+                log.error("Digest chunk of {} failed", chunkSizes.get(i), e.getCause());
+                failures += chunkSizes.get(i);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while sending digests", e);
+            }
+        }
+        return failures;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connections.shutdown();
+    }
+
+    private int sendChunk(List<MimeMessage> chunk) {
+        throttle(chunk.size());
+        try {
+            mailSender.send(chunk.toArray(MimeMessage[]::new));
+            return 0;
+        } catch (MailSendException e) {
+            // Per-message failures are listed; a connection failure lists none and loses the whole chunk
+            int failures = e.getFailedMessages().isEmpty() ? chunk.size() : e.getFailedMessages().size();
+            log.warn("{} of {} digests in a chunk were not delivered: {}", failures, chunk.size(), e.getMessage());
+            return failures;
+        } catch (MailException e) {
+            log.warn("Digest chunk of {} was not delivered: {}", chunk.size(), e.getMessage());
+            return chunk.size();
+        }
+    }
+
+    private void throttle(int messages) {
+        long now = System.nanoTime();
+        long reserved = nextSendNanos.getAndUpdate(next -> Math.max(next, now) + messages * sendIntervalNanos);
+        long wait = Math.max(reserved, now) - now;
+        if (wait > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+}
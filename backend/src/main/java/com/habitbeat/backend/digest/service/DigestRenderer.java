@@ -0,0 +1,140 @@
+package com.habitbeat.backend.digest.service;
+
+import com.habitbeat.backend.digest.config.DigestProperties;
+import com.habitbeat.backend.digest.model.PartnerActivity;
+import com.habitbeat.backend.digest.model.WeeklyDigest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fills the digest templates under {@code templates/email}. Each template is split into literal
+ * and {@code {{placeholder}}} segments once at startup, so rendering is a single pass of string
+ * appends and is safe to call from many threads. Every value is HTML-escaped in the HTML part.
+ */
+@Component
+public class DigestRenderer {
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{\\{(\\w+)}}");
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("MMM d", Locale.ENGLISH);
+
+    private final Template html;
+    private final Template text;
+    private final String appUrl;
+
+    public record RenderedDigest(String subject, String html, String text) {
+    }
+
+    /**
+     * Literal text at even indexes, placeholder names at odd ones.
+     */
+    private record Template(List<String> segments) {
+        private String render(Map<String, String> values) {
+            StringBuilder out = new StringBuilder(segments.stream().mapToInt(String::length).sum() + 512);
+            for (int i = 0; i < segments.size(); i++) {
+                if (i % 2 == 0) {
+                    out.append(segments.get(i));
+                } else {
+                    out.append(values.getOrDefault(segments.get(i), ""));
+                }
+            }
+            return out.toString();
+        }
+    }
+
+    public DigestRenderer(DigestProperties properties) {
+        this.html = load("templates/email/weekly-digest.html");
+        this.text = load("templates/email/weekly-digest.txt");
+        this.appUrl = properties.getAppUrl();
+    }
+
+    public RenderedDigest render(WeeklyDigest digest) {
+        String name = digest.recipient().name() != null && !digest.recipient().name().isBlank()
+                ? digest.recipient().name() : "there";
+        Map<String, String> values = new HashMap<>();
+        values.put("name", name);
+        values.put("weekLabel", DAY.format(digest.weekStart()) + " - " + DAY.format(digest.weekStart().plusDays(6)));
+        values.put("focusMinutes", String.valueOf(digest.focusMinutes()));
+        values.put("trend", trend(digest.focusMinutes(), digest.previousFocusMinutes()));
+        values.put("sessions", String.valueOf(digest.sessions()));
+        values.put("streakDays", String.valueOf(digest.streakDays()));
+        values.put("appUrl", appUrl);
+        values.put("settingsUrl", appUrl + "/settings/profile");
+
+        Map<String, String> htmlValues = new HashMap<>();
+        values.forEach((key, value) -> htmlValues.put(key, HtmlUtils.htmlEscape(value)));
+        // The partner block is markup of its own; names are escaped as it is built
+        htmlValues.put("partners", partnersHtml(digest.partners()));
+        values.put("partners", partnersText(digest.partners()));
+
+        String subject = digest.focusMinutes() > 0
+                ? "Your week on Habitbeat: " + digest.focusMinutes() + " focus minutes"
+                : "Your week on Habitbeat";
+        return new RenderedDigest(subject, html.render(htmlValues), text.render(values));
+    }
+
+    private String trend(long minutes, long previousMinutes) {
+        if (minutes == previousMinutes) {
+            return "same as last week";
+        }
+        long delta = minutes - previousMinutes;
+        return (delta > 0 ? "+" : "") + delta + " vs last week";
+    }
+
+    private String partnersHtml(List<PartnerActivity> partners) {
+        if (partners.isEmpty()) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder("<h2 style=\"font-size:16px;margin:0 0 8px;\">Your hive partners</h2><ul style=\"margin:0;padding-left:20px;\">");
+        for (PartnerActivity partner : partners) {
+            out.append("<li>").append(HtmlUtils.htmlEscape(partnerName(partner))).append(": ")
+                    .append(partner.focusMinutes()).append(" focus minutes</li>");
+        }
+        return out.append("</ul>").toString();
+    }
+
+    private String partnersText(List<PartnerActivity> partners) {
+        StringBuilder out = new StringBuilder();
+        if (!partners.isEmpty()) {
+            out.append("\nYour hive partners:\n");
+        }
+        for (PartnerActivity partner : partners) {
+            out.append("- ").append(partnerName(partner)).append(": ").append(partner.focusMinutes()).append(" focus minutes\n");
+        }
+        return out.toString();
+    }
+
+    private String partnerName(PartnerActivity partner) {
+        return partner.name() != null && !partner.name().isBlank() ? partner.name() : "Your partner";
+    }
+
+    private static Template load(String path) {
+        String source;
+        try {
+            source = new ClassPathResource(path).getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Digest template missing: " + path, e);
+        }
+        List<String> segments = new ArrayList<>();
+        Matcher matcher = PLACEHOLDER.matcher(source);
+        int last = 0;
+        while (matcher.find()) {
+            segments.add(source.substring(last, matcher.start()));
+            segments.add(matcher.group(1));
+            last = matcher.end();
+        }
+        segments.add(source.substring(last));
+        return new Template(segments);
+    }
+}
@@ -0,0 +1,244 @@
+package com.habitbeat.backend.digest.service;
+
+import com.habitbeat.backend.digest.config.DigestProperties;
+import com.habitbeat.backend.digest.model.DigestRecipient;
+import com.habitbeat.backend.digest.model.DigestRun;
+import com.habitbeat.backend.digest.model.PartnerActivity;
+import com.habitbeat.backend.digest.model.WeeklyDigest;
+import com.habitbeat.backend.digest.repository.DigestRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Weekly digest emails for every verified user who has not opted out. Users are walked in id
+ * order one keyset page at a time; each page's stats come from the daily rollups in three bulk
+ * queries, its emails are rendered on a bounded pool and handed to {@link DigestMailer}, and only
+ * then is the page's last user id checkpointed in {@code digest_runs}. A run that dies resumes from
+ * the checkpoint on whichever node next finds its lease expired, so at most one page is sent twice.
+ */
+@Service
+@Slf4j
+public class WeeklyDigestJob {
+    private static final UUID MIN_UUID = new UUID(0, 0);
+
+    private final DigestRepository digestRepository;
+    private final DigestRenderer digestRenderer;
+    private final DigestMailer digestMailer;
+    private final DigestProperties properties;
+    private final ThreadPoolExecutor renderers;
+    // Runs take hours, so they get their own thread instead of holding a scheduler thread
+    private final ExecutorService runner;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean stopping;
+    private final Counter sent;
+    private final Counter failed;
+    private final Timer pageTimer;
+
+    public WeeklyDigestJob(DigestRepository digestRepository, DigestRenderer digestRenderer, DigestMailer digestMailer,
+                           DigestProperties properties, MeterRegistry meterRegistry) {
+        this.digestRepository = digestRepository;
+        this.digestRenderer = digestRenderer;
+        this.digestMailer = digestMailer;
+        this.properties = properties;
+        AtomicInteger threadIds = new AtomicInteger();
+        // A full queue makes the job thread render too, so a page never waits on rejected work
+        this.renderers = new ThreadPoolExecutor(
+                properties.getRenderThreads(), properties.getRenderThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getPageSize()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "digest-render-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.runner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "digest-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.sent = Counter.builder("digest.emails").tag("outcome", "sent").register(meterRegistry);
+        this.failed = Counter.builder("digest.emails").tag("outcome", "failed").register(meterRegistry);
+        this.pageTimer = Timer.builder("digest.page").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${digest.cron:0 0 6 * * MON}")
+    public void scheduledStart() {
+        if (properties.isEnabled()) {
+            start(lastCompletedWeek());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${digest.resume-interval-ms:300000}")
+    public void resumeStalled() {
+        if (!properties.isEnabled() || running.get()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<LocalDate> weeks = digestRepository.findResumable(now.minus(properties.getMaxResumeAge()).toLocalDate(), now);
+        if (!weeks.isEmpty()) {
+            start(weeks.get(0));
+        }
+    }
+
+    public static LocalDate lastCompletedWeek() {
+        return LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).minusWeeks(1);
+    }
+
+    /**
+     * Starts or resumes the digest for the week beginning on {@code weekStart} in the background.
+     *
+     * @return false if a digest run is already active on this node
+     */
+    public boolean start(LocalDate weekStart) {
+        if (weekStart.getDayOfWeek() != DayOfWeek.MONDAY) {
+            throw new IllegalArgumentException("Digest weeks start on a Monday");
+        }
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        runner.execute(() -> {
+            try {
+                run(weekStart);
+            } catch (RuntimeException e) {
+                log.error("Digest run for week of {} failed; it resumes from its checkpoint", weekStart, e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopping = true;
+        runner.shutdown();
+        // The current page finishes and is checkpointed; the lease is then released for another node
+        if (!runner.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Digest run did not stop in time; another node resumes it once its lease expires");
+        }
+        renderers.shutdown();
+    }
+
+    private void run(LocalDate weekStart) {
+        LocalDateTime now = LocalDateTime.now();
+        digestRepository.createRun(weekStart, now);
+        String owner = UUID.randomUUID().toString();
+        Optional<DigestRun> claimed = digestRepository.claimRun(weekStart, owner, now, now.plus(properties.getLease()));
+        if (claimed.isEmpty()) {
+            log.info("Digest for week of {} is complete or running on another node", weekStart);
+            return;
+        }
+        DigestRun run = claimed.get();
+        UUID after = run.lastUserId() != null ? run.lastUserId() : MIN_UUID;
+        long runSent = run.sent();
+        long runFailed = run.failed();
+        if (run.lastUserId() != null) {
+            log.info("Resuming digest for week of {} after user {} ({} sent so far)", weekStart, after, runSent);
+        }
+
+        long started = System.nanoTime();
+        while (!stopping) {
+            List<DigestRecipient> page = digestRepository.findRecipients(after, properties.getPageSize());
+            if (page.isEmpty()) {
+                digestRepository.complete(weekStart, owner, LocalDateTime.now());
+                log.info("Digest for week of {} done: {} sent, {} failed; this pass took {} s", weekStart, runSent,
+                        runFailed, (System.nanoTime() - started) / 1_000_000_000);
+                return;
+            }
+            int pageFailures = pageTimer.record(() -> sendPage(weekStart, page));
+            after = page.get(page.size() - 1).userId();
+            runSent += page.size() - pageFailures;
+            runFailed += pageFailures;
+            sent.increment(page.size() - pageFailures);
+            failed.increment(pageFailures);
+
+            LocalDateTime checkpointAt = LocalDateTime.now();
+            if (!digestRepository.checkpoint(weekStart, owner, after, page.size() - pageFailures, pageFailures,
+                    checkpointAt, checkpointAt.plus(properties.getLease()))) {
+                log.warn("Lost the lease on the digest for week of {}; stopping", weekStart);
+                return;
+            }
+        }
+        digestRepository.release(weekStart, owner, LocalDateTime.now());
+    }
+
+    /**
+     * @return number of users on the page whose digest was not delivered
+     */
+    private int sendPage(LocalDate weekStart, List<DigestRecipient> page) {
+        List<UUID> userIds = page.stream().map(DigestRecipient::userId).toList();
+        LocalDate weekEnd = weekStart.plusWeeks(1);
+        Map<UUID, DigestRepository.FocusTotals> totals = digestRepository.findTotals(userIds, weekStart);
+        Map<UUID, List<LocalDate>> activeDays = digestRepository.findActiveDays(userIds,
+                weekEnd.minusDays(properties.getStreakLookbackDays()), weekEnd);
+        Map<UUID, List<PartnerActivity>> partners = digestRepository.findPartnerActivity(userIds, weekStart);
+
+        List<CompletableFuture<MimeMessage>> rendering = new ArrayList<>(page.size());
+        for (DigestRecipient recipient : page) {
+            DigestRepository.FocusTotals focus = totals.getOrDefault(recipient.userId(),
+                    new DigestRepository.FocusTotals(0, 0, 0));
+            WeeklyDigest digest = new WeeklyDigest(recipient, weekStart, focus.weekSeconds() / 60,
+                    focus.previousSeconds() / 60, focus.weekSessions(),
+                    streak(activeDays.getOrDefault(recipient.userId(), List.of()), weekStart),
+                    partners.getOrDefault(recipient.userId(), List.of()));
+            rendering.add(CompletableFuture.supplyAsync(
+                    () -> digestMailer.compose(recipient.email(), digestRenderer.render(digest)), renderers));
+        }
+
+        List<MimeMessage> messages = new ArrayList<>(page.size());
+        int failures = 0;
+        for (CompletableFuture<MimeMessage> future : rendering) {
+            try {
+                messages.add(future.join());
+            } catch (CompletionException e) {
+                failures++;
+                log.warn("Digest could not be rendered: {}", e.getCause().getMessage());
+            }
+        }
+        return failures + digestMailer.sendAll(messages);
+    }
+
+    /**
+     * Consecutive active days ending on the last active day of the week, counted back at most
+     * {@code streak-lookback-days}; 0 if the user had no focus time that week.
+     */
+    private int streak(List<LocalDate> activeDaysNewestFirst, LocalDate weekStart) {
+        if (activeDaysNewestFirst.isEmpty() || activeDaysNewestFirst.get(0).isBefore(weekStart)) {
+            return 0;
+        }
+        int streak = 1;
+        for (int i = 1; i < activeDaysNewestFirst.size(); i++) {
+            if (!activeDaysNewestFirst.get(i).equals(activeDaysNewestFirst.get(i - 1).minusDays(1))) {
+                break;
+            }
+            streak++;
+        }
+        return streak;
+    }
+}
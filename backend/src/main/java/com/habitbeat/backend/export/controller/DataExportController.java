@@ -0,0 +1,64 @@
+package com.habitbeat.backend.export.controller;
+
+import com.habitbeat.backend.audit.model.AuditEventType;
+import com.habitbeat.backend.audit.service.AuditService;
+import com.habitbeat.backend.auth.service.RateLimitService;
+import com.habitbeat.backend.auth.util.CurrentUserResolver;
+import com.habitbeat.backend.config.AsyncTimeoutConfig;
+import com.habitbeat.backend.export.service.UserDataExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/users/me")
+@RequiredArgsConstructor
+public class DataExportController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final UserDataExportService userDataExportService;
+    private final CurrentUserResolver currentUserResolver;
+    private final RateLimitService rateLimitService;
+    private final AuditService auditService;
+
+    // Large accounts take minutes to stream; no other endpoint gets this long
+    @Value("${export.async-timeout:30m}")
+    private Duration asyncTimeout;
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+
+        // Exports are long-running full reads; a few per hour is plenty for a person
+        if (!rateLimitService.isAllowed("export:" + userId, 3, Duration.ofHours(1))) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        }
+        auditService.record(AuditEventType.DATA_EXPORTED, userId, null,
+                request.getRemoteAddr(), request.getHeader("User-Agent"), gzip ? "gzip" : null);
+
+        String filename = "habitbeat-export-" + LocalDate.now() + (gzip ? ".ndjson.gz" : ".ndjson");
+        StreamingResponseBody body = out -> userDataExportService.export(userId, out, gzip);
+        request.setAttribute(AsyncTimeoutConfig.TIMEOUT_ATTRIBUTE, asyncTimeout);
+        return ResponseEntity.ok()
+                .contentType(gzip ? GZIP : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,183 @@
+package com.habitbeat.backend.export.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes everything stored about a user as NDJSON, one {"type": ..., "data": {...}} object per
+ * row. Each section is read with a forward-only cursor and written row by row through a Jackson
+ * generator, so heap use is bounded by the fetch size rather than by how much data the user has.
+ * All sections are read in one REPEATABLE READ transaction and therefore form a single snapshot.
+ */
+@Service
+@Slf4j
+public class UserDataExportService {
+    private static final int FETCH_SIZE = 500;
+    private static final int GZIP_BUFFER_SIZE = 16 * 1024;
+
+    // Secrets (password hashes, session token hashes) are deliberately not selected
+    private static final List<ExportSection> SECTIONS = List.of(
+            new ExportSection("user",
+                    "SELECT id, email, email_verified_at, profile_setup_done, created_at, updated_at " +
+                    "FROM users WHERE id = ?"),
+            new ExportSection("profile",
+                    "SELECT first_name, last_name, display_name, avatar_url, timezone, inspiration, about, discoverable, " +
+                    "weekly_digest, updated_at " +
+                    "FROM user_profiles WHERE user_id = ?"),
+            new ExportSection("oauth_identity",
+                    "SELECT provider, provider_user_id, created_at FROM oauth_identities WHERE user_id = ?"),
+            new ExportSection("session",
+                    "SELECT id, device_name, ip, user_agent, created_at, last_used_at, expires_at, revoked_at " +
+                    "FROM sessions WHERE user_id = ? ORDER BY created_at"),
+            new ExportSection("task",
+                    "SELECT id, title, position, completed, completed_at, created_at, updated_at " +
+                    "FROM tasks WHERE user_id = ? ORDER BY position"),
+            new ExportSection("hive_membership",
+                    "SELECT h.id AS hive_id, h.name AS hive_name, m.slot, m.joined_at, m.left_at " +
+                    "FROM hive_members m JOIN hives h ON h.id = m.hive_id WHERE m.user_id = ? ORDER BY m.joined_at"),
+            new ExportSection("hive_message",
+                    "SELECT id, hive_id, body, created_at " +
+                    "FROM hive_messages WHERE sender_id = ? ORDER BY created_at"),
+            new ExportSection("focus_session",
+                    "SELECT session_id, hive_id, started_at, ended_at, focus_seconds, distraction_count, tasks_completed " +
+                    "FROM focus_sessions WHERE user_id = ? ORDER BY started_at"),
+            new ExportSection("focus_daily_summary",
+                    "SELECT day, sessions, focus_seconds, distraction_count, tasks_completed " +
+                    "FROM focus_daily_user_summaries WHERE user_id = ? ORDER BY day"),
+            new ExportSection("focus_session_summary",
+                    "SELECT session_id, focus_seconds, distraction_count, tasks_completed, first_event_at, last_event_at " +
+                    "FROM focus_session_rollups WHERE user_id = ? ORDER BY first_event_at"),
+            new ExportSection("focus_metric_event",
+                    "SELECT session_id, event_type, value, occurred_at " +
+                    "FROM focus_metric_events WHERE user_id = ? ORDER BY occurred_at"),
+            new ExportSection("security_event",
+                    "SELECT occurred_at, event_type, ip, user_agent, detail " +
+                    "FROM audit_events WHERE user_id = ? ORDER BY occurred_at")
+    );
+
+    private record ExportSection(String type, String sql) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTransaction;
+    private final ObjectMapper objectMapper;
+
+    public UserDataExportService(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        // Postgres only honours the fetch size inside a transaction; without one the driver
+        // materialises the whole result set
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Streams the export to {@code out}, which may be a servlet response or a local file. The
+     * stream is finished but not closed.
+     *
+     * @return number of rows written
+     */
+    public long export(UUID userId, OutputStream out, boolean gzip) throws IOException {
+        GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(out, GZIP_BUFFER_SIZE) : null;
+        OutputStream target = gzipStream != null ? gzipStream : out;
+
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(target);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+
+        long started = System.nanoTime();
+        long rows;
+        try {
+            writeHeader(generator, userId);
+            rows = snapshotTransaction.execute(status -> {
+                long written = 0;
+                for (ExportSection section : SECTIONS) {
+                    written += writeSection(generator, section, userId);
+                }
+                return written;
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-download; the transaction is already rolled back
+            throw e.getCause();
+        }
+
+        generator.flush();
+        if (gzipStream != null) {
+            gzipStream.finish();
+        }
+        log.info("Exported {} rows for user {} in {} ms", rows, userId, (System.nanoTime() - started) / 1_000_000);
+        return rows;
+    }
+
+    private void writeHeader(JsonGenerator generator, UUID userId) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("type", "export");
+        generator.writeStringField("userId", userId.toString());
+        generator.writeStringField("generatedAt", Instant.now().toString());
+        generator.writeNumberField("formatVersion", 1);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private long writeSection(JsonGenerator generator, ExportSection section, UUID userId) {
+        long[] count = new long[1];
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(section.sql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setObject(1, userId);
+            return statement;
+        }, rs -> {
+            try {
+                writeRow(generator, section.type(), rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    private void writeRow(JsonGenerator generator, String type, ResultSet rs) throws IOException, SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        generator.writeStartObject();
+        generator.writeStringField("type", type);
+        generator.writeObjectFieldStart("data");
+        for (int column = 1; column <= meta.getColumnCount(); column++) {
+            generator.writeFieldName(meta.getColumnLabel(column));
+            Object value = rs.getObject(column);
+            if (value == null) {
+                generator.writeNull();
+            } else if (value instanceof Timestamp timestamp) {
+                generator.writeString(timestamp.toLocalDateTime().toString());
+            } else if (value instanceof Number || value instanceof Boolean || value instanceof String) {
+                generator.writeObject(value);
+            } else {
+                generator.writeString(value.toString());
+            }
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
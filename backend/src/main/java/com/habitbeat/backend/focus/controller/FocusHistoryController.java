@@ -0,0 +1,56 @@
+package com.habitbeat.backend.focus.controller;
+
+import com.habitbeat.backend.auth.util.CurrentUserResolver;
+import com.habitbeat.backend.focus.dto.CompleteSessionRequest;
+import com.habitbeat.backend.focus.dto.FocusDaySummary;
+import com.habitbeat.backend.focus.dto.FocusSessionPageResponse;
+import com.habitbeat.backend.focus.dto.FocusSessionRecord;
+import com.habitbeat.backend.focus.service.FocusHistoryService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequiredArgsConstructor
+public class FocusHistoryController {
+    private final FocusHistoryService focusHistoryService;
+    private final CurrentUserResolver currentUserResolver;
+
+    @PostMapping("/api/sessions/{sessionId}/complete")
+    public ResponseEntity<FocusSessionRecord> complete(
+            @PathVariable UUID sessionId,
+            @RequestBody(required = false) CompleteSessionRequest body,
+            HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        UUID hiveId = body != null ? body.getHiveId() : null;
+        return ResponseEntity.ok(focusHistoryService.complete(sessionId, userId, hiveId));
+    }
+
+    @GetMapping("/api/focus-history/daily")
+    public ResponseEntity<List<FocusDaySummary>> daily(
+            @RequestParam(required = false) UUID hiveId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        return ResponseEntity.ok(focusHistoryService.daily(userId, hiveId, from, to));
+    }
+
+    @GetMapping("/api/focus-history/sessions")
+    public ResponseEntity<FocusSessionPageResponse> sessions(
+            @RequestParam(required = false) UUID hiveId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        return ResponseEntity.ok(focusHistoryService.sessions(userId, hiveId, from, cursor, limit));
+    }
+}
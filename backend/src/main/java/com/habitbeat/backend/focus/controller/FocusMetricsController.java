@@ -0,0 +1,38 @@
+package com.habitbeat.backend.focus.controller;
+
+import com.habitbeat.backend.auth.util.CurrentUserResolver;
+import com.habitbeat.backend.focus.dto.MetricBatchRequest;
+import com.habitbeat.backend.focus.dto.SessionMetricsSummary;
+import com.habitbeat.backend.focus.service.FocusMetricsService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/sessions/{sessionId}/metrics")
+@RequiredArgsConstructor
+public class FocusMetricsController {
+    private final FocusMetricsService focusMetricsService;
+    private final CurrentUserResolver currentUserResolver;
+
+    @PostMapping
+    public ResponseEntity<Void> ingest(
+            @PathVariable UUID sessionId,
+            @Valid @RequestBody MetricBatchRequest body,
+            HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        focusMetricsService.ingest(sessionId, userId, body.getFrames());
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<List<SessionMetricsSummary>> summary(@PathVariable UUID sessionId, HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        return ResponseEntity.ok(focusMetricsService.summarize(sessionId, userId));
+    }
+}
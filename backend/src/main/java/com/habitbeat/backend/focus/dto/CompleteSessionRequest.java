@@ -0,0 +1,11 @@
+package com.habitbeat.backend.focus.dto;
+
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class CompleteSessionRequest {
+    // Set when the session was run with a hive partner; the caller must be an active member
+    private UUID hiveId;
+}
@@ -0,0 +1,14 @@
+package com.habitbeat.backend.focus.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+public class FocusDaySummary {
+    private LocalDate day;
+    private int sessions;
+    private long focusSeconds;
+    private long distractionCount;
+    private long tasksCompleted;
+}
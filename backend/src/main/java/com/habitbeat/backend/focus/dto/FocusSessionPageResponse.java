@@ -0,0 +1,11 @@
+package com.habitbeat.backend.focus.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class FocusSessionPageResponse {
+    private List<FocusSessionRecord> sessions;
+    private String nextCursor;
+}
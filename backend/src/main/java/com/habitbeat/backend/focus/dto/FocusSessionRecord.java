@@ -0,0 +1,18 @@
+package com.habitbeat.backend.focus.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+public class FocusSessionRecord {
+    private UUID sessionId;
+    private UUID userId;
+    private UUID hiveId;
+    private LocalDateTime startedAt;
+    private LocalDateTime endedAt;
+    private long focusSeconds;
+    private int distractionCount;
+    private int tasksCompleted;
+}
@@ -0,0 +1,15 @@
+package com.habitbeat.backend.focus.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class MetricBatchRequest {
+    @NotEmpty
+    @Size(max = 1000)
+    private List<@Valid MetricFrame> frames;
+}
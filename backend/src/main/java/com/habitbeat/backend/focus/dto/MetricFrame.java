@@ -0,0 +1,28 @@
+package com.habitbeat.backend.focus.dto;
+
+import com.habitbeat.backend.focus.model.FocusMetricType;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class MetricFrame {
+    @NotNull
+    private FocusMetricType type;
+
+    // Seconds of focus for FOCUS_TICK; a count for the other types
+    @Min(0)
+    @Max(600)
+    private int value = 1;
+
+    @NotNull
+    private Instant occurredAt;
+
+    // Increases by one per frame within a session; a retried batch resends the same numbers
+    @NotNull
+    @Min(0)
+    private Long sequence;
+}
@@ -0,0 +1,17 @@
+package com.habitbeat.backend.focus.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+public class SessionMetricsSummary {
+    private UUID sessionId;
+    private UUID userId;
+    private long focusSeconds;
+    private int distractionCount;
+    private int tasksCompleted;
+    private LocalDateTime firstEventAt;
+    private LocalDateTime lastEventAt;
+}
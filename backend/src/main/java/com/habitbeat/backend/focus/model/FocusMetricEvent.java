@@ -0,0 +1,13 @@
+package com.habitbeat.backend.focus.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record FocusMetricEvent(
+        UUID sessionId,
+        UUID userId,
+        FocusMetricType type,
+        int value,
+        LocalDateTime occurredAt,
+        long sequence) {
+}
@@ -0,0 +1,7 @@
+package com.habitbeat.backend.focus.model;
+
+public enum FocusMetricType {
+    FOCUS_TICK,
+    DISTRACTION,
+    TASK_COMPLETED
+}
@@ -0,0 +1,39 @@
+package com.habitbeat.backend.focus.model;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Increment to apply to a rollup row, accumulated in memory from a batch of raw events.
+ */
+@Getter
+public class FocusRollupDelta {
+    private final UUID sessionId;
+    private final UUID userId;
+    private long focusSeconds;
+    private int distractionCount;
+    private int tasksCompleted;
+    private LocalDateTime firstEventAt;
+    private LocalDateTime lastEventAt;
+
+    public FocusRollupDelta(UUID sessionId, UUID userId) {
+        this.sessionId = sessionId;
+        this.userId = userId;
+    }
+
+    public void add(FocusMetricEvent event) {
+        switch (event.type()) {
+            case FOCUS_TICK -> focusSeconds += event.value();
+            case DISTRACTION -> distractionCount += event.value();
+            case TASK_COMPLETED -> tasksCompleted += event.value();
+        }
+        if (firstEventAt == null || event.occurredAt().isBefore(firstEventAt)) {
+            firstEventAt = event.occurredAt();
+        }
+        if (lastEventAt == null || event.occurredAt().isAfter(lastEventAt)) {
+            lastEventAt = event.occurredAt();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.habitbeat.backend.focus.repository;
+
+import com.habitbeat.backend.focus.dto.FocusDaySummary;
+import com.habitbeat.backend.focus.dto.FocusSessionRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+@RequiredArgsConstructor
+public class FocusHistoryRepository {
+    private static final String CLAIM_SQL = "INSERT INTO focus_session_completions (session_id, user_id, started_at) " +
+            "VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String LOCK_SQL = "SELECT started_at FROM focus_session_completions " +
+            "WHERE session_id = ? AND user_id = ? FOR UPDATE";
+
+    private static final String MOVE_SQL = "UPDATE focus_session_completions SET started_at = ? " +
+            "WHERE session_id = ? AND user_id = ?";
+
+    // Both daily summaries take the summed deltas of one statement; grouping keeps each summary
+    // row to a single ON CONFLICT update even when the old and new row share a day
+    private static final String APPLY_DELTAS = "), user_day AS (" +
+            "INSERT INTO focus_daily_user_summaries (user_id, day, sessions, focus_seconds, distraction_count, tasks_completed) " +
+            "SELECT user_id, day, SUM(sessions), SUM(focus_seconds), SUM(distraction_count), SUM(tasks_completed) " +
+            "FROM deltas GROUP BY user_id, day " +
+            "ON CONFLICT (user_id, day) DO UPDATE SET " +
+            "sessions = focus_daily_user_summaries.sessions + EXCLUDED.sessions, " +
+            "focus_seconds = focus_daily_user_summaries.focus_seconds + EXCLUDED.focus_seconds, " +
+            "distraction_count = focus_daily_user_summaries.distraction_count + EXCLUDED.distraction_count, " +
+            "tasks_completed = focus_daily_user_summaries.tasks_completed + EXCLUDED.tasks_completed" +
+            "), hive_day AS (" +
+            "INSERT INTO focus_daily_hive_summaries (hive_id, day, sessions, focus_seconds, distraction_count, tasks_completed) " +
+            "SELECT hive_id, day, SUM(sessions), SUM(focus_seconds), SUM(distraction_count), SUM(tasks_completed) " +
+            "FROM deltas WHERE hive_id IS NOT NULL GROUP BY hive_id, day " +
+            "ON CONFLICT (hive_id, day) DO UPDATE SET " +
+            "sessions = focus_daily_hive_summaries.sessions + EXCLUDED.sessions, " +
+            "focus_seconds = focus_daily_hive_summaries.focus_seconds + EXCLUDED.focus_seconds, " +
+            "distraction_count = focus_daily_hive_summaries.distraction_count + EXCLUDED.distraction_count, " +
+            "tasks_completed = focus_daily_hive_summaries.tasks_completed + EXCLUDED.tasks_completed" +
+            ") ";
+
+    // First completion: the session row plus both daily summaries in one statement
+    private static final String INSERT_SQL = "WITH inserted AS (" +
+            "INSERT INTO focus_sessions (session_id, user_id, hive_id, started_at, ended_at, focus_seconds, " +
+            "distraction_count, tasks_completed) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "RETURNING user_id, hive_id, started_at::date AS day, focus_seconds, distraction_count, tasks_completed" +
+            "), deltas AS (" +
+            "SELECT user_id, hive_id, day, 1 AS sessions, focus_seconds, distraction_count, tasks_completed FROM inserted" +
+            APPLY_DELTAS + "SELECT COUNT(*) FROM inserted";
+
+    // Repeated completion: the earlier row is rewritten in place (moving partition if started_at
+    // changed) and the summaries get the new totals minus the old ones
+    private static final String REPLACE_SQL = "WITH old AS (" +
+            "SELECT session_id, user_id, hive_id, started_at, focus_seconds, distraction_count, tasks_completed " +
+            "FROM focus_sessions WHERE started_at = ? AND session_id = ? AND user_id = ?" +
+            "), updated AS (" +
+            "UPDATE focus_sessions f SET hive_id = ?, started_at = ?, ended_at = ?, focus_seconds = ?, " +
+            "distraction_count = ?, tasks_completed = ? FROM old " +
+            "WHERE f.started_at = old.started_at AND f.session_id = old.session_id AND f.user_id = old.user_id " +
+            "RETURNING f.user_id, f.hive_id, f.started_at::date AS day, f.focus_seconds, f.distraction_count, " +
+            "f.tasks_completed, old.hive_id AS old_hive_id, old.started_at::date AS old_day, " +
+            "old.focus_seconds AS old_focus_seconds, old.distraction_count AS old_distraction_count, " +
+            "old.tasks_completed AS old_tasks_completed" +
+            "), deltas AS (" +
+            "SELECT user_id, hive_id, day, 1 AS sessions, focus_seconds, distraction_count, tasks_completed FROM updated " +
+            "UNION ALL " +
+            "SELECT user_id, old_hive_id, old_day, -1, -old_focus_seconds, -old_distraction_count, -old_tasks_completed FROM updated" +
+            APPLY_DELTAS + "SELECT COUNT(*) FROM updated";
+
+    private static final String SESSION_COLUMNS = "SELECT session_id, user_id, hive_id, started_at, ended_at, " +
+            "focus_seconds, distraction_count, tasks_completed FROM focus_sessions ";
+
+    // The lower bound is always a month start and the plain upper bound lets the planner skip the
+    // partitions created ahead of time, so each page prunes to a single partition
+    private static final String USER_PAGE_SQL = SESSION_COLUMNS +
+            "WHERE user_id = ? AND started_at >= ? AND started_at <= ? AND (started_at, session_id, user_id) < (?, ?, ?) " +
+            "ORDER BY started_at DESC, session_id DESC, user_id DESC LIMIT ?";
+
+    private static final String HIVE_PAGE_SQL = SESSION_COLUMNS +
+            "WHERE hive_id = ? AND started_at >= ? AND started_at <= ? AND (started_at, session_id, user_id) < (?, ?, ?) " +
+            "ORDER BY started_at DESC, session_id DESC, user_id DESC LIMIT ?";
+
+    private static final String USER_DAYS_SQL = "SELECT day, sessions, focus_seconds, distraction_count, tasks_completed " +
+            "FROM focus_daily_user_summaries WHERE user_id = ? AND day >= ? AND day <= ? ORDER BY day";
+
+    private static final String HIVE_DAYS_SQL = "SELECT day, sessions, focus_seconds, distraction_count, tasks_completed " +
+            "FROM focus_daily_hive_summaries WHERE hive_id = ? AND day >= ? AND day <= ? ORDER BY day";
+
+    private static final RowMapper<FocusSessionRecord> SESSION_MAPPER = (rs, rowNum) -> {
+        FocusSessionRecord session = new FocusSessionRecord();
+        session.setSessionId(rs.getObject("session_id", UUID.class));
+        session.setUserId(rs.getObject("user_id", UUID.class));
+        session.setHiveId(rs.getObject("hive_id", UUID.class));
+        session.setStartedAt(rs.getTimestamp("started_at").toLocalDateTime());
+        session.setEndedAt(rs.getTimestamp("ended_at").toLocalDateTime());
+        session.setFocusSeconds(rs.getLong("focus_seconds"));
+        session.setDistractionCount(rs.getInt("distraction_count"));
+        session.setTasksCompleted(rs.getInt("tasks_completed"));
+        return session;
+    };
+
+    private static final RowMapper<FocusDaySummary> DAY_MAPPER = (rs, rowNum) -> {
+        FocusDaySummary summary = new FocusDaySummary();
+        summary.setDay(rs.getDate("day").toLocalDate());
+        summary.setSessions(rs.getInt("sessions"));
+        summary.setFocusSeconds(rs.getLong("focus_seconds"));
+        summary.setDistractionCount(rs.getLong("distraction_count"));
+        summary.setTasksCompleted(rs.getLong("tasks_completed"));
+        return summary;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Records a completed session, or replaces the totals of an earlier completion of the same
+     * session by the same user; the daily summaries only ever count it once.
+     *
+     * @return true if the session was recorded for the first time
+     */
+    @Transactional
+    public boolean record(FocusSessionRecord session) {
+        Timestamp startedAt = Timestamp.valueOf(session.getStartedAt());
+        // The completion row serializes repeated completions of one session until commit
+        if (jdbcTemplate.update(CLAIM_SQL, session.getSessionId(), session.getUserId(), startedAt) > 0) {
+            insert(session);
+            return true;
+        }
+        Timestamp previous = jdbcTemplate.queryForObject(LOCK_SQL, Timestamp.class,
+                session.getSessionId(), session.getUserId());
+        Long replaced = jdbcTemplate.queryForObject(REPLACE_SQL, Long.class,
+                previous, session.getSessionId(), session.getUserId(),
+                session.getHiveId(),
+                startedAt,
+                Timestamp.valueOf(session.getEndedAt()),
+                session.getFocusSeconds(),
+                session.getDistractionCount(),
+                session.getTasksCompleted());
+        if (replaced == null || replaced == 0) {
+            // The earlier row is gone; record this one afresh
+            insert(session);
+        }
+        jdbcTemplate.update(MOVE_SQL, startedAt, session.getSessionId(), session.getUserId());
+        return false;
+    }
+
+    /**
+     * Newest-first sessions strictly before the (startedAt, sessionId, userId) position and no
+     * earlier than {@code notBefore}.
+     */
+    public List<FocusSessionRecord> findPage(UUID ownerId, boolean hive, LocalDateTime notBefore,
+                                             LocalDateTime beforeStartedAt, UUID beforeSessionId, UUID beforeUserId,
+                                             int limit) {
+        return jdbcTemplate.query(hive ? HIVE_PAGE_SQL : USER_PAGE_SQL, SESSION_MAPPER,
+                ownerId, Timestamp.valueOf(notBefore), Timestamp.valueOf(beforeStartedAt), Timestamp.valueOf(beforeStartedAt),
+                beforeSessionId, beforeUserId, limit);
+    }
+
+    public List<FocusDaySummary> findDays(UUID ownerId, boolean hive, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query(hive ? HIVE_DAYS_SQL : USER_DAYS_SQL, DAY_MAPPER,
+                ownerId, Date.valueOf(from), Date.valueOf(to));
+    }
+
+    private void insert(FocusSessionRecord session) {
+        jdbcTemplate.queryForObject(INSERT_SQL, Long.class,
+                session.getSessionId(),
+                session.getUserId(),
+                session.getHiveId(),
+                Timestamp.valueOf(session.getStartedAt()),
+                Timestamp.valueOf(session.getEndedAt()),
+                session.getFocusSeconds(),
+                session.getDistractionCount(),
+                session.getTasksCompleted());
+    }
+}
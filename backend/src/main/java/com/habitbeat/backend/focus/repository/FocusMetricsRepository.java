@@ -0,0 +1,171 @@
+package com.habitbeat.backend.focus.repository;
+
+import com.habitbeat.backend.focus.dto.SessionMetricsSummary;
+import com.habitbeat.backend.focus.model.FocusMetricEvent;
+import com.habitbeat.backend.focus.model.FocusMetricType;
+import com.habitbeat.backend.focus.model.FocusRollupDelta;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Plain JDBC access for the metrics hot path. Raw events go in as one unnest() INSERT per chunk
+ * that skips frames already stored and returns the ones it wrote, so callers fold only new frames
+ * into the rollups. Rollup batches are sent with reWriteBatchedInserts enabled on the datasource.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FocusMetricsRepository {
+    private static final int INSERT_CHUNK_SIZE = 5000;
+
+    // A frame retried by the client carries the same sequence number and hits uq_focus_metric_events_frame
+    private static final String INSERT_EVENTS_SQL = "INSERT INTO focus_metric_events " +
+            "(session_id, user_id, event_type, value, occurred_at, seq) " +
+            "SELECT * FROM unnest(?::uuid[], ?::uuid[], ?::varchar[], ?::int[], ?::timestamp[], ?::bigint[]) " +
+            "ON CONFLICT (session_id, user_id, seq) DO NOTHING " +
+            "RETURNING session_id, user_id, event_type, value, occurred_at, seq";
+
+    private static final String INSERT_DEAD_LETTER_SQL = "INSERT INTO focus_metric_dead_letters " +
+            "(session_id, user_id, event_type, value, occurred_at, seq, error, failed_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String CLAIM_OWNER_SQL = "INSERT INTO focus_session_owners (session_id, user_id, created_at) " +
+            "VALUES (?, ?, ?) ON CONFLICT (session_id) DO NOTHING";
+
+    private static final String UPSERT_SESSION_ROLLUP_SQL = "INSERT INTO focus_session_rollups " +
+            "(session_id, user_id, focus_seconds, distraction_count, tasks_completed, first_event_at, last_event_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (session_id, user_id) DO UPDATE SET " +
+            "focus_seconds = focus_session_rollups.focus_seconds + EXCLUDED.focus_seconds, " +
+            "distraction_count = focus_session_rollups.distraction_count + EXCLUDED.distraction_count, " +
+            "tasks_completed = focus_session_rollups.tasks_completed + EXCLUDED.tasks_completed, " +
+            "first_event_at = LEAST(focus_session_rollups.first_event_at, EXCLUDED.first_event_at), " +
+            "last_event_at = GREATEST(focus_session_rollups.last_event_at, EXCLUDED.last_event_at)";
+
+    private static final String UPSERT_USER_ROLLUP_SQL = "INSERT INTO focus_user_rollups " +
+            "(user_id, focus_seconds, distraction_count, tasks_completed, last_event_at) VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (user_id) DO UPDATE SET " +
+            "focus_seconds = focus_user_rollups.focus_seconds + EXCLUDED.focus_seconds, " +
+            "distraction_count = focus_user_rollups.distraction_count + EXCLUDED.distraction_count, " +
+            "tasks_completed = focus_user_rollups.tasks_completed + EXCLUDED.tasks_completed, " +
+            "last_event_at = GREATEST(focus_user_rollups.last_event_at, EXCLUDED.last_event_at)";
+
+    private static final RowMapper<SessionMetricsSummary> SUMMARY_MAPPER = (rs, rowNum) -> {
+        SessionMetricsSummary summary = new SessionMetricsSummary();
+        summary.setSessionId(rs.getObject("session_id", UUID.class));
+        summary.setUserId(rs.getObject("user_id", UUID.class));
+        summary.setFocusSeconds(rs.getLong("focus_seconds"));
+        summary.setDistractionCount(rs.getInt("distraction_count"));
+        summary.setTasksCompleted(rs.getInt("tasks_completed"));
+        summary.setFirstEventAt(rs.getTimestamp("first_event_at").toLocalDateTime());
+        summary.setLastEventAt(rs.getTimestamp("last_event_at").toLocalDateTime());
+        return summary;
+    };
+
+    private static final RowMapper<FocusMetricEvent> EVENT_MAPPER = (rs, rowNum) -> new FocusMetricEvent(
+            rs.getObject("session_id", UUID.class),
+            rs.getObject("user_id", UUID.class),
+            FocusMetricType.valueOf(rs.getString("event_type")),
+            rs.getInt("value"),
+            rs.getTimestamp("occurred_at").toLocalDateTime(),
+            rs.getLong("seq"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return the events actually written; frames whose sequence number is already stored are left out
+     */
+    public List<FocusMetricEvent> insertEvents(List<FocusMetricEvent> events) {
+        List<FocusMetricEvent> inserted = new ArrayList<>(events.size());
+        for (int from = 0; from < events.size(); from += INSERT_CHUNK_SIZE) {
+            List<FocusMetricEvent> chunk = events.subList(from, Math.min(from + INSERT_CHUNK_SIZE, events.size()));
+            inserted.addAll(jdbcTemplate.query(con -> {
+                PreparedStatement statement = con.prepareStatement(INSERT_EVENTS_SQL);
+                statement.setArray(1, con.createArrayOf("uuid", chunk.stream().map(FocusMetricEvent::sessionId).toArray()));
+                statement.setArray(2, con.createArrayOf("uuid", chunk.stream().map(FocusMetricEvent::userId).toArray()));
+                statement.setArray(3, con.createArrayOf("varchar", chunk.stream().map(event -> event.type().name()).toArray()));
+                statement.setArray(4, con.createArrayOf("int4", chunk.stream().map(FocusMetricEvent::value).toArray()));
+                statement.setArray(5, con.createArrayOf("timestamp",
+                        chunk.stream().map(event -> Timestamp.valueOf(event.occurredAt())).toArray()));
+                statement.setArray(6, con.createArrayOf("int8", chunk.stream().map(FocusMetricEvent::sequence).toArray()));
+                return statement;
+            }, EVENT_MAPPER));
+        }
+        return inserted;
+    }
+
+    public void insertDeadLetters(List<FocusMetricEvent> events, String error, LocalDateTime failedAt) {
+        jdbcTemplate.batchUpdate(INSERT_DEAD_LETTER_SQL, events, 1000, (ps, event) -> {
+            ps.setObject(1, event.sessionId());
+            ps.setObject(2, event.userId());
+            ps.setString(3, event.type().name());
+            ps.setInt(4, event.value());
+            ps.setTimestamp(5, Timestamp.valueOf(event.occurredAt()));
+            ps.setLong(6, event.sequence());
+            ps.setString(7, error);
+            ps.setTimestamp(8, Timestamp.valueOf(failedAt));
+        });
+    }
+
+    /**
+     * Makes {@code userId} the owner of {@code sessionId} unless someone already is.
+     *
+     * @return the owner after the call
+     */
+    public UUID claimOwner(UUID sessionId, UUID userId, LocalDateTime now) {
+        if (jdbcTemplate.update(CLAIM_OWNER_SQL, sessionId, userId, Timestamp.valueOf(now)) == 1) {
+            return userId;
+        }
+        return findOwner(sessionId).orElseThrow(() -> new IllegalStateException("Session owner vanished: " + sessionId));
+    }
+
+    public Optional<UUID> findOwner(UUID sessionId) {
+        return jdbcTemplate.query("SELECT user_id FROM focus_session_owners WHERE session_id = ?",
+                (rs, rowNum) -> rs.getObject("user_id", UUID.class), sessionId).stream().findFirst();
+    }
+
+    public void upsertSessionRollups(Collection<FocusRollupDelta> deltas) {
+        // Sorted so concurrent flushes lock rollup rows in the same order
+        List<FocusRollupDelta> ordered = deltas.stream()
+                .sorted((a, b) -> a.getSessionId().equals(b.getSessionId())
+                        ? a.getUserId().compareTo(b.getUserId())
+                        : a.getSessionId().compareTo(b.getSessionId()))
+                .toList();
+        jdbcTemplate.batchUpdate(UPSERT_SESSION_ROLLUP_SQL, ordered, 500, (ps, delta) -> {
+            ps.setObject(1, delta.getSessionId());
+            ps.setObject(2, delta.getUserId());
+            ps.setLong(3, delta.getFocusSeconds());
+            ps.setInt(4, delta.getDistractionCount());
+            ps.setInt(5, delta.getTasksCompleted());
+            ps.setTimestamp(6, Timestamp.valueOf(delta.getFirstEventAt()));
+            ps.setTimestamp(7, Timestamp.valueOf(delta.getLastEventAt()));
+        });
+    }
+
+    public void upsertUserRollups(Collection<FocusRollupDelta> deltas) {
+        List<FocusRollupDelta> ordered = deltas.stream()
+                .sorted((a, b) -> a.getUserId().compareTo(b.getUserId()))
+                .toList();
+        jdbcTemplate.batchUpdate(UPSERT_USER_ROLLUP_SQL, ordered, 500, (ps, delta) -> {
+            ps.setObject(1, delta.getUserId());
+            ps.setLong(2, delta.getFocusSeconds());
+            ps.setLong(3, delta.getDistractionCount());
+            ps.setLong(4, delta.getTasksCompleted());
+            ps.setTimestamp(5, Timestamp.valueOf(delta.getLastEventAt()));
+        });
+    }
+
+    public List<SessionMetricsSummary> findSessionSummaries(UUID sessionId) {
+        return jdbcTemplate.query("SELECT session_id, user_id, focus_seconds, distraction_count, tasks_completed, " +
+                "first_event_at, last_event_at FROM focus_session_rollups WHERE session_id = ?", SUMMARY_MAPPER, sessionId);
+    }
+}
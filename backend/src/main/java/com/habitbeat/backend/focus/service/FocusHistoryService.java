@@ -0,0 +1,151 @@
+package com.habitbeat.backend.focus.service;
+
+import com.habitbeat.backend.focus.dto.FocusDaySummary;
+import com.habitbeat.backend.focus.dto.FocusSessionPageResponse;
+import com.habitbeat.backend.focus.dto.FocusSessionRecord;
+import com.habitbeat.backend.focus.dto.SessionMetricsSummary;
+import com.habitbeat.backend.focus.repository.FocusHistoryRepository;
+import com.habitbeat.backend.hive.repository.HiveMemberRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Completed-session history. Charts read only the per-day summary tables; session lists are
+ * newest-first keyset pages where each page stays inside one calendar month, so a request touches
+ * at most one monthly partition of raw rows. A page that reaches the month start hands back a
+ * cursor at that boundary and the next request moves on to the previous month.
+ */
+@Service
+@RequiredArgsConstructor
+public class FocusHistoryService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Duration DEFAULT_WINDOW = Duration.ofDays(90);
+    private static final long MAX_CHART_DAYS = 366;
+    private static final UUID MIN_UUID = new UUID(0, 0);
+
+    private final FocusMetricsService focusMetricsService;
+    private final FocusHistoryRepository focusHistoryRepository;
+    private final HiveMemberRepository hiveMemberRepository;
+
+    public FocusSessionRecord complete(UUID sessionId, UUID userId, UUID hiveId) {
+        if (hiveId != null) {
+            requireMember(hiveId, userId);
+        }
+        // Flushes any buffered frames first, so the recorded totals are final
+        SessionMetricsSummary summary = focusMetricsService.summarize(sessionId, userId).stream()
+                .filter(candidate -> candidate.getUserId().equals(userId))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Session not found"));
+
+        FocusSessionRecord session = new FocusSessionRecord();
+        session.setSessionId(sessionId);
+        session.setUserId(userId);
+        session.setHiveId(hiveId);
+        session.setStartedAt(summary.getFirstEventAt());
+        session.setEndedAt(summary.getLastEventAt());
+        session.setFocusSeconds(summary.getFocusSeconds());
+        session.setDistractionCount(summary.getDistractionCount());
+        session.setTasksCompleted(summary.getTasksCompleted());
+        focusHistoryRepository.record(session);
+        return session;
+    }
+
+    public List<FocusDaySummary> daily(UUID userId, UUID hiveId, LocalDate from, LocalDate to) {
+        LocalDate rangeEnd = to != null ? to : LocalDate.now();
+        LocalDate rangeStart = from != null ? from : rangeEnd.minusDays(DEFAULT_WINDOW.toDays());
+        if (rangeStart.isAfter(rangeEnd)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(rangeStart, rangeEnd) > MAX_CHART_DAYS) {
+            throw new IllegalArgumentException("Date range is too long");
+        }
+        if (hiveId != null) {
+            requireMember(hiveId, userId);
+            return focusHistoryRepository.findDays(hiveId, true, rangeStart, rangeEnd);
+        }
+        return focusHistoryRepository.findDays(userId, false, rangeStart, rangeEnd);
+    }
+
+    public FocusSessionPageResponse sessions(UUID userId, UUID hiveId, LocalDateTime from, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        LocalDateTime horizon = from != null ? from : LocalDateTime.now().minus(DEFAULT_WINDOW);
+        if (hiveId != null) {
+            requireMember(hiveId, userId);
+        }
+
+        LocalDateTime beforeStartedAt;
+        UUID beforeSessionId;
+        UUID beforeUserId;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            try {
+                beforeStartedAt = LocalDateTime.parse(position[0]);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            beforeSessionId = UUID.fromString(position[1]);
+            beforeUserId = UUID.fromString(position[2]);
+        } else {
+            beforeStartedAt = LocalDateTime.now().plusSeconds(1);
+            beforeSessionId = MIN_UUID;
+            beforeUserId = MIN_UUID;
+        }
+
+        // The cursor position itself is excluded, so a boundary cursor at a month start selects the month before it
+        LocalDateTime monthStart = YearMonth.from(beforeStartedAt.minusNanos(1000)).atDay(1).atStartOfDay();
+        LocalDateTime notBefore = monthStart.isAfter(horizon) ? monthStart : horizon;
+
+        FocusSessionPageResponse page = new FocusSessionPageResponse();
+        if (!notBefore.isBefore(beforeStartedAt)) {
+            page.setSessions(List.of());
+            return page;
+        }
+        List<FocusSessionRecord> rows = focusHistoryRepository.findPage(hiveId != null ? hiveId : userId, hiveId != null,
+                notBefore, beforeStartedAt, beforeSessionId, beforeUserId, pageSize + 1);
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            FocusSessionRecord last = rows.get(pageSize - 1);
+            page.setNextCursor(encodeCursor(last.getStartedAt(), last.getSessionId(), last.getUserId()));
+        } else if (notBefore.isAfter(horizon)) {
+            // This month is exhausted; continue from the end of the previous one
+            page.setNextCursor(encodeCursor(notBefore, MIN_UUID, MIN_UUID));
+        }
+        page.setSessions(rows);
+        return page;
+    }
+
+    private void requireMember(UUID hiveId, UUID userId) {
+        if (!hiveMemberRepository.isActiveMember(hiveId, userId)) {
+            throw new RuntimeException("Hive not found");
+        }
+    }
+
+    private String encodeCursor(LocalDateTime startedAt, UUID sessionId, UUID userId) {
+        String raw = startedAt + "|" + sessionId + "|" + userId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.habitbeat.backend.focus.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.habitbeat.backend.focus.dto.MetricFrame;
+import com.habitbeat.backend.focus.dto.SessionMetricsSummary;
+import com.habitbeat.backend.focus.model.FocusMetricEvent;
+import com.habitbeat.backend.focus.model.FocusRollupDelta;
+import com.habitbeat.backend.focus.repository.FocusMetricsRepository;
+import com.habitbeat.backend.hive.repository.HiveMemberRepository;
+import com.habitbeat.backend.leaderboard.service.LeaderboardService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Buffers focus-session metric frames per session and writes them behind in batches. Each flush
+ * appends the raw events and folds them into per-session and per-user rollups in one transaction,
+ * so summaries are a primary-key read and never scan raw events.
+ *
+ * <p>Frames carry a per-session sequence number and only frames not stored yet reach the rollups,
+ * so client retries and our own retries never count twice. A batch whose write fails stays counted
+ * against the buffer limit and is retried with backoff; after {@code max-attempts} it is moved to
+ * {@code focus_metric_dead_letters}.
+ */
+@Service
+@Slf4j
+public class FocusMetricsService {
+    private static final Duration IDLE_BUFFER_EVICTION = Duration.ofMinutes(10);
+    private static final Duration ACCESS_CACHE_TTL = Duration.ofMinutes(10);
+    private static final long ACCESS_CACHE_MAX_ENTRIES = 100_000;
+    private static final Duration RETRY_BASE_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration RETRY_MAX_BACKOFF = Duration.ofMinutes(1);
+
+    private final FocusMetricsRepository focusMetricsRepository;
+    private final LeaderboardService leaderboardService;
+    private final HiveMemberRepository hiveMemberRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long maxPendingEvents;
+    private final int maxAttempts;
+    private final ConcurrentHashMap<UUID, SessionBuffer> buffers = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<FailedBatch> retries = new ConcurrentLinkedQueue<>();
+    // Buffered, retrying and in-flight events; only a commit or a dead letter releases them
+    private final AtomicLong pendingEvents = new AtomicLong();
+    // (session, user) pairs already allowed to write to or read the session
+    private final Cache<RollupKey, Boolean> allowed;
+    private final Counter ingested;
+    private final Counter rejected;
+    private final Counter duplicates;
+    private final Counter failed;
+    private final Counter deadLettered;
+    private final Timer flushTimer;
+
+    private static final class SessionBuffer {
+        private final ConcurrentLinkedQueue<FocusMetricEvent> events = new ConcurrentLinkedQueue<>();
+        private final ReentrantLock flushLock = new ReentrantLock();
+        private volatile long lastActivityMillis = System.currentTimeMillis();
+    }
+
+    private record RollupKey(UUID sessionId, UUID userId) {
+    }
+
+    private record FailedBatch(List<FocusMetricEvent> events, int attempts, long nextAttemptMillis) {
+    }
+
+    public FocusMetricsService(FocusMetricsRepository focusMetricsRepository,
+                               LeaderboardService leaderboardService,
+                               HiveMemberRepository hiveMemberRepository,
+                               TransactionTemplate transactionTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${focus.metrics.max-pending-events:500000}") long maxPendingEvents,
+                               @Value("${focus.metrics.max-attempts:5}") int maxAttempts) {
+        this.focusMetricsRepository = focusMetricsRepository;
+        this.leaderboardService = leaderboardService;
+        this.hiveMemberRepository = hiveMemberRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.maxPendingEvents = maxPendingEvents;
+        this.maxAttempts = maxAttempts;
+        this.allowed = Caffeine.newBuilder()
+                .maximumSize(ACCESS_CACHE_MAX_ENTRIES)
+                .expireAfterWrite(ACCESS_CACHE_TTL)
+                .build();
+        this.ingested = Counter.builder("focus.metrics.ingested").register(meterRegistry);
+        this.rejected = Counter.builder("focus.metrics.rejected")
+                .description("Frames refused because the write-behind buffer was full")
+                .register(meterRegistry);
+        this.duplicates = Counter.builder("focus.metrics.duplicates")
+                .description("Frames skipped because their sequence number was already stored")
+                .register(meterRegistry);
+        this.failed = Counter.builder("focus.metrics.failed").register(meterRegistry);
+        this.deadLettered = Counter.builder("focus.metrics.dead_lettered").register(meterRegistry);
+        this.flushTimer = Timer.builder("focus.metrics.flush").register(meterRegistry);
+        Gauge.builder("focus.metrics.pending", pendingEvents, AtomicLong::get).register(meterRegistry);
+    }
+
+    public void ingest(UUID sessionId, UUID userId, List<MetricFrame> frames) {
+        if (pendingEvents.get() + frames.size() > maxPendingEvents) {
+            rejected.increment(frames.size());
+            throw new RuntimeException("Metrics ingestion overloaded");
+        }
+        requireAccess(sessionId, userId, true);
+
+        Instant now = Instant.now();
+        List<FocusMetricEvent> events = new ArrayList<>(frames.size());
+        for (MetricFrame frame : frames) {
+            // Client clocks drift; never accept events from the future
+            Instant occurredAt = frame.getOccurredAt().isAfter(now) ? now : frame.getOccurredAt();
+            events.add(new FocusMetricEvent(sessionId, userId, frame.getType(), frame.getValue(),
+                    LocalDateTime.ofInstant(occurredAt, ZoneId.systemDefault()), frame.getSequence()));
+        }
+
+        // compute() makes the append atomic with buffer eviction, so no frame lands in a dropped buffer
+        buffers.compute(sessionId, (id, buffer) -> {
+            SessionBuffer target = buffer != null ? buffer : new SessionBuffer();
+            target.events.addAll(events);
+            target.lastActivityMillis = System.currentTimeMillis();
+            return target;
+        });
+        pendingEvents.addAndGet(events.size());
+        ingested.increment(events.size());
+    }
+
+    /**
+     * Totals of everyone who sent frames for the session; readable by its owner and their hive partners.
+     */
+    public List<SessionMetricsSummary> summarize(UUID sessionId, UUID userId) {
+        requireAccess(sessionId, userId, false);
+        SessionBuffer buffer = buffers.get(sessionId);
+        if (buffer != null) {
+            buffer.flushLock.lock();
+            try {
+                List<FocusMetricEvent> events = new ArrayList<>();
+                drainInto(buffer, events);
+                persist(events);
+            } finally {
+                buffer.flushLock.unlock();
+            }
+        }
+        return focusMetricsRepository.findSessionSummaries(sessionId);
+    }
+
+    @Scheduled(fixedDelayString = "${focus.metrics.flush-interval-ms:1000}")
+    public void flush() {
+        List<SessionBuffer> locked = new ArrayList<>();
+        List<FocusMetricEvent> batch = new ArrayList<>();
+        try {
+            for (SessionBuffer buffer : buffers.values()) {
+                // A buffer being flushed by summarize() is skipped; it will be picked up next round
+                if (buffer.flushLock.tryLock()) {
+                    locked.add(buffer);
+                    drainInto(buffer, batch);
+                }
+            }
+            persist(batch);
+        } finally {
+            locked.forEach(buffer -> buffer.flushLock.unlock());
+        }
+        retryFailed(false);
+        evictIdleBuffers();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        // Last chance for batches still backing off; whatever fails now is dead-lettered or logged
+        retryFailed(true);
+    }
+
+    /**
+     * The first user to send frames for a session owns it. Only the owner and their current hive
+     * partners may add frames or read totals; anyone else gets the same answer as for an unknown session.
+     */
+    private void requireAccess(UUID sessionId, UUID userId, boolean claim) {
+        RollupKey key = new RollupKey(sessionId, userId);
+        if (allowed.getIfPresent(key) != null) {
+            return;
+        }
+        UUID owner = claim
+                ? focusMetricsRepository.claimOwner(sessionId, userId, LocalDateTime.now())
+                : focusMetricsRepository.findOwner(sessionId).orElseThrow(() -> new RuntimeException("Session not found"));
+        if (!owner.equals(userId) && !hiveMemberRepository.findPartnerIds(owner).contains(userId)) {
+            throw new RuntimeException("Session not found");
+        }
+        allowed.put(key, Boolean.TRUE);
+    }
+
+    private void drainInto(SessionBuffer buffer, List<FocusMetricEvent> sink) {
+        FocusMetricEvent event;
+        while ((event = buffer.events.poll()) != null) {
+            sink.add(event);
+        }
+    }
+
+    private void persist(List<FocusMetricEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        try {
+            write(events);
+            pendingEvents.addAndGet(-events.size());
+        } catch (RuntimeException e) {
+            failed.increment(events.size());
+            log.warn("Failed to persist {} focus metric events; retrying: {}", events.size(), e.getMessage());
+            retries.add(new FailedBatch(events, 1, System.currentTimeMillis() + backoffMillis(1)));
+        }
+    }
+
+    /**
+     * Stores the events and folds the ones not stored before into the rollups. Safe to repeat: a
+     * retry of a batch that did commit inserts nothing and changes no totals.
+     */
+    private void write(List<FocusMetricEvent> events) {
+        Map<UUID, FocusRollupDelta> userDeltas = new HashMap<>();
+        flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+            List<FocusMetricEvent> inserted = focusMetricsRepository.insertEvents(events);
+            duplicates.increment(events.size() - inserted.size());
+            Map<RollupKey, FocusRollupDelta> sessionDeltas = new HashMap<>();
+            for (FocusMetricEvent event : inserted) {
+                sessionDeltas.computeIfAbsent(new RollupKey(event.sessionId(), event.userId()),
+                        key -> new FocusRollupDelta(key.sessionId(), key.userId())).add(event);
+                userDeltas.computeIfAbsent(event.userId(), userId -> new FocusRollupDelta(null, userId)).add(event);
+            }
+            focusMetricsRepository.upsertSessionRollups(sessionDeltas.values());
+            focusMetricsRepository.upsertUserRollups(userDeltas.values());
+        }));
+        // Only committed totals reach the leaderboards
+        leaderboardService.recordFocus(userDeltas.values());
+    }
+
+    private void retryFailed(boolean ignoreBackoff) {
+        long now = System.currentTimeMillis();
+        // Bounded by the size on entry so batches re-queued below wait for the next round
+        for (int remaining = retries.size(); remaining > 0; remaining--) {
+            FailedBatch batch = retries.poll();
+            if (batch == null) {
+                return;
+            }
+            if (!ignoreBackoff && batch.nextAttemptMillis() > now) {
+                retries.add(batch);
+                continue;
+            }
+            try {
+                write(batch.events());
+                pendingEvents.addAndGet(-batch.events().size());
+            } catch (RuntimeException e) {
+                int attempts = batch.attempts() + 1;
+                if (attempts >= maxAttempts) {
+                    deadLetter(batch, e);
+                } else {
+                    log.warn("Retry {} of {} focus metric events failed: {}", attempts, batch.events().size(), e.getMessage());
+                    retries.add(new FailedBatch(batch.events(), attempts, now + backoffMillis(attempts)));
+                }
+            }
+        }
+    }
+
+    private void deadLetter(FailedBatch batch, RuntimeException cause) {
+        try {
+            focusMetricsRepository.insertDeadLetters(batch.events(), String.valueOf(cause.getMessage()), LocalDateTime.now());
+            pendingEvents.addAndGet(-batch.events().size());
+            deadLettered.increment(batch.events().size());
+            log.error("Moved {} focus metric events to the dead-letter table after {} attempts",
+                    batch.events().size(), batch.attempts() + 1, cause);
+        } catch (RuntimeException e) {
+            // The database is likely down altogether; keep the batch rather than lose it
+            log.error("Failed to dead-letter {} focus metric events; keeping them queued", batch.events().size(), e);
+            retries.add(new FailedBatch(batch.events(), batch.attempts(),
+                    System.currentTimeMillis() + RETRY_MAX_BACKOFF.toMillis()));
+        }
+    }
+
+    private long backoffMillis(int attempts) {
+        long backoff = RETRY_BASE_BACKOFF.toMillis() << Math.min(attempts - 1, 16);
+        return Math.min(backoff, RETRY_MAX_BACKOFF.toMillis());
+    }
+
+    private void evictIdleBuffers() {
+        long cutoff = System.currentTimeMillis() - IDLE_BUFFER_EVICTION.toMillis();
+        for (UUID sessionId : buffers.keySet()) {
+            buffers.computeIfPresent(sessionId, (id, buffer) ->
+                    buffer.events.isEmpty() && buffer.lastActivityMillis < cutoff ? null : buffer);
+        }
+    }
+}
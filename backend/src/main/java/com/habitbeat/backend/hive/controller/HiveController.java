@@ -0,0 +1,87 @@
+package com.habitbeat.backend.hive.controller;
+
+import com.habitbeat.backend.auth.util.CurrentUserResolver;
+import com.habitbeat.backend.common.util.ETagUtil;
+import com.habitbeat.backend.hive.dto.CreateHiveRequest;
+import com.habitbeat.backend.hive.dto.HiveInvitationResponse;
+import com.habitbeat.backend.hive.dto.HiveResponse;
+import com.habitbeat.backend.hive.dto.InviteToHiveRequest;
+import com.habitbeat.backend.hive.service.HiveService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/hives")
+@RequiredArgsConstructor
+public class HiveController {
+    private final HiveService hiveService;
+    private final CurrentUserResolver currentUserResolver;
+    private final ETagUtil eTagUtil;
+
+    @PostMapping
+    public ResponseEntity<HiveResponse> createHive(@Valid @RequestBody CreateHiveRequest body, HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(hiveService.createHive(userId, body.getName()));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<HiveResponse>> listHives(HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        return ResponseEntity.ok(hiveService.listHives(userId));
+    }
+
+    @GetMapping("/{hiveId}")
+    public ResponseEntity<HiveResponse> getHive(
+            @PathVariable UUID hiveId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        Optional<Long> cachedVersion = hiveService.cachedVersion(userId, hiveId);
+        if (cachedVersion.isPresent() && eTagUtil.matches(ifNoneMatch, eTagUtil.strong(cachedVersion.get()))) {
+            return notModified(eTagUtil.strong(cachedVersion.get()));
+        }
+
+        HiveResponse hive = hiveService.getHive(userId, hiveId);
+        String eTag = eTagUtil.strong(hive.getVersion());
+        if (eTagUtil.matches(ifNoneMatch, eTag)) {
+            return notModified(eTag);
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(hive);
+    }
+
+    @PostMapping("/{hiveId}/invitations")
+    public ResponseEntity<HiveInvitationResponse> invite(
+            @PathVariable UUID hiveId,
+            @Valid @RequestBody InviteToHiveRequest body,
+            HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        return ResponseEntity.ok(hiveService.invite(userId, hiveId, body.getEmail()));
+    }
+
+    @DeleteMapping("/{hiveId}/membership")
+    public ResponseEntity<Void> leave(@PathVariable UUID hiveId, HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        hiveService.leave(userId, hiveId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<HiveResponse> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .build();
+    }
+}
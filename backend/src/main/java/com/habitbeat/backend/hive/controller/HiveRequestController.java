@@ -0,0 +1,40 @@
+package com.habitbeat.backend.hive.controller;
+
+import com.habitbeat.backend.auth.util.CurrentUserResolver;
+import com.habitbeat.backend.hive.dto.HiveInvitationResponse;
+import com.habitbeat.backend.hive.dto.HiveResponse;
+import com.habitbeat.backend.hive.service.HiveService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/hive-requests")
+@RequiredArgsConstructor
+public class HiveRequestController {
+    private final HiveService hiveService;
+    private final CurrentUserResolver currentUserResolver;
+
+    @GetMapping
+    public ResponseEntity<List<HiveInvitationResponse>> listInvitations(HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        return ResponseEntity.ok(hiveService.listInvitations(userId));
+    }
+
+    @PostMapping("/{requestId}/accept")
+    public ResponseEntity<HiveResponse> accept(@PathVariable UUID requestId, HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        return ResponseEntity.ok(hiveService.accept(userId, requestId));
+    }
+
+    @PostMapping("/{requestId}/decline")
+    public ResponseEntity<Void> decline(@PathVariable UUID requestId, HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        hiveService.decline(userId, requestId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,12 @@
+package com.habitbeat.backend.hive.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class CreateHiveRequest {
+    @NotBlank
+    @Size(max = 100)
+    private String name;
+}
@@ -0,0 +1,19 @@
+package com.habitbeat.backend.hive.dto;
+
+import com.habitbeat.backend.hive.model.HiveRequestStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+public class HiveInvitationResponse {
+    private UUID id;
+    private UUID hiveId;
+    private String hiveName;
+    private UUID inviterId;
+    private String inviterEmail;
+    private HiveRequestStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,14 @@
+package com.habitbeat.backend.hive.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+public class HiveMemberResponse {
+    private UUID userId;
+    private String email;
+    private int slot;
+    private LocalDateTime joinedAt;
+}
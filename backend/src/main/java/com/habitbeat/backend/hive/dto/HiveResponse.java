@@ -0,0 +1,17 @@
+package com.habitbeat.backend.hive.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class HiveResponse {
+    private UUID id;
+    private String name;
+    private int memberCount;
+    private long version;
+    private LocalDateTime createdAt;
+    private List<HiveMemberResponse> members;
+}
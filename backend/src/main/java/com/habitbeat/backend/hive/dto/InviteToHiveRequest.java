@@ -0,0 +1,12 @@
+package com.habitbeat.backend.hive.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class InviteToHiveRequest {
+    @NotBlank
+    @Email
+    private String email;
+}
@@ -0,0 +1,43 @@
+package com.habitbeat.backend.hive.model;
+
+import com.habitbeat.backend.auth.model.User;
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A hive holds at most {@link #CAPACITY} active members. {@code memberCount} is the admission
+ * gate: seats are only taken with a conditional increment, never by counting member rows.
+ */
+@Entity
+@Table(name = "hives")
+@Data
+public class Hive {
+    public static final int CAPACITY = 2;
+
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    private UUID id;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "created_by", nullable = false)
+    private User createdBy;
+
+    @Column(name = "member_count", nullable = false)
+    private int memberCount;
+
+    @Version
+    private Long version;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,40 @@
+package com.habitbeat.backend.hive.model;
+
+import com.habitbeat.backend.auth.model.User;
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.GenericGenerator;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Membership row; {@code leftAt} is set instead of deleting so history survives. Partial unique
+ * indexes on (hive_id, slot) and (hive_id, user_id) over active rows back up the seat counter.
+ */
+@Entity
+@Table(name = "hive_members")
+@Data
+public class HiveMember {
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "hive_id", nullable = false)
+    private Hive hive;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false)
+    private int slot;
+
+    @Column(name = "joined_at", nullable = false)
+    private LocalDateTime joinedAt;
+
+    @Column(name = "left_at")
+    private LocalDateTime leftAt;
+}
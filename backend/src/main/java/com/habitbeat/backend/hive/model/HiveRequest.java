@@ -0,0 +1,47 @@
+package com.habitbeat.backend.hive.model;
+
+import com.habitbeat.backend.auth.model.User;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An invitation to join a hive. Status only moves out of PENDING through conditional updates,
+ * so concurrent accept/decline calls for one request have exactly one winner.
+ */
+@Entity
+@Table(name = "hive_requests", indexes = {
+    @Index(name = "idx_hive_requests_invitee", columnList = "invitee_id, status")
+})
+@Data
+public class HiveRequest {
+    @Id
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "hive_id", nullable = false)
+    private Hive hive;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "inviter_id", nullable = false)
+    private User inviter;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "invitee_id", nullable = false)
+    private User invitee;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private HiveRequestStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "responded_at")
+    private LocalDateTime respondedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
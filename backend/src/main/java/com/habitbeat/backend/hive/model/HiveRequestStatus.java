@@ -0,0 +1,9 @@
+package com.habitbeat.backend.hive.model;
+
+public enum HiveRequestStatus {
+    PENDING,
+    ACCEPTED,
+    DECLINED,
+    // Closed automatically when the hive filled up or the invitation timed out
+    EXPIRED
+}
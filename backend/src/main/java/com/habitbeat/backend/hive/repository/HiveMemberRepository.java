@@ -0,0 +1,39 @@
+package com.habitbeat.backend.hive.repository;
+
+import com.habitbeat.backend.hive.model.Hive;
+import com.habitbeat.backend.hive.model.HiveMember;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface HiveMemberRepository extends JpaRepository<HiveMember, UUID> {
+
+    @Query("SELECT m FROM HiveMember m JOIN FETCH m.user WHERE m.hive.id = :hiveId AND m.leftAt IS NULL ORDER BY m.slot")
+    List<HiveMember> findActiveMembers(@Param("hiveId") UUID hiveId);
+
+    @Query("SELECT m FROM HiveMember m JOIN FETCH m.user JOIN FETCH m.hive " +
+           "WHERE m.hive.id IN :hiveIds AND m.leftAt IS NULL ORDER BY m.slot")
+    List<HiveMember> findActiveMembersOfHives(@Param("hiveIds") List<UUID> hiveIds);
+
+    @Query("SELECT COUNT(m) > 0 FROM HiveMember m WHERE m.hive.id = :hiveId AND m.user.id = :userId AND m.leftAt IS NULL")
+    boolean isActiveMember(@Param("hiveId") UUID hiveId, @Param("userId") UUID userId);
+
+    @Query("SELECT DISTINCT p.user.id FROM HiveMember m, HiveMember p " +
+           "WHERE m.user.id = :userId AND m.leftAt IS NULL AND p.hive = m.hive AND p.leftAt IS NULL AND p.user.id <> :userId")
+    List<UUID> findPartnerIds(@Param("userId") UUID userId);
+
+    @Query("SELECT m.hive FROM HiveMember m WHERE m.user.id = :userId AND m.leftAt IS NULL ORDER BY m.joinedAt DESC")
+    List<Hive> findActiveHives(@Param("userId") UUID userId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE HiveMember m SET m.leftAt = :now " +
+           "WHERE m.hive.id = :hiveId AND m.user.id = :userId AND m.leftAt IS NULL")
+    int markLeft(@Param("hiveId") UUID hiveId, @Param("userId") UUID userId, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,31 @@
+package com.habitbeat.backend.hive.repository;
+
+import com.habitbeat.backend.hive.model.Hive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface HiveRepository extends JpaRepository<Hive, UUID> {
+
+    /**
+     * Takes a seat if one is free. Under READ COMMITTED a concurrent claimer blocks on this row
+     * only until the first commits, then re-checks the predicate against the new count, so the
+     * capacity can never be exceeded and unrelated hives never contend.
+     *
+     * @return 1 if a seat was taken, 0 if the hive is full or missing
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Hive h SET h.memberCount = h.memberCount + 1, h.version = h.version + 1 " +
+           "WHERE h.id = :hiveId AND h.memberCount < :capacity")
+    int claimSeat(@Param("hiveId") UUID hiveId, @Param("capacity") int capacity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Hive h SET h.memberCount = h.memberCount - 1, h.version = h.version + 1 " +
+           "WHERE h.id = :hiveId AND h.memberCount > 0")
+    int releaseSeat(@Param("hiveId") UUID hiveId);
+}
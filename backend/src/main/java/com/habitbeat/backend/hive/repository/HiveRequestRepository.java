@@ -0,0 +1,78 @@
+package com.habitbeat.backend.hive.repository;
+
+import com.habitbeat.backend.hive.model.HiveRequest;
+import com.habitbeat.backend.hive.model.HiveRequestStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface HiveRequestRepository extends JpaRepository<HiveRequest, UUID> {
+
+    /**
+     * Closes a pending invitation whose TTL has run out, so it no longer holds the one-pending-row
+     * slot of uq_hive_requests_pending and a fresh invitation can take its place.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE HiveRequest r SET r.status = :to, r.respondedAt = :now " +
+           "WHERE r.hive.id = :hiveId AND r.invitee.id = :inviteeId AND r.status = :from AND r.expiresAt <= :now")
+    int closeExpired(@Param("hiveId") UUID hiveId,
+                     @Param("inviteeId") UUID inviteeId,
+                     @Param("from") HiveRequestStatus from,
+                     @Param("to") HiveRequestStatus to,
+                     @Param("now") LocalDateTime now);
+
+    /**
+     * Inserts a pending invitation unless one already exists for this hive and invitee, so
+     * repeated or concurrent invites converge on a single row.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO hive_requests (id, hive_id, inviter_id, invitee_id, status, created_at, expires_at) " +
+                   "VALUES (:id, :hiveId, :inviterId, :inviteeId, 'PENDING', :now, :expiresAt) " +
+                   "ON CONFLICT (hive_id, invitee_id) WHERE status = 'PENDING' DO NOTHING",
+           nativeQuery = true)
+    int insertPendingIfAbsent(@Param("id") UUID id,
+                              @Param("hiveId") UUID hiveId,
+                              @Param("inviterId") UUID inviterId,
+                              @Param("inviteeId") UUID inviteeId,
+                              @Param("now") LocalDateTime now,
+                              @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Query("SELECT r FROM HiveRequest r WHERE r.hive.id = :hiveId AND r.invitee.id = :inviteeId AND r.status = :status")
+    Optional<HiveRequest> findByHiveAndInvitee(@Param("hiveId") UUID hiveId,
+                                               @Param("inviteeId") UUID inviteeId,
+                                               @Param("status") HiveRequestStatus status);
+
+    @Query("SELECT r FROM HiveRequest r JOIN FETCH r.hive JOIN FETCH r.inviter " +
+           "WHERE r.invitee.id = :inviteeId AND r.status = :status AND r.expiresAt > :now ORDER BY r.createdAt DESC")
+    List<HiveRequest> findOpenForInvitee(@Param("inviteeId") UUID inviteeId,
+                                         @Param("status") HiveRequestStatus status,
+                                         @Param("now") LocalDateTime now);
+
+    /**
+     * Moves a request owned by the invitee from one status to another if it is still in the
+     * expected status and not expired. Exactly one concurrent caller sees 1.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE HiveRequest r SET r.status = :to, r.respondedAt = :now " +
+           "WHERE r.id = :id AND r.invitee.id = :inviteeId AND r.status = :from AND r.expiresAt > :now")
+    int transition(@Param("id") UUID id,
+                   @Param("inviteeId") UUID inviteeId,
+                   @Param("from") HiveRequestStatus from,
+                   @Param("to") HiveRequestStatus to,
+                   @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE HiveRequest r SET r.status = :to, r.respondedAt = :now WHERE r.hive.id = :hiveId AND r.status = :from")
+    int closeAllForHive(@Param("hiveId") UUID hiveId,
+                        @Param("from") HiveRequestStatus from,
+                        @Param("to") HiveRequestStatus to,
+                        @Param("now") LocalDateTime now);
+}
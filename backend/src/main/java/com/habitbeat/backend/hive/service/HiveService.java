@@ -0,0 +1,280 @@
+package com.habitbeat.backend.hive.service;
+
+import com.habitbeat.backend.auth.model.User;
+import com.habitbeat.backend.auth.repository.UserRepository;
+import com.habitbeat.backend.common.cache.EntityVersionCache;
+import com.habitbeat.backend.hive.dto.HiveInvitationResponse;
+import com.habitbeat.backend.hive.dto.HiveMemberResponse;
+import com.habitbeat.backend.hive.dto.HiveResponse;
+import com.habitbeat.backend.hive.model.Hive;
+import com.habitbeat.backend.hive.model.HiveMember;
+import com.habitbeat.backend.hive.model.HiveRequest;
+import com.habitbeat.backend.hive.model.HiveRequestStatus;
+import com.habitbeat.backend.hive.repository.HiveMemberRepository;
+import com.habitbeat.backend.hive.repository.HiveRepository;
+import com.habitbeat.backend.hive.repository.HiveRequestRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Hive lifecycle without SERIALIZABLE or SELECT ... FOR UPDATE. Every state change is a single
+ * conditional UPDATE whose affected-row count decides the outcome: request status moves out of
+ * PENDING once, and seats are taken with {@link HiveRepository#claimSeat}. Seat changes lock the
+ * hive row before any request row of that hive, so accepts into the same hive queue on the hive
+ * row instead of deadlocking, and accepts into different hives never wait on each other.
+ */
+@Service
+@RequiredArgsConstructor
+public class HiveService {
+    public static final String VERSION_CACHE_TYPE = "hive";
+    private static final Duration INVITATION_TTL = Duration.ofDays(7);
+
+    private final HiveRepository hiveRepository;
+    private final HiveMemberRepository hiveMemberRepository;
+    private final HiveRequestRepository hiveRequestRepository;
+    private final UserRepository userRepository;
+    private final EntityVersionCache versionCache;
+
+    /**
+     * The cached version of a hive the user belongs to. Membership is still checked so a
+     * revalidation never confirms that someone else's hive exists.
+     */
+    public Optional<Long> cachedVersion(UUID userId, UUID hiveId) {
+        Optional<Long> version = versionCache.get(VERSION_CACHE_TYPE, hiveId);
+        if (version.isEmpty() || !hiveMemberRepository.isActiveMember(hiveId, userId)) {
+            return Optional.empty();
+        }
+        return version;
+    }
+
+    @Transactional
+    public HiveResponse createHive(UUID userId, String name) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        Hive hive = new Hive();
+        hive.setName(name.trim());
+        hive.setCreatedBy(user);
+        hive.setMemberCount(1);
+        hive = hiveRepository.saveAndFlush(hive);
+
+        HiveMember member = new HiveMember();
+        member.setHive(hive);
+        member.setUser(user);
+        member.setSlot(1);
+        member.setJoinedAt(LocalDateTime.now());
+        hiveMemberRepository.save(member);
+
+        HiveResponse response = toResponse(hive, List.of(member));
+        versionCache.putAfterCommit(VERSION_CACHE_TYPE, hive.getId(), response.getVersion());
+        return response;
+    }
+
+    @Transactional(readOnly = true)
+    public List<HiveResponse> listHives(UUID userId) {
+        List<Hive> hives = hiveMemberRepository.findActiveHives(userId);
+        if (hives.isEmpty()) {
+            return List.of();
+        }
+        // Members of all hives in one query rather than one per hive
+        Map<UUID, List<HiveMember>> membersByHive = hiveMemberRepository
+                .findActiveMembersOfHives(hives.stream().map(Hive::getId).toList()).stream()
+                .collect(Collectors.groupingBy(member -> member.getHive().getId()));
+        return hives.stream()
+                .map(hive -> toResponse(hive, membersByHive.getOrDefault(hive.getId(), List.of())))
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public HiveResponse getHive(UUID userId, UUID hiveId) {
+        List<HiveMember> members = hiveMemberRepository.findActiveMembers(hiveId);
+        if (members.stream().noneMatch(m -> m.getUser().getId().equals(userId))) {
+            throw new RuntimeException("Hive not found");
+        }
+        Hive hive = hiveRepository.findById(hiveId)
+                .orElseThrow(() -> new RuntimeException("Hive not found"));
+        HiveResponse response = toResponse(hive, members);
+        versionCache.put(VERSION_CACHE_TYPE, hiveId, response.getVersion());
+        return response;
+    }
+
+    /**
+     * Everyone who currently shares a hive with the user.
+     */
+    @Transactional(readOnly = true)
+    public Set<UUID> partnerIds(UUID userId) {
+        return Set.copyOf(hiveMemberRepository.findPartnerIds(userId));
+    }
+
+    /**
+     * Idempotent: inviting someone who already has a pending invitation returns that invitation.
+     * One that has expired is closed first and replaced by a new one.
+     */
+    @Transactional
+    public HiveInvitationResponse invite(UUID inviterId, UUID hiveId, String inviteeEmail) {
+        if (!hiveMemberRepository.isActiveMember(hiveId, inviterId)) {
+            throw new RuntimeException("Hive not found");
+        }
+        Hive hive = hiveRepository.findById(hiveId)
+                .orElseThrow(() -> new RuntimeException("Hive not found"));
+        if (hive.getMemberCount() >= Hive.CAPACITY) {
+            throw new RuntimeException("Hive is full");
+        }
+        User invitee = userRepository.findByEmail(inviteeEmail.toLowerCase())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (hiveMemberRepository.isActiveMember(hiveId, invitee.getId())) {
+            throw new RuntimeException("Already a hive member");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        hiveRequestRepository.closeExpired(hiveId, invitee.getId(), HiveRequestStatus.PENDING,
+                HiveRequestStatus.EXPIRED, now);
+        hiveRequestRepository.insertPendingIfAbsent(UUID.randomUUID(), hiveId, inviterId, invitee.getId(),
+                now, now.plus(INVITATION_TTL));
+        HiveRequest request = hiveRequestRepository
+                .findByHiveAndInvitee(hiveId, invitee.getId(), HiveRequestStatus.PENDING)
+                .orElseThrow(() -> new RuntimeException("Hive request not found"));
+        return toInvitation(request);
+    }
+
+    @Transactional(readOnly = true)
+    public List<HiveInvitationResponse> listInvitations(UUID userId) {
+        return hiveRequestRepository.findOpenForInvitee(userId, HiveRequestStatus.PENDING, LocalDateTime.now())
+                .stream()
+                .map(this::toInvitation)
+                .toList();
+    }
+
+    /**
+     * Safe to retry: a request this user already accepted returns the hive again instead of
+     * failing. When the hive is full the transaction rolls back and the request stays pending.
+     */
+    @Transactional
+    public HiveResponse accept(UUID userId, UUID requestId) {
+        LocalDateTime now = LocalDateTime.now();
+        HiveRequest request = hiveRequestRepository.findById(requestId)
+                .filter(r -> r.getInvitee().getId().equals(userId))
+                .orElseThrow(() -> new RuntimeException("Hive request not found"));
+        UUID hiveId = request.getHive().getId();
+
+        if (hiveMemberRepository.isActiveMember(hiveId, userId)) {
+            if (request.getStatus() == HiveRequestStatus.PENDING) {
+                hiveRequestRepository.transition(requestId, userId,
+                        HiveRequestStatus.PENDING, HiveRequestStatus.ACCEPTED, now);
+            }
+            return getHive(userId, hiveId);
+        }
+        if (request.getStatus() != HiveRequestStatus.PENDING) {
+            throw new RuntimeException("Hive request is no longer pending");
+        }
+
+        // The hive row is locked before this request row; closeAllForHive below then only meets
+        // request rows whose acceptors are still queued on the hive row, not holding their request
+        if (hiveRepository.claimSeat(hiveId, Hive.CAPACITY) == 0) {
+            throw new RuntimeException("Hive is full");
+        }
+        // Exactly one concurrent accept of this request gets here with 1; the rest roll their seat back
+        if (hiveRequestRepository.transition(requestId, userId,
+                HiveRequestStatus.PENDING, HiveRequestStatus.ACCEPTED, now) == 0) {
+            throw new RuntimeException("Hive request is no longer pending");
+        }
+
+        // The seat claim holds the hive row lock, so the active slots read here cannot change
+        // until this transaction commits
+        List<HiveMember> members = hiveMemberRepository.findActiveMembers(hiveId);
+        HiveMember member = new HiveMember();
+        member.setHive(hiveRepository.getReferenceById(hiveId));
+        member.setUser(userRepository.getReferenceById(userId));
+        member.setSlot(firstFreeSlot(members));
+        member.setJoinedAt(now);
+        hiveMemberRepository.saveAndFlush(member);
+
+        Hive hive = hiveRepository.findById(hiveId)
+                .orElseThrow(() -> new RuntimeException("Hive not found"));
+        if (hive.getMemberCount() >= Hive.CAPACITY) {
+            hiveRequestRepository.closeAllForHive(hiveId, HiveRequestStatus.PENDING, HiveRequestStatus.EXPIRED, now);
+        }
+        HiveResponse response = toResponse(hive, hiveMemberRepository.findActiveMembers(hiveId));
+        versionCache.putAfterCommit(VERSION_CACHE_TYPE, hiveId, response.getVersion());
+        return response;
+    }
+
+    @Transactional
+    public void decline(UUID userId, UUID requestId) {
+        int declined = hiveRequestRepository.transition(requestId, userId,
+                HiveRequestStatus.PENDING, HiveRequestStatus.DECLINED, LocalDateTime.now());
+        if (declined == 0) {
+            HiveRequest request = hiveRequestRepository.findById(requestId)
+                    .filter(r -> r.getInvitee().getId().equals(userId))
+                    .orElseThrow(() -> new RuntimeException("Hive request not found"));
+            if (request.getStatus() != HiveRequestStatus.DECLINED) {
+                throw new RuntimeException("Hive request is no longer pending");
+            }
+        }
+    }
+
+    @Transactional
+    public void leave(UUID userId, UUID hiveId) {
+        if (!hiveMemberRepository.isActiveMember(hiveId, userId)) {
+            return;
+        }
+        // Seat changes always lock the hive row first, in the same order as accept
+        hiveRepository.releaseSeat(hiveId);
+        if (hiveMemberRepository.markLeft(hiveId, userId, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Hive membership changed concurrently");
+        }
+        hiveRepository.findById(hiveId)
+                .ifPresent(hive -> versionCache.putAfterCommit(VERSION_CACHE_TYPE, hiveId, hive.getVersion()));
+    }
+
+    private int firstFreeSlot(List<HiveMember> members) {
+        for (int slot = 1; slot <= Hive.CAPACITY; slot++) {
+            int candidate = slot;
+            if (members.stream().noneMatch(m -> m.getSlot() == candidate)) {
+                return slot;
+            }
+        }
+        throw new RuntimeException("Hive is full");
+    }
+
+    private HiveResponse toResponse(Hive hive, List<HiveMember> members) {
+        HiveResponse response = new HiveResponse();
+        response.setId(hive.getId());
+        response.setName(hive.getName());
+        response.setMemberCount(hive.getMemberCount());
+        response.setVersion(hive.getVersion() != null ? hive.getVersion() : 0L);
+        response.setCreatedAt(hive.getCreatedAt());
+        response.setMembers(members.stream().map(member -> {
+            HiveMemberResponse memberResponse = new HiveMemberResponse();
+            memberResponse.setUserId(member.getUser().getId());
+            memberResponse.setEmail(member.getUser().getEmail());
+            memberResponse.setSlot(member.getSlot());
+            memberResponse.setJoinedAt(member.getJoinedAt());
+            return memberResponse;
+        }).toList());
+        return response;
+    }
+
+    private HiveInvitationResponse toInvitation(HiveRequest request) {
+        HiveInvitationResponse response = new HiveInvitationResponse();
+        response.setId(request.getId());
+        response.setHiveId(request.getHive().getId());
+        response.setHiveName(request.getHive().getName());
+        response.setInviterId(request.getInviter().getId());
+        response.setInviterEmail(request.getInviter().getEmail());
+        response.setStatus(request.getStatus());
+        response.setCreatedAt(request.getCreatedAt());
+        response.setExpiresAt(request.getExpiresAt());
+        return response;
+    }
+}
@@ -0,0 +1,20 @@
+package com.habitbeat.backend.leaderboard.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "leaderboard")
+@Data
+public class LeaderboardProperties {
+    // Weekly keys outlive their week so last week's board can still be shown
+    private Duration weeklyRetention = Duration.ofDays(15);
+    private int defaultLimit = 20;
+    private int maxLimit = 100;
+    private int defaultRadius = 5;
+    private int maxRadius = 25;
+    private Duration rebuildLockTtl = Duration.ofMinutes(30);
+}
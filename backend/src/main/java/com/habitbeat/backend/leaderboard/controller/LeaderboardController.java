@@ -0,0 +1,57 @@
+package com.habitbeat.backend.leaderboard.controller;
+
+import com.habitbeat.backend.auth.util.AdminGuard;
+import com.habitbeat.backend.auth.util.CurrentUserResolver;
+import com.habitbeat.backend.leaderboard.dto.LeaderboardResponse;
+import com.habitbeat.backend.leaderboard.model.LeaderboardMetric;
+import com.habitbeat.backend.leaderboard.model.LeaderboardPeriod;
+import com.habitbeat.backend.leaderboard.service.LeaderboardRebuildService;
+import com.habitbeat.backend.leaderboard.service.LeaderboardService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequiredArgsConstructor
+public class LeaderboardController {
+    private final LeaderboardService leaderboardService;
+    private final LeaderboardRebuildService leaderboardRebuildService;
+    private final CurrentUserResolver currentUserResolver;
+    private final AdminGuard adminGuard;
+
+    @GetMapping("/api/leaderboards")
+    public ResponseEntity<LeaderboardResponse> top(
+            @RequestParam LeaderboardMetric metric,
+            @RequestParam(defaultValue = "WEEKLY") LeaderboardPeriod period,
+            @RequestParam(required = false) String timezone,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        return ResponseEntity.ok(leaderboardService.top(metric, period, timezone, limit, userId));
+    }
+
+    @GetMapping("/api/leaderboards/me")
+    public ResponseEntity<LeaderboardResponse> aroundMe(
+            @RequestParam LeaderboardMetric metric,
+            @RequestParam(defaultValue = "WEEKLY") LeaderboardPeriod period,
+            @RequestParam(required = false) String timezone,
+            @RequestParam(required = false) Integer radius,
+            HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        return ResponseEntity.ok(leaderboardService.around(metric, period, timezone, radius, userId));
+    }
+
+    @PostMapping("/api/admin/leaderboards/rebuild")
+    public ResponseEntity<Map<String, Long>> rebuild(HttpServletRequest request) {
+        adminGuard.requireAdmin(request);
+        long users = leaderboardRebuildService.rebuild();
+        if (users < 0) {
+            throw new RuntimeException("Leaderboard rebuild already running");
+        }
+        return ResponseEntity.ok(Map.of("users", users));
+    }
+}
@@ -0,0 +1,18 @@
+package com.habitbeat.backend.leaderboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntry {
+    // 1-based; ties share the order Redis gives them (lexicographic by user id)
+    private long rank;
+    private UUID userId;
+    private String displayName;
+    private long score;
+}
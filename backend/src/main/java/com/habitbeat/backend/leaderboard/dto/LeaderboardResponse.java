@@ -0,0 +1,20 @@
+package com.habitbeat.backend.leaderboard.dto;
+
+import com.habitbeat.backend.leaderboard.model.LeaderboardMetric;
+import com.habitbeat.backend.leaderboard.model.LeaderboardPeriod;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class LeaderboardResponse {
+    private LeaderboardMetric metric;
+    private LeaderboardPeriod period;
+    // Null for the global board
+    private String timezone;
+    // ISO week (e.g. 2026-W42) for weekly boards, "all" otherwise
+    private String periodKey;
+    private List<LeaderboardEntry> entries;
+    // The caller's own entry, or null if they are not on this board
+    private LeaderboardEntry me;
+}
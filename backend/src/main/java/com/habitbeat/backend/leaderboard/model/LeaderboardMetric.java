@@ -0,0 +1,18 @@
+package com.habitbeat.backend.leaderboard.model;
+
+public enum LeaderboardMetric {
+    // Scored in seconds, reported in whole minutes
+    FOCUS_MINUTES("focus"),
+    // Consecutive local days with focus time; weekly boards keep the best streak reached that week
+    STREAK_DAYS("streak");
+
+    private final String keyPart;
+
+    LeaderboardMetric(String keyPart) {
+        this.keyPart = keyPart;
+    }
+
+    public String keyPart() {
+        return keyPart;
+    }
+}
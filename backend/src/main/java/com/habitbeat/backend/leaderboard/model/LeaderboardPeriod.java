@@ -0,0 +1,6 @@
+package com.habitbeat.backend.leaderboard.model;
+
+public enum LeaderboardPeriod {
+    WEEKLY,
+    ALL_TIME
+}
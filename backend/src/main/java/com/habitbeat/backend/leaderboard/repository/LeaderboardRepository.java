@@ -0,0 +1,77 @@
+package com.habitbeat.backend.leaderboard.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+@Repository
+@RequiredArgsConstructor
+public class LeaderboardRepository {
+    private static final int STREAM_FETCH_SIZE = 5000;
+
+    // One row per user and local calendar day with focus time, ordered so a single forward pass can
+    // derive totals, weekly sums and streaks. occurred_at is written in the JVM zone, which the
+    // driver also sets as the session TimeZone; unknown profile zones fall back to UTC.
+    // global_week_seconds is the part of the day from the start of the current UTC week on.
+    private static final String DAILY_FOCUS_SQL = "WITH zones AS (" +
+            "SELECT p.user_id, tz.name AS zone FROM user_profiles p " +
+            "JOIN pg_timezone_names tz ON tz.name = p.timezone) " +
+            "SELECT e.user_id, COALESCE(z.zone, 'UTC') AS zone, " +
+            "((e.occurred_at AT TIME ZONE current_setting('TimeZone')) AT TIME ZONE COALESCE(z.zone, 'UTC'))::date AS local_day, " +
+            "SUM(e.value) AS focus_seconds, " +
+            "COALESCE(SUM(e.value) FILTER (WHERE e.occurred_at >= ?), 0) AS global_week_seconds " +
+            "FROM focus_metric_events e LEFT JOIN zones z ON z.user_id = e.user_id " +
+            "WHERE e.event_type = 'FOCUS_TICK' " +
+            "GROUP BY e.user_id, COALESCE(z.zone, 'UTC'), local_day " +
+            "ORDER BY e.user_id, local_day";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Map<UUID, String> findTimezones(Collection<UUID> userIds) {
+        return findColumnByUser("SELECT user_id, timezone FROM user_profiles WHERE user_id = ANY(?)", userIds);
+    }
+
+    public Map<UUID, String> findDisplayNames(Collection<UUID> userIds) {
+        return findColumnByUser("SELECT user_id, COALESCE(display_name, first_name) FROM user_profiles " +
+                "WHERE user_id = ANY(?)", userIds);
+    }
+
+    /**
+     * Streams {@link #DAILY_FOCUS_SQL} with a server-side cursor; must run inside a transaction.
+     *
+     * @param globalWeekStart start of the current UTC week, in the JVM zone
+     */
+    public void streamDailyFocus(LocalDateTime globalWeekStart, RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(DAILY_FOCUS_SQL);
+            statement.setTimestamp(1, Timestamp.valueOf(globalWeekStart));
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            return statement;
+        }, handler);
+    }
+
+    private Map<UUID, String> findColumnByUser(String sql, Collection<UUID> userIds) {
+        Map<UUID, String> values = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return values;
+        }
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(sql);
+            Array idArray = con.createArrayOf("uuid", userIds.toArray());
+            statement.setArray(1, idArray);
+            return statement;
+        }, rs -> {
+            values.put(rs.getObject(1, UUID.class), rs.getString(2));
+        });
+        return values;
+    }
+}
@@ -0,0 +1,268 @@
+package com.habitbeat.backend.leaderboard.service;
+
+import com.habitbeat.backend.common.redis.RedisGuard;
+import com.habitbeat.backend.leaderboard.config.LeaderboardProperties;
+import com.habitbeat.backend.leaderboard.model.LeaderboardMetric;
+import com.habitbeat.backend.leaderboard.repository.LeaderboardRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Regenerates every leaderboard from Postgres in one streaming pass over daily focus totals. Boards
+ * are written to staging keys and renamed over the live ones at the end, so readers never see a
+ * half-built board. While the pass runs a marker key tells the update script on every node to apply
+ * flushes to both copies; one that commits just as the pass starts can be counted twice until the
+ * next rebuild.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaderboardRebuildService {
+    private static final String LOCK_KEY = "lb-lock:rebuild";
+    private static final int WRITE_BATCH_USERS = 1000;
+
+    private final LeaderboardRepository leaderboardRepository;
+    private final LeaderboardProperties properties;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RedisGuard redisGuard;
+
+    // week* fields follow the user's own calendar, globalWeek* the UTC week of the global boards
+    private record UserBoards(UUID userId, ZoneId zone, long totalSeconds, long weekSeconds,
+                              long globalWeekSeconds, int currentStreak, int weekBestStreak,
+                              int globalWeekBestStreak, LocalDate lastDay, int lastStreak) {
+    }
+
+    /**
+     * Folds the per-day rows of one user, which arrive consecutively and in day order.
+     */
+    private static final class Accumulator {
+        private UUID userId;
+        private ZoneId zone;
+        private LocalDate today;
+        private String currentWeek;
+        private long totalSeconds;
+        private long weekSeconds;
+        private long globalWeekSeconds;
+        private LocalDate lastDay;
+        private int streak;
+        private int weekBestStreak;
+        private int globalWeekBestStreak;
+
+        private void start(UUID userId, ZoneId zone) {
+            this.userId = userId;
+            this.zone = zone;
+            this.today = LocalDate.now(zone);
+            this.currentWeek = LeaderboardService.weekKey(today);
+            this.totalSeconds = 0;
+            this.weekSeconds = 0;
+            this.globalWeekSeconds = 0;
+            this.lastDay = null;
+            this.streak = 0;
+            this.weekBestStreak = 0;
+            this.globalWeekBestStreak = 0;
+        }
+
+        private void add(LocalDate day, long seconds, long inGlobalWeek) {
+            totalSeconds += seconds;
+            streak = lastDay != null && day.equals(lastDay.plusDays(1)) ? streak + 1 : 1;
+            lastDay = day;
+            if (LeaderboardService.weekKey(day).equals(currentWeek)) {
+                weekSeconds += seconds;
+                weekBestStreak = Math.max(weekBestStreak, streak);
+            }
+            if (inGlobalWeek > 0) {
+                globalWeekSeconds += inGlobalWeek;
+                globalWeekBestStreak = Math.max(globalWeekBestStreak, streak);
+            }
+        }
+
+        private UserBoards finish() {
+            // A streak is still alive if the user was active today or yesterday in their own zone
+            boolean alive = !lastDay.isBefore(today.minusDays(1));
+            return new UserBoards(userId, zone, totalSeconds, weekSeconds, globalWeekSeconds,
+                    alive ? streak : 0, weekBestStreak, globalWeekBestStreak, lastDay, streak);
+        }
+    }
+
+    @Scheduled(cron = "${leaderboard.rebuild-cron:0 30 4 * * *}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Scheduled leaderboard rebuild failed", e);
+        }
+    }
+
+    /**
+     * @return number of users placed on the rebuilt boards, or -1 if another rebuild holds the lock
+     */
+    public long rebuild() {
+        if (redisGuard.state() != RedisGuard.State.CLOSED) {
+            throw new RuntimeException(LeaderboardService.UNAVAILABLE);
+        }
+        String owner = UUID.randomUUID().toString();
+        if (!Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(LOCK_KEY, owner, properties.getRebuildLockTtl()))) {
+            log.info("Leaderboard rebuild already running elsewhere; skipping");
+            return -1;
+        }
+        long started = System.nanoTime();
+        Set<String> stagedKeys = new HashSet<>();
+        long[] users = {0};
+        try {
+            deleteMatching(LeaderboardService.REBUILD_PREFIX + "*", Set.of());
+            // Expires with the lock if this node dies mid-pass
+            redisTemplate.opsForValue().set(LeaderboardService.REBUILDING_KEY, owner, properties.getRebuildLockTtl());
+            LocalDateTime globalWeekStart = LocalDate.now(LeaderboardService.GLOBAL_WEEK_ZONE)
+                    .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                    .atStartOfDay(LeaderboardService.GLOBAL_WEEK_ZONE)
+                    .withZoneSameInstant(ZoneId.systemDefault())
+                    .toLocalDateTime();
+
+            List<UserBoards> pending = new ArrayList<>(WRITE_BATCH_USERS);
+            Accumulator accumulator = new Accumulator();
+            // Postgres only streams with a cursor inside a transaction; otherwise fetch size is ignored
+            transactionTemplate.executeWithoutResult(status -> leaderboardRepository.streamDailyFocus(globalWeekStart, rs -> {
+                UUID userId = rs.getObject("user_id", UUID.class);
+                if (!userId.equals(accumulator.userId)) {
+                    if (accumulator.userId != null) {
+                        pending.add(accumulator.finish());
+                        users[0]++;
+                        if (pending.size() >= WRITE_BATCH_USERS) {
+                            stage(pending, stagedKeys);
+                            pending.clear();
+                        }
+                    }
+                    accumulator.start(userId, LeaderboardService.zoneOf(rs.getString("zone")));
+                }
+                accumulator.add(rs.getDate("local_day").toLocalDate(), rs.getLong("focus_seconds"),
+                        rs.getLong("global_week_seconds"));
+            }));
+            if (accumulator.userId != null) {
+                pending.add(accumulator.finish());
+                users[0]++;
+            }
+            stage(pending, stagedKeys);
+
+            Set<String> liveKeys = new HashSet<>();
+            for (String staged : stagedKeys) {
+                String live = LeaderboardService.LIVE_PREFIX + staged.substring(LeaderboardService.REBUILD_PREFIX.length());
+                redisTemplate.rename(staged, live);
+                liveKeys.add(live);
+            }
+            // All-time boards for timezones nobody is in any more would otherwise linger forever;
+            // stale weekly boards age out through their TTL
+            for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+                deleteMatching(LeaderboardService.boardKey(LeaderboardService.LIVE_PREFIX, metric,
+                        LeaderboardService.ALL_TIME, "*"), liveKeys);
+            }
+            log.info("Rebuilt leaderboards for {} users into {} keys in {} ms", users[0], liveKeys.size(),
+                    (System.nanoTime() - started) / 1_000_000);
+            return users[0];
+        } finally {
+            try {
+                redisTemplate.delete(LeaderboardService.REBUILDING_KEY);
+                deleteMatching(LeaderboardService.REBUILD_PREFIX + "*", Set.of());
+                if (owner.equals(redisTemplate.opsForValue().get(LOCK_KEY))) {
+                    redisTemplate.delete(LOCK_KEY);
+                }
+            } catch (DataAccessException e) {
+                log.warn("Leaderboard rebuild cleanup failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void stage(List<UserBoards> batch, Set<String> stagedKeys) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        String prefix = LeaderboardService.REBUILD_PREFIX;
+        String stateKey = LeaderboardService.streakStateKey(prefix);
+        long weeklyTtl = properties.getWeeklyRetention().toSeconds();
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                String globalWeek = LeaderboardService.weekKey(LocalDate.now(LeaderboardService.GLOBAL_WEEK_ZONE));
+                for (UserBoards boards : batch) {
+                    String member = boards.userId().toString();
+                    String zone = boards.zone().getId();
+                    String week = LeaderboardService.weekKey(LocalDate.now(boards.zone()));
+                    ops.opsForHash().put(stateKey, member, boards.lastDay().toEpochDay() + ":" + boards.lastStreak());
+                    stagedKeys.add(stateKey);
+                    for (String board : new String[]{null, zone}) {
+                        add(ops, LeaderboardMetric.FOCUS_MINUTES, LeaderboardService.ALL_TIME, board, member,
+                                boards.totalSeconds(), 0);
+                        if (boards.currentStreak() > 0) {
+                            add(ops, LeaderboardMetric.STREAK_DAYS, LeaderboardService.ALL_TIME, board, member,
+                                    boards.currentStreak(), 0);
+                        }
+                    }
+                    if (boards.weekSeconds() > 0) {
+                        add(ops, LeaderboardMetric.FOCUS_MINUTES, week, zone, member, boards.weekSeconds(), weeklyTtl);
+                    }
+                    if (boards.weekBestStreak() > 0) {
+                        add(ops, LeaderboardMetric.STREAK_DAYS, week, zone, member, boards.weekBestStreak(), weeklyTtl);
+                    }
+                    if (boards.globalWeekSeconds() > 0) {
+                        add(ops, LeaderboardMetric.FOCUS_MINUTES, globalWeek, null, member,
+                                boards.globalWeekSeconds(), weeklyTtl);
+                    }
+                    if (boards.globalWeekBestStreak() > 0) {
+                        add(ops, LeaderboardMetric.STREAK_DAYS, globalWeek, null, member,
+                                boards.globalWeekBestStreak(), weeklyTtl);
+                    }
+                }
+                return null;
+            }
+
+            // zone null is the global board
+            private void add(RedisOperations<String, String> ops, LeaderboardMetric metric, String period,
+                             String zone, String member, long score, long ttlSeconds) {
+                String key = LeaderboardService.boardKey(prefix, metric, period, zone);
+                ops.opsForZSet().add(key, member, score);
+                if (ttlSeconds > 0) {
+                    // RENAME carries the TTL over to the live key
+                    ops.expire(key, Duration.ofSeconds(ttlSeconds));
+                }
+                stagedKeys.add(key);
+            }
+        });
+    }
+
+    private void deleteMatching(String pattern, Set<String> keep) {
+        List<String> doomed = new ArrayList<>();
+        try (Cursor<String> cursor = redisTemplate.scan(ScanOptions.scanOptions().match(pattern).count(500).build())) {
+            cursor.forEachRemaining(key -> {
+                if (!keep.contains(key)) {
+                    doomed.add(key);
+                }
+            });
+        }
+        if (!doomed.isEmpty()) {
+            redisTemplate.delete(doomed);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.habitbeat.backend.leaderboard.service;
+
+import com.habitbeat.backend.common.redis.RedisGuard;
+import com.habitbeat.backend.focus.model.FocusRollupDelta;
+import com.habitbeat.backend.leaderboard.config.LeaderboardProperties;
+import com.habitbeat.backend.leaderboard.dto.LeaderboardEntry;
+import com.habitbeat.backend.leaderboard.dto.LeaderboardResponse;
+import com.habitbeat.backend.leaderboard.model.LeaderboardMetric;
+import com.habitbeat.backend.leaderboard.model.LeaderboardPeriod;
+import com.habitbeat.backend.leaderboard.repository.LeaderboardRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Focus-minute and streak leaderboards kept as Redis sorted sets keyed by user UUID, updated
+ * incrementally from each focus-metrics flush. Every update lands on a global and a per-timezone
+ * board, for all time and for the ISO week: a timezone board's week follows that zone's calendar,
+ * the global weekly board follows UTC. Weekly keys rotate by name and expire.
+ * Top-N, "my rank" and "around me" are ZREVRANGE/ZREVRANK reads, O(log n + k).
+ *
+ * <p>Redis is the serving copy only: {@link LeaderboardRebuildService} regenerates every board
+ * from Postgres, which also drops streaks that have lapsed since the last rebuild.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaderboardService {
+    static final String LIVE_PREFIX = "lb:";
+    static final String REBUILD_PREFIX = "lb-rebuild:";
+    // Present while a rebuild on any node is filling its staging keys; live updates then land there too
+    static final String REBUILDING_KEY = "lb-lock:rebuilding";
+    static final String ALL_TIME = "all";
+    static final String UNAVAILABLE = "Leaderboards unavailable";
+    private static final String STREAK_STATE = "streak-state";
+    private static final int USERS_PER_SCRIPT = 500;
+    private static final int KEYS_PER_USER = 16;
+    // Users without a usable profile timezone are ranked on the UTC board
+    private static final ZoneId DEFAULT_ZONE = ZoneId.of("UTC");
+    // Calendar of the global weekly boards, for writes, rebuilds and reads alike
+    static final ZoneId GLOBAL_WEEK_ZONE = ZoneId.of("UTC");
+
+    // KEYS[1]: rebuild marker; KEYS[2], KEYS[3]: live and staging streak state hashes (user ->
+    // "lastEpochDay:streak"); then per user the eight live boards followed by the same eight staging
+    // boards, each in order: focus all-time global/tz, focus weekly global/tz, streak all-time
+    // global/tz, streak weekly global/tz
+    // ARGV[1]: weekly ttl secs; then per user: user id, focus seconds, local epoch day
+    private static final RedisScript<Long> RECORD_FOCUS = new DefaultRedisScript<>(
+            "local function record(state, k, user, seconds, day, ttl) " +
+            "  redis.call('ZINCRBY', KEYS[k + 1], seconds, user) " +
+            "  redis.call('ZINCRBY', KEYS[k + 2], seconds, user) " +
+            "  redis.call('ZINCRBY', KEYS[k + 3], seconds, user) " +
+            "  redis.call('EXPIRE', KEYS[k + 3], ttl) " +
+            "  redis.call('ZINCRBY', KEYS[k + 4], seconds, user) " +
+            "  redis.call('EXPIRE', KEYS[k + 4], ttl) " +
+            "  local streak = 1 " +
+            "  local current = redis.call('HGET', state, user) " +
+            "  if current then " +
+            "    local sep = string.find(current, ':', 1, true) " +
+            "    local lastDay = tonumber(string.sub(current, 1, sep - 1)) " +
+            "    if day <= lastDay then streak = 0 " +
+            "    elseif day == lastDay + 1 then streak = tonumber(string.sub(current, sep + 1)) + 1 end " +
+            "  end " +
+            "  if streak > 0 then " +
+            "    redis.call('HSET', state, user, day .. ':' .. streak) " +
+            "    redis.call('ZADD', KEYS[k + 5], streak, user) " +
+            "    redis.call('ZADD', KEYS[k + 6], streak, user) " +
+            "    redis.call('ZADD', KEYS[k + 7], 'GT', streak, user) " +
+            "    redis.call('EXPIRE', KEYS[k + 7], ttl) " +
+            "    redis.call('ZADD', KEYS[k + 8], 'GT', streak, user) " +
+            "    redis.call('EXPIRE', KEYS[k + 8], ttl) " +
+            "  end " +
+            "end " +
+            "local ttl = tonumber(ARGV[1]) " +
+            "local staging = redis.call('EXISTS', KEYS[1]) == 1 " +
+            "for i = 0, (#ARGV - 1) / 3 - 1 do " +
+            "  local user = ARGV[2 + i * 3] " +
+            "  local seconds = tonumber(ARGV[3 + i * 3]) " +
+            "  local day = tonumber(ARGV[4 + i * 3]) " +
+            "  local k = 3 + i * 16 " +
+            "  record(KEYS[2], k, user, seconds, day, ttl) " +
+            "  if staging then record(KEYS[3], k + 8, user, seconds, day, ttl) end " +
+            "end " +
+            "return 0",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final LeaderboardRepository leaderboardRepository;
+    private final LeaderboardProperties properties;
+    private final RedisGuard redisGuard;
+
+    private record Board(String key, String periodKey, ZoneId zone) {
+    }
+
+    /**
+     * Applies per-user deltas from a committed focus-metrics flush.
+     */
+    public void recordFocus(Collection<FocusRollupDelta> userDeltas) {
+        List<FocusRollupDelta> active = userDeltas.stream()
+                .filter(delta -> delta.getFocusSeconds() > 0)
+                .toList();
+        if (active.isEmpty()) {
+            return;
+        }
+        try {
+            Map<UUID, String> timezones = leaderboardRepository.findTimezones(
+                    active.stream().map(FocusRollupDelta::getUserId).toList());
+            redisGuard.run("leaderboard", () -> apply(active, timezones), () -> log.debug("Leaderboard update skipped for {} users while Redis is unavailable", active.size()));
+        } catch (Exception e) {
+            // Boards drift until the next rebuild; never fail the metrics flush over it
+            log.warn("Leaderboard update skipped for {} users: {}", active.size(), e.getMessage());
+        }
+    }
+
+    public LeaderboardResponse top(LeaderboardMetric metric, LeaderboardPeriod period, String timezone,
+                                   Integer limit, UUID viewerId) {
+        Board board = resolve(metric, period, timezone);
+        int count = clamp(limit, properties.getDefaultLimit(), properties.getMaxLimit());
+        try {
+            List<LeaderboardEntry> entries = toEntries(metric,
+                    read(() -> redisTemplate.opsForZSet().reverseRangeWithScores(board.key(), 0, count - 1)), 0);
+            LeaderboardEntry me = entries.stream()
+                    .filter(entry -> entry.getUserId().equals(viewerId))
+                    .findFirst()
+                    .orElseGet(() -> entryFor(metric, board.key(), viewerId));
+            return response(metric, period, board, entries, me);
+        } catch (RuntimeException e) {
+            throw unavailable(e);
+        }
+    }
+
+    public LeaderboardResponse around(LeaderboardMetric metric, LeaderboardPeriod period, String timezone,
+                                      Integer radius, UUID userId) {
+        Board board = resolve(metric, period, timezone);
+        int reach = clamp(radius, properties.getDefaultRadius(), properties.getMaxRadius());
+        try {
+            Long rank = read(() -> redisTemplate.opsForZSet().reverseRank(board.key(), userId.toString()));
+            if (rank == null) {
+                return response(metric, period, board, List.of(), null);
+            }
+            long start = Math.max(0, rank - reach);
+            List<LeaderboardEntry> entries = toEntries(metric,
+                    read(() -> redisTemplate.opsForZSet().reverseRangeWithScores(board.key(), start, rank + reach)), start);
+            LeaderboardEntry me = entries.stream()
+                    .filter(entry -> entry.getUserId().equals(userId))
+                    .findFirst()
+                    .orElse(null);
+            return response(metric, period, board, entries, me);
+        } catch (RuntimeException e) {
+            throw unavailable(e);
+        }
+    }
+
+    static String boardKey(String prefix, LeaderboardMetric metric, String periodKey, String zone) {
+        return prefix + metric.keyPart() + ":" + periodKey + ":" + (zone == null ? "global" : "tz:" + zone);
+    }
+
+    static String streakStateKey(String prefix) {
+        return prefix + STREAK_STATE;
+    }
+
+    static String weekKey(LocalDate day) {
+        return String.format("%d-W%02d", day.get(IsoFields.WEEK_BASED_YEAR), day.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    }
+
+    static ZoneId zoneOf(String timezone) {
+        // Profile timezones are validated on write, but older rows may predate that check
+        return timezone != null && ZoneId.getAvailableZoneIds().contains(timezone)
+                ? ZoneId.of(timezone)
+                : DEFAULT_ZONE;
+    }
+
+    private void apply(List<FocusRollupDelta> deltas, Map<UUID, String> timezones) {
+        String weeklyTtl = String.valueOf(properties.getWeeklyRetention().toSeconds());
+        for (int from = 0; from < deltas.size(); from += USERS_PER_SCRIPT) {
+            List<FocusRollupDelta> chunk = deltas.subList(from, Math.min(deltas.size(), from + USERS_PER_SCRIPT));
+            List<String> keys = new ArrayList<>(3 + chunk.size() * KEYS_PER_USER);
+            List<String> args = new ArrayList<>(1 + chunk.size() * 3);
+            keys.add(REBUILDING_KEY);
+            keys.add(streakStateKey(LIVE_PREFIX));
+            keys.add(streakStateKey(REBUILD_PREFIX));
+            args.add(weeklyTtl);
+            for (FocusRollupDelta delta : chunk) {
+                ZoneId zone = zoneOf(timezones.get(delta.getUserId()));
+                ZonedDateTime at = delta.getLastEventAt().atZone(ZoneId.systemDefault());
+                LocalDate day = at.withZoneSameInstant(zone).toLocalDate();
+                String localWeek = weekKey(day);
+                String globalWeek = weekKey(at.withZoneSameInstant(GLOBAL_WEEK_ZONE).toLocalDate());
+                for (String prefix : List.of(LIVE_PREFIX, REBUILD_PREFIX)) {
+                    for (LeaderboardMetric metric : LeaderboardMetric.values()) {
+                        keys.add(boardKey(prefix, metric, ALL_TIME, null));
+                        keys.add(boardKey(prefix, metric, ALL_TIME, zone.getId()));
+                        keys.add(boardKey(prefix, metric, globalWeek, null));
+                        keys.add(boardKey(prefix, metric, localWeek, zone.getId()));
+                    }
+                }
+                args.add(delta.getUserId().toString());
+                args.add(String.valueOf(delta.getFocusSeconds()));
+                args.add(String.valueOf(day.toEpochDay()));
+            }
+            redisTemplate.execute(RECORD_FOCUS, keys, args.toArray());
+        }
+    }
+
+    private Board resolve(LeaderboardMetric metric, LeaderboardPeriod period, String timezone) {
+        ZoneId zone = null;
+        if (timezone != null && !timezone.isBlank()) {
+            if (!ZoneId.getAvailableZoneIds().contains(timezone)) {
+                throw new IllegalArgumentException("Unknown timezone: " + timezone);
+            }
+            zone = ZoneId.of(timezone);
+        }
+        // A timezone board's week follows that zone's calendar; the global weekly board the UTC one
+        String periodKey = period == LeaderboardPeriod.WEEKLY
+                ? weekKey(LocalDate.now(zone != null ? zone : GLOBAL_WEEK_ZONE))
+                : ALL_TIME;
+        return new Board(boardKey(LIVE_PREFIX, metric, periodKey, zone != null ? zone.getId() : null), periodKey, zone);
+    }
+
+    private LeaderboardEntry entryFor(LeaderboardMetric metric, String key, UUID userId) {
+        if (userId == null) {
+            return null;
+        }
+        Long rank = read(() -> redisTemplate.opsForZSet().reverseRank(key, userId.toString()));
+        Double score = rank != null ? read(() -> redisTemplate.opsForZSet().score(key, userId.toString())) : null;
+        if (rank == null || score == null) {
+            return null;
+        }
+        String displayName = leaderboardRepository.findDisplayNames(List.of(userId)).get(userId);
+        return new LeaderboardEntry(rank + 1, userId, displayName, displayScore(metric, score));
+    }
+
+    private List<LeaderboardEntry> toEntries(LeaderboardMetric metric, Set<TypedTuple<String>> tuples, long firstRank) {
+        if (tuples == null || tuples.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> userIds = tuples.stream().map(tuple -> UUID.fromString(tuple.getValue())).toList();
+        Map<UUID, String> displayNames = leaderboardRepository.findDisplayNames(userIds);
+        List<LeaderboardEntry> entries = new ArrayList<>(tuples.size());
+        long rank = firstRank;
+        for (TypedTuple<String> tuple : tuples) {
+            UUID userId = UUID.fromString(tuple.getValue());
+            double score = tuple.getScore() != null ? tuple.getScore() : 0;
+            entries.add(new LeaderboardEntry(++rank, userId, displayNames.get(userId), displayScore(metric, score)));
+        }
+        return entries;
+    }
+
+    private long displayScore(LeaderboardMetric metric, double score) {
+        return metric == LeaderboardMetric.FOCUS_MINUTES ? (long) score / 60 : (long) score;
+    }
+
+    private LeaderboardResponse response(LeaderboardMetric metric, LeaderboardPeriod period, Board board,
+                                         List<LeaderboardEntry> entries, LeaderboardEntry me) {
+        LeaderboardResponse response = new LeaderboardResponse();
+        response.setMetric(metric);
+        response.setPeriod(period);
+        response.setTimezone(board.zone() != null ? board.zone().getId() : null);
+        response.setPeriodKey(board.periodKey());
+        response.setEntries(entries);
+        response.setMe(me);
+        return response;
+    }
+
+    private int clamp(Integer requested, int defaultValue, int max) {
+        if (requested == null) {
+            return defaultValue;
+        }
+        return Math.max(1, Math.min(requested, max));
+    }
+
+    private <T> T read(Supplier<T> redisRead) {
+        // No local copy of the boards exists, so an open circuit fails reads straight away
+        return redisGuard.call("leaderboard", redisRead, () -> {
+            throw new RuntimeException(UNAVAILABLE);
+        });
+    }
+
+    private RuntimeException unavailable(RuntimeException cause) {
+        if (cause instanceof IllegalArgumentException || UNAVAILABLE.equals(cause.getMessage())) {
+            return cause;
+        }
+        log.warn("Leaderboard read failed: {}", cause.getMessage());
+        return new RuntimeException(UNAVAILABLE, cause);
+    }
+}
@@ -0,0 +1,25 @@
+package com.habitbeat.backend.presence.config;
+
+import com.habitbeat.backend.presence.service.PresenceService;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+@Configuration
+public class PresenceConfig {
+
+    @Bean
+    public RedisMessageListenerContainer presenceListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                  PresenceService presenceService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> presenceService.onRemoteMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(PresenceService.CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,73 @@
+package com.habitbeat.backend.presence.controller;
+
+import com.habitbeat.backend.auth.util.CurrentUserResolver;
+import com.habitbeat.backend.hive.service.HiveService;
+import com.habitbeat.backend.presence.dto.HeartbeatRequest;
+import com.habitbeat.backend.presence.dto.PresenceChange;
+import com.habitbeat.backend.presence.model.PresenceState;
+import com.habitbeat.backend.presence.service.PresenceService;
+import com.habitbeat.backend.presence.service.PresenceSubscriptions;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/presence")
+@RequiredArgsConstructor
+public class PresenceController {
+    private static final int MAX_USERS_PER_REQUEST = 100;
+
+    private final PresenceService presenceService;
+    private final PresenceSubscriptions presenceSubscriptions;
+    private final CurrentUserResolver currentUserResolver;
+    private final HiveService hiveService;
+
+    @PostMapping("/heartbeat")
+    public ResponseEntity<Void> heartbeat(@Valid @RequestBody HeartbeatRequest body, HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        presenceService.heartbeat(userId, body.getState());
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<UUID, PresenceState>> getPresence(
+            @RequestParam List<UUID> userIds,
+            HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        return ResponseEntity.ok(presenceService.getPresence(visible(userId, userIds)));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam List<UUID> userIds, HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        List<UUID> watched = visible(userId, userIds);
+        SseEmitter emitter = presenceSubscriptions.subscribe(watched);
+        presenceService.getPresence(watched)
+                .forEach((watchedId, state) -> presenceSubscriptions.send(emitter, new PresenceChange(watchedId, state)));
+        return emitter;
+    }
+
+    /**
+     * Only the caller and their hive partners can be watched; any other id is dropped, so the
+     * response does not reveal whether it belongs to an account at all.
+     */
+    private List<UUID> visible(UUID userId, List<UUID> userIds) {
+        if (userIds.size() > MAX_USERS_PER_REQUEST) {
+            throw new IllegalArgumentException("At most " + MAX_USERS_PER_REQUEST + " userIds per request");
+        }
+        Set<UUID> partners = hiveService.partnerIds(userId);
+        return userIds.stream()
+                .distinct()
+                .filter(id -> id.equals(userId) || partners.contains(id))
+                .toList();
+    }
+}
@@ -0,0 +1,11 @@
+package com.habitbeat.backend.presence.dto;
+
+import com.habitbeat.backend.presence.model.PresenceState;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class HeartbeatRequest {
+    @NotNull
+    private PresenceState state;
+}
@@ -0,0 +1,8 @@
+package com.habitbeat.backend.presence.dto;
+
+import com.habitbeat.backend.presence.model.PresenceState;
+
+import java.util.UUID;
+
+public record PresenceChange(UUID userId, PresenceState state) {
+}
@@ -0,0 +1,8 @@
+package com.habitbeat.backend.presence.model;
+
+public enum PresenceState {
+    ONLINE,
+    FOCUSING,
+    AWAY,
+    OFFLINE
+}
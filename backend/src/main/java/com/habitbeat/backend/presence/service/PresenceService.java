@@ -0,0 +1,164 @@
+package com.habitbeat.backend.presence.service;
+
+import com.habitbeat.backend.common.redis.RedisGuard;
+import com.habitbeat.backend.presence.dto.PresenceChange;
+import com.habitbeat.backend.presence.model.PresenceState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ephemeral online/focusing/away state. Never touches Postgres: each node keeps a concurrent map
+ * of what it has seen, backed by Redis keys that expire when heartbeats stop. State changes are
+ * broadcast over Redis pub/sub so every node can push them to subscribed partners. While Redis is
+ * unavailable each node answers from what it has seen itself.
+ */
+@Service
+@Slf4j
+public class PresenceService {
+    public static final String CHANNEL = "presence:changes";
+    private static final String KEY_PREFIX = "presence:";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final PresenceSubscriptions subscriptions;
+    private final RedisGuard redisGuard;
+    private final Duration ttl;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentHashMap<UUID, Entry> entries = new ConcurrentHashMap<>();
+
+    private record Entry(PresenceState state, long expiresAtMillis, boolean ownHeartbeat) {
+        boolean isLive(long nowMillis) {
+            return expiresAtMillis > nowMillis;
+        }
+    }
+
+    public PresenceService(RedisTemplate<String, String> redisTemplate, PresenceSubscriptions subscriptions,
+                           RedisGuard redisGuard, @Value("${presence.ttl:45s}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.subscriptions = subscriptions;
+        this.redisGuard = redisGuard;
+        this.ttl = ttl;
+    }
+
+    public void heartbeat(UUID userId, PresenceState state) {
+        long now = System.currentTimeMillis();
+        Entry previous = entries.put(userId, new Entry(state, now + ttl.toMillis(), true));
+        redisGuard.run("presence", () -> redisTemplate.opsForValue().set(KEY_PREFIX + userId, state.name(), ttl), () -> {
+        });
+
+        if (previous == null || !previous.isLive(now) || previous.state() != state) {
+            publish(userId, state);
+        }
+    }
+
+    /**
+     * Resolves many users at once: live local entries are answered from memory and the rest are
+     * fetched with a single MGET.
+     */
+    public Map<UUID, PresenceState> getPresence(Collection<UUID> userIds) {
+        long now = System.currentTimeMillis();
+        Map<UUID, PresenceState> result = new LinkedHashMap<>();
+        List<UUID> misses = new ArrayList<>();
+        for (UUID userId : userIds) {
+            Entry entry = entries.get(userId);
+            if (entry != null && entry.isLive(now)) {
+                result.put(userId, entry.state());
+            } else {
+                result.put(userId, PresenceState.OFFLINE);
+                misses.add(userId);
+            }
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+
+        List<String> states = redisGuard.call("presence",
+                () -> redisTemplate.opsForValue().multiGet(misses.stream().map(id -> KEY_PREFIX + id).toList()),
+                () -> null);
+        if (states == null) {
+            return result;
+        }
+        for (int i = 0; i < misses.size(); i++) {
+            String state = states.get(i);
+            if (state != null) {
+                PresenceState presence = PresenceState.valueOf(state);
+                result.put(misses.get(i), presence);
+                // Cache remotely-owned state; pub/sub keeps it current until it expires
+                entries.putIfAbsent(misses.get(i), new Entry(presence, now + ttl.toMillis(), false));
+            }
+        }
+        return result;
+    }
+
+    public void onRemoteMessage(String message) {
+        String[] parts = message.split("\\|");
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        UUID userId = UUID.fromString(parts[1]);
+        PresenceState state = PresenceState.valueOf(parts[2]);
+        if (state == PresenceState.OFFLINE) {
+            Entry local = entries.get(userId);
+            if (local != null && local.ownHeartbeat() && local.isLive(System.currentTimeMillis())
+                    && local.state() != PresenceState.OFFLINE) {
+                // Still heartbeating here: the other node only saw them go quiet there, so correct it
+                publish(userId, local.state());
+                return;
+            }
+            entries.remove(userId);
+        } else {
+            entries.put(userId, new Entry(state, System.currentTimeMillis() + ttl.toMillis(), false));
+        }
+        subscriptions.notify(new PresenceChange(userId, state));
+    }
+
+    /**
+     * Users whose heartbeats this node received and that have gone quiet are announced offline,
+     * unless their Redis key is still live: then they are heartbeating to another node, which
+     * announces them once they stop there, and this node keeps them as remotely-owned state.
+     * Everything else that expired is simply forgotten.
+     */
+    @Scheduled(fixedDelayString = "${presence.sweep-interval-ms:5000}")
+    public void expireStaleEntries() {
+        long now = System.currentTimeMillis();
+        List<UUID> quiet = new ArrayList<>();
+        entries.forEach((userId, entry) -> {
+            if (!entry.isLive(now) && entries.remove(userId, entry) && entry.ownHeartbeat()) {
+                quiet.add(userId);
+            }
+        });
+        if (quiet.isEmpty()) {
+            return;
+        }
+
+        List<String> states = redisGuard.call("presence",
+                () -> redisTemplate.opsForValue().multiGet(quiet.stream().map(id -> KEY_PREFIX + id).toList()),
+                () -> null);
+        for (int i = 0; i < quiet.size(); i++) {
+            String state = states == null ? null : states.get(i);
+            if (state == null) {
+                publish(quiet.get(i), PresenceState.OFFLINE);
+            } else {
+                entries.putIfAbsent(quiet.get(i), new Entry(PresenceState.valueOf(state), now + ttl.toMillis(), false));
+            }
+        }
+    }
+
+    private void publish(UUID userId, PresenceState state) {
+        subscriptions.notify(new PresenceChange(userId, state));
+        redisGuard.run("presence",
+                () -> redisTemplate.convertAndSend(CHANNEL, nodeId + "|" + userId + "|" + state.name()),
+                () -> log.debug("Presence change for {} not broadcast", userId));
+    }
+}
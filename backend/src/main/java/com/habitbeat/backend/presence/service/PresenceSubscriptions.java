@@ -0,0 +1,56 @@
+package com.habitbeat.backend.presence.service;
+
+import com.habitbeat.backend.presence.dto.PresenceChange;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-sent-event streams indexed by the user being watched, so a state change fans out only
+ * to the partners that asked for it.
+ */
+@Component
+public class PresenceSubscriptions {
+    private static final long STREAM_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+
+    private final ConcurrentHashMap<UUID, Set<SseEmitter>> watchers = new ConcurrentHashMap<>();
+
+    public SseEmitter subscribe(Collection<UUID> watchedUserIds) {
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MILLIS);
+        for (UUID userId : watchedUserIds) {
+            watchers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(emitter);
+        }
+        Runnable unsubscribe = () -> watchedUserIds.forEach(userId ->
+                watchers.computeIfPresent(userId, (id, emitters) -> {
+                    emitters.remove(emitter);
+                    return emitters.isEmpty() ? null : emitters;
+                }));
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(error -> unsubscribe.run());
+        return emitter;
+    }
+
+    public void notify(PresenceChange change) {
+        Set<SseEmitter> emitters = watchers.get(change.userId());
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            send(emitter, change);
+        }
+    }
+
+    public void send(SseEmitter emitter, PresenceChange change) {
+        try {
+            emitter.send(SseEmitter.event().name("presence").data(change));
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.habitbeat.backend.task.controller;
+
+import com.habitbeat.backend.auth.util.CurrentUserResolver;
+import com.habitbeat.backend.task.dto.BulkTaskRequest;
+import com.habitbeat.backend.task.dto.BulkTaskResponse;
+import com.habitbeat.backend.task.dto.TaskResponse;
+import com.habitbeat.backend.task.service.TaskService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/tasks")
+@RequiredArgsConstructor
+public class TaskController {
+    private final TaskService taskService;
+    private final CurrentUserResolver currentUserResolver;
+
+    @GetMapping
+    public ResponseEntity<List<TaskResponse>> listTasks(HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        return ResponseEntity.ok(taskService.listTasks(userId));
+    }
+
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkTaskResponse> bulk(@Valid @RequestBody BulkTaskRequest body, HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        return ResponseEntity.ok(taskService.applyBulk(userId, body.getOperations()));
+    }
+}
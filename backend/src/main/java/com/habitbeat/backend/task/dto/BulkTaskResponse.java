@@ -0,0 +1,18 @@
+package com.habitbeat.backend.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTaskResponse {
+    private List<TaskOperationResult> results;
+    // Only rows this request created or modified
+    private List<TaskResponse> changed;
+    private List<UUID> deleted;
+}
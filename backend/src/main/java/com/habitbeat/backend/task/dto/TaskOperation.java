@@ -0,0 +1,31 @@
+package com.habitbeat.backend.task.dto;
+
+import com.habitbeat.backend.task.model.TaskOperationType;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * One mutation in a bulk request. CREATE needs a title; UPDATE and DELETE need taskId and the
+ * version the client last saw. Null fields on UPDATE are left unchanged.
+ */
+@Data
+public class TaskOperation {
+    @NotNull
+    private TaskOperationType op;
+
+    private UUID taskId;
+
+    private Long expectedVersion;
+
+    @Size(max = 200)
+    private String title;
+
+    @Min(0)
+    private Integer position;
+
+    private Boolean completed;
+}
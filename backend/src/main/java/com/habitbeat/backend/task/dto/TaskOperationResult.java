@@ -0,0 +1,23 @@
+package com.habitbeat.backend.task.dto;
+
+import com.habitbeat.backend.task.model.TaskOperationStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskOperationResult {
+    // Position of the operation in the request, so clients can match results to what they sent
+    private int index;
+    private UUID taskId;
+    private TaskOperationStatus status;
+    private String reason;
+    // For CONFLICT, the row as it currently is so the client can rebase its edit
+    private TaskResponse current;
+}
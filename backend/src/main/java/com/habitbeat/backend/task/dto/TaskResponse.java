@@ -0,0 +1,19 @@
+package com.habitbeat.backend.task.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+public class TaskResponse {
+    private UUID id;
+    private UUID userId;
+    private UUID hiveId;
+    private String title;
+    private int position;
+    private boolean completed;
+    private LocalDateTime completedAt;
+    private long version;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,57 @@
+package com.habitbeat.backend.task.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A task owned either by a single user or by a hive. Bulk edits go through
+ * {@link com.habitbeat.backend.task.repository.TaskBatchRepository}, which bumps {@code version}
+ * the same way Hibernate does so both paths share one optimistic-locking scheme.
+ */
+@Entity
+@Table(name = "tasks", indexes = {
+    @Index(name = "idx_tasks_user_position", columnList = "user_id, position"),
+    @Index(name = "idx_tasks_hive_position", columnList = "hive_id, position")
+})
+@Data
+public class Task {
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    private UUID id;
+
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "hive_id")
+    private UUID hiveId;
+
+    @Column(nullable = false, length = 200)
+    private String title;
+
+    @Column(nullable = false)
+    private int position;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Version
+    private Long version;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
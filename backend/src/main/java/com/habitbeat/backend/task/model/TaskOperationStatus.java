@@ -0,0 +1,9 @@
+package com.habitbeat.backend.task.model;
+
+public enum TaskOperationStatus {
+    APPLIED,
+    // The task changed since the client's expectedVersion; the current row is returned instead
+    CONFLICT,
+    NOT_FOUND,
+    INVALID
+}
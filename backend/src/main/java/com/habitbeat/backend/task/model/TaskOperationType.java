@@ -0,0 +1,7 @@
+package com.habitbeat.backend.task.model;
+
+public enum TaskOperationType {
+    CREATE,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,157 @@
+package com.habitbeat.backend.task.repository;
+
+import com.habitbeat.backend.task.dto.TaskResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * JDBC batches for bulk task mutations. Every UPDATE and DELETE is guarded by
+ * {@code version = expectedVersion}; the per-statement update count tells the caller which
+ * operations lost a race, without a read-before-write.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskBatchRepository {
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL = "INSERT INTO tasks " +
+            "(id, user_id, title, position, completed, completed_at, version, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, 0, ?, ?)";
+
+    // NULL parameters leave the column unchanged
+    private static final String UPDATE_SQL = "UPDATE tasks SET " +
+            "title = COALESCE(?, title), " +
+            "position = COALESCE(?, position), " +
+            "completed_at = CASE WHEN CAST(? AS boolean) IS NULL THEN completed_at " +
+            "WHEN CAST(? AS boolean) THEN COALESCE(completed_at, ?) ELSE NULL END, " +
+            "completed = COALESCE(?, completed), " +
+            "updated_at = ?, version = version + 1 " +
+            "WHERE id = ? AND user_id = ? AND version = ?";
+
+    private static final String DELETE_SQL = "DELETE FROM tasks WHERE id = ? AND user_id = ? AND version = ?";
+
+    private static final String SELECT_OWNED_SQL = "SELECT id, user_id, hive_id, title, position, completed, " +
+            "completed_at, version, updated_at FROM tasks WHERE id = ANY(?) AND user_id = ?";
+
+    // Postgres' uuid order, not UUID.compareTo, which compares the halves as signed longs
+    private static final String LOCK_OWNED_SQL = "SELECT id FROM tasks WHERE id = ANY(?) AND user_id = ? " +
+            "ORDER BY id FOR UPDATE";
+
+    private static final RowMapper<TaskResponse> TASK_MAPPER = (rs, rowNum) -> {
+        TaskResponse task = new TaskResponse();
+        task.setId(rs.getObject("id", UUID.class));
+        task.setUserId(rs.getObject("user_id", UUID.class));
+        task.setHiveId(rs.getObject("hive_id", UUID.class));
+        task.setTitle(rs.getString("title"));
+        task.setPosition(rs.getInt("position"));
+        task.setCompleted(rs.getBoolean("completed"));
+        Timestamp completedAt = rs.getTimestamp("completed_at");
+        task.setCompletedAt(completedAt != null ? completedAt.toLocalDateTime() : null);
+        task.setVersion(rs.getLong("version"));
+        task.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
+        return task;
+    };
+
+    public record TaskInsert(UUID id, String title, int position, boolean completed) {
+    }
+
+    public record TaskUpdate(UUID id, long expectedVersion, String title, Integer position, Boolean completed) {
+    }
+
+    public record TaskDelete(UUID id, long expectedVersion) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insert(UUID userId, List<TaskInsert> inserts, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(INSERT_SQL, inserts, BATCH_SIZE, (ps, task) -> {
+            ps.setObject(1, task.id());
+            ps.setObject(2, userId);
+            ps.setString(3, task.title());
+            ps.setInt(4, task.position());
+            ps.setBoolean(5, task.completed());
+            ps.setTimestamp(6, task.completed() ? timestamp : null);
+            ps.setTimestamp(7, timestamp);
+            ps.setTimestamp(8, timestamp);
+        });
+    }
+
+    /**
+     * @return one update count per element of {@code updates}, in order; 0 means the task is
+     * missing, not owned by the user or at a different version
+     */
+    public int[] update(UUID userId, List<TaskUpdate> updates, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, updates, BATCH_SIZE, (ps, task) -> {
+            ps.setString(1, task.title());
+            ps.setObject(2, task.position(), Types.INTEGER);
+            ps.setObject(3, task.completed(), Types.BOOLEAN);
+            ps.setObject(4, task.completed(), Types.BOOLEAN);
+            ps.setTimestamp(5, timestamp);
+            ps.setObject(6, task.completed(), Types.BOOLEAN);
+            ps.setTimestamp(7, timestamp);
+            ps.setObject(8, task.id());
+            ps.setObject(9, userId);
+            ps.setLong(10, task.expectedVersion());
+        });
+        return flatten(counts);
+    }
+
+    public int[] delete(UUID userId, List<TaskDelete> deletes) {
+        int[][] counts = jdbcTemplate.batchUpdate(DELETE_SQL, deletes, BATCH_SIZE, (ps, task) -> {
+            ps.setObject(1, task.id());
+            ps.setObject(2, userId);
+            ps.setLong(3, task.expectedVersion());
+        });
+        return flatten(counts);
+    }
+
+    /**
+     * Locks the user's rows among {@code ids} in id order, so transactions that go on to update or
+     * delete overlapping sets of tasks queue behind each other instead of deadlocking.
+     */
+    public void lockOwned(UUID userId, Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(LOCK_OWNED_SQL);
+            statement.setArray(1, con.createArrayOf("uuid", ids.toArray()));
+            statement.setObject(2, userId);
+            return statement;
+        }, (rs, rowNum) -> rs.getObject("id", UUID.class));
+    }
+
+    public Map<UUID, TaskResponse> findOwned(UUID userId, Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        List<TaskResponse> tasks = jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(SELECT_OWNED_SQL);
+            Array idArray = con.createArrayOf("uuid", ids.toArray());
+            statement.setArray(1, idArray);
+            statement.setObject(2, userId);
+            return statement;
+        }, TASK_MAPPER);
+        return tasks.stream().collect(Collectors.toMap(TaskResponse::getId, Function.identity()));
+    }
+
+    private static int[] flatten(int[][] counts) {
+        return Arrays.stream(counts).flatMapToInt(Arrays::stream).toArray();
+    }
+}
@@ -0,0 +1,13 @@
+package com.habitbeat.backend.task.repository;
+
+import com.habitbeat.backend.task.model.Task;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TaskRepository extends JpaRepository<Task, UUID> {
+    List<Task> findByUserIdOrderByPositionAsc(UUID userId);
+}
@@ -0,0 +1,162 @@
+package com.habitbeat.backend.task.service;
+
+import com.habitbeat.backend.task.dto.BulkTaskResponse;
+import com.habitbeat.backend.task.dto.TaskOperation;
+import com.habitbeat.backend.task.dto.TaskOperationResult;
+import com.habitbeat.backend.task.dto.TaskResponse;
+import com.habitbeat.backend.task.model.Task;
+import com.habitbeat.backend.task.model.TaskOperationStatus;
+import com.habitbeat.backend.task.model.TaskOperationType;
+import com.habitbeat.backend.task.repository.TaskBatchRepository;
+import com.habitbeat.backend.task.repository.TaskBatchRepository.TaskDelete;
+import com.habitbeat.backend.task.repository.TaskBatchRepository.TaskInsert;
+import com.habitbeat.backend.task.repository.TaskBatchRepository.TaskUpdate;
+import com.habitbeat.backend.task.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+public class TaskService {
+    private final TaskRepository taskRepository;
+    private final TaskBatchRepository taskBatchRepository;
+
+    private record Indexed<T>(int index, T write) {
+    }
+
+    @Transactional(readOnly = true)
+    public List<TaskResponse> listTasks(UUID userId) {
+        return taskRepository.findByUserIdOrderByPositionAsc(userId).stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    /**
+     * Applies all operations in one transaction with one JDBC batch per statement kind. An
+     * operation that fails its version check does not roll back the others; it is reported as
+     * CONFLICT together with the current row. Every task the request updates or deletes is locked
+     * up front in id order, so two requests touching the same tasks in opposite ways serialize
+     * instead of deadlocking.
+     */
+    @Transactional
+    public BulkTaskResponse applyBulk(UUID userId, List<TaskOperation> operations) {
+        TaskOperationResult[] results = new TaskOperationResult[operations.size()];
+        List<Indexed<TaskInsert>> inserts = new ArrayList<>();
+        List<Indexed<TaskUpdate>> updates = new ArrayList<>();
+        List<Indexed<TaskDelete>> deletes = new ArrayList<>();
+        Set<UUID> touched = new HashSet<>();
+
+        for (int i = 0; i < operations.size(); i++) {
+            TaskOperation operation = operations.get(i);
+            switch (operation.getOp()) {
+                case CREATE -> {
+                    if (operation.getTitle() == null || operation.getTitle().isBlank()) {
+                        results[i] = invalid(i, null, "title_required");
+                        continue;
+                    }
+                    UUID id = UUID.randomUUID();
+                    inserts.add(new Indexed<>(i, new TaskInsert(id, operation.getTitle().trim(),
+                            operation.getPosition() != null ? operation.getPosition() : 0,
+                            Boolean.TRUE.equals(operation.getCompleted()))));
+                }
+                case UPDATE, DELETE -> {
+                    UUID taskId = operation.getTaskId();
+                    if (taskId == null || operation.getExpectedVersion() == null) {
+                        results[i] = invalid(i, taskId, "task_id_and_expected_version_required");
+                        continue;
+                    }
+                    if (!touched.add(taskId)) {
+                        // A second edit to the same task would always fail its version check
+                        results[i] = invalid(i, taskId, "duplicate_task");
+                        continue;
+                    }
+                    if (operation.getOp() == TaskOperationType.DELETE) {
+                        deletes.add(new Indexed<>(i, new TaskDelete(taskId, operation.getExpectedVersion())));
+                    } else if (operation.getTitle() != null && operation.getTitle().isBlank()) {
+                        results[i] = invalid(i, taskId, "title_required");
+                    } else {
+                        String title = operation.getTitle() != null ? operation.getTitle().trim() : null;
+                        updates.add(new Indexed<>(i, new TaskUpdate(taskId, operation.getExpectedVersion(),
+                                title, operation.getPosition(), operation.getCompleted())));
+                    }
+                }
+            }
+        }
+
+        taskBatchRepository.lockOwned(userId, touched);
+
+        LocalDateTime now = LocalDateTime.now();
+        taskBatchRepository.insert(userId, inserts.stream().map(Indexed::write).toList(), now);
+        int[] updateCounts = taskBatchRepository.update(userId, updates.stream().map(Indexed::write).toList(), now);
+        int[] deleteCounts = taskBatchRepository.delete(userId, deletes.stream().map(Indexed::write).toList());
+
+        // One read returns the new state of changed rows and the current state of conflicting ones
+        Set<UUID> toRead = new HashSet<>();
+        inserts.forEach(insert -> toRead.add(insert.write().id()));
+        updates.forEach(update -> toRead.add(update.write().id()));
+        for (int i = 0; i < deletes.size(); i++) {
+            if (deleteCounts[i] == 0) {
+                toRead.add(deletes.get(i).write().id());
+            }
+        }
+        Map<UUID, TaskResponse> rows = taskBatchRepository.findOwned(userId, toRead);
+
+        List<TaskResponse> changed = new ArrayList<>();
+        List<UUID> deleted = new ArrayList<>();
+        for (Indexed<TaskInsert> insert : inserts) {
+            UUID id = insert.write().id();
+            results[insert.index()] = new TaskOperationResult(insert.index(), id, TaskOperationStatus.APPLIED, null, null);
+            changed.add(rows.get(id));
+        }
+        for (int i = 0; i < updates.size(); i++) {
+            Indexed<TaskUpdate> update = updates.get(i);
+            UUID id = update.write().id();
+            if (updateCounts[i] > 0) {
+                results[update.index()] = new TaskOperationResult(update.index(), id, TaskOperationStatus.APPLIED, null, null);
+                changed.add(rows.get(id));
+            } else {
+                results[update.index()] = notApplied(update.index(), id, rows.get(id));
+            }
+        }
+        for (int i = 0; i < deletes.size(); i++) {
+            Indexed<TaskDelete> delete = deletes.get(i);
+            UUID id = delete.write().id();
+            if (deleteCounts[i] > 0) {
+                results[delete.index()] = new TaskOperationResult(delete.index(), id, TaskOperationStatus.APPLIED, null, null);
+                deleted.add(id);
+            } else {
+                results[delete.index()] = notApplied(delete.index(), id, rows.get(id));
+            }
+        }
+
+        return new BulkTaskResponse(Arrays.asList(results), changed, deleted);
+    }
+
+    private TaskOperationResult notApplied(int index, UUID taskId, TaskResponse current) {
+        return current == null
+                ? new TaskOperationResult(index, taskId, TaskOperationStatus.NOT_FOUND, null, null)
+                : new TaskOperationResult(index, taskId, TaskOperationStatus.CONFLICT, "version_mismatch", current);
+    }
+
+    private TaskOperationResult invalid(int index, UUID taskId, String reason) {
+        return new TaskOperationResult(index, taskId, TaskOperationStatus.INVALID, reason, null);
+    }
+
+    private TaskResponse toResponse(Task task) {
+        TaskResponse response = new TaskResponse();
+        response.setId(task.getId());
+        response.setUserId(task.getUserId());
+        response.setHiveId(task.getHiveId());
+        response.setTitle(task.getTitle());
+        response.setPosition(task.getPosition());
+        response.setCompleted(task.isCompleted());
+        response.setCompletedAt(task.getCompletedAt());
+        response.setVersion(task.getVersion() != null ? task.getVersion() : 0L);
+        response.setUpdatedAt(task.getUpdatedAt());
+        return response;
+    }
+}
@@ -0,0 +1,25 @@
+package com.habitbeat.backend.user.config;
+
+import com.habitbeat.backend.user.service.UserSearchIndex;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+@Configuration
+public class UserSearchConfig {
+
+    @Bean
+    public RedisMessageListenerContainer userSearchListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                    UserSearchIndex userSearchIndex) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> userSearchIndex.onRemoteUpdate(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(UserSearchIndex.CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,81 @@
+package com.habitbeat.backend.user.controller;
+
+import com.habitbeat.backend.auth.util.CurrentUserResolver;
+import com.habitbeat.backend.common.util.ETagUtil;
+import com.habitbeat.backend.user.dto.ProfileResponse;
+import com.habitbeat.backend.user.dto.UpdateProfileRequest;
+import com.habitbeat.backend.user.service.UserProfileService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/users")
+@RequiredArgsConstructor
+public class UserProfileController {
+    private final UserProfileService userProfileService;
+    private final CurrentUserResolver currentUserResolver;
+    private final ETagUtil eTagUtil;
+
+    @GetMapping("/me/profile")
+    public ResponseEntity<ProfileResponse> getMyProfile(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        return conditionalProfile(userId, ifNoneMatch);
+    }
+
+    @GetMapping("/{userId}/profile")
+    public ResponseEntity<ProfileResponse> getProfile(
+            @PathVariable UUID userId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            HttpServletRequest request) {
+        currentUserResolver.requireUserId(request);
+        return conditionalProfile(userId, ifNoneMatch);
+    }
+
+    @PutMapping("/me/profile")
+    public ResponseEntity<ProfileResponse> updateMyProfile(
+            @Valid @RequestBody UpdateProfileRequest body,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        ProfileResponse profile = userProfileService.updateProfile(userId, eTagUtil.parseVersion(ifMatch), body);
+        return ResponseEntity.ok()
+                .eTag(eTagUtil.strong(profile.getVersion()))
+                .body(profile);
+    }
+
+    private ResponseEntity<ProfileResponse> conditionalProfile(UUID userId, String ifNoneMatch) {
+        // Answer revalidations from the version cache so a 304 never reaches Postgres
+        Optional<Long> cachedVersion = userProfileService.cachedVersion(userId);
+        if (cachedVersion.isPresent() && eTagUtil.matches(ifNoneMatch, eTagUtil.strong(cachedVersion.get()))) {
+            return notModified(eTagUtil.strong(cachedVersion.get()));
+        }
+
+        ProfileResponse profile = userProfileService.getProfile(userId);
+        String eTag = eTagUtil.strong(profile.getVersion());
+        if (eTagUtil.matches(ifNoneMatch, eTag)) {
+            return notModified(eTag);
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(profile);
+    }
+
+    private ResponseEntity<ProfileResponse> notModified(String eTag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .build();
+    }
+}
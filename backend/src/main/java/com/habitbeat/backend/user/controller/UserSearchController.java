@@ -0,0 +1,30 @@
+package com.habitbeat.backend.user.controller;
+
+import com.habitbeat.backend.auth.util.CurrentUserResolver;
+import com.habitbeat.backend.user.dto.UserSearchResponse;
+import com.habitbeat.backend.user.service.UserSearchService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/users")
+@RequiredArgsConstructor
+public class UserSearchController {
+    private final UserSearchService userSearchService;
+    private final CurrentUserResolver currentUserResolver;
+
+    @GetMapping("/search")
+    public ResponseEntity<UserSearchResponse> search(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            HttpServletRequest request) {
+        UUID userId = currentUserResolver.requireUserId(request);
+        return ResponseEntity.ok(userSearchService.search(userId, query, limit, cursor, fuzzy));
+    }
+}
@@ -0,0 +1,22 @@
+package com.habitbeat.backend.user.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+public class ProfileResponse {
+    private UUID userId;
+    private String firstName;
+    private String lastName;
+    private String displayName;
+    private String avatarUrl;
+    private String timezone;
+    private String inspiration;
+    private String about;
+    private boolean discoverable;
+    private boolean weeklyDigest;
+    private LocalDateTime updatedAt;
+    private long version;
+}
@@ -0,0 +1,29 @@
+package com.habitbeat.backend.user.dto;
+
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class UpdateProfileRequest {
+    @Size(max = 100)
+    private String firstName;
+
+    @Size(max = 100)
+    private String lastName;
+
+    @Size(max = 150)
+    private String displayName;
+
+    @Size(max = 50)
+    private String timezone;
+
+    @Size(max = 2000)
+    private String inspiration;
+
+    @Size(max = 2000)
+    private String about;
+
+    private Boolean discoverable;
+
+    private Boolean weeklyDigest;
+}
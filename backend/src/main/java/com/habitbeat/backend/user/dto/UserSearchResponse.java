@@ -0,0 +1,13 @@
+package com.habitbeat.backend.user.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class UserSearchResponse {
+    private List<UserSearchResult> results;
+    private String nextCursor;
+    // "prefix" when served by the in-memory typeahead index, "fuzzy" for trigram matches
+    private String matchType;
+}
@@ -0,0 +1,14 @@
+package com.habitbeat.backend.user.dto;
+
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class UserSearchResult {
+    private UUID userId;
+    private String displayName;
+    private String firstName;
+    private String lastName;
+    private String avatarUrl;
+}
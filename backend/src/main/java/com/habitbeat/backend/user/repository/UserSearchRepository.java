@@ -0,0 +1,77 @@
+package com.habitbeat.backend.user.repository;
+
+import com.habitbeat.backend.user.dto.UserSearchResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Repository
+@RequiredArgsConstructor
+public class UserSearchRepository {
+    private static final int STREAM_FETCH_SIZE = 5000;
+
+    // Only verified accounts that have not opted out are ever returned
+    private static final String VISIBLE = "p.discoverable AND u.email_verified_at IS NOT NULL";
+
+    private static final String STREAM_SQL = "SELECT p.user_id, p.display_name, p.first_name, p.last_name " +
+            "FROM user_profiles p JOIN users u ON u.id = p.user_id WHERE " + VISIBLE;
+
+    private static final String FIND_SQL = "SELECT p.user_id, p.display_name, p.first_name, p.last_name, p.avatar_url " +
+            "FROM user_profiles p JOIN users u ON u.id = p.user_id WHERE p.user_id = ANY(?) AND " + VISIBLE;
+
+    // <% is the word-similarity operator, served by idx_user_profiles_search_trgm
+    private static final String FUZZY_SQL = "SELECT p.user_id, p.display_name, p.first_name, p.last_name, p.avatar_url " +
+            "FROM user_profiles p JOIN users u ON u.id = p.user_id " +
+            "WHERE ? <% p.search_text AND p.user_id <> ? AND " + VISIBLE + " " +
+            "ORDER BY word_similarity(?, p.search_text) DESC, p.user_id LIMIT ? OFFSET ?";
+
+    private static final RowMapper<UserSearchResult> RESULT_MAPPER = (rs, rowNum) -> {
+        UserSearchResult result = new UserSearchResult();
+        result.setUserId(rs.getObject("user_id", UUID.class));
+        result.setDisplayName(rs.getString("display_name"));
+        result.setFirstName(rs.getString("first_name"));
+        result.setLastName(rs.getString("last_name"));
+        result.setAvatarUrl(rs.getString("avatar_url"));
+        return result;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Streams every searchable profile with a server-side cursor; must run inside a transaction.
+     */
+    public void streamSearchableProfiles(RowCallbackHandler handler) {
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(STREAM_SQL);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            return statement;
+        }, handler);
+    }
+
+    public Map<UUID, UserSearchResult> findVisible(Collection<UUID> userIds) {
+        Map<UUID, UserSearchResult> results = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return results;
+        }
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(FIND_SQL);
+            Array idArray = con.createArrayOf("uuid", userIds.toArray());
+            statement.setArray(1, idArray);
+            return statement;
+        }, RESULT_MAPPER).forEach(result -> results.put(result.getUserId(), result));
+        return results;
+    }
+
+    public List<UserSearchResult> fuzzySearch(String query, UUID excludedUserId, int limit, int offset) {
+        return jdbcTemplate.query(FUZZY_SQL, RESULT_MAPPER, query, excludedUserId, query, limit, offset);
+    }
+}
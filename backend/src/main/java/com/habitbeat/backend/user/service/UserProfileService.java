@@ -0,0 +1,125 @@
+package com.habitbeat.backend.user.service;
+
+import com.habitbeat.backend.auth.model.User;
+import com.habitbeat.backend.auth.model.UserProfile;
+import com.habitbeat.backend.auth.repository.UserProfileRepository;
+import com.habitbeat.backend.auth.repository.UserRepository;
+import com.habitbeat.backend.common.cache.EntityVersionCache;
+import com.habitbeat.backend.user.dto.ProfileResponse;
+import com.habitbeat.backend.user.dto.UpdateProfileRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class UserProfileService {
+    public static final String VERSION_CACHE_TYPE = "profile";
+
+    private final UserProfileRepository userProfileRepository;
+    private final UserRepository userRepository;
+    private final EntityVersionCache versionCache;
+    private final UserSearchIndex userSearchIndex;
+
+    public Optional<Long> cachedVersion(UUID userId) {
+        return versionCache.get(VERSION_CACHE_TYPE, userId);
+    }
+
+    @Transactional(readOnly = true)
+    public ProfileResponse getProfile(UUID userId) {
+        UserProfile profile = userProfileRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("Profile not found"));
+
+        ProfileResponse response = toResponse(profile);
+        versionCache.put(VERSION_CACHE_TYPE, userId, response.getVersion());
+        return response;
+    }
+
+    @Transactional
+    public ProfileResponse updateProfile(UUID userId, Long expectedVersion, UpdateProfileRequest request) {
+        UserProfile profile = userProfileRepository.findById(userId)
+                .orElseGet(() -> newProfile(userId));
+
+        if (expectedVersion != null && !expectedVersion.equals(versionOf(profile))) {
+            throw new RuntimeException("Version mismatch");
+        }
+
+        if (request.getTimezone() != null && !ZoneId.getAvailableZoneIds().contains(request.getTimezone())) {
+            throw new IllegalArgumentException("Unknown timezone: " + request.getTimezone());
+        }
+
+        if (request.getFirstName() != null) profile.setFirstName(request.getFirstName());
+        if (request.getLastName() != null) profile.setLastName(request.getLastName());
+        if (request.getDisplayName() != null) profile.setDisplayName(request.getDisplayName());
+        if (request.getTimezone() != null) profile.setTimezone(request.getTimezone());
+        if (request.getInspiration() != null) profile.setInspiration(request.getInspiration());
+        if (request.getAbout() != null) profile.setAbout(request.getAbout());
+        if (request.getDiscoverable() != null) profile.setDiscoverable(request.getDiscoverable());
+        if (request.getWeeklyDigest() != null) profile.setWeeklyDigest(request.getWeeklyDigest());
+
+        // Flush so the @Version increment (and any concurrent-edit conflict) happens before we publish it
+        profile = userProfileRepository.saveAndFlush(profile);
+
+        ProfileResponse response = toResponse(profile);
+        versionCache.putAfterCommit(VERSION_CACHE_TYPE, userId, response.getVersion());
+        userSearchIndex.updateAfterCommit(userId, profile.getDisplayName(), profile.getFirstName(),
+                profile.getLastName(), response.isDiscoverable());
+        return response;
+    }
+
+    /**
+     * Points the profile at an uploaded avatar unless a newer upload already replaced it. The
+     * profile's @Version turns two racing writers into one winner and one optimistic-lock failure.
+     */
+    @Transactional
+    public ProfileResponse updateAvatarUrl(UUID userId, String avatarUrl, LocalDateTime requestedAt) {
+        UserProfile profile = userProfileRepository.findById(userId)
+                .orElseGet(() -> newProfile(userId));
+        if (profile.getAvatarRequestedAt() != null && profile.getAvatarRequestedAt().isAfter(requestedAt)) {
+            return toResponse(profile);
+        }
+        profile.setAvatarUrl(avatarUrl);
+        profile.setAvatarRequestedAt(requestedAt);
+        profile = userProfileRepository.saveAndFlush(profile);
+
+        ProfileResponse response = toResponse(profile);
+        versionCache.putAfterCommit(VERSION_CACHE_TYPE, userId, response.getVersion());
+        return response;
+    }
+
+    private UserProfile newProfile(UUID userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        user.setProfileSetupDone(true);
+
+        UserProfile profile = new UserProfile();
+        profile.setUser(user);
+        return profile;
+    }
+
+    private long versionOf(UserProfile profile) {
+        return profile.getVersion() == null ? 0L : profile.getVersion();
+    }
+
+    private ProfileResponse toResponse(UserProfile profile) {
+        ProfileResponse response = new ProfileResponse();
+        response.setUserId(profile.getUserId());
+        response.setFirstName(profile.getFirstName());
+        response.setLastName(profile.getLastName());
+        response.setDisplayName(profile.getDisplayName());
+        response.setAvatarUrl(profile.getAvatarUrl());
+        response.setTimezone(profile.getTimezone());
+        response.setInspiration(profile.getInspiration());
+        response.setAbout(profile.getAbout());
+        response.setDiscoverable(!Boolean.FALSE.equals(profile.getDiscoverable()));
+        response.setWeeklyDigest(!Boolean.FALSE.equals(profile.getWeeklyDigest()));
+        response.setUpdatedAt(profile.getUpdatedAt());
+        response.setVersion(versionOf(profile));
+        return response;
+    }
+}
@@ -0,0 +1,453 @@
+package com.habitbeat.backend.user.service;
+
+import com.habitbeat.backend.common.redis.RedisGuard;
+import com.habitbeat.backend.user.dto.UserSearchResult;
+import com.habitbeat.backend.user.repository.UserSearchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix index over profile names for typeahead. The bulk of it is an immutable snapshot
+ * packed into primitive arrays: the sorted unique name tokens in one char blob, each with a posting
+ * list of users. Profile changes since the snapshot was built live in a small concurrent overlay
+ * that shadows the user's snapshot postings. A lookup is a binary search plus a scan of the
+ * matching range and never touches the database.
+ * <p>
+ * Each node holds its own index. A committed profile change is applied locally and its user id
+ * broadcast over Redis pub/sub; the other nodes re-read that one profile into their overlay. A
+ * broadcast lost while Redis is unavailable is picked up by the next scheduled rebuild.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserSearchIndex {
+    public static final String CHANNEL = "user-search:updates";
+    static final byte FIELD_DISPLAY_NAME = 0;
+    static final byte FIELD_FIRST_NAME = 1;
+    static final byte FIELD_LAST_NAME = 2;
+    // Prefix matches rank below every exact token match
+    private static final int PREFIX_PENALTY = 3;
+    // Bounds the work for one- or two-letter prefixes; postings are visited best-ranked first, so
+    // only the matches search() would have ranked last are dropped
+    private static final int MAX_POSTINGS_PER_TERM = 20_000;
+    private static final char KEY_SEPARATOR = '\u0000';
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final UserSearchRepository userSearchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisGuard redisGuard;
+    // Lets a node skip its own broadcasts, which it has already applied
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private volatile State state = new State(Snapshot.EMPTY, new Overlay());
+    // Receives updates while a rebuild is streaming, then becomes the live overlay
+    private volatile Overlay building;
+
+    public record Match(UUID userId, int score) {
+    }
+
+    private record State(Snapshot snapshot, Overlay overlay) {
+    }
+
+    /**
+     * Users ranked by match quality (lower is better), then by id so pages are stable. Every query
+     * term must prefix-match one of the user's name tokens.
+     */
+    public List<Match> search(String query, int maxResults) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        State current = state;
+        Map<UUID, Integer> scores = null;
+        for (String term : terms) {
+            Map<UUID, Integer> termScores = match(current, term);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                scores.keySet().retainAll(termScores.keySet());
+                scores.replaceAll((userId, score) -> score + termScores.get(userId));
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+        return scores.entrySet().stream()
+                .map(entry -> new Match(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingInt(Match::score).thenComparing(Match::userId))
+                .limit(maxResults)
+                .toList();
+    }
+
+    public void update(UUID userId, String displayName, String firstName, String lastName, boolean visible) {
+        Map<String, Byte> postings = visible ? postingsOf(displayName, firstName, lastName) : Map.of();
+        state.overlay().put(userId, postings);
+        Overlay next = building;
+        if (next != null) {
+            next.put(userId, postings);
+        }
+    }
+
+    public void updateAfterCommit(UUID userId, String displayName, String firstName, String lastName, boolean visible) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update(userId, displayName, firstName, lastName, visible);
+            publish(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update(userId, displayName, firstName, lastName, visible);
+                publish(userId);
+            }
+        });
+    }
+
+    /**
+     * Handles a profile change announced by another node. The profile is read back rather than
+     * carried in the message, so broadcasts that arrive out of order still leave the latest names.
+     */
+    public void onRemoteUpdate(String message) {
+        int separator = message.indexOf('|');
+        if (separator < 0 || nodeId.equals(message.substring(0, separator))) {
+            return;
+        }
+        try {
+            UUID userId = UUID.fromString(message.substring(separator + 1));
+            UserSearchResult profile = userSearchRepository.findVisible(List.of(userId)).get(userId);
+            if (profile == null) {
+                update(userId, null, null, null, false);
+            } else {
+                update(userId, profile.getDisplayName(), profile.getFirstName(), profile.getLastName(), true);
+            }
+        } catch (RuntimeException e) {
+            // The next rebuild picks the change up
+            log.warn("Failed to apply remote search index update: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${user-search.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        long started = System.nanoTime();
+        // Set before the snapshot transaction starts: anything committed later reaches the new overlay
+        Overlay next = new Overlay();
+        building = next;
+        try {
+            SnapshotBuilder builder = new SnapshotBuilder();
+            // Postgres only streams with a cursor inside a transaction; otherwise fetch size is ignored
+            transactionTemplate.executeWithoutResult(status -> userSearchRepository.streamSearchableProfiles(rs -> {
+                builder.add(rs.getObject(1, UUID.class), postingsOf(rs.getString(2), rs.getString(3), rs.getString(4)));
+            }));
+            Snapshot snapshot = builder.build();
+            state = new State(snapshot, next);
+            log.info("Built user search index: {} users, {} tokens in {} ms", snapshot.docCount(),
+                    snapshot.keyCount(), (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Failed to rebuild user search index; keeping previous one", e);
+        } finally {
+            building = null;
+        }
+    }
+
+    private void publish(UUID userId) {
+        redisGuard.run("user-search", () -> redisTemplate.convertAndSend(CHANNEL, nodeId + "|" + userId),
+                () -> log.debug("Search index update not broadcast; other nodes pick it up on rebuild"));
+    }
+
+    /**
+     * Lower-cases, strips diacritics and splits on anything that is not a letter or digit.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return Arrays.stream(NON_WORD.split(folded))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    private static Map<String, Byte> postingsOf(String displayName, String firstName, String lastName) {
+        // A token found in several fields keeps its best-ranked field
+        Map<String, Byte> postings = new LinkedHashMap<>();
+        tokenize(displayName).forEach(token -> postings.putIfAbsent(token, FIELD_DISPLAY_NAME));
+        tokenize(firstName).forEach(token -> postings.putIfAbsent(token, FIELD_FIRST_NAME));
+        tokenize(lastName).forEach(token -> postings.putIfAbsent(token, FIELD_LAST_NAME));
+        return postings;
+    }
+
+    private static int score(boolean exact, byte field) {
+        return (exact ? 0 : PREFIX_PENALTY) + field;
+    }
+
+    private Map<UUID, Integer> match(State current, String term) {
+        Map<UUID, Integer> best = new HashMap<>();
+        Snapshot snapshot = current.snapshot();
+        Overlay overlay = current.overlay();
+        int first = snapshot.lowerBound(term);
+        int end = snapshot.lowerBound(term + Character.MAX_VALUE);
+        int budget = MAX_POSTINGS_PER_TERM;
+        // The exact token sorts before every longer token it prefixes
+        if (first < end && snapshot.keyLength(first) == term.length()) {
+            budget = collect(snapshot, overlay, first, first + 1, true, budget, best);
+            first++;
+        }
+        collect(snapshot, overlay, first, end, false, budget, best);
+        for (Map.Entry<String, Byte> entry : overlay.postings.subMap(term, term + Character.MAX_VALUE).entrySet()) {
+            String key = entry.getKey();
+            int separator = key.indexOf(KEY_SEPARATOR);
+            best.merge(UUID.fromString(key.substring(separator + 1)),
+                    score(separator == term.length(), entry.getValue()), Math::min);
+        }
+        return best;
+    }
+
+    /**
+     * Adds the postings of keys [fromKey, toKey) in the order search() ranks them: by field, then by
+     * user id. A key's postings are sorted that way already, so each field is a k-way merge.
+     *
+     * @return the budget left
+     */
+    private static int collect(Snapshot snapshot, Overlay overlay, int fromKey, int toKey, boolean exact,
+                               int budget, Map<UUID, Integer> best) {
+        int[] cursors = new int[toKey - fromKey];
+        for (int k = 0; k < cursors.length; k++) {
+            cursors[k] = snapshot.postingOffsets[fromKey + k];
+        }
+        for (byte field = FIELD_DISPLAY_NAME; field <= FIELD_LAST_NAME && budget > 0; field++) {
+            PriorityQueue<Integer> heads = new PriorityQueue<>(
+                    Comparator.comparingInt(k -> snapshot.postingDocs[cursors[k]]));
+            for (int k = 0; k < cursors.length; k++) {
+                if (snapshot.hasField(fromKey + k, cursors[k], field)) {
+                    heads.add(k);
+                }
+            }
+            while (!heads.isEmpty() && budget > 0) {
+                int k = heads.poll();
+                int p = cursors[k]++;
+                budget--;
+                UUID userId = snapshot.docId(snapshot.postingDocs[p]);
+                if (!overlay.shadowed.contains(userId)) {
+                    best.merge(userId, score(exact, field), Math::min);
+                }
+                if (snapshot.hasField(fromKey + k, cursors[k], field)) {
+                    heads.add(k);
+                }
+            }
+        }
+        return budget;
+    }
+
+    /**
+     * Profile changes since the last snapshot, keyed "token\0userId" so a prefix is a sub-map range.
+     */
+    private static final class Overlay {
+        private final ConcurrentSkipListMap<String, Byte> postings = new ConcurrentSkipListMap<>();
+        private final ConcurrentHashMap<UUID, Set<String>> keysByUser = new ConcurrentHashMap<>();
+        // Users whose snapshot postings are out of date and must be ignored
+        private final Set<UUID> shadowed = ConcurrentHashMap.newKeySet();
+
+        private void put(UUID userId, Map<String, Byte> tokens) {
+            keysByUser.compute(userId, (id, previous) -> {
+                shadowed.add(id);
+                if (previous != null) {
+                    previous.forEach(postings::remove);
+                }
+                Set<String> keys = new HashSet<>();
+                tokens.forEach((token, field) -> {
+                    String key = token + KEY_SEPARATOR + id;
+                    postings.put(key, field);
+                    keys.add(key);
+                });
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    private static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(new char[0], new int[]{0}, new int[]{0},
+                new int[0], new byte[0], new long[0]);
+
+        private final char[] keyChars;
+        private final int[] keyOffsets;
+        private final int[] postingOffsets;
+        private final int[] postingDocs;
+        private final byte[] postingFields;
+        // Two longs (most, least significant bits) per document, in UUID order so that document
+        // numbers compare like the user ids they stand for
+        private final long[] docIds;
+
+        private Snapshot(char[] keyChars, int[] keyOffsets, int[] postingOffsets,
+                         int[] postingDocs, byte[] postingFields, long[] docIds) {
+            this.keyChars = keyChars;
+            this.keyOffsets = keyOffsets;
+            this.postingOffsets = postingOffsets;
+            this.postingDocs = postingDocs;
+            this.postingFields = postingFields;
+            this.docIds = docIds;
+        }
+
+        private int keyCount() {
+            return keyOffsets.length - 1;
+        }
+
+        private int docCount() {
+            return docIds.length / 2;
+        }
+
+        private int keyLength(int key) {
+            return keyOffsets[key + 1] - keyOffsets[key];
+        }
+
+        private UUID docId(int doc) {
+            return new UUID(docIds[doc * 2], docIds[doc * 2 + 1]);
+        }
+
+        private boolean hasField(int key, int posting, byte field) {
+            return posting < postingOffsets[key + 1] && postingFields[posting] == field;
+        }
+
+        private boolean keyStartsWith(int key, String prefix) {
+            if (keyLength(key) < prefix.length()) {
+                return false;
+            }
+            int start = keyOffsets[key];
+            for (int i = 0; i < prefix.length(); i++) {
+                if (keyChars[start + i] != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Index of the first key that is not less than the probe, in String.compareTo order.
+         */
+        private int lowerBound(String probe) {
+            int low = 0;
+            int high = keyCount();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compareKey(mid, probe) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int compareKey(int key, String probe) {
+            int start = keyOffsets[key];
+            int length = keyLength(key);
+            int common = Math.min(length, probe.length());
+            for (int i = 0; i < common; i++) {
+                int diff = keyChars[start + i] - probe.charAt(i);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return length - probe.length();
+        }
+    }
+
+    private static final class SnapshotBuilder {
+        private record Posting(String token, int doc, byte field) {
+        }
+
+        // Names repeat heavily; share one String per distinct token while building
+        private final Map<String, String> tokens = new HashMap<>();
+        private final List<Posting> postings = new ArrayList<>();
+        private long[] docIds = new long[2048];
+        private int docCount;
+
+        private void add(UUID userId, Map<String, Byte> userPostings) {
+            if (userPostings.isEmpty()) {
+                return;
+            }
+            int doc = docCount++;
+            if (doc * 2 + 1 >= docIds.length) {
+                docIds = Arrays.copyOf(docIds, docIds.length * 2);
+            }
+            docIds[doc * 2] = userId.getMostSignificantBits();
+            docIds[doc * 2 + 1] = userId.getLeastSignificantBits();
+            userPostings.forEach((token, field) ->
+                    postings.add(new Posting(tokens.computeIfAbsent(token, t -> t), doc, field)));
+        }
+
+        private Snapshot build() {
+            // Renumber documents in UUID order; rows arrive in whatever order Postgres streams them
+            Integer[] byUserId = new Integer[docCount];
+            for (int doc = 0; doc < docCount; doc++) {
+                byUserId[doc] = doc;
+            }
+            Arrays.sort(byUserId, Comparator.<Integer>comparingLong(doc -> docIds[doc * 2])
+                    .thenComparingLong(doc -> docIds[doc * 2 + 1]));
+            int[] rank = new int[docCount];
+            long[] sortedDocIds = new long[docCount * 2];
+            for (int i = 0; i < docCount; i++) {
+                rank[byUserId[i]] = i;
+                sortedDocIds[i * 2] = docIds[byUserId[i] * 2];
+                sortedDocIds[i * 2 + 1] = docIds[byUserId[i] * 2 + 1];
+            }
+
+            postings.sort(Comparator.comparing(Posting::token)
+                    .thenComparingInt(Posting::field)
+                    .thenComparingInt(posting -> rank[posting.doc()]));
+
+            StringBuilder keyChars = new StringBuilder();
+            int[] keyOffsets = new int[tokens.size() + 1];
+            int[] postingOffsets = new int[tokens.size() + 1];
+            int[] postingDocs = new int[postings.size()];
+            byte[] postingFields = new byte[postings.size()];
+            int key = -1;
+            String previous = null;
+            for (int i = 0; i < postings.size(); i++) {
+                Posting posting = postings.get(i);
+                if (!posting.token().equals(previous)) {
+                    key++;
+                    keyOffsets[key] = keyChars.length();
+                    postingOffsets[key] = i;
+                    keyChars.append(posting.token());
+                    previous = posting.token();
+                }
+                postingDocs[i] = rank[posting.doc()];
+                postingFields[i] = posting.field();
+            }
+            keyOffsets[key + 1] = keyChars.length();
+            postingOffsets[key + 1] = postings.size();
+
+            char[] chars = new char[keyChars.length()];
+            keyChars.getChars(0, keyChars.length(), chars, 0);
+            return new Snapshot(chars, Arrays.copyOf(keyOffsets, key + 2), Arrays.copyOf(postingOffsets, key + 2),
+                    postingDocs, postingFields, sortedDocIds);
+        }
+    }
+}
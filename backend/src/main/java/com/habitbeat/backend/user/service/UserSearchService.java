@@ -0,0 +1,84 @@
+package com.habitbeat.backend.user.service;
+
+import com.habitbeat.backend.user.dto.UserSearchResponse;
+import com.habitbeat.backend.user.dto.UserSearchResult;
+import com.habitbeat.backend.user.repository.UserSearchRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Typeahead is answered from {@link UserSearchIndex}; only the page of ids it returns is read from
+ * Postgres, which also re-checks visibility. Queries with no prefix match (typos, partial words) fall
+ * back to trigram similarity over the GIN index.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserSearchService {
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+    private static final int MAX_QUERY_LENGTH = 100;
+    // Trigram similarity is meaningless below three characters
+    private static final int MIN_FUZZY_LENGTH = 3;
+
+    private final UserSearchIndex userSearchIndex;
+    private final UserSearchRepository userSearchRepository;
+
+    public UserSearchResponse search(UUID viewerId, String query, Integer limit, String cursor, boolean fuzzyOnly) {
+        String q = query == null ? "" : query.trim();
+        if (q.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query is too long");
+        }
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        int offset = parseCursor(cursor);
+
+        if (!fuzzyOnly) {
+            List<UUID> matches = userSearchIndex.search(q, offset + size + 2).stream()
+                    .map(UserSearchIndex.Match::userId)
+                    .filter(userId -> !userId.equals(viewerId))
+                    .toList();
+            // Paging past the first prefix page stays on the prefix index
+            if (!matches.isEmpty() || offset > 0) {
+                List<UUID> page = matches.subList(Math.min(offset, matches.size()), Math.min(offset + size, matches.size()));
+                Map<UUID, UserSearchResult> found = userSearchRepository.findVisible(page);
+                List<UserSearchResult> results = page.stream().map(found::get).filter(Objects::nonNull).toList();
+                return response(results, matches.size() > offset + size ? offset + size : null, "prefix");
+            }
+        }
+
+        if (q.length() < MIN_FUZZY_LENGTH) {
+            return response(List.of(), null, "fuzzy");
+        }
+        List<UserSearchResult> rows = userSearchRepository.fuzzySearch(q.toLowerCase(Locale.ROOT), viewerId, size + 1, offset);
+        boolean hasMore = rows.size() > size;
+        return response(hasMore ? rows.subList(0, size) : rows, hasMore ? offset + size : null, "fuzzy");
+    }
+
+    private int parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            int offset = Integer.parseInt(cursor);
+            if (offset < 0) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+    }
+
+    private UserSearchResponse response(List<UserSearchResult> results, Integer nextOffset, String matchType) {
+        UserSearchResponse response = new UserSearchResponse();
+        response.setResults(results);
+        response.setNextCursor(nextOffset != null ? String.valueOf(nextOffset) : null);
+        response.setMatchType(matchType);
+        return response;
+    }
+}
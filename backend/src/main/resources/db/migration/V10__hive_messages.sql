@@ -0,0 +1,23 @@
+-- Lets one GIN index hold hive_id next to the tsvector, so a search only walks its own hive's postings
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+CREATE TABLE IF NOT EXISTS hive_messages (
+    id             UUID PRIMARY KEY,
+    hive_id        UUID NOT NULL REFERENCES hives(id) ON DELETE CASCADE,
+    sender_id      UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    body           TEXT NOT NULL,
+    created_at     TIMESTAMP(6) NOT NULL,
+    -- Filled in batches by ChatSearchIndexer after the insert commits; NULL means not indexed yet
+    search_vector  TSVECTOR,
+    CONSTRAINT chk_hive_messages_body CHECK (length(body) BETWEEN 1 AND 4000)
+);
+
+-- Newest-first history pages per hive
+CREATE INDEX IF NOT EXISTS idx_hive_messages_hive_created ON hive_messages (hive_id, created_at DESC, id DESC);
+
+-- Per-hive inverted index. Batched updates land in the pending list and are merged in bulk
+CREATE INDEX IF NOT EXISTS idx_hive_messages_search
+    ON hive_messages USING GIN (hive_id, search_vector) WITH (fastupdate = on, gin_pending_list_limit = 4096);
+
+-- Work queue for the indexer; stays tiny because rows leave it as soon as they are indexed
+CREATE INDEX IF NOT EXISTS idx_hive_messages_unindexed ON hive_messages (created_at) WHERE search_vector IS NULL;
@@ -0,0 +1,20 @@
+-- Users can opt out of the weekly digest email; everyone starts opted in
+ALTER TABLE user_profiles ADD COLUMN IF NOT EXISTS weekly_digest BOOLEAN NOT NULL DEFAULT TRUE;
+
+-- The digest job walks verified users in id order
+CREATE INDEX IF NOT EXISTS idx_users_verified_id ON users (id) WHERE email_verified_at IS NOT NULL;
+
+-- One row per digest week. last_user_id is the checkpoint: every user up to it has been handed to
+-- SMTP, so a run whose node died resumes after it. The lease keeps two nodes from sending at once.
+CREATE TABLE IF NOT EXISTS digest_runs (
+    week_start        DATE PRIMARY KEY,
+    status            VARCHAR(20) NOT NULL,
+    last_user_id      UUID,
+    sent              BIGINT NOT NULL DEFAULT 0,
+    failed            BIGINT NOT NULL DEFAULT 0,
+    lease_owner       VARCHAR(64),
+    lease_expires_at  TIMESTAMP(6),
+    started_at        TIMESTAMP(6) NOT NULL,
+    updated_at        TIMESTAMP(6) NOT NULL,
+    completed_at      TIMESTAMP(6)
+);
@@ -0,0 +1,7 @@
+-- SHA-256 of the refresh token, so a refresh or logout finds its session with one index probe
+-- before the bcrypt check instead of comparing against every live session
+ALTER TABLE sessions ADD COLUMN IF NOT EXISTS token_selector VARCHAR(64);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_sessions_token_selector ON sessions (token_selector) WHERE token_selector IS NOT NULL;
+
+-- Sessions issued before the selector existed; drains as they rotate or expire
+CREATE INDEX IF NOT EXISTS idx_sessions_legacy_live ON sessions (expires_at) WHERE token_selector IS NULL AND revoked_at IS NULL;
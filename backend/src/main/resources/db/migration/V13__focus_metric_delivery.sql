@@ -0,0 +1,32 @@
+-- Per (session, user) frame sequence number sent by the client; a retried batch carries the same
+-- numbers and is skipped on insert. Frames stored before this column existed keep NULL, which
+-- never conflicts.
+ALTER TABLE focus_metric_events ADD COLUMN IF NOT EXISTS seq BIGINT;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_focus_metric_events_frame ON focus_metric_events (session_id, user_id, seq);
+-- Session lookups are served by the unique index's leading column
+DROP INDEX IF EXISTS idx_focus_metric_events_session;
+
+-- The first user to send frames for a session id owns it; only the owner and their hive partners
+-- may write to or read it afterwards
+CREATE TABLE IF NOT EXISTS focus_session_owners (
+    session_id  UUID PRIMARY KEY,
+    user_id     UUID NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL
+);
+INSERT INTO focus_session_owners (session_id, user_id, created_at)
+SELECT DISTINCT ON (session_id) session_id, user_id, first_event_at
+FROM focus_session_rollups
+ORDER BY session_id, first_event_at
+ON CONFLICT DO NOTHING;
+
+-- Frames that still could not be written after every retry, kept for replay by hand
+CREATE TABLE IF NOT EXISTS focus_metric_dead_letters (
+    session_id   UUID NOT NULL,
+    user_id      UUID NOT NULL,
+    event_type   VARCHAR(20) NOT NULL,
+    value        INTEGER NOT NULL,
+    occurred_at  TIMESTAMP(6) NOT NULL,
+    seq          BIGINT,
+    error        TEXT,
+    failed_at    TIMESTAMP(6) NOT NULL
+);
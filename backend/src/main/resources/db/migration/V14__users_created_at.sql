@@ -0,0 +1,2 @@
+-- Recent-signup catch-up for the known-email filter
+CREATE INDEX IF NOT EXISTS idx_users_created_at ON users (created_at);
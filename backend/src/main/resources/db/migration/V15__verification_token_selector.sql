@@ -0,0 +1,8 @@
+-- SHA-256 of the emailed token, so verify and reset find their row with one index probe before the
+-- bcrypt check instead of comparing against every live token of that purpose
+ALTER TABLE verification_tokens ADD COLUMN IF NOT EXISTS token_selector VARCHAR(64);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_verification_tokens_selector ON verification_tokens (token_selector) WHERE token_selector IS NOT NULL;
+
+-- Tokens issued before the selector existed; they expire within 30 minutes of the upgrade
+CREATE INDEX IF NOT EXISTS idx_verification_tokens_legacy_live ON verification_tokens (purpose, expires_at)
+    WHERE token_selector IS NULL AND consumed_at IS NULL;
@@ -0,0 +1,3 @@
+-- When the upload behind avatar_url was received; a slower render of an older upload must not
+-- replace a newer avatar
+ALTER TABLE user_profiles ADD COLUMN IF NOT EXISTS avatar_requested_at TIMESTAMP(6);
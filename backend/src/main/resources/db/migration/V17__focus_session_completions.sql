@@ -0,0 +1,15 @@
+-- One row per completed (session, participant). focus_sessions is partitioned by started_at, so it
+-- cannot enforce that key itself; this row is locked while a repeated completion replaces the
+-- earlier one, and records which started_at (and so which partition) that one lives under.
+CREATE TABLE IF NOT EXISTS focus_session_completions (
+    session_id  UUID NOT NULL,
+    user_id     UUID NOT NULL,
+    started_at  TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (session_id, user_id)
+);
+
+INSERT INTO focus_session_completions (session_id, user_id, started_at)
+SELECT DISTINCT ON (session_id, user_id) session_id, user_id, started_at
+FROM focus_sessions
+ORDER BY session_id, user_id, started_at DESC
+ON CONFLICT DO NOTHING;
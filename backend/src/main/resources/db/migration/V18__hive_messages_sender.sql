@@ -0,0 +1,2 @@
+-- A user's own messages, for data exports; otherwise every export scans the whole chat history
+CREATE INDEX IF NOT EXISTS idx_hive_messages_sender ON hive_messages (sender_id, created_at);
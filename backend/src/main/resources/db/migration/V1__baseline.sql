@@ -0,0 +1,67 @@
+-- Baseline of the schema previously managed by hibernate ddl-auto=update
+
+CREATE TABLE IF NOT EXISTS users (
+    id                  UUID PRIMARY KEY,
+    email               VARCHAR(255) NOT NULL UNIQUE,
+    email_verified_at   TIMESTAMP(6),
+    profile_setup_done  BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at          TIMESTAMP(6) NOT NULL,
+    updated_at          TIMESTAMP(6) NOT NULL,
+    version             BIGINT NOT NULL DEFAULT 0
+);
+CREATE INDEX IF NOT EXISTS idx_users_email ON users (email);
+
+CREATE TABLE IF NOT EXISTS user_profiles (
+    user_id       UUID PRIMARY KEY REFERENCES users (id),
+    first_name    VARCHAR(100),
+    last_name     VARCHAR(100),
+    display_name  VARCHAR(150),
+    avatar_url    VARCHAR(255),
+    timezone      VARCHAR(50),
+    inspiration   TEXT,
+    about         TEXT,
+    updated_at    TIMESTAMP(6) NOT NULL,
+    version       BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS password_credentials (
+    user_id          UUID PRIMARY KEY REFERENCES users (id),
+    password_hash    VARCHAR(255) NOT NULL,
+    password_set_at  TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS verification_tokens (
+    id           UUID PRIMARY KEY,
+    user_id      UUID NOT NULL REFERENCES users (id),
+    purpose      VARCHAR(50) NOT NULL,
+    token_hash   VARCHAR(255) NOT NULL,
+    expires_at   TIMESTAMP(6) NOT NULL,
+    consumed_at  TIMESTAMP(6),
+    created_at   TIMESTAMP(6) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_verification_tokens_user_purpose ON verification_tokens (purpose, user_id);
+
+CREATE TABLE IF NOT EXISTS oauth_identities (
+    id                UUID PRIMARY KEY,
+    user_id           UUID NOT NULL REFERENCES users (id),
+    provider          VARCHAR(50) NOT NULL,
+    provider_user_id  VARCHAR(255) NOT NULL,
+    created_at        TIMESTAMP(6) NOT NULL,
+    updated_at        TIMESTAMP(6) NOT NULL,
+    UNIQUE (provider, provider_user_id)
+);
+CREATE INDEX IF NOT EXISTS idx_oauth_identities_provider ON oauth_identities (provider, provider_user_id);
+
+CREATE TABLE IF NOT EXISTS sessions (
+    id                  UUID PRIMARY KEY,
+    user_id             UUID NOT NULL REFERENCES users (id),
+    session_token_hash  VARCHAR(255) NOT NULL,
+    expires_at          TIMESTAMP(6) NOT NULL,
+    revoked_at          TIMESTAMP(6),
+    created_at          TIMESTAMP(6) NOT NULL,
+    last_used_at        TIMESTAMP(6),
+    ip                  VARCHAR(255),
+    user_agent          TEXT
+);
+CREATE INDEX IF NOT EXISTS idx_sessions_user_id ON sessions (user_id);
+CREATE INDEX IF NOT EXISTS idx_sessions_token_hash ON sessions (session_token_hash);
@@ -0,0 +1,11 @@
+-- Databases baselined from ddl-auto=update may have the @Version columns missing or nullable
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT;
+UPDATE users SET version = 0 WHERE version IS NULL;
+ALTER TABLE users ALTER COLUMN version SET DEFAULT 0, ALTER COLUMN version SET NOT NULL;
+
+ALTER TABLE user_profiles ADD COLUMN IF NOT EXISTS version BIGINT;
+UPDATE user_profiles SET version = 0 WHERE version IS NULL;
+ALTER TABLE user_profiles ALTER COLUMN version SET DEFAULT 0, ALTER COLUMN version SET NOT NULL;
+
+DROP TABLE IF EXISTS oauth_states;
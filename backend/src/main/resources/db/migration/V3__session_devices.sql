@@ -0,0 +1,12 @@
+ALTER TABLE sessions ADD COLUMN IF NOT EXISTS device_name VARCHAR(100);
+
+-- Keyset pagination needs a non-null sort key
+UPDATE sessions SET last_used_at = created_at WHERE last_used_at IS NULL;
+UPDATE sessions SET user_agent = LEFT(user_agent, 512) WHERE LENGTH(user_agent) > 512;
+
+-- Active-device listings: index-only scans over live sessions, ordered for keyset pagination.
+-- Revoked rows (the bulk of a long-lived account's history) are left out entirely.
+CREATE INDEX IF NOT EXISTS idx_sessions_active_devices
+    ON sessions (user_id, last_used_at DESC, id DESC)
+    INCLUDE (device_name, ip, user_agent, created_at, expires_at)
+    WHERE revoked_at IS NULL;
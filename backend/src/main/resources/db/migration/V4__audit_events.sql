@@ -0,0 +1,19 @@
+-- Security audit trail, range-partitioned by month (partitions are created ahead of time by
+-- MonthlyPartitionMaintainer; the default partition only catches stragglers).
+CREATE TABLE IF NOT EXISTS audit_events (
+    id           UUID NOT NULL,
+    occurred_at  TIMESTAMP(6) NOT NULL,
+    event_type   VARCHAR(50) NOT NULL,
+    user_id      UUID,
+    email        VARCHAR(255),
+    ip           VARCHAR(64),
+    user_agent   VARCHAR(512),
+    detail       VARCHAR(255),
+    -- Doubles as the index for pure time-range queries (scanned backwards for newest-first)
+    PRIMARY KEY (occurred_at, id)
+) PARTITION BY RANGE (occurred_at);
+
+CREATE TABLE IF NOT EXISTS audit_events_default PARTITION OF audit_events DEFAULT;
+
+CREATE INDEX IF NOT EXISTS idx_audit_events_user ON audit_events (user_id, occurred_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_audit_events_ip ON audit_events (ip, occurred_at DESC, id DESC);
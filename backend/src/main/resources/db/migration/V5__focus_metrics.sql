@@ -0,0 +1,30 @@
+-- Raw focus-session metric frames: append-only, written in multi-row batches
+CREATE TABLE IF NOT EXISTS focus_metric_events (
+    session_id   UUID NOT NULL,
+    user_id      UUID NOT NULL,
+    event_type   VARCHAR(20) NOT NULL,
+    value        INTEGER NOT NULL,
+    occurred_at  TIMESTAMP(6) NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_focus_metric_events_session ON focus_metric_events (session_id);
+CREATE INDEX IF NOT EXISTS idx_focus_metric_events_occurred_at ON focus_metric_events USING BRIN (occurred_at);
+
+-- Incrementally maintained rollups; summaries never scan raw events
+CREATE TABLE IF NOT EXISTS focus_session_rollups (
+    session_id         UUID NOT NULL,
+    user_id            UUID NOT NULL,
+    focus_seconds      BIGINT NOT NULL DEFAULT 0,
+    distraction_count  INTEGER NOT NULL DEFAULT 0,
+    tasks_completed    INTEGER NOT NULL DEFAULT 0,
+    first_event_at     TIMESTAMP(6) NOT NULL,
+    last_event_at      TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (session_id, user_id)
+);
+
+CREATE TABLE IF NOT EXISTS focus_user_rollups (
+    user_id            UUID PRIMARY KEY,
+    focus_seconds      BIGINT NOT NULL DEFAULT 0,
+    distraction_count  BIGINT NOT NULL DEFAULT 0,
+    tasks_completed    BIGINT NOT NULL DEFAULT 0,
+    last_event_at      TIMESTAMP(6) NOT NULL
+);
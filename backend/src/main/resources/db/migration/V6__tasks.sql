@@ -0,0 +1,15 @@
+CREATE TABLE IF NOT EXISTS tasks (
+    id            UUID PRIMARY KEY,
+    user_id       UUID REFERENCES users(id) ON DELETE CASCADE,
+    hive_id       UUID,
+    title         VARCHAR(200) NOT NULL,
+    position      INTEGER NOT NULL DEFAULT 0,
+    completed     BOOLEAN NOT NULL DEFAULT FALSE,
+    completed_at  TIMESTAMP(6),
+    version       BIGINT NOT NULL DEFAULT 0,
+    created_at    TIMESTAMP(6) NOT NULL,
+    updated_at    TIMESTAMP(6) NOT NULL,
+    CONSTRAINT chk_tasks_single_owner CHECK ((user_id IS NULL) <> (hive_id IS NULL))
+);
+CREATE INDEX IF NOT EXISTS idx_tasks_user_position ON tasks (user_id, position);
+CREATE INDEX IF NOT EXISTS idx_tasks_hive_position ON tasks (hive_id, position);
@@ -0,0 +1,38 @@
+CREATE TABLE IF NOT EXISTS hives (
+    id            UUID PRIMARY KEY,
+    name          VARCHAR(100) NOT NULL,
+    created_by    UUID NOT NULL REFERENCES users(id),
+    member_count  INTEGER NOT NULL DEFAULT 0,
+    version       BIGINT NOT NULL DEFAULT 0,
+    created_at    TIMESTAMP(6) NOT NULL,
+    CONSTRAINT chk_hives_member_count CHECK (member_count BETWEEN 0 AND 2)
+);
+
+CREATE TABLE IF NOT EXISTS hive_members (
+    id         UUID PRIMARY KEY,
+    hive_id    UUID NOT NULL REFERENCES hives(id) ON DELETE CASCADE,
+    user_id    UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    slot       INTEGER NOT NULL,
+    joined_at  TIMESTAMP(6) NOT NULL,
+    left_at    TIMESTAMP(6),
+    CONSTRAINT chk_hive_members_slot CHECK (slot IN (1, 2))
+);
+-- One active member per slot and one active membership per user: a second guard behind member_count
+CREATE UNIQUE INDEX IF NOT EXISTS uq_hive_members_active_slot ON hive_members (hive_id, slot) WHERE left_at IS NULL;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_hive_members_active_user ON hive_members (hive_id, user_id) WHERE left_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_hive_members_user ON hive_members (user_id) WHERE left_at IS NULL;
+
+CREATE TABLE IF NOT EXISTS hive_requests (
+    id            UUID PRIMARY KEY,
+    hive_id       UUID NOT NULL REFERENCES hives(id) ON DELETE CASCADE,
+    inviter_id    UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    invitee_id    UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    status        VARCHAR(20) NOT NULL,
+    created_at    TIMESTAMP(6) NOT NULL,
+    responded_at  TIMESTAMP(6),
+    expires_at    TIMESTAMP(6) NOT NULL
+);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_hive_requests_pending ON hive_requests (hive_id, invitee_id) WHERE status = 'PENDING';
+CREATE INDEX IF NOT EXISTS idx_hive_requests_invitee ON hive_requests (invitee_id, status);
+
+ALTER TABLE tasks ADD CONSTRAINT fk_tasks_hive FOREIGN KEY (hive_id) REFERENCES hives(id) ON DELETE CASCADE;
@@ -0,0 +1,12 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Users can opt out of appearing in search; existing accounts stay findable
+ALTER TABLE user_profiles ADD COLUMN IF NOT EXISTS discoverable BOOLEAN NOT NULL DEFAULT TRUE;
+
+-- All searchable name fields in one lower-cased column, so a single trigram index serves fuzzy search
+ALTER TABLE user_profiles ADD COLUMN IF NOT EXISTS search_text TEXT GENERATED ALWAYS AS (
+    lower(coalesce(display_name, '') || ' ' || coalesce(first_name, '') || ' ' || coalesce(last_name, ''))
+) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_user_profiles_search_trgm
+    ON user_profiles USING GIN (search_text gin_trgm_ops) WHERE discoverable;
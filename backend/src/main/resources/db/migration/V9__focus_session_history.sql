@@ -0,0 +1,47 @@
+-- Completed focus sessions, one row per participant. Append-only and read by time range per user or
+-- hive, so it is range-partitioned by month (partitions are created ahead of time by
+-- MonthlyPartitionMaintainer; the default partition only catches stragglers).
+CREATE TABLE IF NOT EXISTS focus_sessions (
+    session_id         UUID NOT NULL,
+    user_id            UUID NOT NULL,
+    hive_id            UUID,
+    started_at         TIMESTAMP(6) NOT NULL,
+    ended_at           TIMESTAMP(6) NOT NULL,
+    focus_seconds      BIGINT NOT NULL,
+    distraction_count  INTEGER NOT NULL,
+    tasks_completed    INTEGER NOT NULL,
+    -- Completing the same session twice is a no-op
+    PRIMARY KEY (started_at, session_id, user_id)
+) PARTITION BY RANGE (started_at);
+
+CREATE TABLE IF NOT EXISTS focus_sessions_default PARTITION OF focus_sessions DEFAULT;
+
+-- Rows arrive roughly in started_at order, so a block-range index prunes time ranges at a tiny
+-- fraction of a B-tree's size
+CREATE INDEX IF NOT EXISTS idx_focus_sessions_started_brin
+    ON focus_sessions USING BRIN (started_at) WITH (pages_per_range = 32);
+-- Newest-first pages for one owner inside a single monthly partition
+CREATE INDEX IF NOT EXISTS idx_focus_sessions_user ON focus_sessions (user_id, started_at DESC);
+CREATE INDEX IF NOT EXISTS idx_focus_sessions_hive ON focus_sessions (hive_id, started_at DESC)
+    WHERE hive_id IS NOT NULL;
+
+-- Per-day totals maintained in the same statement as each session insert; charts never scan raw rows
+CREATE TABLE IF NOT EXISTS focus_daily_user_summaries (
+    user_id            UUID NOT NULL,
+    day                DATE NOT NULL,
+    sessions           INTEGER NOT NULL,
+    focus_seconds      BIGINT NOT NULL,
+    distraction_count  BIGINT NOT NULL,
+    tasks_completed    BIGINT NOT NULL,
+    PRIMARY KEY (user_id, day)
+);
+
+CREATE TABLE IF NOT EXISTS focus_daily_hive_summaries (
+    hive_id            UUID NOT NULL,
+    day                DATE NOT NULL,
+    sessions           INTEGER NOT NULL,
+    focus_seconds      BIGINT NOT NULL,
+    distraction_count  BIGINT NOT NULL,
+    tasks_completed    BIGINT NOT NULL,
+    PRIMARY KEY (hive_id, day)
+);
@@ -0,0 +1,187 @@
+package com.habitbeat.backend.common.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MulticastRingBufferTest {
+
+	private record Item(int producer, long sequence) {
+	}
+
+	@Test
+	void rejectsCapacitiesThatAreNotAPowerOfTwo() {
+		assertThatThrownBy(() -> new MulticastRingBuffer<>(6, 1)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new MulticastRingBuffer<>(1, 1)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void keepsPublishOrderAcrossManyLaps() {
+		MulticastRingBuffer<Integer> ring = new MulticastRingBuffer<>(4, 1);
+		List<Integer> seen = new ArrayList<>();
+		int next = 0;
+		// Three per lap against a ring of four, so slot indexes keep shifting as positions wrap
+		for (int lap = 0; lap < 50; lap++) {
+			for (int i = 0; i < 3; i++) {
+				assertThat(ring.offer(next++)).isTrue();
+			}
+			assertThat(ring.drain(0, seen::add, 2)).isEqualTo(2);
+			assertThat(ring.drain(0, seen::add, 16)).isEqualTo(1);
+		}
+
+		assertThat(seen).hasSize(next);
+		for (int i = 0; i < next; i++) {
+			assertThat(seen.get(i)).isEqualTo(i);
+		}
+	}
+
+	@Test
+	void refusesOffersWhileTheSlowestConsumerIsAFullRingBehind() {
+		MulticastRingBuffer<Integer> ring = new MulticastRingBuffer<>(4, 2);
+		for (int i = 0; i < 4; i++) {
+			assertThat(ring.offer(i)).isTrue();
+		}
+		assertThat(ring.offer(4)).isFalse();
+
+		List<Integer> fast = new ArrayList<>();
+		assertThat(ring.drain(0, fast::add, 16)).isEqualTo(4);
+		assertThat(ring.offer(4)).as("consumer 1 still holds every slot").isFalse();
+		assertThat(ring.lag(0)).isZero();
+		assertThat(ring.lag(1)).isEqualTo(4);
+
+		List<Integer> slow = new ArrayList<>();
+		assertThat(ring.drain(1, slow::add, 1)).isEqualTo(1);
+		assertThat(ring.offer(4)).isTrue();
+		assertThat(ring.offer(5)).isFalse();
+		assertThat(slow).containsExactly(0);
+	}
+
+	@Test
+	void releasesAnElementOnceEveryConsumerHasReadIt() throws InterruptedException {
+		MulticastRingBuffer<Object> ring = new MulticastRingBuffer<>(8, 2);
+		WeakReference<Object> element = offerFresh(ring);
+
+		ring.drain(0, read -> {
+		}, 1);
+		gc();
+		assertThat(element.get()).as("still unread by consumer 1").isNotNull();
+
+		ring.drain(1, read -> {
+		}, 1);
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (element.get() != null && System.nanoTime() < deadline) {
+			gc();
+		}
+		assertThat(element.get()).as("retained by a drained slot").isNull();
+	}
+
+	@Test
+	void elementsAcceptedBeforeASinkFailureStayConsumed() {
+		MulticastRingBuffer<Integer> ring = new MulticastRingBuffer<>(8, 1);
+		for (int i = 0; i < 4; i++) {
+			ring.offer(i);
+		}
+		List<Integer> seen = new ArrayList<>();
+		assertThatThrownBy(() -> ring.drain(0, value -> {
+			if (value == 2) {
+				throw new IllegalStateException("sink failed");
+			}
+			seen.add(value);
+		}, 16)).isInstanceOf(IllegalStateException.class);
+
+		assertThat(ring.lag(0)).isEqualTo(2);
+		ring.drain(0, seen::add, 16);
+		assertThat(seen).containsExactly(0, 1, 2, 3);
+	}
+
+	@Test
+	void everyConsumerSeesEveryElementInEachProducersOrder() throws Exception {
+		int producers = 4;
+		int consumers = 3;
+		int perProducer = 100_000;
+		MulticastRingBuffer<Item> ring = new MulticastRingBuffer<>(256, consumers);
+		ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> producing = new ArrayList<>();
+			for (int p = 0; p < producers; p++) {
+				int producer = p;
+				producing.add(executor.submit(() -> {
+					await(start);
+					for (long seq = 0; seq < perProducer; seq++) {
+						// Backpressure: spin until the slowest consumer frees a slot
+						while (!ring.offer(new Item(producer, seq))) {
+							Thread.onSpinWait();
+						}
+					}
+				}));
+			}
+			List<Future<long[]>> consuming = new ArrayList<>();
+			for (int c = 0; c < consumers; c++) {
+				int consumer = c;
+				consuming.add(executor.submit(() -> {
+					await(start);
+					long[] nextSequence = new long[producers];
+					long total = (long) producers * perProducer;
+					long received = 0;
+					while (received < total) {
+						int drained = ring.drain(consumer, item -> {
+							if (item.sequence() != nextSequence[item.producer()]) {
+								throw new AssertionError("Consumer " + consumer + " saw " + item
+										+ " but expected sequence " + nextSequence[item.producer()]);
+							}
+							nextSequence[item.producer()]++;
+						}, 64);
+						received += drained;
+						if (drained == 0) {
+							Thread.onSpinWait();
+						}
+					}
+					return nextSequence;
+				}));
+			}
+			start.countDown();
+			for (Future<?> producer : producing) {
+				producer.get(60, TimeUnit.SECONDS);
+			}
+			for (Future<long[]> consumer : consuming) {
+				assertThat(consumer.get(60, TimeUnit.SECONDS)).containsOnly(perProducer);
+			}
+			for (int c = 0; c < consumers; c++) {
+				assertThat(ring.lag(c)).isZero();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	// Kept out of the test method so no local variable holds the element
+	private static WeakReference<Object> offerFresh(MulticastRingBuffer<Object> ring) {
+		Object element = new Object();
+		assertThat(ring.offer(element)).isTrue();
+		return new WeakReference<>(element);
+	}
+
+	private static void gc() throws InterruptedException {
+		System.gc();
+		Thread.sleep(10);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,206 @@
+package com.habitbeat.backend.common.redis;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisGuardTest {
+	private final AtomicLong clock = new AtomicLong();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private RedisResilienceProperties properties;
+	private RedisGuard guard;
+
+	@BeforeEach
+	void setUp() {
+		properties = new RedisResilienceProperties();
+		properties.setSlidingWindowSize(10);
+		properties.setMinimumCalls(4);
+		properties.setFailureRatePercent(50);
+		properties.setSlowCallThreshold(Duration.ofMillis(100));
+		properties.setOpenDuration(Duration.ofSeconds(5));
+		properties.setHalfOpenTrialCalls(2);
+		guard = new RedisGuard(null, properties, meterRegistry, clock::get);
+	}
+
+	@Test
+	void staysClosedUntilTheMinimumNumberOfCalls() {
+		fail();
+		fail();
+		fail();
+
+		assertThat(guard.state()).isEqualTo(RedisGuard.State.CLOSED);
+		assertThat(guard.failureRate()).isEqualTo(1.0);
+	}
+
+	@Test
+	void opensOnceTheFailureRateIsReachedAndRejectsWithoutCallingRedis() {
+		succeed();
+		succeed();
+		fail();
+		assertThat(guard.state()).isEqualTo(RedisGuard.State.CLOSED);
+		fail();
+
+		assertThat(guard.state()).isEqualTo(RedisGuard.State.OPEN);
+		AtomicInteger redisCalls = new AtomicInteger();
+		assertThat(guard.call("get", () -> {
+			redisCalls.incrementAndGet();
+			return "redis";
+		}, () -> "local")).isEqualTo("local");
+		assertThat(redisCalls).hasValue(0);
+		assertThat(meterRegistry.get("redis.guard.state").gauge().value()).isEqualTo(1.0);
+	}
+
+	@Test
+	void slowCallsCountAsFailures() {
+		for (int i = 0; i < 4; i++) {
+			guard.call("get", () -> clock.addAndGet(Duration.ofMillis(150).toNanos()), () -> 0L);
+		}
+
+		assertThat(guard.state()).isEqualTo(RedisGuard.State.OPEN);
+		assertThat(guard.lastFailure()).contains("exceeded 100ms");
+	}
+
+	@Test
+	void oldOutcomesSlideOutOfTheWindow() {
+		fail();
+		fail();
+		fail();
+		for (int i = 0; i < 10; i++) {
+			succeed();
+		}
+		fail();
+
+		assertThat(guard.state()).isEqualTo(RedisGuard.State.CLOSED);
+		assertThat(guard.failureRate()).isEqualTo(0.1);
+	}
+
+	@Test
+	void goesHalfOpenAfterTheOpenDurationAndClosesAfterEnoughTrialSuccesses() {
+		trip();
+		clock.addAndGet(Duration.ofSeconds(4).toNanos());
+		assertThat(guard.call("get", () -> "redis", () -> "local")).isEqualTo("local");
+
+		clock.addAndGet(Duration.ofSeconds(1).toNanos());
+		succeed();
+		assertThat(guard.state()).isEqualTo(RedisGuard.State.HALF_OPEN);
+		succeed();
+
+		assertThat(guard.state()).isEqualTo(RedisGuard.State.CLOSED);
+		assertThat(guard.failureRate()).isZero();
+	}
+
+	@Test
+	void halfOpenAdmitsOnlyTheTrialCalls() throws Exception {
+		trip();
+		clock.addAndGet(Duration.ofSeconds(5).toNanos());
+		CountDownLatch entered = new CountDownLatch(2);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			List<Future<String>> trials = new ArrayList<>();
+			for (int i = 0; i < 2; i++) {
+				trials.add(executor.submit(() -> guard.call("get", () -> {
+					entered.countDown();
+					await(release);
+					return "redis";
+				}, () -> "local")));
+			}
+			assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+			// Both permits are held by the blocked trials, so a third call is turned away
+			assertThat(guard.call("get", () -> "redis", () -> "local")).isEqualTo("local");
+			release.countDown();
+			for (Future<String> trial : trials) {
+				assertThat(trial.get(5, TimeUnit.SECONDS)).isEqualTo("redis");
+			}
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+		assertThat(guard.state()).isEqualTo(RedisGuard.State.CLOSED);
+	}
+
+	@Test
+	void aFailedTrialReopensTheCircuit() {
+		trip();
+		clock.addAndGet(Duration.ofSeconds(5).toNanos());
+		succeed();
+		fail();
+
+		assertThat(guard.state()).isEqualTo(RedisGuard.State.OPEN);
+		clock.addAndGet(Duration.ofSeconds(4).toNanos());
+		assertThat(guard.call("get", () -> "redis", () -> "local")).isEqualTo("local");
+	}
+
+	@Test
+	void concurrentSuccessesKeepItClosedAndConcurrentFailuresOpenItOnce() throws Exception {
+		properties.setSlidingWindowSize(1000);
+		properties.setMinimumCalls(100);
+		guard = new RedisGuard(null, properties, meterRegistry, clock::get);
+		runConcurrently(8, 10_000, this::succeed);
+		assertThat(guard.state()).isEqualTo(RedisGuard.State.CLOSED);
+		assertThat(guard.failureRate()).isZero();
+
+		runConcurrently(8, 1_000, this::fail);
+		assertThat(guard.state()).isEqualTo(RedisGuard.State.OPEN);
+	}
+
+	private void trip() {
+		for (int i = 0; i < 4; i++) {
+			fail();
+		}
+		assertThat(guard.state()).isEqualTo(RedisGuard.State.OPEN);
+	}
+
+	private void succeed() {
+		guard.call("get", () -> "redis", () -> "local");
+	}
+
+	private void fail() {
+		guard.call("get", () -> {
+			throw new IllegalStateException("connection refused");
+		}, () -> "local");
+	}
+
+	private static void runConcurrently(int threads, int callsPerThread, Runnable call) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> workers = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				workers.add(executor.submit(() -> {
+					await(start);
+					for (int i = 0; i < callsPerThread; i++) {
+						call.run();
+					}
+				}));
+			}
+			start.countDown();
+			for (Future<?> worker : workers) {
+				worker.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
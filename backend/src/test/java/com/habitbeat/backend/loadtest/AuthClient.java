@@ -0,0 +1,89 @@
+package com.habitbeat.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Thin blocking client for the /auth endpoints. Each call carries an X-Forwarded-For address so
+ * per-IP rate limits see the simulated client population rather than the loopback interface.
+ */
+final class AuthClient {
+	private static final Pattern REFRESH_COOKIE = Pattern.compile("refreshToken=([^;]*)");
+
+	private final HttpClient http = HttpClient.newBuilder()
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final String baseUrl;
+
+	AuthClient(String baseUrl) {
+		this.baseUrl = baseUrl;
+	}
+
+	record Result(int status, String accessToken, String refreshToken) {
+	}
+
+	Result signup(String email, String password, String clientIp) throws IOException, InterruptedException {
+		return send(post("/auth/signup", Map.of("email", email, "password", password), clientIp));
+	}
+
+	Result verify(String token, String clientIp) throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/verify?token=" + token))
+				.header("X-Forwarded-For", clientIp)
+				.GET()
+				.build();
+		return send(request);
+	}
+
+	Result login(String email, String password, String clientIp) throws IOException, InterruptedException {
+		return send(post("/auth/login", Map.of("email", email, "password", password), clientIp));
+	}
+
+	Result forgotPassword(String email, String clientIp) throws IOException, InterruptedException {
+		return send(post("/auth/password/forgot", Map.of("email", email), clientIp));
+	}
+
+	Result refresh(String refreshToken, String clientIp) throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/refresh"))
+				.header("X-Forwarded-For", clientIp)
+				.header("Cookie", "refreshToken=" + refreshToken)
+				.POST(HttpRequest.BodyPublishers.noBody())
+				.build();
+		return send(request);
+	}
+
+	private HttpRequest post(String path, Map<String, String> body, String clientIp) throws IOException {
+		return HttpRequest.newBuilder(URI.create(baseUrl + path))
+				.header("Content-Type", "application/json")
+				.header("X-Forwarded-For", clientIp)
+				.POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+				.build();
+	}
+
+	private Result send(HttpRequest request) throws IOException, InterruptedException {
+		HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+		String accessToken = null;
+		if (response.statusCode() == 200 && response.body() != null && !response.body().isEmpty()) {
+			JsonNode token = objectMapper.readTree(response.body()).get("accessToken");
+			accessToken = token == null ? null : token.asText();
+		}
+		String refreshToken = response.headers().allValues("Set-Cookie").stream()
+				.map(REFRESH_COOKIE::matcher)
+				.filter(Matcher::find)
+				.map(m -> m.group(1))
+				.filter(value -> !value.isEmpty())
+				.findFirst()
+				.orElse(null);
+		return new Result(response.statusCode(), accessToken, refreshToken);
+	}
+}
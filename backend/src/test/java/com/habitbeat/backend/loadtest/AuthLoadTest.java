@@ -0,0 +1,139 @@
+package com.habitbeat.backend.loadtest;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput and latency of the /auth endpoints against embedded Postgres, Redis and SMTP.
+ * <p>
+ * Run with {@code ./mvnw -Ploadtest test}; tune with {@code -Dloadtest.accounts},
+ * {@code -Dloadtest.concurrency} and {@code -Dloadtest.durationSeconds}. The report is written to
+ * {@code target/loadtest/auth-report.json}.
+ */
+@Tag("load")
+@ExtendWith(QueryBudgetExtension.class)
+@SpringBootTest(
+		webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {
+				"server.forward-headers-strategy=native",
+				"db.query-budget.enabled=true",
+				"spring.jpa.show-sql=false",
+				"spring.jpa.properties.hibernate.format_sql=false"
+		})
+class AuthLoadTest {
+	private static final String PASSWORD = "load-test-password";
+
+	private static final int ACCOUNTS = Integer.getInteger("loadtest.accounts", 40);
+	private static final int SESSIONS_PER_ACCOUNT = Integer.getInteger("loadtest.sessionsPerAccount", 3);
+	private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 16);
+	private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("loadtest.durationSeconds", 20));
+
+	@LocalServerPort
+	private int port;
+
+	@DynamicPropertySource
+	static void standIns(DynamicPropertyRegistry registry) {
+		LocalStandIns.get().register(registry);
+	}
+
+	@Test
+	void authEndpointsUnderLoad() throws Exception {
+		LoadReport report = new LoadReport(Map.of(
+				"accounts", ACCOUNTS,
+				"sessionsPerAccount", SESSIONS_PER_ACCOUNT,
+				"concurrency", CONCURRENCY,
+				"durationSeconds", DURATION.toSeconds()));
+		AuthClient client = new AuthClient("http://localhost:" + port);
+		String runId = Long.toString(System.currentTimeMillis(), 36);
+
+		List<String> refreshTokens = onboard(report.scenario("signup-verify-login"), client, runId);
+		refreshStorm(report.scenario("refresh-storm"), client, refreshTokens);
+		credentialStuffing(report.scenario("credential-stuffing"), client, runId);
+
+		report.write(Path.of("target", "loadtest", "auth-report.json"));
+
+		assertThat(refreshTokens).hasSizeGreaterThanOrEqualTo(ACCOUNTS);
+		assertThat(report.scenario("refresh-storm").requests()).isPositive();
+		assertThat(report.scenario("credential-stuffing").requests()).isPositive();
+	}
+
+	/**
+	 * Signup, follow the emailed link, then log in several times per account so the refresh storm
+	 * runs against many active sessions.
+	 */
+	private List<String> onboard(LoadReport.Scenario scenario, AuthClient client, String runId) throws Exception {
+		List<String> refreshTokens = new CopyOnWriteArrayList<>();
+		LoadDriver.runTimes(scenario, CONCURRENCY, ACCOUNTS, (worker, i) -> {
+			String email = "lt-" + runId + "-" + i + "@loadtest.habitbeat.dev";
+			String ip = clientIp(i);
+			scenario.record("signup", () -> client.signup(email, PASSWORD, ip));
+
+			String token = LocalStandIns.get().awaitVerificationToken(email, Duration.ofSeconds(10))
+					.orElseThrow(() -> new AssertionError("No verification email for " + email));
+			AuthClient.Result verified = scenario.record("verify", () -> client.verify(token, ip));
+			if (verified != null && verified.refreshToken() != null) {
+				refreshTokens.add(verified.refreshToken());
+			}
+
+			for (int s = 1; s < SESSIONS_PER_ACCOUNT; s++) {
+				String loginIp = clientIp(i * SESSIONS_PER_ACCOUNT + s);
+				AuthClient.Result login = scenario.record("login", () -> client.login(email, PASSWORD, loginIp));
+				if (login != null && login.refreshToken() != null) {
+					refreshTokens.add(login.refreshToken());
+				}
+			}
+		});
+		return refreshTokens;
+	}
+
+	/**
+	 * Every worker hammers /auth/refresh with a random live session, adopting the rotated cookie
+	 * when the server hands one back, as a browser would.
+	 */
+	private void refreshStorm(LoadReport.Scenario scenario, AuthClient client, List<String> refreshTokens)
+			throws Exception {
+		AtomicReferenceArray<String> tokens = new AtomicReferenceArray<>(refreshTokens.toArray(String[]::new));
+		LoadDriver.runFor(scenario, CONCURRENCY, DURATION, (worker, i) -> {
+			int slot = ThreadLocalRandom.current().nextInt(tokens.length());
+			String current = tokens.get(slot);
+			AuthClient.Result result = scenario.record("refresh", () -> client.refresh(current, clientIp(slot)));
+			if (result != null && result.refreshToken() != null) {
+				tokens.compareAndSet(slot, current, result.refreshToken());
+			}
+		});
+	}
+
+	/**
+	 * Bursts of logins from a small pool of addresses, mixing known accounts with wrong passwords
+	 * and addresses that were never registered.
+	 */
+	private void credentialStuffing(LoadReport.Scenario scenario, AuthClient client, String runId) throws Exception {
+		LoadDriver.runFor(scenario, CONCURRENCY, DURATION, (worker, i) -> {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			String email = random.nextBoolean()
+					? "lt-" + runId + "-" + random.nextInt(ACCOUNTS) + "@loadtest.habitbeat.dev"
+					: "stuffed-" + random.nextLong(Long.MAX_VALUE) + "@breach.example";
+			String ip = "203.0.113." + random.nextInt(16);
+			scenario.record("login", () -> client.login(email, "wrong-" + random.nextInt(), ip));
+		});
+	}
+
+	private static String clientIp(long n) {
+		return "10." + ((n >> 16) & 0xff) + "." + ((n >> 8) & 0xff) + "." + (n & 0xff);
+	}
+}
@@ -0,0 +1,63 @@
+package com.habitbeat.backend.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * One pass through the /auth flows against the local stand-ins with the SQL statement budget on.
+ * Unlike the load tests this runs in the default build, so a token or session lookup that turns
+ * back into a scan, or an N+1 on the user, fails {@code mvn test}.
+ */
+@ExtendWith(QueryBudgetExtension.class)
+@SpringBootTest(
+		webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {
+				"server.forward-headers-strategy=native",
+				"db.query-budget.enabled=true",
+				"spring.jpa.show-sql=false",
+				"spring.jpa.properties.hibernate.format_sql=false"
+		})
+class AuthQueryBudgetTest {
+	private static final String PASSWORD = "budget-test-password";
+	private static final String IP = "203.0.113.7";
+
+	@LocalServerPort
+	private int port;
+
+	@DynamicPropertySource
+	static void standIns(DynamicPropertyRegistry registry) {
+		LocalStandIns.get().register(registry);
+	}
+
+	@Test
+	void authFlowsStayWithinTheStatementBudget() throws Exception {
+		AuthClient client = new AuthClient("http://localhost:" + port);
+		String email = "budget-" + Long.toString(System.nanoTime(), 36) + "@loadtest.habitbeat.dev";
+
+		assertThat(client.signup(email, PASSWORD, IP).status()).isBetween(200, 299);
+		String token = LocalStandIns.get().awaitVerificationToken(email, Duration.ofSeconds(10))
+				.orElseThrow(() -> new AssertionError("No verification email for " + email));
+
+		assertThat(client.verify("not-a-real-token", IP).status()).isBetween(400, 499);
+		AuthClient.Result verified = client.verify(token, IP);
+		assertThat(verified.status()).isEqualTo(200);
+		assertThat(verified.refreshToken()).isNotNull();
+
+		AuthClient.Result login = client.login(email, PASSWORD, IP);
+		assertThat(login.status()).isEqualTo(200);
+
+		AuthClient.Result refreshed = client.refresh(login.refreshToken(), IP);
+		assertThat(refreshed.status()).isEqualTo(200);
+		assertThat(refreshed.accessToken()).isNotNull();
+
+		assertThat(client.forgotPassword(email, IP).status()).isBetween(200, 299);
+	}
+}
@@ -0,0 +1,246 @@
+package com.habitbeat.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.habitbeat.backend.chat.dto.ChatSearchHit;
+import com.habitbeat.backend.chat.dto.ChatSearchResponse;
+import com.habitbeat.backend.chat.service.ChatSearchIndexer;
+import com.habitbeat.backend.chat.service.ChatService;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Loads synthetic hive chat into embedded Postgres (20 hives of 200k messages each by default,
+ * bodies drawn deterministically from a small word pool so common terms match tens of thousands
+ * of messages per hive) and times ranked, highlighted search pages through {@link ChatService}:
+ * first pages and second pages for single words, word pairs, phrases and exclusions, and a rare
+ * phrase. It also times the write-behind indexer over a backlog of unindexed messages and checks
+ * hive isolation, snippet escaping and the membership check. Queries come from a fixed seed so
+ * runs are comparable.
+ * <p>
+ * Run with {@code ./mvnw -Ploadtest test -Dtest=ChatSearchBenchmarkTest}; tune with
+ * {@code -Dloadtest.chat.hives}, {@code -Dloadtest.chat.messages-per-hive} and
+ * {@code -Dloadtest.chat.seed}. The report is written to {@code target/loadtest/chat-search-report.json}.
+ */
+@Tag("load")
+@SpringBootTest(
+		webEnvironment = SpringBootTest.WebEnvironment.NONE,
+		properties = {
+				"spring.jpa.show-sql=false",
+				"spring.jpa.properties.hibernate.format_sql=false"
+		})
+class ChatSearchBenchmarkTest {
+	private static final int HIVES = Integer.getInteger("loadtest.chat.hives", 20);
+	private static final int MESSAGES_PER_HIVE = Integer.getInteger("loadtest.chat.messages-per-hive", 200_000);
+	private static final long SEED = Long.getLong("loadtest.chat.seed", 42L);
+	private static final int UNINDEXED_MESSAGES = 100_000;
+	private static final long CHUNK_MESSAGES = 500_000;
+	private static final int WARMUP = 100;
+	private static final int ITERATIONS = 1_000;
+	private static final long TARGET_P99_MICROS = 20_000;
+	// One in this many messages mentions the Tuesday slot
+	private static final int RARE_EVERY = 997;
+
+	private static final String[] WORDS = {"focus", "session", "break", "coffee", "deadline", "meeting", "tomorrow",
+			"morning", "evening", "report", "draft", "review", "finish", "start", "pomodoro", "timer", "goal",
+			"week", "plan", "agree", "schedule", "later", "today", "quick", "long", "done", "almost", "notes",
+			"slides", "exam", "study", "chapter", "project", "launch", "email", "inbox", "call", "lunch", "walk",
+			"music", "quiet", "library", "office", "home", "train", "distracted", "phone", "muted", "streak",
+			"habit", "progress", "stuck", "help", "idea", "sketch", "code", "bug", "fixed", "ship", "weekend"};
+
+	private static final String USERS_SQL = "INSERT INTO users (id, email, email_verified_at, profile_setup_done, " +
+			"created_at, updated_at) " +
+			"SELECT ('00000000-0000-4000-b000-' || lpad(to_hex(g), 12, '0'))::uuid, " +
+			"'chat-' || g || '@loadtest.habitbeat.dev', now(), TRUE, now(), now() " +
+			"FROM generate_series(1, ?::bigint) g ON CONFLICT DO NOTHING";
+
+	private static final String HIVES_SQL = "INSERT INTO hives (id, name, created_by, member_count, created_at) " +
+			"SELECT ('00000000-0000-4000-c000-' || lpad(to_hex(h), 12, '0'))::uuid, 'Chat hive ' || h, " +
+			"('00000000-0000-4000-b000-' || lpad(to_hex(2 * h - 1), 12, '0'))::uuid, 2, now() " +
+			"FROM generate_series(1, ?::bigint) h ON CONFLICT DO NOTHING";
+
+	// Users 2h-1 and 2h share hive h
+	private static final String MEMBERS_SQL = "INSERT INTO hive_members (id, hive_id, user_id, slot, joined_at) " +
+			"SELECT md5('chat-member' || h || '-' || s)::uuid, " +
+			"('00000000-0000-4000-c000-' || lpad(to_hex(h), 12, '0'))::uuid, " +
+			"('00000000-0000-4000-b000-' || lpad(to_hex(2 * h - 2 + s), 12, '0'))::uuid, s, now() " +
+			"FROM generate_series(1, ?::bigint) h, generate_series(1, 2) s ON CONFLICT DO NOTHING";
+
+	// Hives interleave in time, as they would in production; the vector is what the indexer would write
+	private static final String MESSAGES_SQL = "INSERT INTO hive_messages (id, hive_id, sender_id, body, created_at, search_vector) " +
+			"SELECT id, hive_id, sender_id, body, created_at, " +
+			"CASE WHEN ?::boolean THEN to_tsvector('english', body) END " +
+			"FROM (SELECT md5('chat-message' || g)::uuid AS id, " +
+			"('00000000-0000-4000-c000-' || lpad(to_hex(1 + g % ?::bigint), 12, '0'))::uuid AS hive_id, " +
+			"('00000000-0000-4000-b000-' || lpad(to_hex(1 + 2 * (g % ?::bigint) + g % 2), 12, '0'))::uuid AS sender_id, " +
+			"w[(1 + g * 7919 % n)::int] || ' ' || w[(1 + g * 104729 % n)::int] || ' ' || w[(1 + g * 1299709 % n)::int] || ' ' || " +
+			"w[(1 + g * 15485863 % n)::int] || ' ' || w[(1 + g / 7 % n)::int] || ' ' || w[(1 + g / 13 % n)::int] || " +
+			"CASE WHEN g % ? = 0 THEN ' so we agree on the tuesday slot' ELSE '' END AS body, " +
+			"now() - interval '90 days' + g * interval '1 millisecond' AS created_at " +
+			"FROM generate_series(?::bigint, ?::bigint) g, " +
+			"(SELECT ?::text[] AS w, cardinality(?::text[]) AS n) words) m " +
+			"ON CONFLICT DO NOTHING";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ChatService chatService;
+
+	@Autowired
+	private ChatSearchIndexer chatSearchIndexer;
+
+	@DynamicPropertySource
+	static void standIns(DynamicPropertyRegistry registry) {
+		LocalStandIns.get().register(registry);
+	}
+
+	@Test
+	void rankedPagesStayUnderTwentyMillisecondsInLargeHives() throws Exception {
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("hives", HIVES);
+		report.put("messagesPerHive", MESSAGES_PER_HIVE);
+		report.put("seed", SEED);
+		report.put("loadSeconds", load());
+		report.put("indexerMessagesPerSecond", drainIndexer());
+
+		Random random = new Random(SEED);
+		Map<String, Object> latencies = new LinkedHashMap<>();
+		Map<String, Object> firstPage = time(random, null);
+		latencies.put("firstPage", firstPage);
+		Map<String, Object> secondPage = time(random, "20");
+		latencies.put("secondPage", secondPage);
+		latencies.put("rarePhrase", time(random, () -> "\"tuesday slot\"", null));
+		report.put("latencyMicros", latencies);
+
+		// Matches come from the searched hive only
+		ChatSearchResponse rare = chatService.search(userId(1), hiveId(1), "\"tuesday slot\"", 50, null);
+		assertThat(rare.getResults()).isNotEmpty();
+		List<UUID> hits = rare.getResults().stream().map(ChatSearchHit::getMessageId).toList();
+		for (UUID hit : hits) {
+			assertThat(jdbcTemplate.queryForObject("SELECT hive_id FROM hive_messages WHERE id = ?", UUID.class, hit))
+					.isEqualTo(hiveId(1));
+		}
+
+		// Markup in a body is escaped, so <mark> is the only markup in a snippet
+		chatService.send(userId(2), hiveId(1), "<b>quokkabench</b> & friends");
+		chatSearchIndexer.indexPending();
+		ChatSearchHit escaped = chatService.search(userId(1), hiveId(1), "quokkabench", 5, null).getResults().get(0);
+		assertThat(escaped.getSnippet()).contains("&lt;b&gt;", "&amp;", "<mark>").doesNotContain("<b>");
+
+		// A member of another hive is turned away
+		assertThatThrownBy(() -> chatService.search(userId(3), hiveId(1), "focus", 5, null))
+				.isInstanceOf(RuntimeException.class);
+
+		Path path = Path.of("target", "loadtest", "chat-search-report.json");
+		Files.createDirectories(path.getParent());
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+
+		assertThat((Long) firstPage.get("p99")).as("p99 of a first search page, in microseconds")
+				.isLessThan(TARGET_P99_MICROS);
+		assertThat((Long) secondPage.get("p99")).as("p99 of a second search page, in microseconds")
+				.isLessThan(TARGET_P99_MICROS);
+	}
+
+	private double load() {
+		long began = System.nanoTime();
+		jdbcTemplate.update(USERS_SQL, 2L * HIVES);
+		jdbcTemplate.update(HIVES_SQL, (long) HIVES);
+		jdbcTemplate.update(MEMBERS_SQL, (long) HIVES);
+		long indexed = (long) HIVES * MESSAGES_PER_HIVE;
+		for (long from = 1; from <= indexed; from += CHUNK_MESSAGES) {
+			insertMessages(true, from, Math.min(indexed, from + CHUNK_MESSAGES - 1));
+		}
+		jdbcTemplate.execute("ANALYZE hive_messages");
+		return (System.nanoTime() - began) / 1_000_000_000.0;
+	}
+
+	/**
+	 * Adds a backlog of unindexed messages on top of the seeded history and times the indexer through it.
+	 */
+	private long drainIndexer() {
+		long first = (long) HIVES * MESSAGES_PER_HIVE + 1;
+		insertMessages(false, first, first + UNINDEXED_MESSAGES - 1);
+		long began = System.nanoTime();
+		Long pending;
+		do {
+			chatSearchIndexer.indexPending();
+			pending = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hive_messages WHERE search_vector IS NULL",
+					Long.class);
+		} while (pending != null && pending > 0);
+		long nanos = Math.max(1, System.nanoTime() - began);
+		return UNINDEXED_MESSAGES * TimeUnit.SECONDS.toNanos(1) / nanos;
+	}
+
+	private void insertMessages(boolean indexed, long from, long to) {
+		jdbcTemplate.update(MESSAGES_SQL, indexed, (long) HIVES, (long) HIVES, RARE_EVERY, from, to, WORDS, WORDS);
+	}
+
+	@FunctionalInterface
+	private interface QuerySource {
+		String next();
+	}
+
+	private Map<String, Object> time(Random random, String cursor) {
+		return time(random, () -> query(random), cursor);
+	}
+
+	private Map<String, Object> time(Random random, QuerySource queries, String cursor) {
+		Histogram histogram = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+		for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+			int hive = 1 + random.nextInt(HIVES);
+			String q = queries.next();
+			long began = System.nanoTime();
+			chatService.search(userId(2L * hive), hiveId(hive), q, 20, cursor);
+			if (i >= WARMUP) {
+				histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - began),
+						histogram.getHighestTrackableValue()));
+			}
+		}
+		Map<String, Object> json = new LinkedHashMap<>();
+		json.put("p50", histogram.getValueAtPercentile(50));
+		json.put("p99", histogram.getValueAtPercentile(99));
+		json.put("max", histogram.getMaxValue());
+		return json;
+	}
+
+	/**
+	 * A common word, a word pair, a quoted phrase or a word with another excluded, in equal shares.
+	 */
+	private static String query(Random random) {
+		String first = WORDS[random.nextInt(WORDS.length)];
+		String second = WORDS[random.nextInt(WORDS.length)];
+		return switch (random.nextInt(4)) {
+			case 0 -> first;
+			case 1 -> first + " " + second;
+			case 2 -> "\"" + first + " " + second + "\"";
+			default -> first + " -" + second;
+		};
+	}
+
+	private static UUID userId(long index) {
+		return UUID.fromString("00000000-0000-4000-b000-%012x".formatted(index));
+	}
+
+	private static UUID hiveId(long index) {
+		return UUID.fromString("00000000-0000-4000-c000-%012x".formatted(index));
+	}
+}
@@ -0,0 +1,314 @@
+package com.habitbeat.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.habitbeat.backend.digest.model.PartnerActivity;
+import com.habitbeat.backend.digest.repository.DigestRepository;
+import com.habitbeat.backend.digest.service.WeeklyDigestJob;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Loads synthetic users into embedded Postgres (1M by default, each paired with a hive partner and
+ * given daily focus rollups for the digest week and the week before) and runs the weekly digest job
+ * end to end against a mail sender that counts messages instead of delivering them. The send cap is
+ * lifted, so the run measures everything but SMTP: paging, the bulk stats queries, rendering and
+ * chunking. Set {@code -Dloadtest.digest.smtp-chunk-millis} to add a simulated round trip per chunk.
+ * <p>
+ * It also checks that every eligible user gets exactly one digest, that a run resumed from a
+ * checkpoint sends only to users after it, and that a partner shared across two hives is counted once.
+ * <p>
+ * Run with {@code ./mvnw -Ploadtest test -Dtest=DigestJobBenchmarkTest}; tune with
+ * {@code -Dloadtest.digest.users}. The report is written to {@code target/loadtest/digest-report.json}.
+ */
+@Tag("load")
+@SpringBootTest(
+		webEnvironment = SpringBootTest.WebEnvironment.NONE,
+		properties = {
+				"digest.enabled=false",
+				"digest.max-sends-per-second=1000000",
+				"spring.jpa.show-sql=false",
+				"spring.jpa.properties.hibernate.format_sql=false"
+		})
+class DigestJobBenchmarkTest {
+	private static final int USERS = Integer.getInteger("loadtest.digest.users", 1_000_000);
+	private static final long SMTP_CHUNK_MILLIS = Long.getLong("loadtest.digest.smtp-chunk-millis", 0L);
+	private static final long CHUNK_USERS = 100_000;
+	private static final int DEFAULT_SENDS_PER_SECOND = 100;
+	private static final Duration RUN_TIMEOUT = Duration.ofHours(1);
+
+	// Every 49th user is unverified
+	private static final String USERS_SQL = "INSERT INTO users (id, email, email_verified_at, profile_setup_done, " +
+			"created_at, updated_at) " +
+			"SELECT ('00000000-0000-4000-e000-' || lpad(to_hex(g), 12, '0'))::uuid, " +
+			"'digest-' || g || '@loadtest.habitbeat.dev', CASE WHEN g % 49 <> 0 THEN now() END, TRUE, now(), now() " +
+			"FROM generate_series(?::bigint, ?::bigint) g ON CONFLICT DO NOTHING";
+
+	// Every 10th user has a profile, and every 100th has opted out
+	private static final String PROFILES_SQL = "INSERT INTO user_profiles (user_id, first_name, weekly_digest, updated_at) " +
+			"SELECT ('00000000-0000-4000-e000-' || lpad(to_hex(g), 12, '0'))::uuid, 'Digest' || g, g % 100 <> 0, now() " +
+			"FROM generate_series(?::bigint, ?::bigint) g WHERE g % 10 = 0 ON CONFLICT DO NOTHING";
+
+	// Users 2h-1 and 2h share hive h
+	private static final String HIVES_SQL = "INSERT INTO hives (id, name, created_by, member_count, created_at) " +
+			"SELECT ('00000000-0000-4000-e003-' || lpad(to_hex(h), 12, '0'))::uuid, 'Digest hive ' || h, " +
+			"('00000000-0000-4000-e000-' || lpad(to_hex(2 * h - 1), 12, '0'))::uuid, 2, now() " +
+			"FROM generate_series(?::bigint, ?::bigint) h ON CONFLICT DO NOTHING";
+
+	private static final String MEMBERS_SQL = "INSERT INTO hive_members (id, hive_id, user_id, slot, joined_at) " +
+			"SELECT md5('digest-member' || h || '-' || s)::uuid, " +
+			"('00000000-0000-4000-e003-' || lpad(to_hex(h), 12, '0'))::uuid, " +
+			"('00000000-0000-4000-e000-' || lpad(to_hex(2 * h - 2 + s), 12, '0'))::uuid, s, now() " +
+			"FROM generate_series(?::bigint, ?::bigint) h, generate_series(1, 2) s ON CONFLICT DO NOTHING";
+
+	// Three days in the digest week and one in the week before
+	private static final String SUMMARIES_SQL = "INSERT INTO focus_daily_user_summaries " +
+			"SELECT ('00000000-0000-4000-e000-' || lpad(to_hex(g), 12, '0'))::uuid, ?::date + d::int, " +
+			"1 + g % 3, 1200 + g % 600, g % 4, g % 3 " +
+			"FROM generate_series(?::bigint, ?::bigint) g, " +
+			"unnest(ARRAY[g % 7, (g + 3) % 7, (g + 5) % 7, g % 7 - 7]) d ON CONFLICT DO NOTHING";
+
+	private static final String RECIPIENTS_SQL = "SELECT COUNT(*) FROM users u LEFT JOIN user_profiles p ON p.user_id = u.id " +
+			"WHERE u.email_verified_at IS NOT NULL AND COALESCE(p.weekly_digest, TRUE) AND u.id > ?";
+
+	private static final String STALLED_RUN_SQL = "INSERT INTO digest_runs (week_start, status, last_user_id, sent, " +
+			"lease_owner, lease_expires_at, started_at, updated_at) VALUES (?, 'RUNNING', ?, 0, 'dead-node', ?, ?, ?)";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private WeeklyDigestJob weeklyDigestJob;
+
+	@Autowired
+	private DigestRepository digestRepository;
+
+	@Autowired
+	private CountingMailSender mailSender;
+
+	@DynamicPropertySource
+	static void standIns(DynamicPropertyRegistry registry) {
+		LocalStandIns.get().register(registry);
+	}
+
+	@TestConfiguration
+	static class CountingMail {
+		@Bean
+		CountingMailSender javaMailSender() {
+			return new CountingMailSender();
+		}
+	}
+
+	/**
+	 * Builds real MimeMessages but only records who they were addressed to.
+	 */
+	static class CountingMailSender extends JavaMailSenderImpl {
+		private final Set<String> recipients = ConcurrentHashMap.newKeySet();
+		private final AtomicLong delivered = new AtomicLong();
+
+		@Override
+		protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+			if (SMTP_CHUNK_MILLIS > 0) {
+				LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(SMTP_CHUNK_MILLIS));
+			}
+			for (MimeMessage message : mimeMessages) {
+				try {
+					recipients.add(message.getAllRecipients()[0].toString());
+				} catch (MessagingException e) {
+					throw new MailPreparationException(e);
+				}
+				delivered.incrementAndGet();
+			}
+		}
+
+		void reset() {
+			recipients.clear();
+			delivered.set(0);
+		}
+	}
+
+	@Test
+	void sendsEveryDigestOnceAndOutpacesTheSendCap() throws Exception {
+		LocalDate weekStart = WeeklyDigestJob.lastCompletedWeek();
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("users", USERS);
+		report.put("smtpChunkMillis", SMTP_CHUNK_MILLIS);
+		report.put("loadSeconds", load(weekStart));
+		jdbcTemplate.update("DELETE FROM digest_runs WHERE week_start IN (?, ?)", Date.valueOf(weekStart),
+				Date.valueOf(weekStart.minusWeeks(1)));
+
+		// A partner shared across two hives is counted once
+		UUID partner = sharePartnerAcrossTwoHives(weekStart);
+		assertThat(digestRepository.findPartnerActivity(List.of(fixtureId(1)), weekStart).get(fixtureId(1)))
+				.containsExactly(new PartnerActivity("Bench partner", 75));
+		assertThat(digestRepository.findPartnerActivity(List.of(partner), weekStart).get(partner))
+				.extracting(PartnerActivity::name)
+				.containsExactly("Bench owner");
+
+		long expected = recipientsAfter(new UUID(0, 0));
+		mailSender.reset();
+		long began = System.nanoTime();
+		startWhenIdle(weekStart);
+		awaitCompleted(weekStart);
+		double seconds = (System.nanoTime() - began) / 1_000_000_000.0;
+		assertThat(mailSender.delivered).hasValue(expected);
+		assertThat(mailSender.recipients).hasSize((int) expected)
+				.contains(email(1))
+				.doesNotContain(email(49), email(100));
+		assertThat(jdbcTemplate.queryForObject("SELECT sent FROM digest_runs WHERE week_start = ?", Long.class,
+				Date.valueOf(weekStart))).isEqualTo(expected);
+
+		double usersPerSecond = expected / seconds;
+		report.put("recipients", expected);
+		report.put("runSeconds", seconds);
+		report.put("usersPerSecond", usersPerSecond);
+		report.put("hoursFor1MWithoutCap", 1_000_000 / usersPerSecond / 3600);
+		report.put("hoursFor1MAtDefaultCap", 1_000_000.0 / DEFAULT_SENDS_PER_SECOND / 3600);
+
+		// A run stalled on another node resumes after its checkpoint and sends to nobody before it
+		LocalDate stalledWeek = weekStart.minusWeeks(1);
+		UUID checkpoint = userId(USERS / 2);
+		LocalDateTime now = LocalDateTime.now();
+		jdbcTemplate.update(STALLED_RUN_SQL, Date.valueOf(stalledWeek), checkpoint, Timestamp.valueOf(now.minusMinutes(1)),
+				Timestamp.valueOf(now.minusHours(1)), Timestamp.valueOf(now.minusMinutes(6)));
+		long remaining = recipientsAfter(checkpoint);
+		mailSender.reset();
+		startWhenIdle(stalledWeek);
+		awaitCompleted(stalledWeek);
+		assertThat(mailSender.delivered).hasValue(remaining);
+		assertThat(mailSender.recipients).doesNotContain(email(1), email(USERS / 2 - 1))
+				.contains(email(USERS / 2 + 1));
+		report.put("resumedRecipients", remaining);
+
+		Path path = Path.of("target", "loadtest", "digest-report.json");
+		Files.createDirectories(path.getParent());
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+
+		if (SMTP_CHUNK_MILLIS == 0) {
+			assertThat(usersPerSecond).as("digests per second with SMTP stubbed out")
+					.isGreaterThan(2.0 * DEFAULT_SENDS_PER_SECOND);
+		}
+	}
+
+	private double load(LocalDate weekStart) {
+		long began = System.nanoTime();
+		for (long from = 1; from <= USERS; from += CHUNK_USERS) {
+			long to = Math.min(USERS, from + CHUNK_USERS - 1);
+			jdbcTemplate.update(USERS_SQL, from, to);
+			jdbcTemplate.update(PROFILES_SQL, from, to);
+			jdbcTemplate.update(SUMMARIES_SQL, Date.valueOf(weekStart), from, to);
+		}
+		for (long from = 1; from <= USERS / 2; from += CHUNK_USERS) {
+			long to = Math.min(USERS / 2, from + CHUNK_USERS - 1);
+			jdbcTemplate.update(HIVES_SQL, from, to);
+			jdbcTemplate.update(MEMBERS_SQL, from, to);
+		}
+		jdbcTemplate.execute("ANALYZE users");
+		jdbcTemplate.execute("ANALYZE user_profiles");
+		jdbcTemplate.execute("ANALYZE hive_members");
+		jdbcTemplate.execute("ANALYZE focus_daily_user_summaries");
+		return (System.nanoTime() - began) / 1_000_000_000.0;
+	}
+
+	/**
+	 * Two users in two hives together; the partner focuses 3 x 1500 seconds in the digest week.
+	 *
+	 * @return the partner's id
+	 */
+	private UUID sharePartnerAcrossTwoHives(LocalDate weekStart) {
+		UUID owner = fixtureId(1);
+		UUID partner = fixtureId(2);
+		for (UUID user : List.of(owner, partner)) {
+			jdbcTemplate.update("INSERT INTO users (id, email, email_verified_at, profile_setup_done, created_at, updated_at) " +
+					"VALUES (?, ?, now(), TRUE, now(), now()) ON CONFLICT DO NOTHING", user, "digest-" + user + "@loadtest.habitbeat.dev");
+		}
+		jdbcTemplate.update("INSERT INTO user_profiles (user_id, display_name, updated_at) VALUES (?, 'Bench owner', now()) " +
+				"ON CONFLICT DO NOTHING", owner);
+		jdbcTemplate.update("INSERT INTO user_profiles (user_id, display_name, updated_at) VALUES (?, 'Bench partner', now()) " +
+				"ON CONFLICT DO NOTHING", partner);
+		for (int hive = 1; hive <= 2; hive++) {
+			UUID hiveId = UUID.fromString("00000000-0000-4000-e002-%012x".formatted(hive));
+			jdbcTemplate.update("INSERT INTO hives (id, name, created_by, member_count, created_at) " +
+					"VALUES (?, 'Shared twice', ?, 2, now()) ON CONFLICT DO NOTHING", hiveId, owner);
+			jdbcTemplate.update("INSERT INTO hive_members (id, hive_id, user_id, slot, joined_at) " +
+					"VALUES (md5(?)::uuid, ?, ?, 1, now()), (md5(?)::uuid, ?, ?, 2, now()) ON CONFLICT DO NOTHING",
+					"digest-fixture-" + hive + "-1", hiveId, owner, "digest-fixture-" + hive + "-2", hiveId, partner);
+		}
+		for (int day = 0; day < 3; day++) {
+			jdbcTemplate.update("INSERT INTO focus_daily_user_summaries VALUES (?, ?, 1, 1500, 0, 0) ON CONFLICT DO NOTHING",
+					partner, Date.valueOf(weekStart.plusDays(day)));
+		}
+		return partner;
+	}
+
+	private long recipientsAfter(UUID after) {
+		Long count = jdbcTemplate.queryForObject(RECIPIENTS_SQL, Long.class, after);
+		return count == null ? 0 : count;
+	}
+
+	// The previous run clears its running flag just after marking itself complete
+	private void startWhenIdle(LocalDate weekStart) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!weeklyDigestJob.start(weekStart)) {
+			if (System.nanoTime() > deadline) {
+				throw new AssertionError("Digest job did not become idle");
+			}
+			Thread.sleep(10);
+		}
+	}
+
+	private void awaitCompleted(LocalDate weekStart) throws InterruptedException {
+		long deadline = System.nanoTime() + RUN_TIMEOUT.toNanos();
+		while (System.nanoTime() < deadline) {
+			List<String> status = jdbcTemplate.queryForList("SELECT status FROM digest_runs WHERE week_start = ?",
+					String.class, Date.valueOf(weekStart));
+			if (status.contains("COMPLETED")) {
+				return;
+			}
+			Thread.sleep(100);
+		}
+		throw new AssertionError("Digest run for week of " + weekStart + " did not complete");
+	}
+
+	private static UUID userId(long index) {
+		return UUID.fromString("00000000-0000-4000-e000-%012x".formatted(index));
+	}
+
+	private static UUID fixtureId(long index) {
+		return UUID.fromString("00000000-0000-4000-e001-%012x".formatted(index));
+	}
+
+	private static String email(long index) {
+		return "digest-" + index + "@loadtest.habitbeat.dev";
+	}
+}
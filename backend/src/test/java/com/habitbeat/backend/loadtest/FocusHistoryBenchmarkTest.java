@@ -0,0 +1,205 @@
+package com.habitbeat.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.habitbeat.backend.focus.repository.FocusHistoryRepository;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.MatchResult;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Loads synthetic focus-session history into embedded Postgres (100M rows over the last twelve
+ * months by default, generated server-side in started_at order) and times the history read paths:
+ * a 90-day chart from the daily summaries, a newest-first page of raw sessions, the equivalent
+ * chart computed from raw rows, and a BRIN-pruned time-range scan. It also checks that a session
+ * page is planned against a single monthly partition and records index sizes.
+ * <p>
+ * Run with {@code ./mvnw -Ploadtest test -Dtest=FocusHistoryBenchmarkTest}; tune with
+ * {@code -Dloadtest.history.rows} and {@code -Dloadtest.history.users}. The full-size load needs
+ * roughly 25 GB of disk. The report is written to {@code target/loadtest/focus-history-report.json}.
+ */
+@Tag("load")
+@SpringBootTest(
+		webEnvironment = SpringBootTest.WebEnvironment.NONE,
+		properties = {
+				"spring.jpa.show-sql=false",
+				"spring.jpa.properties.hibernate.format_sql=false"
+		})
+class FocusHistoryBenchmarkTest {
+	private static final long ROWS = Long.getLong("loadtest.history.rows", 100_000_000L);
+	private static final int USERS = Integer.getInteger("loadtest.history.users", 200_000);
+	private static final int MONTHS = 12;
+	private static final long CHUNK_ROWS = 5_000_000;
+	private static final int WARMUP = 50;
+	private static final int ITERATIONS = 500;
+	private static final Pattern PARTITION = Pattern.compile("focus_sessions_\\d{4}_\\d{2}");
+
+	private static final String GENERATE_SQL = "INSERT INTO focus_sessions (session_id, user_id, hive_id, started_at, " +
+			"ended_at, focus_seconds, distraction_count, tasks_completed) " +
+			"SELECT md5('s' || g)::uuid, " +
+			"('00000000-0000-4000-8000-' || lpad(to_hex(g * 7919 % ?::bigint), 12, '0'))::uuid, " +
+			"CASE WHEN g % 2 = 0 THEN ('00000000-0000-4000-9000-' || lpad(to_hex(g * 7919 % ?::bigint / 2), 12, '0'))::uuid END, " +
+			"?::timestamp + g * ?::bigint * interval '1 microsecond', " +
+			"?::timestamp + g * ?::bigint * interval '1 microsecond' + interval '25 minutes', " +
+			"1500 - g % 300, g % 5, g % 3 " +
+			"FROM generate_series(?::bigint, ?::bigint) g";
+
+	private static final String SUMMARIZE_USERS_SQL = "INSERT INTO focus_daily_user_summaries " +
+			"SELECT user_id, started_at::date, COUNT(*), SUM(focus_seconds), SUM(distraction_count), SUM(tasks_completed) " +
+			"FROM focus_sessions WHERE started_at >= ? AND started_at < ? GROUP BY 1, 2";
+
+	private static final String SUMMARIZE_HIVES_SQL = "INSERT INTO focus_daily_hive_summaries " +
+			"SELECT hive_id, started_at::date, COUNT(*), SUM(focus_seconds), SUM(distraction_count), SUM(tasks_completed) " +
+			"FROM focus_sessions WHERE hive_id IS NOT NULL AND started_at >= ? AND started_at < ? GROUP BY 1, 2";
+
+	private static final String RAW_CHART_SQL = "SELECT started_at::date, COUNT(*), SUM(focus_seconds) FROM focus_sessions " +
+			"WHERE user_id = ? AND started_at >= ? GROUP BY 1 ORDER BY 1";
+
+	private static final String RANGE_SCAN_SQL = "SELECT COUNT(*) FROM focus_sessions WHERE started_at >= ? AND started_at < ?";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private FocusHistoryRepository focusHistoryRepository;
+
+	@DynamicPropertySource
+	static void standIns(DynamicPropertyRegistry registry) {
+		LocalStandIns.get().register(registry);
+	}
+
+	@Test
+	void historyReadsStayOnSummariesAndOnePartition() throws Exception {
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("rows", ROWS);
+		report.put("users", USERS);
+
+		LocalDateTime end = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+		LocalDateTime start = YearMonth.from(end).minusMonths(MONTHS - 1).atDay(1).atStartOfDay();
+		report.put("loadSeconds", load(start, end));
+		report.put("sizes", sizes());
+
+		LocalDate today = end.toLocalDate();
+		LocalDateTime monthStart = YearMonth.from(end).atDay(1).atStartOfDay();
+		UUID min = new UUID(0, 0);
+		Map<String, Object> latencies = new LinkedHashMap<>();
+		latencies.put("chart90FromSummaries", time(user -> focusHistoryRepository.findDays(user, false, today.minusDays(90), today)));
+		latencies.put("sessionPage", time(user -> focusHistoryRepository.findPage(user, false, monthStart, end, min, min, 21)));
+		latencies.put("chart90FromRawRows", time(user -> jdbcTemplate.queryForList(RAW_CHART_SQL, user,
+				Timestamp.valueOf(end.minusDays(90)))));
+		latencies.put("oneHourRangeScan", time(user -> {
+			LocalDateTime from = start.plusHours(ThreadLocalRandom.current().nextLong(MONTHS * 28L * 24));
+			return jdbcTemplate.queryForObject(RANGE_SCAN_SQL, Long.class, Timestamp.valueOf(from),
+					Timestamp.valueOf(from.plusHours(1)));
+		}));
+		report.put("latencyMicros", latencies);
+
+		// The page query must be pruned to the current month's partition, even with bind parameters
+		List<String> plan = jdbcTemplate.queryForList("EXPLAIN (ANALYZE, COSTS OFF) SELECT session_id FROM focus_sessions " +
+				"WHERE user_id = ? AND started_at >= ? AND started_at <= ? AND (started_at, session_id, user_id) < (?, ?, ?) " +
+				"ORDER BY started_at DESC LIMIT 21", String.class,
+				userId(1), Timestamp.valueOf(monthStart), Timestamp.valueOf(end), Timestamp.valueOf(end), min, min);
+		long partitions = plan.stream()
+				.flatMap(line -> PARTITION.matcher(line).results().map(MatchResult::group))
+				.distinct()
+				.count();
+		report.put("sessionPagePlan", plan);
+		assertThat(partitions).as("partitions scanned by a session page").isEqualTo(1);
+
+		Path path = Path.of("target", "loadtest", "focus-history-report.json");
+		Files.createDirectories(path.getParent());
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+	}
+
+	private double load(LocalDateTime start, LocalDateTime end) {
+		long began = System.nanoTime();
+		jdbcTemplate.execute("TRUNCATE focus_sessions, focus_session_completions, focus_daily_user_summaries, focus_daily_hive_summaries");
+		for (int m = 0; m <= MONTHS + 1; m++) {
+			YearMonth month = YearMonth.from(start).plusMonths(m);
+			jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS focus_sessions_%d_%02d PARTITION OF focus_sessions FOR VALUES FROM ('%s') TO ('%s')"
+					.formatted(month.getYear(), month.getMonthValue(), month.atDay(1), month.plusMonths(1).atDay(1)));
+		}
+
+		long stepMicros = Math.max(1, ChronoUnit.MICROS.between(start, end) / ROWS);
+		Timestamp origin = Timestamp.valueOf(start);
+		for (long from = 0; from < ROWS; from += CHUNK_ROWS) {
+			long to = Math.min(ROWS, from + CHUNK_ROWS) - 1;
+			jdbcTemplate.update(GENERATE_SQL, USERS, USERS, origin, stepMicros, origin, stepMicros, from, to);
+		}
+		for (int m = 0; m < MONTHS; m++) {
+			YearMonth month = YearMonth.from(start).plusMonths(m);
+			Timestamp lower = Timestamp.valueOf(month.atDay(1).atStartOfDay());
+			Timestamp upper = Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay());
+			jdbcTemplate.update(SUMMARIZE_USERS_SQL, lower, upper);
+			jdbcTemplate.update(SUMMARIZE_HIVES_SQL, lower, upper);
+		}
+		jdbcTemplate.execute("ANALYZE focus_sessions");
+		jdbcTemplate.execute("ANALYZE focus_daily_user_summaries");
+		jdbcTemplate.execute("ANALYZE focus_daily_hive_summaries");
+		return (System.nanoTime() - began) / 1_000_000_000.0;
+	}
+
+	private Map<String, Object> sizes() {
+		Map<String, Object> sizes = new LinkedHashMap<>();
+		jdbcTemplate.query("SELECT i.indexrelid::regclass::text AS name, pg_relation_size(i.indexrelid) AS bytes " +
+				"FROM pg_index i JOIN pg_inherits h ON h.inhrelid = i.indrelid " +
+				"WHERE h.inhparent = 'focus_sessions'::regclass", rs -> {
+			String name = rs.getString("name").replaceFirst("^focus_sessions_\\d{4}_\\d{2}_", "*_");
+			sizes.merge(name, rs.getLong("bytes"), (a, b) -> (Long) a + (Long) b);
+		});
+		sizes.put("table", jdbcTemplate.queryForObject("SELECT SUM(pg_relation_size(inhrelid)) FROM pg_inherits " +
+				"WHERE inhparent = 'focus_sessions'::regclass", Long.class));
+		sizes.put("userSummaries", jdbcTemplate.queryForObject("SELECT pg_total_relation_size('focus_daily_user_summaries')", Long.class));
+		return sizes;
+	}
+
+	@FunctionalInterface
+	private interface Query {
+		Object run(UUID userId) throws Exception;
+	}
+
+	private Map<String, Object> time(Query query) throws Exception {
+		Histogram histogram = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+		for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+			UUID user = userId(ThreadLocalRandom.current().nextInt(USERS));
+			long began = System.nanoTime();
+			query.run(user);
+			if (i >= WARMUP) {
+				histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - began),
+						histogram.getHighestTrackableValue()));
+			}
+		}
+		Map<String, Object> json = new LinkedHashMap<>();
+		json.put("p50", histogram.getValueAtPercentile(50));
+		json.put("p99", histogram.getValueAtPercentile(99));
+		json.put("max", histogram.getMaxValue());
+		return json;
+	}
+
+	private static UUID userId(long index) {
+		return UUID.fromString("00000000-0000-4000-8000-%012x".formatted(index));
+	}
+}
@@ -0,0 +1,254 @@
+package com.habitbeat.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.habitbeat.backend.auth.model.User;
+import com.habitbeat.backend.auth.repository.UserRepository;
+import com.habitbeat.backend.hive.dto.HiveInvitationResponse;
+import com.habitbeat.backend.hive.dto.HiveResponse;
+import com.habitbeat.backend.hive.model.HiveRequestStatus;
+import com.habitbeat.backend.hive.service.HiveService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Parallel hive invitation accepts against embedded Postgres. Many invitees race for the single
+ * free seat of each hive; afterwards every hive must have exactly two active members. A second
+ * phase measures accept throughput into distinct hives at rising concurrency, which should scale
+ * because accepts only ever lock their own hive row. A third phase lets invitations expire and
+ * re-invites the same people concurrently; each must get one fresh invitation it can accept.
+ * <p>
+ * Run with {@code ./mvnw -Ploadtest test}; tune with {@code -Dloadtest.hive.hives} and
+ * {@code -Dloadtest.hive.invitees}. The report is written to
+ * {@code target/loadtest/hive-accept-report.json}.
+ */
+@Tag("load")
+@SpringBootTest(
+		webEnvironment = SpringBootTest.WebEnvironment.NONE,
+		properties = {
+				"spring.jpa.show-sql=false",
+				"spring.jpa.properties.hibernate.format_sql=false"
+		})
+class HiveAcceptStressTest {
+	private static final int HIVES = Integer.getInteger("loadtest.hive.hives", 50);
+	private static final int INVITEES_PER_HIVE = Integer.getInteger("loadtest.hive.invitees", 8);
+	private static final int SCALING_ACCEPTS = Integer.getInteger("loadtest.hive.scalingAccepts", 400);
+	private static final int[] CONCURRENCY_LEVELS = {1, 2, 4, 8, 16};
+	private static final int REINVITES_PER_HIVE = 4;
+
+	@Autowired
+	private HiveService hiveService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final String runId = Long.toString(System.nanoTime(), 36);
+	private final AtomicInteger userSequence = new AtomicInteger();
+
+	@DynamicPropertySource
+	static void standIns(DynamicPropertyRegistry registry) {
+		LocalStandIns.get().register(registry);
+	}
+
+	@Test
+	void parallelAcceptsNeverOverfillAHiveAndScaleAcrossHives() throws Exception {
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("contended", contendedAccepts());
+		report.put("scaling", acceptScaling());
+		report.put("reinviteAfterExpiry", reinviteAfterExpiry());
+
+		Path path = Path.of("target", "loadtest", "hive-accept-report.json");
+		Files.createDirectories(path.getParent());
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+	}
+
+	private Map<String, Object> contendedAccepts() throws Exception {
+		Map<UUID, UUID> ownerByHive = new LinkedHashMap<>();
+		List<Accept> accepts = new ArrayList<>();
+		for (int h = 0; h < HIVES; h++) {
+			User owner = newUser();
+			HiveResponse hive = hiveService.createHive(owner.getId(), "stress-" + h);
+			ownerByHive.put(hive.getId(), owner.getId());
+			for (int i = 0; i < INVITEES_PER_HIVE; i++) {
+				User invitee = newUser();
+				HiveInvitationResponse invitation = hiveService.invite(owner.getId(), hive.getId(), invitee.getEmail());
+				accepts.add(new Accept(hive.getId(), invitee.getId(), invitation.getId()));
+			}
+		}
+		Collections.shuffle(accepts);
+
+		Map<UUID, LongAdder> winners = new ConcurrentHashMap<>();
+		Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+		int concurrency = Math.max(INVITEES_PER_HIVE, 16);
+		LoadReport.Scenario timing = new LoadReport(Map.of()).scenario("contended");
+		long started = System.nanoTime();
+		LoadDriver.runTimes(timing, concurrency, accepts.size(), (worker, iteration) -> {
+			Accept accept = accepts.get((int) iteration);
+			try {
+				hiveService.accept(accept.userId(), accept.requestId());
+				winners.computeIfAbsent(accept.hiveId(), id -> new LongAdder()).increment();
+				outcomes.computeIfAbsent("accepted", k -> new LongAdder()).increment();
+			} catch (RuntimeException e) {
+				outcomes.computeIfAbsent(String.valueOf(e.getMessage()), k -> new LongAdder()).increment();
+			}
+		});
+		double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+		// Losers fail only because the seat is gone; a deadlock or lock timeout would show up here
+		assertThat(outcomes.keySet()).as("accept outcomes")
+				.isSubsetOf("accepted", "Hive is full", "Hive request is no longer pending");
+
+		Accept retried = null;
+		for (Map.Entry<UUID, UUID> entry : ownerByHive.entrySet()) {
+			UUID hiveId = entry.getKey();
+			HiveResponse hive = hiveService.getHive(entry.getValue(), hiveId);
+			assertThat(hive.getMemberCount()).as("member count of hive %s", hiveId).isEqualTo(2);
+			assertThat(hive.getMembers()).as("active members of hive %s", hiveId).hasSize(2);
+			assertThat(winners.get(hiveId).sum()).as("successful accepts into hive %s", hiveId).isEqualTo(1);
+			if (retried == null) {
+				retried = accepts.stream()
+						.filter(a -> a.hiveId().equals(hiveId))
+						.filter(a -> hive.getMembers().stream().anyMatch(m -> m.getUserId().equals(a.userId())))
+						.findFirst().orElseThrow();
+			}
+		}
+
+		// Retrying a winning accept is idempotent and still reports two members
+		assertThat(hiveService.accept(retried.userId(), retried.requestId()).getMemberCount()).isEqualTo(2);
+
+		Map<String, Object> json = new LinkedHashMap<>();
+		json.put("hives", HIVES);
+		json.put("inviteesPerHive", INVITEES_PER_HIVE);
+		json.put("concurrency", concurrency);
+		json.put("acceptsPerSecond", accepts.size() / seconds);
+		Map<String, Long> outcomeCounts = new LinkedHashMap<>();
+		outcomes.forEach((outcome, count) -> outcomeCounts.put(outcome, count.sum()));
+		json.put("outcomes", outcomeCounts);
+		return json;
+	}
+
+	private Map<String, Object> acceptScaling() throws Exception {
+		Map<String, Object> json = new LinkedHashMap<>();
+		double baseline = 0;
+		double best = 0;
+		for (int concurrency : CONCURRENCY_LEVELS) {
+			List<Accept> accepts = new ArrayList<>();
+			for (int i = 0; i < SCALING_ACCEPTS; i++) {
+				User owner = newUser();
+				User invitee = newUser();
+				HiveResponse hive = hiveService.createHive(owner.getId(), "scale-" + i);
+				HiveInvitationResponse invitation = hiveService.invite(owner.getId(), hive.getId(), invitee.getEmail());
+				accepts.add(new Accept(hive.getId(), invitee.getId(), invitation.getId()));
+			}
+
+			LoadReport.Scenario timing = new LoadReport(Map.of()).scenario("scaling");
+			long started = System.nanoTime();
+			LoadDriver.runTimes(timing, concurrency, accepts.size(), (worker, iteration) -> {
+				Accept accept = accepts.get((int) iteration);
+				hiveService.accept(accept.userId(), accept.requestId());
+			});
+			double throughput = accepts.size() / ((System.nanoTime() - started) / 1_000_000_000.0);
+			json.put("concurrency-" + concurrency, throughput);
+			if (concurrency == 1) {
+				baseline = throughput;
+			}
+			best = Math.max(best, throughput);
+		}
+		json.put("speedup", best / baseline);
+
+		// Accepts into different hives share no locks, so extra workers must add throughput when
+		// there are cores to run them on; a global lock would pin the speedup near 1
+		if (Runtime.getRuntime().availableProcessors() >= 4) {
+			assertThat(best / baseline).as("accept throughput speedup").isGreaterThan(1.5);
+		}
+		return json;
+	}
+
+	private Map<String, Object> reinviteAfterExpiry() throws Exception {
+		List<Accept> expired = new ArrayList<>();
+		Map<UUID, UUID> ownerByHive = new LinkedHashMap<>();
+		Map<UUID, String> emailByHive = new LinkedHashMap<>();
+		for (int h = 0; h < HIVES; h++) {
+			User owner = newUser();
+			User invitee = newUser();
+			HiveResponse hive = hiveService.createHive(owner.getId(), "reinvite-" + h);
+			HiveInvitationResponse invitation = hiveService.invite(owner.getId(), hive.getId(), invitee.getEmail());
+			expired.add(new Accept(hive.getId(), invitee.getId(), invitation.getId()));
+			ownerByHive.put(hive.getId(), owner.getId());
+			emailByHive.put(hive.getId(), invitee.getEmail());
+		}
+		// Past the TTL but still PENDING, as every invitation nobody answered ends up
+		for (Accept accept : expired) {
+			jdbcTemplate.update("UPDATE hive_requests SET created_at = created_at - interval '8 days', " +
+					"expires_at = now() - interval '1 minute' WHERE id = ?", accept.requestId());
+		}
+
+		// Several concurrent re-invites per hive, which must converge on one new invitation each
+		List<UUID> hiveOrder = new ArrayList<>();
+		for (UUID hiveId : ownerByHive.keySet()) {
+			for (int i = 0; i < REINVITES_PER_HIVE; i++) {
+				hiveOrder.add(hiveId);
+			}
+		}
+		Collections.shuffle(hiveOrder);
+		Map<UUID, Set<UUID>> reissued = new ConcurrentHashMap<>();
+		LoadReport.Scenario timing = new LoadReport(Map.of()).scenario("reinvite");
+		LoadDriver.runTimes(timing, 16, hiveOrder.size(), (worker, iteration) -> {
+			UUID hiveId = hiveOrder.get((int) iteration);
+			HiveInvitationResponse invitation = hiveService.invite(ownerByHive.get(hiveId), hiveId, emailByHive.get(hiveId));
+			reissued.computeIfAbsent(hiveId, id -> ConcurrentHashMap.newKeySet()).add(invitation.getId());
+			assertThat(invitation.getStatus()).isEqualTo(HiveRequestStatus.PENDING);
+			assertThat(invitation.getExpiresAt()).isAfter(LocalDateTime.now());
+		});
+
+		for (Accept old : expired) {
+			assertThat(reissued.get(old.hiveId())).as("invitations returned for hive %s", old.hiveId())
+					.hasSize(1)
+					.doesNotContain(old.requestId());
+			assertThat(jdbcTemplate.queryForObject("SELECT status FROM hive_requests WHERE id = ?", String.class,
+					old.requestId())).isEqualTo(HiveRequestStatus.EXPIRED.name());
+			UUID fresh = reissued.get(old.hiveId()).iterator().next();
+			assertThat(hiveService.accept(old.userId(), fresh).getMemberCount()).isEqualTo(2);
+		}
+
+		Map<String, Object> json = new LinkedHashMap<>();
+		json.put("hives", HIVES);
+		json.put("reinvitesPerHive", REINVITES_PER_HIVE);
+		return json;
+	}
+
+	private User newUser() {
+		User user = new User();
+		user.setEmail("hive-" + runId + "-" + userSequence.incrementAndGet() + "@loadtest.local");
+		user.setEmailVerifiedAt(LocalDateTime.now());
+		user.setProfileSetupDone(true);
+		return userRepository.save(user);
+	}
+
+	private record Accept(UUID hiveId, UUID userId, UUID requestId) {
+	}
+}
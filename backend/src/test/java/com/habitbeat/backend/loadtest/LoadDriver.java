@@ -0,0 +1,62 @@
+package com.habitbeat.backend.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a closed-loop workload: a fixed number of workers each issue requests back to back until
+ * the deadline, so measured throughput is the server's ceiling at that concurrency.
+ */
+final class LoadDriver {
+
+	@FunctionalInterface
+	interface Iteration {
+		void run(int worker, long iteration) throws Exception;
+	}
+
+	private LoadDriver() {
+	}
+
+	static void runFor(LoadReport.Scenario scenario, int concurrency, Duration duration, Iteration iteration)
+			throws Exception {
+		long deadline = System.nanoTime() + duration.toNanos();
+		runUntil(scenario, concurrency, iteration, (worker, count) -> System.nanoTime() < deadline);
+	}
+
+	static void runTimes(LoadReport.Scenario scenario, int concurrency, int iterations, Iteration iteration)
+			throws Exception {
+		runUntil(scenario, concurrency, iteration, (worker, count) -> count * concurrency + worker < iterations);
+	}
+
+	private interface Condition {
+		boolean proceed(int worker, long iteration);
+	}
+
+	private static void runUntil(LoadReport.Scenario scenario, int concurrency, Iteration iteration,
+			Condition condition) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+		List<Future<?>> futures = new ArrayList<>();
+		scenario.start();
+		try {
+			for (int w = 0; w < concurrency; w++) {
+				int worker = w;
+				futures.add(executor.submit(() -> {
+					for (long i = 0; condition.proceed(worker, i); i++) {
+						iteration.run(worker, i * concurrency + worker);
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} finally {
+			scenario.stop();
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package com.habitbeat.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects per-scenario latency histograms and status counts, and writes them as a JSON report
+ * that CI can diff between commits.
+ */
+final class LoadReport {
+	private static final long MAX_TRACKED_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+	private final Map<String, Object> settings;
+	private final Map<String, Scenario> scenarios = new LinkedHashMap<>();
+	private final Instant startedAt = Instant.now();
+
+	LoadReport(Map<String, Object> settings) {
+		this.settings = settings;
+	}
+
+	synchronized Scenario scenario(String name) {
+		return scenarios.computeIfAbsent(name, n -> new Scenario());
+	}
+
+	@FunctionalInterface
+	interface TimedCall {
+		AuthClient.Result call() throws Exception;
+	}
+
+	static final class Scenario {
+		private final Histogram latency = new ConcurrentHistogram(MAX_TRACKED_MICROS, 3);
+		private final Map<String, Histogram> operations = new ConcurrentHashMap<>();
+		private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+		private volatile long startNanos;
+		private volatile long endNanos;
+
+		void start() {
+			startNanos = System.nanoTime();
+		}
+
+		void stop() {
+			endNanos = System.nanoTime();
+		}
+
+		/**
+		 * Times one request. Transport failures are recorded under status -1 and yield null.
+		 */
+		AuthClient.Result record(String operation, TimedCall call) throws InterruptedException {
+			long begin = System.nanoTime();
+			AuthClient.Result result;
+			int status;
+			try {
+				result = call.call();
+				status = result.status();
+			} catch (InterruptedException e) {
+				throw e;
+			} catch (Exception e) {
+				result = null;
+				status = -1;
+			}
+			long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin), MAX_TRACKED_MICROS);
+			latency.recordValue(micros);
+			operations.computeIfAbsent(operation, op -> new ConcurrentHistogram(MAX_TRACKED_MICROS, 3))
+					.recordValue(micros);
+			statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+			return result;
+		}
+
+		long requests() {
+			return latency.getTotalCount();
+		}
+
+		long p99Micros() {
+			return latency.getValueAtPercentile(99);
+		}
+
+		long statusCount(int status) {
+			LongAdder count = statuses.get(status);
+			return count == null ? 0 : count.sum();
+		}
+
+		private Map<String, Object> toJson() {
+			double seconds = Math.max(endNanos - startNanos, 1) / 1_000_000_000.0;
+			Map<String, Object> json = new LinkedHashMap<>();
+			json.put("requests", latency.getTotalCount());
+			json.put("durationSeconds", seconds);
+			json.put("throughputPerSecond", latency.getTotalCount() / seconds);
+			Map<String, Long> statusCounts = new LinkedHashMap<>();
+			statuses.entrySet().stream()
+					.sorted(Map.Entry.comparingByKey())
+					.forEach(e -> statusCounts.put(String.valueOf(e.getKey()), e.getValue().sum()));
+			json.put("statusCounts", statusCounts);
+			json.put("latencyMicros", percentiles(latency));
+			Map<String, Object> perOperation = new LinkedHashMap<>();
+			operations.forEach((op, histogram) -> perOperation.put(op, percentiles(histogram)));
+			json.put("operations", perOperation);
+			return json;
+		}
+
+		private static Map<String, Object> percentiles(Histogram histogram) {
+			Map<String, Object> json = new LinkedHashMap<>();
+			json.put("count", histogram.getTotalCount());
+			json.put("mean", histogram.getMean());
+			json.put("p50", histogram.getValueAtPercentile(50));
+			json.put("p99", histogram.getValueAtPercentile(99));
+			json.put("p999", histogram.getValueAtPercentile(99.9));
+			json.put("max", histogram.getMaxValue());
+			return json;
+		}
+	}
+
+	synchronized void write(Path path) throws IOException {
+		Map<String, Object> json = new LinkedHashMap<>();
+		json.put("commit", System.getProperty("loadtest.commit", System.getenv().getOrDefault("GIT_COMMIT", "unknown")));
+		json.put("startedAt", startedAt.toString());
+		json.put("settings", settings);
+		Map<String, Object> scenarioJson = new LinkedHashMap<>();
+		scenarios.forEach((name, scenario) -> scenarioJson.put(name, scenario.toJson()));
+		json.put("scenarios", scenarioJson);
+
+		Files.createDirectories(path.getParent());
+		new ObjectMapper()
+				.enable(SerializationFeature.INDENT_OUTPUT)
+				.writeValue(path.toFile(), json);
+	}
+}
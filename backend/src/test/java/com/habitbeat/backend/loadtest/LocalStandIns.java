@@ -0,0 +1,118 @@
+package com.habitbeat.backend.loadtest;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetup;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.mail.Message;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Process-local replacements for the docker-compose services: an embedded Postgres binary, an
+ * embedded Redis server and an in-memory SMTP server. Started once per JVM and shared by every
+ * load test so runs are reproducible on any machine without containers.
+ */
+final class LocalStandIns {
+	private static final Pattern VERIFY_TOKEN = Pattern.compile("token=([A-Za-z0-9_-]+)");
+
+	private static LocalStandIns instance;
+
+	private final EmbeddedPostgres postgres;
+	private final RedisServer redis;
+	private final int redisPort;
+	private final GreenMail smtp;
+
+	private LocalStandIns() throws IOException {
+		postgres = EmbeddedPostgres.builder().start();
+		redisPort = freePort();
+		redis = new RedisServer(redisPort);
+		redis.start();
+		smtp = new GreenMail(new ServerSetup(freePort(), "127.0.0.1", ServerSetup.PROTOCOL_SMTP));
+		smtp.start();
+	}
+
+	static synchronized LocalStandIns get() {
+		if (instance == null) {
+			try {
+				instance = new LocalStandIns();
+			} catch (IOException e) {
+				throw new UncheckedIOException("Failed to start local stand-ins", e);
+			}
+			Runtime.getRuntime().addShutdownHook(new Thread(instance::stop));
+		}
+		return instance;
+	}
+
+	void register(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+		registry.add("spring.datasource.username", () -> "postgres");
+		registry.add("spring.datasource.password", () -> "postgres");
+		registry.add("spring.data.redis.host", () -> "127.0.0.1");
+		registry.add("spring.data.redis.port", () -> redisPort);
+		registry.add("spring.mail.host", () -> "127.0.0.1");
+		registry.add("spring.mail.port", () -> smtp.getSmtp().getPort());
+		registry.add("spring.mail.username", () -> "");
+		registry.add("spring.mail.password", () -> "");
+		registry.add("spring.mail.properties.mail.smtp.auth", () -> "false");
+		registry.add("spring.mail.properties.mail.smtp.starttls.enable", () -> "false");
+	}
+
+	RedisServer redis() {
+		return redis;
+	}
+
+	/**
+	 * Polls the in-memory mailbox for the verification link sent to the given address.
+	 */
+	Optional<String> awaitVerificationToken(String email, Duration timeout) throws InterruptedException {
+		long deadline = System.nanoTime() + timeout.toNanos();
+		while (System.nanoTime() < deadline) {
+			for (MimeMessage message : smtp.getReceivedMessagesForDomain(email.substring(email.indexOf('@') + 1))) {
+				try {
+					if (!email.equalsIgnoreCase(message.getRecipients(Message.RecipientType.TO)[0].toString())) {
+						continue;
+					}
+				} catch (jakarta.mail.MessagingException e) {
+					continue;
+				}
+				Matcher matcher = VERIFY_TOKEN.matcher(GreenMailUtil.getBody(message));
+				if (matcher.find()) {
+					return Optional.of(matcher.group(1));
+				}
+			}
+			Thread.sleep(20);
+		}
+		return Optional.empty();
+	}
+
+	private void stop() {
+		smtp.stop();
+		try {
+			redis.stop();
+		} catch (IOException ignored) {
+			// JVM is exiting
+		}
+		try {
+			postgres.close();
+		} catch (IOException ignored) {
+			// JVM is exiting
+		}
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			socket.setReuseAddress(true);
+			return socket.getLocalPort();
+		}
+	}
+}
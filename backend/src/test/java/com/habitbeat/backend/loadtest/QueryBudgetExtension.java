@@ -0,0 +1,25 @@
+package com.habitbeat.backend.loadtest;
+
+import com.habitbeat.backend.common.db.QueryBudgetViolations;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fails a test if any request it made went over the per-request SQL statement budget. Needs
+ * {@code db.query-budget.enabled=true} on the test's application context.
+ */
+final class QueryBudgetExtension implements AfterEachCallback {
+
+	@Override
+	public void afterEach(ExtensionContext context) {
+		List<String> violations = SpringExtension.getApplicationContext(context)
+				.getBean(QueryBudgetViolations.class)
+				.drain();
+		assertThat(violations).as("requests over the SQL statement budget").isEmpty();
+	}
+}
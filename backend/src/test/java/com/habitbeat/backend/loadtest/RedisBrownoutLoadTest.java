@@ -0,0 +1,115 @@
+package com.habitbeat.backend.loadtest;
+
+import com.habitbeat.backend.common.redis.RedisGuard;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import redis.embedded.RedisServer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Login and forgot-password traffic while the embedded Redis is stopped and started again. With
+ * Redis gone the circuit must open, the endpoints must keep answering from the local fallbacks with
+ * a p99 close to the healthy one, and the circuit must close again on its own once Redis is back.
+ * <p>
+ * Run with {@code ./mvnw -Ploadtest test}; tune with {@code -Dloadtest.concurrency},
+ * {@code -Dloadtest.brownout.phaseSeconds} and {@code -Dloadtest.brownout.p99SlackMillis}. The
+ * report is written to {@code target/loadtest/redis-brownout-report.json}.
+ */
+@Tag("load")
+@SpringBootTest(
+		webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {
+				"server.forward-headers-strategy=native",
+				"spring.jpa.show-sql=false",
+				"spring.jpa.properties.hibernate.format_sql=false"
+		})
+class RedisBrownoutLoadTest {
+	private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 16);
+	private static final Duration PHASE = Duration.ofSeconds(Integer.getInteger("loadtest.brownout.phaseSeconds", 15));
+	private static final Duration P99_SLACK = Duration.ofMillis(Integer.getInteger("loadtest.brownout.p99SlackMillis", 500));
+	// Lettuce backs off between reconnect attempts, up to 30s
+	private static final Duration RECOVERY_TIMEOUT = Duration.ofSeconds(60);
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private RedisGuard redisGuard;
+
+	@DynamicPropertySource
+	static void standIns(DynamicPropertyRegistry registry) {
+		LocalStandIns.get().register(registry);
+	}
+
+	@Test
+	void authLatencyStaysBoundedWhileRedisIsDown() throws Exception {
+		LoadReport report = new LoadReport(Map.of(
+				"concurrency", CONCURRENCY,
+				"phaseSeconds", PHASE.toSeconds(),
+				"p99SlackMillis", P99_SLACK.toMillis()));
+		AuthClient client = new AuthClient("http://localhost:" + port);
+		RedisServer redis = LocalStandIns.get().redis();
+
+		LoadReport.Scenario healthy = report.scenario("healthy");
+		authTraffic(healthy, client);
+
+		LoadReport.Scenario down = report.scenario("redis-down");
+		redis.stop();
+		try {
+			authTraffic(down, client);
+			assertThat(redisGuard.state()).as("circuit while Redis is down").isNotEqualTo(RedisGuard.State.CLOSED);
+		} finally {
+			redis.start();
+		}
+
+		awaitClosedCircuit();
+		LoadReport.Scenario recovered = report.scenario("recovered");
+		authTraffic(recovered, client);
+
+		report.write(Path.of("target", "loadtest", "redis-brownout-report.json"));
+
+		for (int status : new int[]{-1, 500, 503}) {
+			assertThat(down.statusCount(status)).as("responses with status %d while Redis is down", status).isZero();
+		}
+		assertThat(down.p99Micros())
+				.as("p99 while Redis is down, healthy p99 was %dus", healthy.p99Micros())
+				.isLessThan(healthy.p99Micros() + P99_SLACK.toNanos() / 1000);
+		assertThat(recovered.requests()).isPositive();
+	}
+
+	/**
+	 * Failed logins for addresses that were never registered, plus password reset requests, each
+	 * from its own client address so the limits are exercised without locking the run out.
+	 */
+	private void authTraffic(LoadReport.Scenario scenario, AuthClient client) throws Exception {
+		LoadDriver.runFor(scenario, CONCURRENCY, PHASE, (worker, i) -> {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			String email = "brownout-" + random.nextLong(Long.MAX_VALUE) + "@loadtest.habitbeat.dev";
+			String ip = "10." + ((i >> 16) & 0xff) + "." + ((i >> 8) & 0xff) + "." + (i & 0xff);
+			if (i % 4 == 0) {
+				scenario.record("forgot", () -> client.forgotPassword(email, ip));
+			} else {
+				scenario.record("login", () -> client.login(email, "wrong-" + random.nextInt(), ip));
+			}
+		});
+	}
+
+	private void awaitClosedCircuit() throws InterruptedException {
+		long deadline = System.nanoTime() + RECOVERY_TIMEOUT.toNanos();
+		while (redisGuard.state() != RedisGuard.State.CLOSED) {
+			assertThat(System.nanoTime()).as("circuit closed after Redis restarted").isLessThan(deadline);
+			Thread.sleep(100);
+		}
+	}
+}
@@ -0,0 +1,218 @@
+package com.habitbeat.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.habitbeat.backend.auth.model.User;
+import com.habitbeat.backend.auth.repository.UserRepository;
+import com.habitbeat.backend.task.dto.BulkTaskResponse;
+import com.habitbeat.backend.task.dto.TaskOperation;
+import com.habitbeat.backend.task.dto.TaskOperationResult;
+import com.habitbeat.backend.task.dto.TaskResponse;
+import com.habitbeat.backend.task.model.TaskOperationStatus;
+import com.habitbeat.backend.task.model.TaskOperationType;
+import com.habitbeat.backend.task.service.TaskService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk task requests against embedded Postgres. The first phase checks per-item results when
+ * only part of a request applies. The second runs pairs of requests that update and delete the
+ * same two tasks in opposite roles at the same moment; before rows were locked up front in one id
+ * order, such a pair could deadlock and fail as a whole.
+ * <p>
+ * Run with {@code ./mvnw -Ploadtest test}; tune with {@code -Dloadtest.tasks.rounds}. The report is
+ * written to {@code target/loadtest/task-bulk-report.json}.
+ */
+@Tag("load")
+@SpringBootTest(
+		webEnvironment = SpringBootTest.WebEnvironment.NONE,
+		properties = {
+				"spring.jpa.show-sql=false",
+				"spring.jpa.properties.hibernate.format_sql=false"
+		})
+class TaskBulkStressTest {
+	private static final int ROUNDS = Integer.getInteger("loadtest.tasks.rounds", 200);
+
+	@Autowired
+	private TaskService taskService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private final String runId = Long.toString(System.nanoTime(), 36);
+	private final AtomicInteger userSequence = new AtomicInteger();
+
+	@DynamicPropertySource
+	static void standIns(DynamicPropertyRegistry registry) {
+		LocalStandIns.get().register(registry);
+	}
+
+	@Test
+	void partialSuccessReportsEachItemAndCrossedRequestsNeverDeadlock() throws Exception {
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("partialSuccess", partialSuccess());
+		report.put("crossedRequests", crossedRequests());
+
+		Path path = Path.of("target", "loadtest", "task-bulk-report.json");
+		Files.createDirectories(path.getParent());
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+	}
+
+	private Map<String, Object> partialSuccess() {
+		UUID userId = newUser().getId();
+		UUID otherUserId = newUser().getId();
+		List<TaskResponse> tasks = create(userId, 4);
+		TaskResponse foreign = create(otherUserId, 1).get(0);
+		TaskResponse edited = tasks.get(0);
+		TaskResponse stale = tasks.get(1);
+		TaskResponse removed = tasks.get(2);
+		TaskResponse staleDelete = tasks.get(3);
+
+		// Someone else already moved these two past the version the request expects
+		taskService.applyBulk(userId, List.of(
+				update(stale.getId(), stale.getVersion(), "moved on"),
+				update(staleDelete.getId(), staleDelete.getVersion(), "moved on")));
+
+		UUID missing = UUID.randomUUID();
+		BulkTaskResponse response = taskService.applyBulk(userId, List.of(
+				update(edited.getId(), edited.getVersion(), "edited"),
+				update(stale.getId(), stale.getVersion(), "lost"),
+				delete(missing, 0),
+				delete(removed.getId(), removed.getVersion()),
+				delete(staleDelete.getId(), staleDelete.getVersion()),
+				update(foreign.getId(), foreign.getVersion(), "not mine"),
+				update(edited.getId(), edited.getVersion(), "twice")));
+
+		List<TaskOperationResult> results = response.getResults();
+		assertThat(results).extracting(TaskOperationResult::getIndex).containsExactly(0, 1, 2, 3, 4, 5, 6);
+		assertThat(results).extracting(TaskOperationResult::getStatus).containsExactly(
+				TaskOperationStatus.APPLIED,
+				TaskOperationStatus.CONFLICT,
+				TaskOperationStatus.NOT_FOUND,
+				TaskOperationStatus.APPLIED,
+				TaskOperationStatus.CONFLICT,
+				TaskOperationStatus.NOT_FOUND,
+				TaskOperationStatus.INVALID);
+
+		assertThat(results.get(1).getReason()).isEqualTo("version_mismatch");
+		assertThat(results.get(1).getCurrent().getTitle()).isEqualTo("moved on");
+		assertThat(results.get(1).getCurrent().getVersion()).isEqualTo(stale.getVersion() + 1);
+		assertThat(results.get(4).getCurrent().getId()).isEqualTo(staleDelete.getId());
+		// Another user's task is indistinguishable from a missing one
+		assertThat(results.get(5).getCurrent()).isNull();
+		assertThat(results.get(6).getReason()).isEqualTo("duplicate_task");
+
+		assertThat(response.getChanged()).extracting(TaskResponse::getId).containsExactly(edited.getId());
+		assertThat(response.getDeleted()).containsExactly(removed.getId());
+
+		Map<UUID, TaskResponse> stored = new LinkedHashMap<>();
+		taskService.listTasks(userId).forEach(task -> stored.put(task.getId(), task));
+		assertThat(stored).doesNotContainKey(removed.getId()).containsKey(staleDelete.getId());
+		assertThat(stored.get(edited.getId()).getTitle()).isEqualTo("edited");
+		assertThat(stored.get(stale.getId()).getTitle()).isEqualTo("moved on");
+		assertThat(taskService.listTasks(otherUserId)).extracting(TaskResponse::getTitle).containsExactly("task-0");
+
+		Map<String, Object> json = new LinkedHashMap<>();
+		json.put("operations", results.size());
+		json.put("applied", results.stream().filter(r -> r.getStatus() == TaskOperationStatus.APPLIED).count());
+		return json;
+	}
+
+	private Map<String, Object> crossedRequests() throws Exception {
+		UUID userId = newUser().getId();
+		List<List<TaskResponse>> pairs = new ArrayList<>();
+		for (int round = 0; round < ROUNDS; round++) {
+			pairs.add(create(userId, 2));
+		}
+
+		CyclicBarrier barrier = new CyclicBarrier(2);
+		Map<TaskOperationStatus, LongAdder> outcomes = new ConcurrentHashMap<>();
+		LoadReport.Scenario timing = new LoadReport(Map.of()).scenario("crossed");
+		long started = System.nanoTime();
+		LoadDriver.runTimes(timing, 2, ROUNDS * 2, (worker, iteration) -> {
+			List<TaskResponse> pair = pairs.get((int) iteration / 2);
+			// One request updates the first task and deletes the second, the other does the reverse
+			TaskResponse updated = pair.get(worker);
+			TaskResponse deleted = pair.get(1 - worker);
+			barrier.await(10, TimeUnit.SECONDS);
+			BulkTaskResponse response = taskService.applyBulk(userId, List.of(
+					update(updated.getId(), updated.getVersion(), "worker-" + worker),
+					delete(deleted.getId(), deleted.getVersion())));
+			for (TaskOperationResult result : response.getResults()) {
+				outcomes.computeIfAbsent(result.getStatus(), k -> new LongAdder()).increment();
+			}
+		});
+		double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+		// The request that commits second finds one task deleted and the other at a newer version
+		assertThat(outcomes.keySet()).as("crossed request outcomes").isSubsetOf(
+				TaskOperationStatus.APPLIED, TaskOperationStatus.CONFLICT, TaskOperationStatus.NOT_FOUND);
+		long applied = outcomes.getOrDefault(TaskOperationStatus.APPLIED, new LongAdder()).sum();
+		assertThat(applied).as("operations applied").isGreaterThanOrEqualTo(ROUNDS * 2L);
+
+		Map<String, Object> json = new LinkedHashMap<>();
+		json.put("rounds", ROUNDS);
+		json.put("requestsPerSecond", ROUNDS * 2 / seconds);
+		Map<String, Long> outcomeCounts = new LinkedHashMap<>();
+		outcomes.forEach((status, count) -> outcomeCounts.put(status.name(), count.sum()));
+		json.put("outcomes", outcomeCounts);
+		return json;
+	}
+
+	private List<TaskResponse> create(UUID userId, int count) {
+		List<TaskOperation> operations = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			TaskOperation operation = new TaskOperation();
+			operation.setOp(TaskOperationType.CREATE);
+			operation.setTitle("task-" + i);
+			operation.setPosition(i);
+			operations.add(operation);
+		}
+		return taskService.applyBulk(userId, operations).getChanged();
+	}
+
+	private static TaskOperation update(UUID taskId, long expectedVersion, String title) {
+		TaskOperation operation = new TaskOperation();
+		operation.setOp(TaskOperationType.UPDATE);
+		operation.setTaskId(taskId);
+		operation.setExpectedVersion(expectedVersion);
+		operation.setTitle(title);
+		return operation;
+	}
+
+	private static TaskOperation delete(UUID taskId, long expectedVersion) {
+		TaskOperation operation = new TaskOperation();
+		operation.setOp(TaskOperationType.DELETE);
+		operation.setTaskId(taskId);
+		operation.setExpectedVersion(expectedVersion);
+		return operation;
+	}
+
+	private User newUser() {
+		User user = new User();
+		user.setEmail("tasks-" + runId + "-" + userSequence.incrementAndGet() + "@loadtest.local");
+		user.setEmailVerifiedAt(LocalDateTime.now());
+		user.setProfileSetupDone(true);
+		return userRepository.save(user);
+	}
+}
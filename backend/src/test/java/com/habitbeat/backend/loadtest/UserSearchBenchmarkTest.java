@@ -0,0 +1,224 @@
+package com.habitbeat.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.habitbeat.backend.user.dto.UserSearchResult;
+import com.habitbeat.backend.user.service.UserSearchIndex;
+import com.habitbeat.backend.user.service.UserSearchService;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Loads synthetic profiles into embedded Postgres (1M by default, names drawn deterministically
+ * from small first and last name pools so prefixes have realistic fan-out), rebuilds the search
+ * index and times typeahead through {@link UserSearchService}: the index lookup alone, a full
+ * prefix page including the visibility re-check, and the trigram fallback. Queries come from a
+ * fixed seed so runs are comparable. It also checks that a profile change announced by another
+ * node reaches this node's overlay.
+ * <p>
+ * Run with {@code ./mvnw -Ploadtest test -Dtest=UserSearchBenchmarkTest}; tune with
+ * {@code -Dloadtest.search.users} and {@code -Dloadtest.search.seed}. The report is written to
+ * {@code target/loadtest/user-search-report.json}.
+ */
+@Tag("load")
+@SpringBootTest(
+		webEnvironment = SpringBootTest.WebEnvironment.NONE,
+		properties = {
+				"spring.jpa.show-sql=false",
+				"spring.jpa.properties.hibernate.format_sql=false"
+		})
+class UserSearchBenchmarkTest {
+	private static final int USERS = Integer.getInteger("loadtest.search.users", 1_000_000);
+	private static final long SEED = Long.getLong("loadtest.search.seed", 42L);
+	private static final int WARMUP = 200;
+	private static final int ITERATIONS = 2_000;
+	private static final long TARGET_P99_MICROS = 10_000;
+
+	private static final String[] FIRST_NAMES = {"alex", "amara", "ben", "carla", "chen", "dana", "diego", "elena",
+			"emeka", "farah", "felix", "grace", "hana", "ivan", "jonas", "kai", "lena", "liam", "maya", "mateo",
+			"nadia", "noah", "olga", "omar", "priya", "quinn", "rosa", "sam", "sofia", "tariq", "uma", "victor",
+			"wei", "xena", "yara", "yusuf", "zoe", "ana", "bruno", "chloe"};
+	private static final String[] LAST_NAMES = {"adams", "baker", "castro", "diaz", "evans", "fischer", "garcia",
+			"hansen", "ivanova", "jensen", "kim", "lopez", "muller", "nakamura", "okafor", "patel", "quispe", "rossi",
+			"schmidt", "tanaka", "ueda", "varga", "wagner", "xu", "yilmaz", "zhang", "berg", "costa", "dubois",
+			"eriksen", "fontaine", "gomez", "horvat", "ito", "jovanovic", "kowalski", "larsen", "moreau", "novak", "silva"};
+
+	private static final String USERS_SQL = "INSERT INTO users (id, email, email_verified_at, profile_setup_done, " +
+			"created_at, updated_at) " +
+			"SELECT ('00000000-0000-4000-a000-' || lpad(to_hex(g), 12, '0'))::uuid, " +
+			"'search-' || g || '@loadtest.habitbeat.dev', now(), TRUE, now(), now() " +
+			"FROM generate_series(?::bigint, ?::bigint) g ON CONFLICT DO NOTHING";
+
+	// Every 50th profile opted out, every 7th has a display name of its own
+	private static final String PROFILES_SQL = "INSERT INTO user_profiles (user_id, first_name, last_name, " +
+			"display_name, discoverable, updated_at) " +
+			"SELECT ('00000000-0000-4000-a000-' || lpad(to_hex(g), 12, '0'))::uuid, " +
+			"(?::text[])[(1 + g * 7919 % ?)::int], (?::text[])[(1 + g * 104729 % ?)::int], " +
+			"CASE WHEN g % 7 = 0 THEN (?::text[])[(1 + g % ?)::int] || to_hex(g) END, " +
+			"g % 50 <> 0, now() " +
+			"FROM generate_series(?::bigint, ?::bigint) g ON CONFLICT DO NOTHING";
+
+	private static final int CHUNK_USERS = 100_000;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private UserSearchIndex userSearchIndex;
+
+	@Autowired
+	private UserSearchService userSearchService;
+
+	@Autowired
+	private RedisTemplate<String, String> redisTemplate;
+
+	@DynamicPropertySource
+	static void standIns(DynamicPropertyRegistry registry) {
+		LocalStandIns.get().register(registry);
+	}
+
+	@Test
+	void typeaheadStaysUnderTenMillisecondsAtFullSize() throws Exception {
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("users", USERS);
+		report.put("seed", SEED);
+		report.put("loadSeconds", load());
+
+		long began = System.nanoTime();
+		userSearchIndex.rebuild();
+		report.put("indexBuildMillis", (System.nanoTime() - began) / 1_000_000);
+
+		UUID viewer = userId(1);
+		Random random = new Random(SEED);
+		Map<String, Object> latencies = new LinkedHashMap<>();
+		latencies.put("indexLookup", time(() -> typeahead(random), query -> userSearchIndex.search(query, 12)));
+		Map<String, Object> prefixPage = time(() -> typeahead(random),
+				query -> userSearchService.search(viewer, query, 10, null, false));
+		latencies.put("prefixPage", prefixPage);
+		latencies.put("fuzzyPage", time(() -> typo(random), query -> userSearchService.search(viewer, query, 10, null, true)));
+		report.put("latencyMicros", latencies);
+
+		// Exact and prefix hits for a known profile, and opted-out profiles never come back
+		UUID known = userId(7);
+		String knownLast = jdbcTemplate.queryForObject("SELECT last_name FROM user_profiles WHERE user_id = ?",
+				String.class, known);
+		String knownDisplay = jdbcTemplate.queryForObject("SELECT display_name FROM user_profiles WHERE user_id = ?",
+				String.class, known);
+		assertThat(userSearchIndex.search(knownDisplay + " " + knownLast.substring(0, 3), 10))
+				.extracting(UserSearchIndex.Match::userId)
+				.contains(known);
+		UUID optedOut = userId(50);
+		String optedOutDisplay = jdbcTemplate.queryForObject("SELECT first_name || ' ' || last_name FROM user_profiles " +
+				"WHERE user_id = ?", String.class, optedOut);
+		assertThat(userSearchService.search(viewer, optedOutDisplay, 50, null, false).getResults())
+				.extracting(UserSearchResult::getUserId)
+				.doesNotContain(optedOut);
+
+		report.put("remoteUpdateMillis", remoteUpdate());
+
+		Path path = Path.of("target", "loadtest", "user-search-report.json");
+		Files.createDirectories(path.getParent());
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+
+		assertThat((Long) prefixPage.get("p99")).as("p99 of a typeahead page, in microseconds")
+				.isLessThan(TARGET_P99_MICROS);
+	}
+
+	private double load() {
+		long began = System.nanoTime();
+		for (long from = 1; from <= USERS; from += CHUNK_USERS) {
+			long to = Math.min(USERS, from + CHUNK_USERS - 1);
+			jdbcTemplate.update(USERS_SQL, from, to);
+			jdbcTemplate.update(PROFILES_SQL, FIRST_NAMES, FIRST_NAMES.length, LAST_NAMES, LAST_NAMES.length,
+					FIRST_NAMES, FIRST_NAMES.length, from, to);
+		}
+		jdbcTemplate.execute("ANALYZE users");
+		jdbcTemplate.execute("ANALYZE user_profiles");
+		return (System.nanoTime() - began) / 1_000_000_000.0;
+	}
+
+	/**
+	 * Renames a profile behind this node's back and announces it as another node would.
+	 */
+	private long remoteUpdate() throws InterruptedException {
+		UUID renamed = userId(3);
+		jdbcTemplate.update("UPDATE user_profiles SET display_name = 'quokkabench' WHERE user_id = ?", renamed);
+		long began = System.nanoTime();
+		redisTemplate.convertAndSend(UserSearchIndex.CHANNEL, "benchmark-node|" + renamed);
+		long deadline = began + TimeUnit.SECONDS.toNanos(5);
+		while (System.nanoTime() < deadline) {
+			if (userSearchIndex.search("quokkab", 5).stream().anyMatch(match -> match.userId().equals(renamed))) {
+				return (System.nanoTime() - began) / 1_000_000;
+			}
+			Thread.sleep(10);
+		}
+		throw new AssertionError("Remote profile update did not reach the search index");
+	}
+
+	@FunctionalInterface
+	private interface Query {
+		Object run(String query);
+	}
+
+	private Map<String, Object> time(Supplier<String> queries, Query query) {
+		Histogram histogram = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+		for (int i = 0; i < WARMUP + ITERATIONS; i++) {
+			String q = queries.get();
+			long began = System.nanoTime();
+			query.run(q);
+			if (i >= WARMUP) {
+				histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - began),
+						histogram.getHighestTrackableValue()));
+			}
+		}
+		Map<String, Object> json = new LinkedHashMap<>();
+		json.put("p50", histogram.getValueAtPercentile(50));
+		json.put("p99", histogram.getValueAtPercentile(99));
+		json.put("max", histogram.getMaxValue());
+		return json;
+	}
+
+	/**
+	 * A partly typed first name, sometimes followed by the start of a last name.
+	 */
+	private static String typeahead(Random random) {
+		String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+		String typed = first.substring(0, 1 + random.nextInt(first.length()));
+		if (random.nextBoolean()) {
+			return typed;
+		}
+		String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+		return first + " " + last.substring(0, 1 + random.nextInt(last.length()));
+	}
+
+	/**
+	 * A full name with the last letter mistyped, so the prefix index has nothing and trigrams must match.
+	 */
+	private static String typo(Random random) {
+		String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+		String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+		return first + " " + last.substring(0, last.length() - 1) + "q";
+	}
+
+	private static UUID userId(long index) {
+		return UUID.fromString("00000000-0000-4000-a000-%012x".formatted(index));
+	}
+}
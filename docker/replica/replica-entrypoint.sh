@@ -0,0 +1,14 @@
+#!/bin/bash
+# Clones the primary on first start and then runs as a hot standby (-R writes standby.signal and
+# primary_conninfo).
+set -e
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+    until pg_basebackup -h postgres -U replicator -D "$PGDATA" -R -X stream; do
+        echo "Waiting for primary..."
+        sleep 2
+    done
+    chmod 0700 "$PGDATA"
+fi
+
+exec postgres -c hot_standby=on